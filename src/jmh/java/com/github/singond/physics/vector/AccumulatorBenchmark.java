@@ -0,0 +1,71 @@
+package com.github.singond.physics.vector;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares ways of adding vectors to shared sums from all available
+ * threads: a single sum ({@code shared*}) and a scatter-add
+ * to randomly chosen elements out of {@code bodies} ({@code scatter*}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class AccumulatorBenchmark {
+
+	@Param({"16", "10000"})
+	public int bodies;
+
+	public AtomicReference<Vector3D> reference;
+	public Vector3DAccumulator accumulator;
+	public AtomicReference<Vector3D>[] references;
+	public ConcurrentVector3DArray array;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		reference = new AtomicReference<>(Vector3D.valueOf(0, 0, 0));
+		accumulator = new Vector3DAccumulator();
+		references = new AtomicReference[bodies];
+		for (int i = 0; i < bodies; i++) {
+			references[i] = new AtomicReference<>(Vector3D.valueOf(0, 0, 0));
+		}
+		array = ConcurrentVector3DArray.ofSize(bodies);
+	}
+
+	@Benchmark
+	public void sharedAtomicReference() {
+		Vector3D force = Vector3D.valueOf(1e-3, 2e-3, -1e-3);
+		reference.accumulateAndGet(force, Vector3D::plus);
+	}
+
+	@Benchmark
+	public void sharedAccumulator() {
+		accumulator.add(1e-3, 2e-3, -1e-3);
+	}
+
+	@Benchmark
+	public void scatterAtomicReference() {
+		int i = ThreadLocalRandom.current().nextInt(bodies);
+		Vector3D force = Vector3D.valueOf(1e-3, 2e-3, -1e-3);
+		references[i].accumulateAndGet(force, Vector3D::plus);
+	}
+
+	@Benchmark
+	public void scatterConcurrentArray() {
+		int i = ThreadLocalRandom.current().nextInt(bodies);
+		array.add(i, 1e-3, 2e-3, -1e-3);
+	}
+}
@@ -0,0 +1,74 @@
+package com.github.singond.physics.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+	@Param({"1000", "100000"})
+	public int n;
+
+	@Param({"exact", "singlePrecision", "singlePrecisionDelta"})
+	public String encoding;
+
+	public Vector3DArray array;
+	public VectorCodec codec;
+	public ByteBuffer buffer;
+	public double[] copy;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(n);
+		array = Vector3DArray.ofSize(n);
+		for (int i = 0; i < n; i++) {
+			array.set(i, random.nextGaussian(), random.nextGaussian(),
+					random.nextGaussian());
+		}
+		switch (encoding) {
+			case "exact": codec = VectorCodec.exact(); break;
+			case "singlePrecision": codec = VectorCodec.singlePrecision(); break;
+			default: codec = VectorCodec.singlePrecisionDelta();
+		}
+		buffer = ByteBuffer.allocateDirect((int) codec.encodedArraySize(n))
+				.order(ByteOrder.nativeOrder());
+		copy = new double[3 * n];
+	}
+
+	@Benchmark
+	public ByteBuffer encode() {
+		buffer.clear();
+		codec.encode(array, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public Vector3DArray encodeDecode() {
+		buffer.clear();
+		codec.encode(array, buffer);
+		buffer.flip();
+		return codec.decodeArray(buffer);
+	}
+
+	/** The cost of copying the raw data, for comparison. */
+	@Benchmark
+	public double[] arraycopy() {
+		System.arraycopy(array.x, 0, copy, 0, n);
+		System.arraycopy(array.y, 0, copy, n, n);
+		System.arraycopy(array.z, 0, copy, 2 * n, n);
+		return copy;
+	}
+}
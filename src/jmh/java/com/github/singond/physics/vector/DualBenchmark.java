@@ -0,0 +1,69 @@
+package com.github.singond.physics.vector;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the cost of the gradient of the harmonic oscillator of
+ * {@code ImplementationComparison} with respect to the stiffness
+ * and mass, computed by central finite differences in {@code Vector3D}
+ * arithmetic and by a single pass with {@link DualVector3D}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DualBenchmark {
+
+	private static final double FREE_LENGTH = 0.5;
+	private static final double STEP = 1e-4;
+	private static final int STEPS = 1000;
+
+	public double stiffness = 40;
+	public double mass = 0.8;
+
+	private static Vector3D run(double stiffness, double mass) {
+		Vector3D support = Vector3D.valueOf(0, 0, 0);
+		Vector3D position = Vector3D.valueOf(0, -0.7, 0);
+		Vector3D velocity = Vector3D.valueOf(0, 0, 0);
+		for (int i = 0; i < STEPS; i++) {
+			Vector3D spring = position.minus(support);
+			double strain = (spring.magnitude() - FREE_LENGTH) / FREE_LENGTH;
+			Vector3D force = spring.normalized().negative().times(stiffness * strain);
+			velocity = velocity.plus(force.times(1 / mass).times(STEP));
+			position = position.plus(velocity.times(STEP));
+		}
+		return position;
+	}
+
+	@Benchmark
+	public Vector3D[] finiteDifferences() {
+		double hk = 1e-5 * stiffness, hm = 1e-5 * mass;
+		return new Vector3D[] {
+				run(stiffness + hk, mass).minus(run(stiffness - hk, mass)).times(1 / (2 * hk)),
+				run(stiffness, mass + hm).minus(run(stiffness, mass - hm)).times(1 / (2 * hm))
+		};
+	}
+
+	@Benchmark
+	public DualVector3D dual() {
+		Dual k = Dual.variable(stiffness, 2, 0);
+		Dual inverseMass = Dual.constant(1, 2).dividedBy(Dual.variable(mass, 2, 1));
+		Vector3D support = Vector3D.valueOf(0, 0, 0);
+		DualVector3D position = DualVector3D.constant(Vector3D.valueOf(0, -0.7, 0), 2);
+		DualVector3D velocity = DualVector3D.constant(Vector3D.valueOf(0, 0, 0), 2);
+		for (int i = 0; i < STEPS; i++) {
+			DualVector3D spring = position.minus(support);
+			Dual strain = spring.magnitude().minus(FREE_LENGTH).dividedBy(FREE_LENGTH);
+			DualVector3D force = spring.normalized().negative().times(k.times(strain));
+			velocity = velocity.plus(force.times(inverseMass).times(STEP));
+			position = position.plus(velocity.times(STEP));
+		}
+		return position;
+	}
+}
@@ -0,0 +1,56 @@
+package com.github.singond.physics.vector;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the cost of a step of the harmonic oscillator of
+ * {@code ImplementationComparison} in {@code Vector3D} arithmetic
+ * and in interval arithmetic with {@link IntervalVector3D}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class IntervalBenchmark {
+
+	private static final double FREE_LENGTH = 0.5;
+	private static final double STIFFNESS = 40;
+	private static final double MASS = 0.8;
+	private static final double STEP = 1e-6;
+
+	public Vector3D support = Vector3D.valueOf(0, 0, 0);
+	public Vector3D position = Vector3D.valueOf(0, -0.7, 0);
+	public Vector3D velocity = Vector3D.valueOf(0, 0, 0);
+	public IntervalVector3D iPosition = IntervalVector3D.of(position);
+	public IntervalVector3D iVelocity = IntervalVector3D.of(velocity);
+
+	@Benchmark
+	public Vector3D vector3D() {
+		Vector3D spring = position.minus(support);
+		double elongation = spring.magnitude() - FREE_LENGTH;
+		double strain = elongation / FREE_LENGTH;
+		double forceScalar = STIFFNESS * strain;
+		Vector3D force = spring.normalized().negative().times(forceScalar);
+		velocity = velocity.plus(force.times(1 / MASS).times(STEP));
+		position = position.plus(velocity.times(STEP));
+		return position;
+	}
+
+	@Benchmark
+	public IntervalVector3D interval() {
+		IntervalVector3D spring = iPosition.minus(support);
+		Interval elongation = spring.magnitude().minus(FREE_LENGTH);
+		Interval strain = elongation.dividedBy(FREE_LENGTH);
+		Interval forceScalar = strain.times(STIFFNESS);
+		IntervalVector3D force = spring.normalized().negative().times(forceScalar);
+		iVelocity = iVelocity.plus(force.times(1 / MASS).times(STEP));
+		iPosition = iPosition.plus(iVelocity.times(STEP));
+		return iPosition;
+	}
+}
@@ -0,0 +1,72 @@
+package com.github.singond.physics.vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NBodyBenchmark {
+
+	/** A random cluster of bodies. */
+	public abstract static class Bodies {
+		public double[] x, y, z, mass;
+		public double[] ax, ay, az;
+		public NBodySolver solver = NBodySolver.withConstant(1).withSoftening(1e-3);
+
+		void init(int n) {
+			Random random = new Random(n);
+			x = new double[n]; y = new double[n]; z = new double[n];
+			mass = new double[n];
+			ax = new double[n]; ay = new double[n]; az = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = random.nextGaussian();
+				y[i] = random.nextGaussian();
+				z[i] = random.nextGaussian();
+				mass[i] = random.nextDouble();
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SmallBodies extends Bodies {
+		@Param({"1000", "10000", "100000"})
+		public int n;
+
+		@Setup
+		public void setup() {
+			init(n);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class LargeBodies extends Bodies {
+		@Param({"1000", "10000", "100000", "1000000"})
+		public int n;
+
+		@Setup
+		public void setup() {
+			init(n);
+		}
+	}
+
+	@Benchmark
+	public double[] direct(SmallBodies b) {
+		b.solver.direct(b.x, b.y, b.z, b.mass, b.ax, b.ay, b.az);
+		return b.ax;
+	}
+
+	@Benchmark
+	public double[] barnesHut(LargeBodies b) {
+		b.solver.barnesHut(b.x, b.y, b.z, b.mass, b.ax, b.ay, b.az);
+		return b.ax;
+	}
+}
@@ -0,0 +1,69 @@
+package com.github.singond.physics.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares orthonormalizing a set of high-dimensional vectors by
+ * {@link Orthonormalizer} with the modified Gram-Schmidt process
+ * written with {@code minus} and {@code times} on {@code ArrayVector}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class OrthonormalizerBenchmark {
+
+	@Param({"200"})
+	public int count;
+
+	@Param({"1000"})
+	public int dimension;
+
+	public List<ArrayVector> vectors;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(count);
+		vectors = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			double[] v = new double[dimension];
+			for (int j = 0; j < dimension; j++) {
+				v[j] = random.nextGaussian();
+			}
+			vectors.add(ArrayVector.valueOf(v));
+		}
+	}
+
+	@Benchmark
+	public List<ArrayVector> vectorArithmetic() {
+		List<ArrayVector> basis = new ArrayList<>(count);
+		for (ArrayVector v : vectors) {
+			for (ArrayVector q : basis) {
+				v = v.minus(q.times(q.dotProduct(v)));
+			}
+			basis.add(v.times(1 / v.magnitude()));
+		}
+		return basis;
+	}
+
+	@Benchmark
+	public Orthonormalizer gramSchmidt() {
+		return Orthonormalizer.gramSchmidt(vectors);
+	}
+
+	@Benchmark
+	public Orthonormalizer householder() {
+		return Orthonormalizer.householder(vectors);
+	}
+}
@@ -0,0 +1,98 @@
+package com.github.singond.physics.vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares intersecting many rays with a sphere and a box by
+ * {@link RayBatch}, by the primitives one ray at a time, and by
+ * arithmetic on {@code Vector3D} objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RayBenchmark {
+
+	@Param({"1000000"})
+	public int n;
+
+	public Vector3DArray origins;
+	public Vector3DArray directions;
+	public RayBatch batch;
+	public Ray3D[] rays;
+	public Sphere sphere;
+	public AABB box;
+	public double[] t;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(n);
+		origins = Vector3DArray.ofSize(n);
+		directions = Vector3DArray.ofSize(n);
+		rays = new Ray3D[n];
+		for (int i = 0; i < n; i++) {
+			origins.set(i, 4 * random.nextDouble() - 2,
+					4 * random.nextDouble() - 2, -5);
+			directions.set(i, random.nextGaussian() * 0.1,
+					random.nextGaussian() * 0.1, 1);
+			rays[i] = Ray3D.of(origins.get(i), directions.get(i));
+		}
+		batch = RayBatch.of(origins, directions);
+		sphere = Sphere.of(Vector3D.valueOf(0, 0, 0), 1);
+		box = AABB.of(Vector3D.valueOf(-1, -1, -1), Vector3D.valueOf(1, 1, 1));
+		t = new double[n];
+	}
+
+	@Benchmark
+	public int sphereBatch() {
+		return batch.intersect(sphere, t);
+	}
+
+	@Benchmark
+	public double[] sphereSingle() {
+		for (int i = 0; i < n; i++) {
+			t[i] = sphere.intersect(rays[i]);
+		}
+		return t;
+	}
+
+	@Benchmark
+	public double[] sphereVector3D() {
+		Vector3D center = sphere.center();
+		double r2 = sphere.radius() * sphere.radius();
+		for (int i = 0; i < n; i++) {
+			Vector3D o = origins.get(i);
+			Vector3D d = directions.get(i);
+			Vector3D l = o.minus(center);
+			double a = d.dotProduct(d);
+			double b = l.dotProduct(d);
+			double s = Math.sqrt(b * b - a * (l.dotProduct(l) - r2));
+			double t0 = (-b - s) / a;
+			double t1 = (-b + s) / a;
+			t[i] = t0 >= 0 ? t0 : t1 >= 0 ? t1 : Double.NaN;
+		}
+		return t;
+	}
+
+	@Benchmark
+	public int boxBatch() {
+		return batch.intersect(box, t);
+	}
+
+	@Benchmark
+	public double[] boxSingle() {
+		for (int i = 0; i < n; i++) {
+			t[i] = box.intersect(rays[i]);
+		}
+		return t;
+	}
+}
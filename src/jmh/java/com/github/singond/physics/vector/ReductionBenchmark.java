@@ -0,0 +1,72 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the overhead of the reproducible sums of
+ * {@link VectorReductions} against a sequential loop and against
+ * the nondeterministic parallel sum of {@code DoubleStream}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ReductionBenchmark {
+
+	@Param({"10000", "10000000"})
+	public int n;
+
+	public double[] values;
+	public Vector3DArray vectors;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(n);
+		values = new double[n];
+		vectors = Vector3DArray.ofSize(n);
+		for (int i = 0; i < n; i++) {
+			values[i] = random.nextGaussian();
+			vectors.set(i, random.nextGaussian(),
+					random.nextGaussian(), random.nextGaussian());
+		}
+	}
+
+	@Benchmark
+	public double sequentialLoop() {
+		double sum = 0;
+		for (double v : values) {
+			sum += v;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double parallelStream() {
+		return Arrays.stream(values).parallel().sum();
+	}
+
+	@Benchmark
+	public double reproducible() {
+		return VectorReductions.sum(values);
+	}
+
+	@Benchmark
+	public Vector3D vectorsParallelStream() {
+		return vectors.parallelStream().reduce(Vector3D.valueOf(0, 0, 0), Vector3D::plus);
+	}
+
+	@Benchmark
+	public Vector3D vectorsReproducible() {
+		return VectorReductions.sum(vectors);
+	}
+}
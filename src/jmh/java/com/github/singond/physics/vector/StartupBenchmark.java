@@ -0,0 +1,33 @@
+package com.github.singond.physics.vector;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time of the first run of {@link StartupWorkload}
+ * in a fresh virtual machine, which is dominated by loading, linking
+ * and initializing the library classes.
+ * <p>
+ * To measure the effect of a class-data-sharing archive created by
+ * the {@code startupArchive} task, run the benchmark jar with
+ * {@code -jvmArgsAppend -XX:SharedArchiveFile=build/cds/startup.jsa}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+	@Benchmark
+	public double firstRun() {
+		return StartupWorkload.run();
+	}
+}
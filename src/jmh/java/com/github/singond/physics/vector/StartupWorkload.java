@@ -0,0 +1,64 @@
+package com.github.singond.physics.vector;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A short workload touching the commonly used parts of the library,
+ * as a short-lived job would on its first use.
+ * <p>
+ * It is measured by {@link StartupBenchmark} and run as a program
+ * to record the classes for a class-data-sharing archive.
+ */
+public class StartupWorkload {
+
+	/**
+	 * Runs the workload.
+	 *
+	 * @return a result of the computation
+	 */
+	public static double run() {
+		Vector3D a = Vector3D.valueOf(1, 2, 3);
+		Vector3D b = Vector3D.valueOf(-2, 0.5, 1);
+		Vector c = a.crossProduct(b).plus(ArrayVector.valueOf(1, 1, 1));
+		double result = c.magnitude() + a.angleWith(b);
+
+		int n = 64;
+		Vector3DArray positions = Vector3DArray.ofSize(n);
+		double[] masses = new double[n];
+		for (int i = 0; i < n; i++) {
+			positions.set(i, Math.cos(i), Math.sin(i), 0.01 * i);
+			masses[i] = 1;
+		}
+		SystemState state = SystemState.ofSize(n, 3);
+		state.setPositions(positions.stream()
+				.flatMapToDouble(v -> v.components().stream()
+						.mapToDouble(Double::doubleValue))
+				.toArray());
+		Integrator.velocityVerlet(NBodySolver.withConstant(1)
+				.withSoftening(0.01)
+				.forceFunction(masses))
+				.integrate(state, 0.001, 10);
+		result += state.position(0).magnitude();
+
+		Vector3DList list = new Vector3DList(positions.size());
+		positions.forEach(list::add);
+		list.scale(2);
+		result += list.sum().magnitude();
+
+		VectorCodec codec = VectorCodec.singlePrecision();
+		ByteBuffer buffer = ByteBuffer.allocate((int) codec.encodedArraySize(n));
+		codec.encode(positions, buffer);
+		buffer.flip();
+		result += codec.decodeArray(buffer).get(n - 1).magnitude();
+		return result;
+	}
+
+	/**
+	 * Runs the workload once.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) {
+		System.out.println(run());
+	}
+}
@@ -0,0 +1,254 @@
+package com.github.singond.physics.vector;
+
+/**
+ * An axis-aligned box in three dimensions, given by its corners
+ * with the minimum and the maximum components.
+ * <p>
+ * Unlike {@link BoundingBox}, which collects the extent of vectors
+ * of any dimension, this class is a geometric primitive for
+ * three-dimensional queries: intersection with rays, overlap
+ * and distance. The methods taking components of points instead of
+ * vectors, and those writing the result into an array, do not allocate
+ * any objects. Boxes can be converted by {@link #of(BoundingBox)}
+ * and {@link #toBoundingBox()}.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class AABB {
+
+	final double minX, minY, minZ;
+	final double maxX, maxY, maxZ;
+
+	private AABB(double minX, double minY, double minZ,
+			double maxX, double maxY, double maxZ) {
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+	}
+
+	/**
+	 * Returns the box with the given corners.
+	 *
+	 * @param min the corner with the minimum components
+	 * @param max the corner with the maximum components
+	 * @return a box extending from {@code min} to {@code max}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code min} or {@code max} is not 3
+	 * @throws IllegalArgumentException if a component of {@code min}
+	 *         is greater than that of {@code max}, or is not a number
+	 */
+	public static AABB of(Vector min, Vector max) {
+		Geometry.checkDimension(min);
+		Geometry.checkDimension(max);
+		return of(min.get(0), min.get(1), min.get(2),
+				max.get(0), max.get(1), max.get(2));
+	}
+
+	/**
+	 * Returns the box with the given components of the corners.
+	 *
+	 * @param minX the minimum x-component
+	 * @param minY the minimum y-component
+	 * @param minZ the minimum z-component
+	 * @param maxX the maximum x-component
+	 * @param maxY the maximum y-component
+	 * @param maxZ the maximum z-component
+	 * @return a box extending from the minimum to the maximum corner
+	 * @throws IllegalArgumentException if a minimum component is greater
+	 *         than the maximum, or is not a number
+	 */
+	public static AABB of(double minX, double minY, double minZ,
+			double maxX, double maxY, double maxZ) {
+		if (!(minX <= maxX && minY <= maxY && minZ <= maxZ)) {
+			throw new IllegalArgumentException("Invalid box corners: ("
+					+ minX + ", " + minY + ", " + minZ + "), ("
+					+ maxX + ", " + maxY + ", " + maxZ + ")");
+		}
+		return new AABB(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	/**
+	 * Returns the box with the same corners as the given bounding box.
+	 *
+	 * @param box a bounding box of dimension 3
+	 * @return a box with the corners of {@code box}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code box} is not 3
+	 * @throws IllegalArgumentException if {@code box} is empty
+	 */
+	public static AABB of(BoundingBox box) {
+		if (box.dimension() != 3) {
+			throw new IllegalVectorDimensionException(
+					"Invalid dimension of bounding box: " + box.dimension());
+		}
+		return of(box.min(0), box.min(1), box.min(2),
+				box.max(0), box.max(1), box.max(2));
+	}
+
+	/**
+	 * Returns the corner of this box with the minimum components.
+	 *
+	 * @return the minimum corner
+	 */
+	public Vector3D min() {
+		return Vector3D.valueOf(minX, minY, minZ);
+	}
+
+	/**
+	 * Returns the corner of this box with the maximum components.
+	 *
+	 * @return the maximum corner
+	 */
+	public Vector3D max() {
+		return Vector3D.valueOf(maxX, maxY, maxZ);
+	}
+
+	/**
+	 * Returns the center of this box.
+	 *
+	 * @return the midpoint of the corners
+	 */
+	public Vector3D center() {
+		return Vector3D.valueOf((minX + maxX) / 2, (minY + maxY) / 2,
+				(minZ + maxZ) / 2);
+	}
+
+	/**
+	 * Returns this box as a bounding box.
+	 *
+	 * @return a {@code BoundingBox} with the corners of this box
+	 */
+	public BoundingBox toBoundingBox() {
+		return BoundingBox.wrap(new double[] {minX, minY, minZ},
+				new double[] {maxX, maxY, maxZ});
+	}
+
+	/**
+	 * Indicates whether the given point lies in this box,
+	 * including its boundary.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return {@code true} if the point lies in this box
+	 */
+	public boolean contains(double x, double y, double z) {
+		return minX <= x && x <= maxX
+			&& minY <= y && y <= maxY
+			&& minZ <= z && z <= maxZ;
+	}
+
+	/**
+	 * Indicates whether the given point lies in this box,
+	 * including its boundary.
+	 *
+	 * @param point the point
+	 * @return {@code true} if {@code point} lies in this box
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public boolean contains(Vector point) {
+		Geometry.checkDimension(point);
+		return contains(point.get(0), point.get(1), point.get(2));
+	}
+
+	/**
+	 * Indicates whether this box overlaps the given box.
+	 * Boxes touching at the boundary overlap.
+	 *
+	 * @param other the other box
+	 * @return {@code true} if the boxes have a common point
+	 */
+	public boolean intersects(AABB other) {
+		return minX <= other.maxX && other.minX <= maxX
+			&& minY <= other.maxY && other.minY <= maxY
+			&& minZ <= other.maxZ && other.minZ <= maxZ;
+	}
+
+	/**
+	 * Writes the components of the point of this box closest
+	 * to the given point into the given array.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @param result the array to store the three components in
+	 */
+	public void closestPoint(double x, double y, double z, double[] result) {
+		result[0] = Math.min(Math.max(x, minX), maxX);
+		result[1] = Math.min(Math.max(y, minY), maxY);
+		result[2] = Math.min(Math.max(z, minZ), maxZ);
+	}
+
+	/**
+	 * Returns the square of the distance of the given point from this box.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return the square of the distance to the closest point of this box,
+	 *         or zero if the point lies in this box
+	 */
+	public double distanceSquared(double x, double y, double z) {
+		double ex = Math.max(Math.max(minX - x, x - maxX), 0);
+		double ey = Math.max(Math.max(minY - y, y - maxY), 0);
+		double ez = Math.max(Math.max(minZ - z, z - maxZ), 0);
+		return ex * ex + ey * ey + ez * ez;
+	}
+
+	/**
+	 * Returns the distance of the given point from this box.
+	 *
+	 * @param point the point
+	 * @return the distance to the closest point of this box,
+	 *         or zero if {@code point} lies in this box
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public double distance(Vector point) {
+		Geometry.checkDimension(point);
+		return Math.sqrt(distanceSquared(point.get(0), point.get(1), point.get(2)));
+	}
+
+	/**
+	 * Returns the parameter of the first intersection of the given ray
+	 * with this box.
+	 *
+	 * @param ray the ray
+	 * @return the parameter of the point where {@code ray} enters this box,
+	 *         zero if the ray starts inside this box, or {@code NaN}
+	 *         if the ray misses this box
+	 */
+	public double intersect(Ray3D ray) {
+		return Geometry.rayBox(ray.ox, ray.oy, ray.oz, ray.dx, ray.dy, ray.dz,
+				minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Vector3D.hashCode(minX, minY, minZ)
+				+ Vector3D.hashCode(maxX, maxY, maxZ);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof AABB)) return false;
+		AABB other = (AABB) obj;
+		return Geometry.equal(minX, other.minX) && Geometry.equal(minY, other.minY)
+			&& Geometry.equal(minZ, other.minZ) && Geometry.equal(maxX, other.maxX)
+			&& Geometry.equal(maxY, other.maxY) && Geometry.equal(maxZ, other.maxZ);
+	}
+
+	@Override
+	public String toString() {
+		return "AABB[(" + minX + ", " + minY + ", " + minZ + ") - ("
+				+ maxX + ", " + maxY + ", " + maxZ + ")]";
+	}
+}
@@ -36,11 +36,7 @@ public abstract class AbstractVector<T extends Vector> implements Vector {
 
 	@Override
 	public double magnitude() {
-		double square = 0;
-		for (int i = 0; i < dimension(); i++) {
-			square += Math.pow(get(i), 2);
-		}
-		return Math.sqrt(square);
+		return Math.sqrt(magnitudeSquared());
 	}
 
 	@Override
@@ -0,0 +1,540 @@
+package com.github.singond.physics.vector;
+
+import java.util.stream.IntStream;
+
+/**
+ * An affine transformation of three-dimensional space, that is a linear
+ * transformation followed by a translation.
+ * <p>
+ * The transformation is stored as a 3x4 matrix {@code [A | b]}, where
+ * {@code A} is the linear part and {@code b} the translation, and maps
+ * a point {@code p} to {@code A p + b}. Transformations are composed
+ * by {@link #then} into a single matrix, so that a pipeline such as
+ * <pre>{@code
+ * AffineTransform3D transform = AffineTransform3D.scaling(2)
+ *         .thenRotate(rotation)
+ *         .thenTranslate(offset);
+ * transform.transformPoints(cloud, cloud);
+ * }</pre>
+ * transforms each point in a single pass with nine multiplications
+ * and nine additions, without allocating any objects. Large arrays
+ * are transformed in parallel in the common fork/join pool;
+ * the result does not depend on how the work is divided.
+ * <p>
+ * Points are affected by the translation and directions are not.
+ * Normal vectors of surfaces are transformed by the inverse transpose
+ * of the linear part, which is computed once on first use
+ * (see {@link #normalMatrix()}).
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class AffineTransform3D {
+
+	private static final AffineTransform3D IDENTITY = new AffineTransform3D(
+			1, 0, 0, 0,
+			0, 1, 0, 0,
+			0, 0, 1, 0);
+
+	/** The number of points above which arrays are transformed in parallel. */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	/** The number of points transformed by a single parallel task. */
+	private static final int CHUNK = 1 << 13;
+
+	final double m00, m01, m02, m03;
+	final double m10, m11, m12, m13;
+	final double m20, m21, m22, m23;
+
+	/** The inverse transpose of the linear part, or {@code null}. */
+	private Matrix3x3 normalMatrix;
+
+	private AffineTransform3D(
+			double m00, double m01, double m02, double m03,
+			double m10, double m11, double m12, double m13,
+			double m20, double m21, double m22, double m23) {
+		this.m00 = m00; this.m01 = m01; this.m02 = m02; this.m03 = m03;
+		this.m10 = m10; this.m11 = m11; this.m12 = m12; this.m13 = m13;
+		this.m20 = m20; this.m21 = m21; this.m22 = m22; this.m23 = m23;
+	}
+
+	/**
+	 * Returns the transformation with the given 3x4 matrix, whose
+	 * elements are listed in row-major order. The last column is the
+	 * translation.
+	 *
+	 * @return an {@code AffineTransform3D} with the given matrix
+	 */
+	public static AffineTransform3D valueOf(
+			double m00, double m01, double m02, double m03,
+			double m10, double m11, double m12, double m13,
+			double m20, double m21, double m22, double m23) {
+		return new AffineTransform3D(
+				m00, m01, m02, m03,
+				m10, m11, m12, m13,
+				m20, m21, m22, m23);
+	}
+
+	/**
+	 * Returns the transformation with the given linear part
+	 * and translation.
+	 *
+	 * @param linear the linear part
+	 * @param translation the translation applied after the linear part
+	 * @return the transformation {@code p -> linear * p + translation}
+	 */
+	public static AffineTransform3D of(Matrix3x3 linear, Vector3D translation) {
+		return new AffineTransform3D(
+				linear.m00, linear.m01, linear.m02, translation.get(0),
+				linear.m10, linear.m11, linear.m12, translation.get(1),
+				linear.m20, linear.m21, linear.m22, translation.get(2));
+	}
+
+	/**
+	 * Returns the transformation given by a matrix in homogeneous
+	 * coordinates.
+	 *
+	 * @param matrix the matrix, whose last row must be {@code [0 0 0 1]}
+	 * @return the transformation equal to {@code matrix}
+	 * @throws IllegalArgumentException if the last row of {@code matrix}
+	 *         is not {@code [0 0 0 1]}, that is, if the matrix is
+	 *         a projective transformation
+	 */
+	public static AffineTransform3D of(Matrix4x4 matrix) {
+		if (matrix.m30 != 0 || matrix.m31 != 0 || matrix.m32 != 0
+				|| matrix.m33 != 1) {
+			throw new IllegalArgumentException(
+					"Not an affine transformation: " + matrix);
+		}
+		return new AffineTransform3D(
+				matrix.m00, matrix.m01, matrix.m02, matrix.m03,
+				matrix.m10, matrix.m11, matrix.m12, matrix.m13,
+				matrix.m20, matrix.m21, matrix.m22, matrix.m23);
+	}
+
+	/**
+	 * Returns the identity transformation.
+	 *
+	 * @return the transformation which maps every point to itself
+	 */
+	public static AffineTransform3D identity() {
+		return IDENTITY;
+	}
+
+	/**
+	 * Returns the translation by the given vector.
+	 *
+	 * @param offset the vector to be added to points
+	 * @return the transformation {@code p -> p + offset}
+	 */
+	public static AffineTransform3D translation(Vector3D offset) {
+		return translation(offset.get(0), offset.get(1), offset.get(2));
+	}
+
+	/**
+	 * Returns the translation by the vector with the given components.
+	 *
+	 * @param x x-component of the vector to be added to points
+	 * @param y y-component of the vector to be added to points
+	 * @param z z-component of the vector to be added to points
+	 * @return the transformation {@code p -> p + (x, y, z)}
+	 */
+	public static AffineTransform3D translation(double x, double y, double z) {
+		return new AffineTransform3D(
+				1, 0, 0, x,
+				0, 1, 0, y,
+				0, 0, 1, z);
+	}
+
+	/**
+	 * Returns the uniform scaling about the origin by the given factor.
+	 *
+	 * @param factor the scale factor
+	 * @return the transformation {@code p -> factor * p}
+	 */
+	public static AffineTransform3D scaling(double factor) {
+		return scaling(factor, factor, factor);
+	}
+
+	/**
+	 * Returns the scaling about the origin by the given factor
+	 * along each axis.
+	 *
+	 * @param x the scale factor along the x-axis
+	 * @param y the scale factor along the y-axis
+	 * @param z the scale factor along the z-axis
+	 * @return the transformation scaling each component of points
+	 *         by the corresponding factor
+	 */
+	public static AffineTransform3D scaling(double x, double y, double z) {
+		return new AffineTransform3D(
+				x, 0, 0, 0,
+				0, y, 0, 0,
+				0, 0, z, 0);
+	}
+
+	/**
+	 * Returns the given rotation about the origin.
+	 *
+	 * @param rotation the rotation
+	 * @return the transformation rotating points by {@code rotation}
+	 */
+	public static AffineTransform3D rotation(Rotation3D rotation) {
+		return of(rotation.toMatrix(), Vector3D.valueOf(0, 0, 0));
+	}
+
+	/**
+	 * Returns the linear part of this transformation.
+	 *
+	 * @return the matrix {@code A} in {@code p -> A p + b}
+	 */
+	public Matrix3x3 linear() {
+		return Matrix3x3.valueOf(
+				m00, m01, m02,
+				m10, m11, m12,
+				m20, m21, m22);
+	}
+
+	/**
+	 * Returns the translation part of this transformation,
+	 * which is the image of the origin.
+	 *
+	 * @return the vector {@code b} in {@code p -> A p + b}
+	 */
+	public Vector3D translation() {
+		return Vector3D.valueOf(m03, m13, m23);
+	}
+
+	/**
+	 * Returns the determinant of the linear part of this transformation,
+	 * which is the factor by which it scales volumes.
+	 *
+	 * @return the determinant of {@code A}
+	 */
+	public double determinant() {
+		return m00 * (m11 * m22 - m12 * m21)
+		     - m01 * (m10 * m22 - m12 * m20)
+		     + m02 * (m10 * m21 - m11 * m20);
+	}
+
+	/**
+	 * Returns the transformation obtained by first applying this
+	 * transformation and then the given transformation.
+	 *
+	 * @param next the transformation to be applied after this one
+	 * @return the composition of {@code this} followed by {@code next}
+	 */
+	public AffineTransform3D then(AffineTransform3D next) {
+		// Product next * this, with an implicit last row [0 0 0 1]
+		AffineTransform3D n = next;
+		return new AffineTransform3D(
+				n.m00 * m00 + n.m01 * m10 + n.m02 * m20,
+				n.m00 * m01 + n.m01 * m11 + n.m02 * m21,
+				n.m00 * m02 + n.m01 * m12 + n.m02 * m22,
+				n.m00 * m03 + n.m01 * m13 + n.m02 * m23 + n.m03,
+				n.m10 * m00 + n.m11 * m10 + n.m12 * m20,
+				n.m10 * m01 + n.m11 * m11 + n.m12 * m21,
+				n.m10 * m02 + n.m11 * m12 + n.m12 * m22,
+				n.m10 * m03 + n.m11 * m13 + n.m12 * m23 + n.m13,
+				n.m20 * m00 + n.m21 * m10 + n.m22 * m20,
+				n.m20 * m01 + n.m21 * m11 + n.m22 * m21,
+				n.m20 * m02 + n.m21 * m12 + n.m22 * m22,
+				n.m20 * m03 + n.m21 * m13 + n.m22 * m23 + n.m23);
+	}
+
+	/**
+	 * Returns the transformation obtained by first applying this
+	 * transformation and then translating by the given vector.
+	 *
+	 * @param offset the vector to be added to points
+	 * @return the composition of {@code this} followed by the translation
+	 */
+	public AffineTransform3D thenTranslate(Vector3D offset) {
+		return new AffineTransform3D(
+				m00, m01, m02, m03 + offset.get(0),
+				m10, m11, m12, m13 + offset.get(1),
+				m20, m21, m22, m23 + offset.get(2));
+	}
+
+	/**
+	 * Returns the transformation obtained by first applying this
+	 * transformation and then scaling uniformly about the origin.
+	 *
+	 * @param factor the scale factor
+	 * @return the composition of {@code this} followed by the scaling
+	 */
+	public AffineTransform3D thenScale(double factor) {
+		return new AffineTransform3D(
+				m00 * factor, m01 * factor, m02 * factor, m03 * factor,
+				m10 * factor, m11 * factor, m12 * factor, m13 * factor,
+				m20 * factor, m21 * factor, m22 * factor, m23 * factor);
+	}
+
+	/**
+	 * Returns the transformation obtained by first applying this
+	 * transformation and then the given rotation about the origin.
+	 *
+	 * @param rotation the rotation
+	 * @return the composition of {@code this} followed by the rotation
+	 */
+	public AffineTransform3D thenRotate(Rotation3D rotation) {
+		return then(rotation(rotation));
+	}
+
+	/**
+	 * Returns the inverse of this transformation.
+	 *
+	 * @return the transformation which reverses this transformation
+	 * @throws ArithmeticException if the linear part of this
+	 *         transformation is singular
+	 */
+	public AffineTransform3D inverse() {
+		double det = determinant();
+		if (det == 0 || !Double.isFinite(det)) {
+			throw new ArithmeticException(
+					"The transformation is not invertible: " + this);
+		}
+		double d = 1 / det;
+		// The inverse of the linear part by cofactors
+		double i00 = (m11 * m22 - m12 * m21) * d;
+		double i01 = (m02 * m21 - m01 * m22) * d;
+		double i02 = (m01 * m12 - m02 * m11) * d;
+		double i10 = (m12 * m20 - m10 * m22) * d;
+		double i11 = (m00 * m22 - m02 * m20) * d;
+		double i12 = (m02 * m10 - m00 * m12) * d;
+		double i20 = (m10 * m21 - m11 * m20) * d;
+		double i21 = (m01 * m20 - m00 * m21) * d;
+		double i22 = (m00 * m11 - m01 * m10) * d;
+		return new AffineTransform3D(
+				i00, i01, i02, -(i00 * m03 + i01 * m13 + i02 * m23),
+				i10, i11, i12, -(i10 * m03 + i11 * m13 + i12 * m23),
+				i20, i21, i22, -(i20 * m03 + i21 * m13 + i22 * m23));
+	}
+
+	/**
+	 * Returns the matrix which transforms normal vectors of surfaces,
+	 * that is the inverse transpose of the linear part. The matrix is
+	 * computed on the first call and kept for later calls.
+	 * <p>
+	 * The matrix preserves the perpendicularity of normals to transformed
+	 * surfaces, but not their length; normals transformed by it need to
+	 * be normalized if unit normals are required.
+	 *
+	 * @return the inverse transpose of the linear part
+	 * @throws ArithmeticException if the linear part of this
+	 *         transformation is singular
+	 */
+	public Matrix3x3 normalMatrix() {
+		Matrix3x3 result = normalMatrix;
+		if (result == null) {
+			// Racy single-check: the matrix is immutable, so all
+			// threads compute the same value
+			result = inverse().linear().transpose();
+			normalMatrix = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this transformation as a matrix in homogeneous coordinates.
+	 *
+	 * @return a 4x4 matrix with the last row {@code [0 0 0 1]}
+	 */
+	public Matrix4x4 toMatrix4x4() {
+		return Matrix4x4.valueOf(
+				m00, m01, m02, m03,
+				m10, m11, m12, m13,
+				m20, m21, m22, m23,
+				0, 0, 0, 1);
+	}
+
+	/**
+	 * Transforms the given point.
+	 *
+	 * @param point the point to be transformed
+	 * @return the transformed point
+	 */
+	public Vector3D transformPoint(Vector3D point) {
+		double x = point.get(0), y = point.get(1), z = point.get(2);
+		return Vector3D.valueOf(
+				m00 * x + m01 * y + m02 * z + m03,
+				m10 * x + m11 * y + m12 * z + m13,
+				m20 * x + m21 * y + m22 * z + m23);
+	}
+
+	/**
+	 * Transforms the point with the given components and writes
+	 * the components of the result into the given array.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @param result the array to store the three components in
+	 */
+	public void transformPoint(double x, double y, double z, double[] result) {
+		result[0] = m00 * x + m01 * y + m02 * z + m03;
+		result[1] = m10 * x + m11 * y + m12 * z + m13;
+		result[2] = m20 * x + m21 * y + m22 * z + m23;
+	}
+
+	/**
+	 * Transforms the given direction, which is not affected
+	 * by the translation.
+	 *
+	 * @param direction the direction to be transformed
+	 * @return the transformed direction
+	 */
+	public Vector3D transformDirection(Vector3D direction) {
+		double x = direction.get(0), y = direction.get(1), z = direction.get(2);
+		return Vector3D.valueOf(
+				m00 * x + m01 * y + m02 * z,
+				m10 * x + m11 * y + m12 * z,
+				m20 * x + m21 * y + m22 * z);
+	}
+
+	/**
+	 * Transforms the given normal vector of a surface by the
+	 * {@linkplain #normalMatrix() normal matrix}. The result is not
+	 * normalized.
+	 *
+	 * @param normal the normal to be transformed
+	 * @return the normal of the transformed surface
+	 * @throws ArithmeticException if the linear part of this
+	 *         transformation is singular
+	 */
+	public Vector3D transformNormal(Vector3D normal) {
+		return normalMatrix().times(normal);
+	}
+
+	/**
+	 * Transforms every point in {@code source} and stores the results
+	 * at the same positions in {@code target}.
+	 * The two arrays may be the same object, in which case the points
+	 * are transformed in place.
+	 *
+	 * @param source the points to be transformed
+	 * @param target the array to write the results into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public void transformPoints(Vector3DArray source, Vector3DArray target) {
+		source.checkSize(target);
+		final double[] sx = source.x, sy = source.y, sz = source.z;
+		final double[] tx = target.x, ty = target.y, tz = target.z;
+		forEachChunk(sx.length, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				double x = sx[i], y = sy[i], z = sz[i];
+				tx[i] = m00 * x + m01 * y + m02 * z + m03;
+				ty[i] = m10 * x + m11 * y + m12 * z + m13;
+				tz[i] = m20 * x + m21 * y + m22 * z + m23;
+			}
+		});
+	}
+
+	/**
+	 * Transforms every point in {@code source} and stores the results
+	 * at the same positions in {@code target}.
+	 * The two lists may be the same object, in which case the points
+	 * are transformed in place.
+	 *
+	 * @param source the points to be transformed
+	 * @param target the list to write the results into
+	 * @throws IllegalArgumentException if the lists differ in size
+	 */
+	public void transformPoints(Vector3DList source, Vector3DList target) {
+		if (source.size() != target.size()) {
+			throw new IllegalArgumentException("List sizes do not match: "
+					+ source.size() + " and " + target.size());
+		}
+		final double[] s = source.data;
+		final double[] t = target.data;
+		forEachChunk(source.size(), (from, to) -> {
+			for (int i = 3 * from; i < 3 * to; i += 3) {
+				double x = s[i], y = s[i + 1], z = s[i + 2];
+				t[i] = m00 * x + m01 * y + m02 * z + m03;
+				t[i + 1] = m10 * x + m11 * y + m12 * z + m13;
+				t[i + 2] = m20 * x + m21 * y + m22 * z + m23;
+			}
+		});
+	}
+
+	/**
+	 * Transforms every direction in {@code source}, ignoring the
+	 * translation, and stores the results at the same positions
+	 * in {@code target}.
+	 * The two arrays may be the same object, in which case the
+	 * directions are transformed in place.
+	 *
+	 * @param source the directions to be transformed
+	 * @param target the array to write the results into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public void transformDirections(Vector3DArray source, Vector3DArray target) {
+		linear().transform(source, target);
+	}
+
+	/**
+	 * Transforms every normal vector in {@code source} by the
+	 * {@linkplain #normalMatrix() normal matrix} and stores the results
+	 * at the same positions in {@code target}. The results are not
+	 * normalized. The two arrays may be the same object, in which case
+	 * the normals are transformed in place.
+	 *
+	 * @param source the normals to be transformed
+	 * @param target the array to write the results into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 * @throws ArithmeticException if the linear part of this
+	 *         transformation is singular
+	 */
+	public void transformNormals(Vector3DArray source, Vector3DArray target) {
+		normalMatrix().transform(source, target);
+	}
+
+	/**
+	 * Runs the given action on consecutive ranges of indices covering
+	 * {@code 0} to {@code size}, in parallel if {@code size} is large.
+	 */
+	private static void forEachChunk(int size, RangeAction action) {
+		if (size < PARALLEL_THRESHOLD) {
+			action.run(0, size);
+			return;
+		}
+		int chunks = (size + CHUNK - 1) / CHUNK;
+		IntStream.range(0, chunks).parallel().forEach(c ->
+				action.run(c * CHUNK, Math.min(size, (c + 1) * CHUNK)));
+	}
+
+	@FunctionalInterface
+	private interface RangeAction {
+		void run(int from, int to);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 31 * Vector3D.hashCode(m00, m01, m02) + Double.hashCode(m03);
+		result = 31 * (31 * result + Vector3D.hashCode(m10, m11, m12))
+				+ Double.hashCode(m13);
+		return 31 * (31 * result + Vector3D.hashCode(m20, m21, m22))
+				+ Double.hashCode(m23);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof AffineTransform3D)) return false;
+		AffineTransform3D o = (AffineTransform3D) obj;
+		return Geometry.equal(m00, o.m00) && Geometry.equal(m01, o.m01)
+		    && Geometry.equal(m02, o.m02) && Geometry.equal(m03, o.m03)
+		    && Geometry.equal(m10, o.m10) && Geometry.equal(m11, o.m11)
+		    && Geometry.equal(m12, o.m12) && Geometry.equal(m13, o.m13)
+		    && Geometry.equal(m20, o.m20) && Geometry.equal(m21, o.m21)
+		    && Geometry.equal(m22, o.m22) && Geometry.equal(m23, o.m23);
+	}
+
+	@Override
+	public String toString() {
+		return "AffineTransform3D[" + m00 + ", " + m01 + ", " + m02 + ", " + m03
+				+ "; " + m10 + ", " + m11 + ", " + m12 + ", " + m13
+				+ "; " + m20 + ", " + m21 + ", " + m22 + ", " + m23 + "]";
+	}
+}
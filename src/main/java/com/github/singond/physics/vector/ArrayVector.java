@@ -1,5 +1,8 @@
 package com.github.singond.physics.vector;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -10,11 +13,26 @@ import java.util.List;
  *
  * @author Singon
  */
-public class ArrayVector extends AbstractVector<ArrayVector> implements Vector {
+public class ArrayVector extends AbstractVector<ArrayVector>
+		implements Vector, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The components of the vector. */
 	private final double[] value;
 
+	/**
+	 * The square of the magnitude, computed lazily.
+	 * Zero if not computed yet, so it is recomputed for the zero vector.
+	 */
+	private volatile double magnitudeSquared;
+
+	/**
+	 * The normalized vector, computed lazily. It is safe for several
+	 * threads to compute it at once, because the result is always equal.
+	 */
+	private ArrayVector normalized;
+
 	/**
 	 * Constructs a new {@code ArrayVector} with the given components.
 	 * This uses the given array directly.
@@ -22,7 +40,10 @@ public class ArrayVector extends AbstractVector<ArrayVector> implements Vector {
 	 * @param components components of the vector
 	 */
 	private ArrayVector(double... components) {
-		value = components.clone();
+		value = components;
+		if (VectorInstrumentation.COUNT_ALLOCATIONS) {
+			VectorInstrumentation.recordAllocation(ArrayVector.class);
+		}
 	}
 
 	/**
@@ -35,9 +56,20 @@ public class ArrayVector extends AbstractVector<ArrayVector> implements Vector {
 		return new ArrayVector(components.clone());
 	}
 
+	/**
+	 * Returns an {@code ArrayVector} backed directly by the given array.
+	 * The caller must not modify the array afterwards.
+	 *
+	 * @param components components of the vector
+	 * @return an {@code ArrayVector} using {@code components} as its value
+	 */
+	static ArrayVector wrap(double[] components) {
+		return new ArrayVector(components);
+	}
+
 	@Override
 	protected ArrayVector instance(double... components) {
-		return valueOf(components);
+		return wrap(components);
 	}
 
 	@Override
@@ -59,6 +91,48 @@ public class ArrayVector extends AbstractVector<ArrayVector> implements Vector {
 		return value.length;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The result is computed once and cached.
+	 */
+	@Override
+	public double magnitudeSquared() {
+		double square = magnitudeSquared;
+		if (square == 0) {
+			for (double component : value) {
+				square += component * component;
+			}
+			magnitudeSquared = square;
+		}
+		return square;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The result is computed once and cached.
+	 */
+	@Override
+	public ArrayVector normalized() {
+		ArrayVector result = normalized;
+		if (result == null) {
+			result = times(1 / magnitude());
+			normalized = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the array backing this vector.
+	 * The returned array must not be modified.
+	 *
+	 * @return the components of this vector
+	 */
+	double[] array() {
+		return value;
+	}
+
 //	@Override
 //	public double magnitude() {
 //		double square = 0;
@@ -111,4 +185,24 @@ public class ArrayVector extends AbstractVector<ArrayVector> implements Vector {
 	public String toString() {
 		return Arrays.toString(value);
 	}
+
+	/**
+	 * Replaces this vector by its compact serialized form.
+	 *
+	 * @return the serialized form of this vector
+	 */
+	private Object writeReplace() {
+		return new SerializedVector(this);
+	}
+
+	/**
+	 * Rejects attempts to deserialize this class directly,
+	 * bypassing its serialized form.
+	 *
+	 * @param in the input stream
+	 * @throws InvalidObjectException always
+	 */
+	private void readObject(ObjectInputStream in) throws InvalidObjectException {
+		throw new InvalidObjectException("SerializedVector required");
+	}
 }
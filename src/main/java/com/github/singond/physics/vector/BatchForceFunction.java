@@ -0,0 +1,35 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A function giving the accelerations of bodies in a batch of independent
+ * systems, which are stepped together by a {@link SimulationRunner}.
+ * <p>
+ * The systems in the batch are stored one after another in the state
+ * arrays, each occupying {@code bodies * dimension} consecutive elements,
+ * in the layout described in {@link ForceFunction}. Implementations should
+ * process the whole batch in a single loop, so that the loop can be
+ * vectorized, and use {@code firstSystem} to look up the parameters
+ * of the individual systems.
+ *
+ * @author Singon
+ */
+@FunctionalInterface
+public interface BatchForceFunction {
+
+	/**
+	 * Calculates the accelerations of all bodies in a batch of systems
+	 * and writes them into {@code acceleration}.
+	 * The implementation must not modify {@code position} or {@code velocity}.
+	 *
+	 * @param firstSystem the index of the first system in the batch,
+	 *        among all systems of the simulation
+	 * @param systemCount the number of systems in the batch
+	 * @param time the time of the state
+	 * @param position the positions of all bodies in the batch
+	 * @param velocity the velocities of all bodies in the batch
+	 * @param acceleration the array to write the accelerations into;
+	 *        of the same length as {@code position}
+	 */
+	void accelerations(int firstSystem, int systemCount, double time,
+			double[] position, double[] velocity, double[] acceleration);
+}
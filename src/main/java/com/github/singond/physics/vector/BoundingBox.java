@@ -0,0 +1,244 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * The smallest box with faces perpendicular to the coordinate axes
+ * containing a set of vectors, given by the minimum and maximum of each
+ * component over the set.
+ * <p>
+ * The bounding box of an empty set is <em>empty</em>: its minimum
+ * components are positive infinity and its maximum components are
+ * negative infinity, so that it contains no vector.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class BoundingBox {
+
+	private final double[] min;
+	private final double[] max;
+
+	/**
+	 * Constructs a new bounding box.
+	 * This uses the given arrays directly.
+	 */
+	private BoundingBox(double[] min, double[] max) {
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Returns the bounding box with the given corners.
+	 *
+	 * @param min the corner with the minimum components
+	 * @param max the corner with the maximum components
+	 * @return a box extending from {@code min} to {@code max}
+	 * @throws IllegalVectorDimensionException if the corners differ
+	 *         in dimension
+	 */
+	public static BoundingBox of(Vector min, Vector max) {
+		if (min.dimension() != max.dimension()) {
+			throw new IllegalVectorDimensionException(
+					"The corners of a box must be of the same dimension");
+		}
+		int dimension = min.dimension();
+		double[] lower = new double[dimension];
+		double[] upper = new double[dimension];
+		for (int i = 0; i < dimension; i++) {
+			lower[i] = min.get(i);
+			upper[i] = max.get(i);
+		}
+		return new BoundingBox(lower, upper);
+	}
+
+	/**
+	 * Returns the bounding box with the given corners, given as arrays
+	 * of components. The arrays are used directly.
+	 */
+	static BoundingBox wrap(double[] min, double[] max) {
+		return new BoundingBox(min, max);
+	}
+
+	/**
+	 * Returns an empty bounding box of the given dimension.
+	 *
+	 * @param dimension the dimension of the box
+	 * @return an empty box
+	 */
+	public static BoundingBox empty(int dimension) {
+		double[] min = new double[dimension];
+		double[] max = new double[dimension];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		return new BoundingBox(min, max);
+	}
+
+	/**
+	 * Returns the bounding box of the given vectors.
+	 * Components which are {@code NaN} are ignored, as they are by
+	 * {@link VectorCollectors#boundingBox}.
+	 *
+	 * @param array the vectors
+	 * @return the smallest box containing all elements of {@code array}
+	 */
+	public static BoundingBox of(Vector3DArray array) {
+		double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+				Double.POSITIVE_INFINITY};
+		double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.NEGATIVE_INFINITY};
+		double[][] components = {array.x, array.y, array.z};
+		for (int c = 0; c < 3; c++) {
+			double lower = min[c], upper = max[c];
+			for (double value : components[c]) {
+				if (value < lower) lower = value;
+				if (value > upper) upper = value;
+			}
+			min[c] = lower;
+			max[c] = upper;
+		}
+		return new BoundingBox(min, max);
+	}
+
+	/**
+	 * Returns the dimension of this box.
+	 *
+	 * @return the dimension of the corners
+	 */
+	public int dimension() {
+		return min.length;
+	}
+
+	/**
+	 * Returns the corner of this box with the minimum components.
+	 *
+	 * @return the minimum corner
+	 */
+	public Vector min() {
+		return SystemState.vector(min, 0, min.length);
+	}
+
+	/**
+	 * Returns the corner of this box with the maximum components.
+	 *
+	 * @return the maximum corner
+	 */
+	public Vector max() {
+		return SystemState.vector(max, 0, max.length);
+	}
+
+	/**
+	 * Returns the minimum of the given component over this box.
+	 *
+	 * @param component the index of the component
+	 * @return the {@code component}th component of the minimum corner
+	 */
+	public double min(int component) {
+		return min[component];
+	}
+
+	/**
+	 * Returns the maximum of the given component over this box.
+	 *
+	 * @param component the index of the component
+	 * @return the {@code component}th component of the maximum corner
+	 */
+	public double max(int component) {
+		return max[component];
+	}
+
+	/**
+	 * Returns whether this box is empty, that is, whether the minimum
+	 * of any component is greater than its maximum.
+	 *
+	 * @return {@code true} if this box contains no vectors
+	 */
+	public boolean isEmpty() {
+		for (int i = 0; i < min.length; i++) {
+			if (!(min[i] <= max[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the center of this box.
+	 *
+	 * @return the midpoint between the corners
+	 */
+	public Vector center() {
+		double[] center = new double[min.length];
+		for (int i = 0; i < min.length; i++) {
+			center[i] = 0.5 * (min[i] + max[i]);
+		}
+		return SystemState.vector(center, 0, center.length);
+	}
+
+	/**
+	 * Returns whether the given vector lies in this box, including
+	 * its boundary.
+	 *
+	 * @param vector the vector
+	 * @return {@code true} if {@code vector} is inside this box
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not the dimension of this box
+	 */
+	public boolean contains(Vector vector) {
+		checkDimension(vector.dimension());
+		for (int i = 0; i < min.length; i++) {
+			double value = vector.get(i);
+			if (!(value >= min[i] && value <= max[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the smallest box containing this box and the given box.
+	 *
+	 * @param other the other box
+	 * @return the bounding box of both boxes
+	 * @throws IllegalVectorDimensionException if the boxes differ
+	 *         in dimension
+	 */
+	public BoundingBox union(BoundingBox other) {
+		checkDimension(other.dimension());
+		double[] lower = new double[min.length];
+		double[] upper = new double[min.length];
+		for (int i = 0; i < min.length; i++) {
+			lower[i] = Math.min(min[i], other.min[i]);
+			upper[i] = Math.max(max[i], other.max[i]);
+		}
+		return new BoundingBox(lower, upper);
+	}
+
+	private void checkDimension(int dimension) {
+		if (dimension != min.length) {
+			throw new IllegalVectorDimensionException(
+					"Expected dimension " + min.length + ", got " + dimension);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(min) + Arrays.hashCode(max);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof BoundingBox)) return false;
+		BoundingBox other = (BoundingBox) obj;
+		return Arrays.equals(min, other.min) && Arrays.equals(max, other.max);
+	}
+
+	@Override
+	public String toString() {
+		return "BoundingBox[" + Arrays.toString(min) + " - "
+				+ Arrays.toString(max) + "]";
+	}
+}
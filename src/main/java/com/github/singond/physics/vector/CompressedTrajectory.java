@@ -0,0 +1,772 @@
+package com.github.singond.physics.vector;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A compressed sequence of vectors of the same dimension,
+ * such as the trajectory of a body.
+ * <p>
+ * The sequence is built by an {@link Encoder}, which compresses the vectors
+ * one by one as they are added, so that the uncompressed sequence never
+ * needs to be held in memory. Two kinds of compression are available:
+ * <ul>
+ * <li><em>Lossless</em>, created by {@link #encoder(int)}, which stores
+ *     each component as the XOR of its bit pattern with the previous value
+ *     of the same component, omitting the leading and trailing zero bits.
+ *     This is the method of the Gorilla time series database
+ *     (Pelkonen et al., 2015) and works well for slowly changing values.</li>
+ * <li><em>Quantized</em>, created by {@link #encoder(int, double)}, which
+ *     rounds each component to a multiple of twice the given maximum error
+ *     and stores the second differences of these multiples as variable-length
+ *     integers. For a smooth trajectory sampled at a constant step, the
+ *     second differences are small and most take a single byte.</li>
+ * </ul>
+ * The vectors are compressed in blocks of a fixed number of vectors.
+ * Each block is independent of the others, so that any vector can be
+ * accessed by decompressing only the block containing it.
+ * The whole sequence can be read sequentially by a {@link Reader}.
+ * <p>
+ * A compressed trajectory can be saved by {@link #writeTo(OutputStream)}
+ * and loaded again by {@link #readFrom(InputStream)}.
+ * <p>
+ * Instances of this class are immutable and thread-safe.
+ *
+ * @author Singon
+ */
+public final class CompressedTrajectory {
+
+	private static final int MAGIC = 0x56545243;
+	private static final int VERSION = 1;
+	private static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	/** The largest quantized value which can be stored exactly. */
+	private static final double MAX_QUANTUM = 0x1p52;
+
+	/**
+	 * An upper bound of the bytes taken by a single compressed component:
+	 * a lossless component takes at most 77 bits and a variable-length
+	 * integer at most 10 bytes.
+	 */
+	private static final int MAX_COMPONENT_BYTES = 10;
+
+	/**
+	 * The number of elements read from a stream before the storage
+	 * for them is enlarged, so that the storage grows only as fast
+	 * as the data actually arrives.
+	 */
+	private static final int READ_CHUNK = 8192;
+
+	private final int dimension;
+	private final int blockSize;
+	/** The quantization step, or zero for lossless compression. */
+	private final double step;
+	private final long size;
+	/** The compressed blocks; serves as the block index. */
+	private final List<byte[]> blocks;
+
+	private CompressedTrajectory(int dimension, int blockSize, double step,
+			long size, List<byte[]> blocks) {
+		this.dimension = dimension;
+		this.blockSize = blockSize;
+		this.step = step;
+		this.size = size;
+		this.blocks = blocks;
+	}
+
+	/**
+	 * Returns a new encoder compressing vectors of the given dimension
+	 * without loss.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @return a new lossless encoder
+	 */
+	public static Encoder encoder(int dimension) {
+		return new Encoder(dimension, 0);
+	}
+
+	/**
+	 * Returns a new encoder compressing vectors of the given dimension
+	 * with the given maximum error in each component.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @param maxError the maximum absolute error of each component
+	 *        of the decoded vectors, up to the rounding error of
+	 *        floating-point multiplication
+	 * @return a new quantizing encoder
+	 */
+	public static Encoder encoder(int dimension, double maxError) {
+		if (!(maxError > 0) || Double.isInfinite(maxError)) {
+			throw new IllegalArgumentException("Invalid maximum error: " + maxError);
+		}
+		return new Encoder(dimension, 2 * maxError);
+	}
+
+	/**
+	 * Returns the dimension of the vectors.
+	 *
+	 * @return the dimension of the vectors
+	 */
+	public int dimension() {
+		return dimension;
+	}
+
+	/**
+	 * Returns the number of vectors in this sequence.
+	 *
+	 * @return the number of vectors
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of vectors in each block.
+	 *
+	 * @return the size of a block
+	 */
+	public int blockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Returns whether this sequence is stored without loss.
+	 *
+	 * @return {@code true} if the vectors are stored exactly
+	 */
+	public boolean isLossless() {
+		return step == 0;
+	}
+
+	/**
+	 * Returns the size of the compressed vectors in bytes,
+	 * excluding the constant overhead of the objects.
+	 *
+	 * @return the size of the compressed data in bytes
+	 */
+	public long compressedSize() {
+		long total = 0;
+		for (byte[] block : blocks) {
+			total += block.length;
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the vector at the given position in this sequence.
+	 * This decompresses the block containing the vector;
+	 * use a {@link Reader} to read consecutive vectors.
+	 *
+	 * @param index the position of the vector
+	 * @return the vector at position {@code index}, as a {@code Vector3D}
+	 *         if the dimension is 3
+	 * @throws IndexOutOfBoundsException if {@code index} is negative
+	 *         or not less than {@code size()}
+	 */
+	public Vector get(long index) {
+		checkIndex(index);
+		double[] components = new double[dimension];
+		get(index, components);
+		return SystemState.vector(components, 0, dimension);
+	}
+
+	/**
+	 * Stores the components of the vector at the given position
+	 * in this sequence into an array, without creating any vector.
+	 *
+	 * @param index the position of the vector
+	 * @param components the array to store the components in
+	 * @throws IndexOutOfBoundsException if {@code index} is negative
+	 *         or not less than {@code size()}
+	 * @throws IllegalArgumentException if the length of {@code components}
+	 *         is less than {@code dimension()}
+	 */
+	public void get(long index, double[] components) {
+		checkIndex(index);
+		checkLength(components);
+		BlockDecoder decoder = new BlockDecoder(this, (int) (index / blockSize));
+		for (long i = index % blockSize; i >= 0; i--) {
+			decoder.next(components);
+		}
+	}
+
+	/**
+	 * Returns a reader of the vectors of this sequence, starting
+	 * at the beginning.
+	 *
+	 * @return a new reader
+	 */
+	public Reader reader() {
+		return new Reader(this, 0);
+	}
+
+	/**
+	 * Returns a reader of the vectors of this sequence, starting
+	 * at the given position.
+	 *
+	 * @param index the position of the first vector to be read
+	 * @return a new reader
+	 * @throws IndexOutOfBoundsException if {@code index} is negative
+	 *         or greater than {@code size()}
+	 */
+	public Reader reader(long index) {
+		if (index != size) {
+			checkIndex(index);
+		}
+		return new Reader(this, index);
+	}
+
+	private void checkIndex(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid index: " + index);
+		}
+	}
+
+	private void checkLength(double[] components) {
+		if (components.length < dimension) {
+			throw new IllegalArgumentException("Expected an array of length "
+					+ dimension + ", got " + components.length);
+		}
+	}
+
+	/**
+	 * Writes this sequence to an output stream.
+	 * The block index is written before the blocks.
+	 * The stream is not closed.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(dimension);
+		data.writeInt(blockSize);
+		data.writeDouble(step);
+		data.writeLong(size);
+		data.writeInt(blocks.size());
+		for (byte[] block : blocks) {
+			data.writeInt(block.length);
+		}
+		for (byte[] block : blocks) {
+			data.write(block);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a sequence written by {@link #writeTo(OutputStream)}
+	 * from an input stream. The stream is not closed.
+	 *
+	 * @param in the stream to read from
+	 * @return the sequence read
+	 * @throws IOException if an I/O error occurs or the data is not
+	 *         a valid compressed trajectory
+	 */
+	public static CompressedTrajectory readFrom(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a compressed trajectory");
+		}
+		int version = data.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version: " + version);
+		}
+		int dimension = data.readInt();
+		int blockSize = data.readInt();
+		double step = data.readDouble();
+		long size = data.readLong();
+		int blockCount = data.readInt();
+		if (dimension < 1 || blockSize < 1 || !(step >= 0) || size < 0
+				|| blockCount != size / blockSize + (size % blockSize == 0 ? 0 : 1)) {
+			throw new IOException("Corrupted header");
+		}
+		// The header is not trusted: allocate only for data read so far
+		int[] lengths = new int[Math.min(blockCount, READ_CHUNK)];
+		for (int i = 0; i < blockCount; i++) {
+			if (i == lengths.length) {
+				lengths = Arrays.copyOf(lengths, (int) Math.min(blockCount, 2L * i));
+			}
+			long vectors = Math.min(blockSize, size - (long) i * blockSize);
+			lengths[i] = checkBlockLength(data.readInt(), vectors * dimension);
+		}
+		List<byte[]> blocks = new ArrayList<>(Math.min(blockCount, READ_CHUNK));
+		for (int i = 0; i < blockCount; i++) {
+			blocks.add(readBlock(data, lengths[i]));
+		}
+		return new CompressedTrajectory(dimension, blockSize, step, size, blocks);
+	}
+
+	/**
+	 * Checks that the length of a block is possible for the given
+	 * number of components, each of which takes at least one bit
+	 * and at most {@code MAX_COMPONENT_BYTES} bytes.
+	 */
+	private static int checkBlockLength(int length, long components) throws IOException {
+		long min = (components + 7) / 8;
+		long max = components > Integer.MAX_VALUE / MAX_COMPONENT_BYTES
+				? Integer.MAX_VALUE : components * MAX_COMPONENT_BYTES;
+		if (length < min || length > max) {
+			throw new IOException("Corrupted block index");
+		}
+		return length;
+	}
+
+	/**
+	 * Reads a block of the given length, enlarging the storage
+	 * only as the data arrives.
+	 */
+	private static byte[] readBlock(DataInputStream data, int length) throws IOException {
+		byte[] block = new byte[Math.min(length, READ_CHUNK)];
+		int read = 0;
+		while (read < length) {
+			if (read == block.length) {
+				block = Arrays.copyOf(block, (int) Math.min(length, 2L * read));
+			}
+			data.readFully(block, read, block.length - read);
+			read = block.length;
+		}
+		return block;
+	}
+
+	@Override
+	public String toString() {
+		return "CompressedTrajectory[" + size + " vectors of dimension "
+				+ dimension + ", " + compressedSize() + " bytes"
+				+ (isLossless() ? "" : ", quantization step " + step) + "]";
+	}
+
+	/**
+	 * Compresses vectors into a {@code CompressedTrajectory}.
+	 * <p>
+	 * Instances of this class are not thread-safe.
+	 */
+	public static final class Encoder {
+
+		private final int dimension;
+		private final double step;
+		private int blockSize = DEFAULT_BLOCK_SIZE;
+
+		private final List<byte[]> blocks = new ArrayList<>();
+		private final BitWriter writer = new BitWriter();
+		private long size;
+		private int inBlock;
+
+		/** The previous value of each component, as bits or quantized. */
+		private final long[] previous;
+		/** The previous difference of each quantized component. */
+		private final long[] difference;
+		/** The leading zeros of the previous XOR of each component. */
+		private final int[] leading;
+		/** The trailing zeros of the previous XOR of each component. */
+		private final int[] trailing;
+		private final double[] buffer;
+		/** The quantized components of the vector being added. */
+		private final long[] quanta;
+
+		private Encoder(int dimension, double step) {
+			if (dimension < 1) {
+				throw new IllegalArgumentException("Invalid dimension: " + dimension);
+			}
+			this.dimension = dimension;
+			this.step = step;
+			this.previous = new long[dimension];
+			this.difference = new long[dimension];
+			this.leading = new int[dimension];
+			this.trailing = new int[dimension];
+			this.buffer = new double[dimension];
+			this.quanta = new long[dimension];
+		}
+
+		/**
+		 * Sets the number of vectors in each block.
+		 * Larger blocks compress slightly better, while smaller blocks
+		 * make access to individual vectors faster.
+		 * The default is {@value CompressedTrajectory#DEFAULT_BLOCK_SIZE}.
+		 *
+		 * @param blockSize the number of vectors in a block
+		 * @throws IllegalStateException if vectors have already been added
+		 */
+		public void setBlockSize(int blockSize) {
+			if (blockSize < 1) {
+				throw new IllegalArgumentException("Invalid block size: " + blockSize);
+			}
+			if (size > 0) {
+				throw new IllegalStateException("Vectors have already been added");
+			}
+			this.blockSize = blockSize;
+		}
+
+		/**
+		 * Appends the given vector to the sequence.
+		 *
+		 * @param vector the vector to be added
+		 * @throws IllegalVectorDimensionException if the dimension of
+		 *         {@code vector} is not the dimension of this encoder
+		 * @throws IllegalArgumentException if this encoder is quantizing
+		 *         and a component of {@code vector} is not finite or too
+		 *         large to be quantized
+		 */
+		public void add(Vector vector) {
+			if (vector.dimension() != dimension) {
+				throw new IllegalVectorDimensionException(vector);
+			}
+			for (int c = 0; c < dimension; c++) {
+				buffer[c] = vector.get(c);
+			}
+			add(buffer);
+		}
+
+		/**
+		 * Appends the vector with the given components to the sequence.
+		 *
+		 * @param components the components of the vector to be added;
+		 *        only the first {@code dimension} elements are used
+		 * @throws IllegalArgumentException if the length of
+		 *         {@code components} is less than the dimension,
+		 *         or if this encoder is quantizing and a component is not
+		 *         finite or too large to be quantized
+		 */
+		public void add(double... components) {
+			if (components.length < dimension) {
+				throw new IllegalArgumentException("Expected an array of length "
+						+ dimension + ", got " + components.length);
+			}
+			if (step == 0) {
+				addExact(components);
+			} else {
+				addQuantized(components);
+			}
+			size++;
+			if (++inBlock == blockSize) {
+				blocks.add(writer.toByteArray());
+				writer.clear();
+				inBlock = 0;
+			}
+		}
+
+		private void addExact(double[] components) {
+			for (int c = 0; c < dimension; c++) {
+				long bits = Double.doubleToRawLongBits(components[c]);
+				if (inBlock == 0) {
+					writer.write(bits, 64);
+					leading[c] = -1;
+				} else {
+					writeXor(c, bits ^ previous[c]);
+				}
+				previous[c] = bits;
+			}
+		}
+
+		private void writeXor(int c, long xor) {
+			if (xor == 0) {
+				writer.write(0, 1);
+				return;
+			}
+			int lz = Math.min(Long.numberOfLeadingZeros(xor), 31);
+			int tz = Long.numberOfTrailingZeros(xor);
+			if (leading[c] >= 0 && lz >= leading[c] && tz >= trailing[c]) {
+				// Reuse the window of the previous value
+				writer.write(0b10, 2);
+				writer.write(xor >>> trailing[c], 64 - leading[c] - trailing[c]);
+			} else {
+				int meaningful = 64 - lz - tz;
+				writer.write(0b11, 2);
+				writer.write(lz, 5);
+				writer.write(meaningful - 1, 6);
+				writer.write(xor >>> tz, meaningful);
+				leading[c] = lz;
+				trailing[c] = tz;
+			}
+		}
+
+		private void addQuantized(double[] components) {
+			// Validate the whole vector before changing any state
+			for (int c = 0; c < dimension; c++) {
+				double scaled = Math.rint(components[c] / step);
+				if (!(Math.abs(scaled) <= MAX_QUANTUM)) {
+					throw new IllegalArgumentException(
+							"Cannot quantize value: " + components[c]);
+				}
+				quanta[c] = (long) scaled;
+			}
+			for (int c = 0; c < dimension; c++) {
+				long quantum = quanta[c];
+				if (inBlock == 0) {
+					writer.writeVarLong(quantum);
+					difference[c] = 0;
+				} else {
+					long current = quantum - previous[c];
+					writer.writeVarLong(current - difference[c]);
+					difference[c] = current;
+				}
+				previous[c] = quantum;
+			}
+		}
+
+		/**
+		 * Returns the number of vectors added so far.
+		 *
+		 * @return the number of vectors added
+		 */
+		public long size() {
+			return size;
+		}
+
+		/**
+		 * Returns a compressed trajectory containing the vectors added
+		 * so far. More vectors can be added afterwards; they do not
+		 * affect the returned trajectory.
+		 *
+		 * @return the vectors added so far
+		 */
+		public CompressedTrajectory toTrajectory() {
+			List<byte[]> result = new ArrayList<>(blocks.size() + 1);
+			result.addAll(blocks);
+			if (inBlock > 0) {
+				result.add(writer.toByteArray());
+			}
+			return new CompressedTrajectory(dimension, blockSize, step, size, result);
+		}
+	}
+
+	/**
+	 * Reads the vectors of a {@code CompressedTrajectory} sequentially.
+	 * Besides being an iterator of vectors, a reader can store the vectors
+	 * into an array by {@link #next(double[])}, which creates no objects
+	 * except when moving to the next block.
+	 * <p>
+	 * Instances of this class are not thread-safe.
+	 */
+	public static final class Reader implements Iterator<Vector> {
+
+		private final CompressedTrajectory trajectory;
+		private long index;
+		private BlockDecoder decoder;
+
+		private Reader(CompressedTrajectory trajectory, long index) {
+			this.trajectory = trajectory;
+			this.index = index;
+			if (index < trajectory.size) {
+				int block = (int) (index / trajectory.blockSize);
+				decoder = new BlockDecoder(trajectory, block);
+				double[] skipped = new double[trajectory.dimension];
+				for (long i = index % trajectory.blockSize; i > 0; i--) {
+					decoder.next(skipped);
+				}
+			}
+		}
+
+		/**
+		 * Returns the position of the vector returned by the next call
+		 * of {@code next}.
+		 *
+		 * @return the position of the next vector
+		 */
+		public long index() {
+			return index;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < trajectory.size;
+		}
+
+		@Override
+		public Vector next() {
+			double[] components = new double[trajectory.dimension];
+			next(components);
+			return SystemState.vector(components, 0, trajectory.dimension);
+		}
+
+		/**
+		 * Stores the components of the next vector into an array.
+		 *
+		 * @param components the array to store the components in
+		 * @throws NoSuchElementException if there are no more vectors
+		 * @throws IllegalArgumentException if the length of
+		 *         {@code components} is less than the dimension
+		 */
+		public void next(double[] components) {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			trajectory.checkLength(components);
+			if (decoder.remaining == 0) {
+				decoder = new BlockDecoder(trajectory,
+						(int) (index / trajectory.blockSize));
+			}
+			decoder.next(components);
+			index++;
+		}
+	}
+
+	/** Decompresses the vectors of a single block. */
+	private static final class BlockDecoder {
+
+		private final int dimension;
+		private final double step;
+		private final BitReader reader;
+		private final long[] previous;
+		private final long[] difference;
+		private final int[] leading;
+		private final int[] trailing;
+		private boolean first = true;
+		int remaining;
+
+		BlockDecoder(CompressedTrajectory trajectory, int block) {
+			this.dimension = trajectory.dimension;
+			this.step = trajectory.step;
+			this.reader = new BitReader(trajectory.blocks.get(block));
+			this.previous = new long[dimension];
+			this.difference = new long[dimension];
+			this.leading = new int[dimension];
+			this.trailing = new int[dimension];
+			this.remaining = (int) Math.min(trajectory.blockSize,
+					trajectory.size - (long) block * trajectory.blockSize);
+		}
+
+		void next(double[] components) {
+			if (step == 0) {
+				nextExact(components);
+			} else {
+				nextQuantized(components);
+			}
+			first = false;
+			remaining--;
+		}
+
+		private void nextExact(double[] components) {
+			for (int c = 0; c < dimension; c++) {
+				long bits;
+				if (first) {
+					bits = reader.read(64);
+				} else if (reader.read(1) == 0) {
+					bits = previous[c];
+				} else if (reader.read(1) == 0) {
+					int meaningful = 64 - leading[c] - trailing[c];
+					bits = previous[c] ^ (reader.read(meaningful) << trailing[c]);
+				} else {
+					int lz = (int) reader.read(5);
+					int meaningful = (int) reader.read(6) + 1;
+					int tz = 64 - lz - meaningful;
+					bits = previous[c] ^ (reader.read(meaningful) << tz);
+					leading[c] = lz;
+					trailing[c] = tz;
+				}
+				previous[c] = bits;
+				components[c] = Double.longBitsToDouble(bits);
+			}
+		}
+
+		private void nextQuantized(double[] components) {
+			for (int c = 0; c < dimension; c++) {
+				long quantum;
+				if (first) {
+					quantum = reader.readVarLong();
+					difference[c] = 0;
+				} else {
+					difference[c] += reader.readVarLong();
+					quantum = previous[c] + difference[c];
+				}
+				previous[c] = quantum;
+				components[c] = quantum * step;
+			}
+		}
+	}
+
+	/** Writes a sequence of bits, most significant first, into a byte array. */
+	private static final class BitWriter {
+
+		private byte[] bytes = new byte[256];
+		private long position;
+
+		/** Writes the lowest {@code count} bits of {@code value}. */
+		void write(long value, int count) {
+			ensureCapacity(count);
+			while (count > 0) {
+				int index = (int) (position >>> 3);
+				int free = 8 - (int) (position & 7);
+				int taken = Math.min(free, count);
+				int chunk = (int) (value >>> (count - taken)) & ((1 << taken) - 1);
+				bytes[index] |= chunk << (free - taken);
+				count -= taken;
+				position += taken;
+			}
+		}
+
+		/** Writes a zigzag-encoded variable-length integer. */
+		void writeVarLong(long value) {
+			long zigzag = (value << 1) ^ (value >> 63);
+			while ((zigzag & ~0x7FL) != 0) {
+				write((zigzag & 0x7F) | 0x80, 8);
+				zigzag >>>= 7;
+			}
+			write(zigzag, 8);
+		}
+
+		private void ensureCapacity(int count) {
+			long needed = (position + count + 7) >>> 3;
+			if (needed > bytes.length) {
+				bytes = Arrays.copyOf(bytes, (int) Math.max(needed, 2L * bytes.length));
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, (int) ((position + 7) >>> 3));
+		}
+
+		void clear() {
+			Arrays.fill(bytes, 0, (int) ((position + 7) >>> 3), (byte) 0);
+			position = 0;
+		}
+	}
+
+	/** Reads a sequence of bits written by {@code BitWriter}. */
+	private static final class BitReader {
+
+		private final byte[] bytes;
+		private long position;
+
+		BitReader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		/** Reads {@code count} bits as the lowest bits of a number. */
+		long read(int count) {
+			long value = 0;
+			while (count > 0) {
+				int index = (int) (position >>> 3);
+				int available = 8 - (int) (position & 7);
+				int taken = Math.min(available, count);
+				int chunk = (bytes[index] >>> (available - taken)) & ((1 << taken) - 1);
+				value = (value << taken) | chunk;
+				count -= taken;
+				position += taken;
+			}
+			return value;
+		}
+
+		/** Reads a zigzag-encoded variable-length integer. */
+		long readVarLong() {
+			long zigzag = 0;
+			int shift = 0;
+			long b;
+			do {
+				b = read(8);
+				zigzag |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+	}
+}
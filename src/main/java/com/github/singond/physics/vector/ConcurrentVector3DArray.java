@@ -0,0 +1,250 @@
+package com.github.singond.physics.vector;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size sequence of three-dimensional vectors whose elements
+ * can be read and updated concurrently by multiple threads
+ * without locking.
+ * <p>
+ * The main purpose of this class is the assembly of sums from
+ * contributions computed in parallel, such as the forces acting on
+ * bodies, where each thread adds its contributions directly to the
+ * elements by {@link #add(int, double, double, double)}
+ * ("scatter-add"). The addition is atomic for each component and does
+ * not allocate any objects, and threads adding to different elements
+ * do not wait for each other.
+ * <p>
+ * The components of each element are stored next to each other,
+ * so that an addition touches a single cache line in most cases.
+ * Unlike {@link Vector3DAccumulator}, the elements are not padded,
+ * which keeps the memory per element low, but makes threads adding
+ * to adjacent elements compete for the cache line. If many threads
+ * add to a few elements at once, use {@code Vector3DAccumulator}.
+ * <p>
+ * Each component is read and updated atomically, but the element
+ * as a whole is not: a thread reading an element concurrently with
+ * an addition may see some of its components updated and others not.
+ * The results of concurrent additions are complete once all the adding
+ * threads have finished, for example after joining them or waiting
+ * for their tasks.
+ *
+ * @author Singon
+ */
+public final class ConcurrentVector3DArray {
+
+	/** The components of the elements as bits of {@code double}s. */
+	private final AtomicLongArray data;
+
+	private final int size;
+
+	private ConcurrentVector3DArray(int size) {
+		this.data = new AtomicLongArray(3 * size);
+		this.size = size;
+	}
+
+	/**
+	 * Returns a new {@code ConcurrentVector3DArray} of the given size
+	 * with all elements equal to the zero vector.
+	 *
+	 * @param size the number of elements
+	 * @return a new array of {@code size} zero vectors
+	 * @throws IllegalArgumentException if {@code size} is negative
+	 *         or too large
+	 */
+	public static ConcurrentVector3DArray ofSize(int size) {
+		if (size < 0 || size > Integer.MAX_VALUE / 3) {
+			throw new IllegalArgumentException("Invalid size: " + size);
+		}
+		return new ConcurrentVector3DArray(size);
+	}
+
+	/**
+	 * Returns the number of elements in this array.
+	 *
+	 * @return the number of vectors in this array
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the element at the given index as a {@code Vector3D}.
+	 *
+	 * @param index the index of the element
+	 * @return the {@code index}th element
+	 * @throws IndexOutOfBoundsException if {@code index} is out of range
+	 */
+	public Vector3D get(int index) {
+		int i = offset(index);
+		return Vector3D.valueOf(component(i), component(i + 1), component(i + 2));
+	}
+
+	/**
+	 * Returns the x-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the x-component of the {@code index}th element
+	 */
+	public double getX(int index) {
+		return component(offset(index));
+	}
+
+	/**
+	 * Returns the y-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the y-component of the {@code index}th element
+	 */
+	public double getY(int index) {
+		return component(offset(index) + 1);
+	}
+
+	/**
+	 * Returns the z-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the z-component of the {@code index}th element
+	 */
+	public double getZ(int index) {
+		return component(offset(index) + 2);
+	}
+
+	/**
+	 * Replaces the element at the given index with a vector
+	 * of the given components.
+	 *
+	 * @param index the index of the element
+	 * @param x x-component of the new value
+	 * @param y y-component of the new value
+	 * @param z z-component of the new value
+	 */
+	public void set(int index, double x, double y, double z) {
+		int i = offset(index);
+		data.set(i, Double.doubleToRawLongBits(x));
+		data.set(i + 1, Double.doubleToRawLongBits(y));
+		data.set(i + 2, Double.doubleToRawLongBits(z));
+	}
+
+	/**
+	 * Replaces the element at the given index with the given vector.
+	 *
+	 * @param index the index of the element
+	 * @param vector the new value of the element
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not 3
+	 */
+	public void set(int index, Vector vector) {
+		checkDimension(vector);
+		set(index, vector.get(0), vector.get(1), vector.get(2));
+	}
+
+	/**
+	 * Adds a vector with the given components to the element at the
+	 * given index. Each component is added atomically, but the vector
+	 * as a whole is not: a concurrent reader may see some components
+	 * of the element updated and others not.
+	 *
+	 * @param index the index of the element
+	 * @param x x-component of the vector to be added
+	 * @param y y-component of the vector to be added
+	 * @param z z-component of the vector to be added
+	 */
+	public void add(int index, double x, double y, double z) {
+		int i = offset(index);
+		addToComponent(i, x);
+		addToComponent(i + 1, y);
+		addToComponent(i + 2, z);
+	}
+
+	/**
+	 * Adds the given vector to the element at the given index.
+	 * Each component is added atomically, but the vector as a whole
+	 * is not, as described in {@link #add(int, double, double, double)}.
+	 *
+	 * @param index the index of the element
+	 * @param vector the vector to be added
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not 3
+	 */
+	public void add(int index, Vector vector) {
+		checkDimension(vector);
+		add(index, vector.get(0), vector.get(1), vector.get(2));
+	}
+
+	private void addToComponent(int i, double value) {
+		long bits;
+		do {
+			bits = data.get(i);
+		} while (!data.compareAndSet(i, bits, Double.doubleToRawLongBits(
+				Double.longBitsToDouble(bits) + value)));
+	}
+
+	/**
+	 * Sets all elements to the zero vector.
+	 * Additions concurrent with this method may be lost.
+	 */
+	public void clear() {
+		for (int i = 0; i < data.length(); i++) {
+			data.set(i, 0L);
+		}
+	}
+
+	/**
+	 * Copies the components of all elements into the given array,
+	 * with the components of each element next to each other.
+	 * This is the layout of the arrays used by {@link ForceFunction}.
+	 *
+	 * @param target the array to copy into
+	 * @param offset the index in {@code target} of the first component
+	 *        of the first element
+	 * @throws IndexOutOfBoundsException if {@code target} cannot hold
+	 *         all components from {@code offset}
+	 */
+	public void copyTo(double[] target, int offset) {
+		if (offset < 0 || offset > target.length - data.length()) {
+			throw new IndexOutOfBoundsException("Cannot copy " + data.length()
+					+ " components to index " + offset
+					+ " of array of length " + target.length);
+		}
+		for (int i = 0; i < data.length(); i++) {
+			target[offset + i] = component(i);
+		}
+	}
+
+	/**
+	 * Returns a copy of the elements of this array as a {@code Vector3DArray}.
+	 *
+	 * @return a new {@code Vector3DArray} with the current elements
+	 */
+	public Vector3DArray toVector3DArray() {
+		Vector3DArray result = Vector3DArray.ofSize(size);
+		for (int index = 0, i = 0; index < size; index++, i += 3) {
+			result.set(index, component(i), component(i + 1), component(i + 2));
+		}
+		return result;
+	}
+
+	private double component(int i) {
+		return Double.longBitsToDouble(data.get(i));
+	}
+
+	private int offset(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + index + ", size: " + size);
+		}
+		return 3 * index;
+	}
+
+	private static void checkDimension(Vector vector) {
+		if (vector.dimension() != 3) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return toVector3DArray().toString();
+	}
+}
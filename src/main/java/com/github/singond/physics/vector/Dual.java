@@ -0,0 +1,381 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * A real number together with its partial derivatives with respect
+ * to a fixed number of parameters, for forward-mode automatic
+ * differentiation.
+ * <p>
+ * A computation is differentiated by starting from the parameters,
+ * each created by {@link #variable(double, int, int)} with its own
+ * index, and carrying out the computation with this class and
+ * {@link DualVector3D} or {@link DualArrayVector} instead of
+ * {@code double} and vectors. Each operation applies the rules of
+ * differentiation to the derivatives alongside the value, so that
+ * a single pass of the computation yields its result and the gradient
+ * of the result with respect to all parameters, exact up to rounding.
+ * The values are computed by the same operations as in {@code double}
+ * arithmetic and are identical to the results of the original
+ * computation.
+ * <p>
+ * The value and the derivatives are stored together in one array of
+ * {@code double}s. All operands of an operation must have the same
+ * number of parameters.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Dual {
+
+	/** The value at index 0, followed by the partial derivatives. */
+	private final double[] data;
+
+	private Dual(double[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Returns a number which does not depend on any of the parameters.
+	 *
+	 * @param value the value of the number
+	 * @param parameters the number of parameters
+	 * @return the number {@code value} with all derivatives zero
+	 * @throws IllegalArgumentException if {@code parameters} is negative
+	 */
+	public static Dual constant(double value, int parameters) {
+		checkParameters(parameters);
+		double[] data = new double[1 + parameters];
+		data[0] = value;
+		return new Dual(data);
+	}
+
+	/**
+	 * Returns the parameter with the given index, that is a number whose
+	 * derivative with respect to itself is one and with respect to the
+	 * other parameters is zero.
+	 *
+	 * @param value the value of the parameter
+	 * @param parameters the number of parameters
+	 * @param index the index of this parameter
+	 * @return the parameter {@code index} with the value {@code value}
+	 * @throws IllegalArgumentException if {@code parameters} is negative
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not
+	 *         lower than {@code parameters}
+	 */
+	public static Dual variable(double value, int parameters, int index) {
+		checkParameters(parameters);
+		checkIndex(index, parameters);
+		double[] data = new double[1 + parameters];
+		data[0] = value;
+		data[1 + index] = 1;
+		return new Dual(data);
+	}
+
+	/**
+	 * Returns a number with the given value and partial derivatives.
+	 *
+	 * @param value the value of the number
+	 * @param gradient the partial derivatives with respect to each
+	 *        parameter; their number is the number of parameters
+	 * @return the number {@code value} with derivatives {@code gradient}
+	 */
+	public static Dual of(double value, double... gradient) {
+		double[] data = new double[1 + gradient.length];
+		data[0] = value;
+		System.arraycopy(gradient, 0, data, 1, gradient.length);
+		return new Dual(data);
+	}
+
+	/**
+	 * Returns the value of this number.
+	 *
+	 * @return the value
+	 */
+	public double value() {
+		return data[0];
+	}
+
+	/**
+	 * Returns the partial derivative of this number with respect
+	 * to the given parameter.
+	 *
+	 * @param parameter the index of the parameter
+	 * @return the derivative with respect to {@code parameter}
+	 * @throws IndexOutOfBoundsException if {@code parameter} is negative or
+	 *         not lower than {@code parameters()}
+	 */
+	public double derivative(int parameter) {
+		checkIndex(parameter, parameters());
+		return data[1 + parameter];
+	}
+
+	/**
+	 * Returns the partial derivatives of this number with respect
+	 * to all parameters.
+	 *
+	 * @return a new array of the derivatives
+	 */
+	public double[] gradient() {
+		return Arrays.copyOfRange(data, 1, data.length);
+	}
+
+	/**
+	 * Returns the number of parameters.
+	 *
+	 * @return the number of partial derivatives of this number
+	 */
+	public int parameters() {
+		return data.length - 1;
+	}
+
+	/**
+	 * Returns the sum of this number and the given number.
+	 *
+	 * @param addend the number to be added
+	 * @return {@code this + addend}
+	 * @throws IllegalArgumentException if the numbers have different
+	 *         numbers of parameters
+	 */
+	public Dual plus(Dual addend) {
+		checkParameters(addend);
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] + addend.data[i];
+		}
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the sum of this number and the given constant.
+	 *
+	 * @param addend the constant to be added
+	 * @return {@code this + addend}
+	 */
+	public Dual plus(double addend) {
+		double[] result = data.clone();
+		result[0] += addend;
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the difference of this number and the given number.
+	 *
+	 * @param subtrahend the number to be subtracted
+	 * @return {@code this - subtrahend}
+	 * @throws IllegalArgumentException if the numbers have different
+	 *         numbers of parameters
+	 */
+	public Dual minus(Dual subtrahend) {
+		checkParameters(subtrahend);
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] - subtrahend.data[i];
+		}
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the difference of this number and the given constant.
+	 *
+	 * @param subtrahend the constant to be subtracted
+	 * @return {@code this - subtrahend}
+	 */
+	public Dual minus(double subtrahend) {
+		double[] result = data.clone();
+		result[0] -= subtrahend;
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the additive inverse of this number.
+	 *
+	 * @return {@code -this}
+	 */
+	public Dual negative() {
+		return times(-1);
+	}
+
+	/**
+	 * Returns the product of this number and the given number.
+	 *
+	 * @param factor the number to multiply by
+	 * @return {@code this * factor}
+	 * @throws IllegalArgumentException if the numbers have different
+	 *         numbers of parameters
+	 */
+	public Dual times(Dual factor) {
+		checkParameters(factor);
+		double[] result = new double[data.length];
+		multiply(data, 0, factor.data, 0, result, 0, parameters());
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the product of this number and the given constant.
+	 *
+	 * @param factor the constant to multiply by
+	 * @return {@code this * factor}
+	 */
+	public Dual times(double factor) {
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] * factor;
+		}
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the quotient of this number and the given number.
+	 *
+	 * @param divisor the number to divide by
+	 * @return {@code this / divisor}
+	 * @throws IllegalArgumentException if the numbers have different
+	 *         numbers of parameters
+	 */
+	public Dual dividedBy(Dual divisor) {
+		checkParameters(divisor);
+		double[] result = new double[data.length];
+		divide(data, 0, divisor.data, 0, result, 0, parameters());
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the quotient of this number and the given constant.
+	 *
+	 * @param divisor the constant to divide by
+	 * @return {@code this / divisor}
+	 */
+	public Dual dividedBy(double divisor) {
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] / divisor;
+		}
+		return new Dual(result);
+	}
+
+	/**
+	 * Returns the square root of this number. The derivatives
+	 * are infinite or {@code NaN} if the value is zero.
+	 *
+	 * @return the square root of {@code this}
+	 */
+	public Dual sqrt() {
+		double[] result = new double[data.length];
+		sqrt(data, 0, result, 0, parameters());
+		return new Dual(result);
+	}
+
+	/*
+	 * Rules of differentiation for numbers stored at offsets of arrays
+	 * as the value followed by p derivatives, shared with the dual
+	 * vectors. The output may be one of the inputs.
+	 */
+
+	/** Stores the product of {@code a} and {@code b} into {@code out}. */
+	static void multiply(double[] a, int ao, double[] b, int bo,
+			double[] out, int oo, int p) {
+		double av = a[ao], bv = b[bo];
+		for (int j = 1; j <= p; j++) {
+			out[oo + j] = a[ao + j] * bv + av * b[bo + j];
+		}
+		out[oo] = av * bv;
+	}
+
+	/** Adds the product of {@code a} and {@code b} to {@code out}. */
+	static void multiplyAdd(double[] a, int ao, double[] b, int bo,
+			double[] out, int oo, int p) {
+		double av = a[ao], bv = b[bo];
+		for (int j = 1; j <= p; j++) {
+			out[oo + j] += a[ao + j] * bv + av * b[bo + j];
+		}
+		out[oo] += av * bv;
+	}
+
+	/** Subtracts the product of {@code a} and {@code b} from {@code out}. */
+	static void multiplySubtract(double[] a, int ao, double[] b, int bo,
+			double[] out, int oo, int p) {
+		double av = a[ao], bv = b[bo];
+		for (int j = 1; j <= p; j++) {
+			out[oo + j] -= a[ao + j] * bv + av * b[bo + j];
+		}
+		out[oo] -= av * bv;
+	}
+
+	/** Stores the quotient of {@code a} and {@code b} into {@code out}. */
+	static void divide(double[] a, int ao, double[] b, int bo,
+			double[] out, int oo, int p) {
+		double bv = b[bo];
+		double q = a[ao] / bv;
+		for (int j = 1; j <= p; j++) {
+			out[oo + j] = (a[ao + j] - q * b[bo + j]) / bv;
+		}
+		out[oo] = q;
+	}
+
+	/** Stores the square root of {@code a} into {@code out}. */
+	static void sqrt(double[] a, int ao, double[] out, int oo, int p) {
+		double root = Math.sqrt(a[ao]);
+		double scale = 0.5 / root;
+		for (int j = 1; j <= p; j++) {
+			out[oo + j] = a[ao + j] * scale;
+		}
+		out[oo] = root;
+	}
+
+	static void checkParameters(int parameters) {
+		if (parameters < 0) {
+			throw new IllegalArgumentException(
+					"Invalid number of parameters: " + parameters);
+		}
+	}
+
+	private static void checkIndex(int index, int parameters) {
+		if (index < 0 || index >= parameters) {
+			throw new IndexOutOfBoundsException("Invalid parameter index: "
+					+ index + ", parameters: " + parameters);
+		}
+	}
+
+	private void checkParameters(Dual other) {
+		if (other.data.length != data.length) {
+			throw new IllegalArgumentException("Numbers of parameters do not match: "
+					+ parameters() + " and " + other.parameters());
+		}
+	}
+
+	/**
+	 * Returns the array holding the value and derivatives.
+	 * The returned array must not be modified.
+	 */
+	double[] array() {
+		return data;
+	}
+
+	/**
+	 * Returns a number backed directly by the given array.
+	 * The caller must not modify the array afterwards.
+	 */
+	static Dual wrap(double[] data) {
+		return new Dual(data);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(data);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Dual)) return false;
+		return Arrays.equals(data, ((Dual) obj).data);
+	}
+
+	@Override
+	public String toString() {
+		return data[0] + " " + Arrays.toString(gradient());
+	}
+}
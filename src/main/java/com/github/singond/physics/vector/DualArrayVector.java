@@ -0,0 +1,451 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * A vector of arbitrary dimension whose components are {@link Dual}
+ * numbers, carrying their partial derivatives with respect to a fixed
+ * number of parameters, for forward-mode automatic differentiation.
+ * <p>
+ * This class is the counterpart of {@link DualVector3D} for
+ * {@link ArrayVector}: it provides the operations of {@code ArrayVector}
+ * and applies the rules of differentiation to the derivatives of the
+ * components. The values are computed by the same operations as in
+ * {@code ArrayVector} and are identical to its results.
+ * The values and derivatives of all components are stored in a single
+ * array of {@code double}s, each component followed by its derivatives.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class DualArrayVector {
+
+	/** The number of parameters. */
+	private final int p;
+
+	/**
+	 * The components, each stored in {@code p + 1} consecutive elements
+	 * as the value followed by the derivatives.
+	 */
+	private final double[] data;
+
+	private DualArrayVector(int parameters, double[] data) {
+		this.p = parameters;
+		this.data = data;
+	}
+
+	/**
+	 * Returns a vector which does not depend on any of the parameters.
+	 *
+	 * @param value the value of the vector
+	 * @param parameters the number of parameters
+	 * @return the vector {@code value} with all derivatives zero
+	 * @throws IllegalArgumentException if {@code parameters} is negative
+	 */
+	public static DualArrayVector constant(Vector value, int parameters) {
+		Dual.checkParameters(parameters);
+		int s = parameters + 1;
+		double[] data = new double[value.dimension() * s];
+		for (int k = 0; k < value.dimension(); k++) {
+			data[k * s] = value.get(k);
+		}
+		return new DualArrayVector(parameters, data);
+	}
+
+	/**
+	 * Returns a vector whose components are consecutive parameters.
+	 *
+	 * @param value the value of the vector
+	 * @param parameters the number of parameters
+	 * @param firstIndex the index of the parameter which is the first
+	 *        component; the other components are the following parameters
+	 * @return the vector {@code value} whose {@code k}th component is
+	 *         the parameter {@code firstIndex + k}
+	 * @throws IllegalArgumentException if {@code parameters} is negative
+	 * @throws IndexOutOfBoundsException if the parameter indices are
+	 *         out of range
+	 */
+	public static DualArrayVector variable(Vector value, int parameters, int firstIndex) {
+		Dual.checkParameters(parameters);
+		int n = value.dimension();
+		if (firstIndex < 0 || firstIndex + n > parameters) {
+			throw new IndexOutOfBoundsException("Invalid parameter index: "
+					+ firstIndex + ", parameters: " + parameters);
+		}
+		int s = parameters + 1;
+		double[] data = new double[n * s];
+		for (int k = 0; k < n; k++) {
+			data[k * s] = value.get(k);
+			data[k * s + 1 + firstIndex + k] = 1;
+		}
+		return new DualArrayVector(parameters, data);
+	}
+
+	/**
+	 * Returns the vector with the given components.
+	 *
+	 * @param components the components of the vector, which must not
+	 *        be empty
+	 * @return the vector with {@code components}
+	 * @throws IllegalArgumentException if {@code components} is empty
+	 *         or the components have different numbers of parameters
+	 */
+	public static DualArrayVector valueOf(Dual... components) {
+		if (components.length == 0) {
+			throw new IllegalArgumentException("No components given");
+		}
+		int parameters = components[0].parameters();
+		int s = parameters + 1;
+		double[] data = new double[components.length * s];
+		for (int k = 0; k < components.length; k++) {
+			if (components[k].parameters() != parameters) {
+				throw new IllegalArgumentException("Numbers of parameters do not match: "
+						+ parameters + " and " + components[k].parameters());
+			}
+			System.arraycopy(components[k].array(), 0, data, k * s, s);
+		}
+		return new DualArrayVector(parameters, data);
+	}
+
+	/**
+	 * Returns the given component of this vector.
+	 *
+	 * @param component the (zero-based) index of the component
+	 * @return the {@code component}th component of this vector
+	 * @throws IndexOutOfBoundsException if {@code component} is lower than
+	 *         {@code 0} or higher than or equal to {@code dimension()}
+	 */
+	public Dual get(int component) {
+		if (component < 0 || component >= dimension()) {
+			throw new IndexOutOfBoundsException(
+					"Invalid component index: " + component);
+		}
+		int s = p + 1;
+		return Dual.wrap(Arrays.copyOfRange(data, component * s, (component + 1) * s));
+	}
+
+	/**
+	 * Returns the dimension of this vector (the number of its components).
+	 *
+	 * @return the number of the components of the vector
+	 */
+	public int dimension() {
+		return data.length / (p + 1);
+	}
+
+	/**
+	 * Returns the number of parameters.
+	 *
+	 * @return the number of partial derivatives of each component
+	 */
+	public int parameters() {
+		return p;
+	}
+
+	/**
+	 * Returns the value of this vector.
+	 *
+	 * @return the vector of the values of the components
+	 */
+	public ArrayVector value() {
+		return column(0);
+	}
+
+	/**
+	 * Returns the partial derivative of this vector with respect
+	 * to the given parameter.
+	 *
+	 * @param parameter the index of the parameter
+	 * @return the vector of the derivatives of the components
+	 *         with respect to {@code parameter}
+	 * @throws IndexOutOfBoundsException if {@code parameter} is negative or
+	 *         not lower than {@code parameters()}
+	 */
+	public ArrayVector derivative(int parameter) {
+		if (parameter < 0 || parameter >= p) {
+			throw new IndexOutOfBoundsException("Invalid parameter index: "
+					+ parameter + ", parameters: " + p);
+		}
+		return column(1 + parameter);
+	}
+
+	/** Returns the element at the given offset of each component. */
+	private ArrayVector column(int offset) {
+		int s = p + 1;
+		double[] result = new double[dimension()];
+		for (int k = 0; k < result.length; k++) {
+			result[k] = data[k * s + offset];
+		}
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Returns the sum of this vector and the given vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return {@code this + addend}
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualArrayVector plus(DualArrayVector addend) {
+		checkOperand(addend);
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] + addend.data[i];
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the sum of this vector and the given constant vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return {@code this + addend}
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public DualArrayVector plus(Vector addend) {
+		checkDimension(addend.dimension());
+		double[] result = data.clone();
+		for (int k = 0; k < addend.dimension(); k++) {
+			result[k * (p + 1)] += addend.get(k);
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the difference of this vector and the given vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return {@code this - subtrahend}
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualArrayVector minus(DualArrayVector subtrahend) {
+		checkOperand(subtrahend);
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] - subtrahend.data[i];
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the difference of this vector and the given constant vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return {@code this - subtrahend}
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public DualArrayVector minus(Vector subtrahend) {
+		checkDimension(subtrahend.dimension());
+		double[] result = data.clone();
+		for (int k = 0; k < subtrahend.dimension(); k++) {
+			result[k * (p + 1)] -= subtrahend.get(k);
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the opposite of this vector.
+	 *
+	 * @return {@code -this}
+	 */
+	public DualArrayVector negative() {
+		return times(-1);
+	}
+
+	/**
+	 * Returns the product of this vector and the given constant.
+	 *
+	 * @param scalar the constant to multiply by
+	 * @return {@code this * scalar}
+	 */
+	public DualArrayVector times(double scalar) {
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] * scalar;
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the product of this vector and the given number.
+	 *
+	 * @param scalar the number to multiply by
+	 * @return {@code this * scalar}
+	 * @throws IllegalArgumentException if the vector and the number have
+	 *         different numbers of parameters
+	 */
+	public DualArrayVector times(Dual scalar) {
+		checkParameters(scalar.parameters());
+		return times(scalar.array());
+	}
+
+	/** Multiplies each component by the number stored in the given array. */
+	private DualArrayVector times(double[] scalar) {
+		double[] result = new double[data.length];
+		int s = p + 1;
+		for (int k = 0; k < dimension(); k++) {
+			Dual.multiply(data, k * s, scalar, 0, result, k * s, p);
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the pointwise product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return the vector of products of corresponding components
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualArrayVector pointwiseProduct(DualArrayVector a) {
+		checkOperand(a);
+		double[] result = new double[data.length];
+		int s = p + 1;
+		for (int k = 0; k < dimension(); k++) {
+			Dual.multiply(data, k * s, a.data, k * s, result, k * s, p);
+		}
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the dot product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return {@code this . a}
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public Dual dotProduct(DualArrayVector a) {
+		checkOperand(a);
+		int s = p + 1;
+		double[] result = new double[s];
+		for (int k = 0; k < dimension(); k++) {
+			Dual.multiplyAdd(data, k * s, a.data, k * s, result, 0, p);
+		}
+		return Dual.wrap(result);
+	}
+
+	/**
+	 * Returns the cross product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return {@code this x a}
+	 * @throws IllegalVectorDimensionException if either vector is not
+	 *         three-dimensional
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualArrayVector crossProduct(DualArrayVector a) {
+		if (dimension() != 3 || a.dimension() != 3) {
+			throw new IllegalVectorDimensionException(
+					"Cross product is not defined for vectors of dimension "
+							+ dimension() + " and " + a.dimension());
+		}
+		checkParameters(a.p);
+		int s = p + 1;
+		int x = 0, y = s, z = 2 * s;
+		double[] b = a.data;
+		double[] result = new double[data.length];
+		Dual.multiply(data, y, b, z, result, x, p);
+		Dual.multiplySubtract(data, z, b, y, result, x, p);
+		Dual.multiply(data, z, b, x, result, y, p);
+		Dual.multiplySubtract(data, x, b, z, result, y, p);
+		Dual.multiply(data, x, b, y, result, z, p);
+		Dual.multiplySubtract(data, y, b, x, result, z, p);
+		return new DualArrayVector(p, result);
+	}
+
+	/**
+	 * Returns the square of the Euclidean norm of this vector.
+	 *
+	 * @return {@code this . this}
+	 */
+	public Dual magnitudeSquared() {
+		return dotProduct(this);
+	}
+
+	/**
+	 * Returns the Euclidean norm of this vector. The derivatives
+	 * are infinite or {@code NaN} if this vector is zero.
+	 *
+	 * @return the magnitude of this vector
+	 */
+	public Dual magnitude() {
+		double[] result = magnitudeSquared().array();
+		Dual.sqrt(result, 0, result, 0, p);
+		return Dual.wrap(result);
+	}
+
+	/**
+	 * Returns this vector divided by its magnitude.
+	 * Like {@link ArrayVector#normalized()}, this multiplies the vector
+	 * by the reciprocal of its magnitude.
+	 *
+	 * @return the unit vector in the direction of this vector
+	 */
+	public DualArrayVector normalized() {
+		double[] one = new double[p + 1];
+		one[0] = 1;
+		double[] reciprocal = new double[p + 1];
+		Dual.divide(one, 0, magnitude().array(), 0, reciprocal, 0, p);
+		return times(reciprocal);
+	}
+
+	private void checkOperand(DualArrayVector other) {
+		checkDimension(other.dimension());
+		checkParameters(other.p);
+	}
+
+	private void checkDimension(int dimension) {
+		if (dimension != dimension()) {
+			throw new IllegalVectorDimensionException("Vector dimensions do not match: "
+					+ dimension() + " and " + dimension);
+		}
+	}
+
+	private void checkParameters(int parameters) {
+		if (parameters != p) {
+			throw new IllegalArgumentException("Numbers of parameters do not match: "
+					+ p + " and " + parameters);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(data);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof DualArrayVector)) return false;
+		DualArrayVector other = (DualArrayVector) obj;
+		return p == other.p && Arrays.equals(data, other.data);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int k = 0; k < dimension(); k++) {
+			if (k > 0) {
+				sb.append(", ");
+			}
+			sb.append(get(k));
+		}
+		return sb.append(']').toString();
+	}
+}
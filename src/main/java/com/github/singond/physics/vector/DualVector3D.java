@@ -0,0 +1,428 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * A three-dimensional vector whose components are {@link Dual} numbers,
+ * carrying their partial derivatives with respect to a fixed number
+ * of parameters, for forward-mode automatic differentiation.
+ * <p>
+ * This class provides the operations of {@link Vector3D} and applies
+ * the rules of differentiation to the derivatives of the components,
+ * so that a computation with vectors yields the derivatives of its
+ * result with respect to all parameters in a single pass. The values
+ * are computed by the same operations as in {@code Vector3D} and are
+ * identical to its results. The derivative of the vector with respect
+ * to a parameter is available as a {@code Vector3D} from
+ * {@link #derivative(int)}.
+ * <p>
+ * Scalar results such as the magnitude are returned as {@code Dual}s.
+ * For this reason, this class does not implement {@code Vector}.
+ * The values and derivatives of all components are stored in a single
+ * array of {@code double}s, each component followed by its derivatives.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ * @see DualArrayVector
+ */
+public final class DualVector3D {
+
+	/** The number of parameters. */
+	private final int p;
+
+	/**
+	 * The components, each stored in {@code p + 1} consecutive elements
+	 * as the value followed by the derivatives.
+	 */
+	private final double[] data;
+
+	private DualVector3D(int parameters, double[] data) {
+		this.p = parameters;
+		this.data = data;
+	}
+
+	/**
+	 * Returns a vector which does not depend on any of the parameters.
+	 *
+	 * @param value the value of the vector
+	 * @param parameters the number of parameters
+	 * @return the vector {@code value} with all derivatives zero
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code value} is not 3
+	 * @throws IllegalArgumentException if {@code parameters} is negative
+	 */
+	public static DualVector3D constant(Vector value, int parameters) {
+		Geometry.checkDimension(value);
+		Dual.checkParameters(parameters);
+		int s = parameters + 1;
+		double[] data = new double[3 * s];
+		for (int k = 0; k < 3; k++) {
+			data[k * s] = value.get(k);
+		}
+		return new DualVector3D(parameters, data);
+	}
+
+	/**
+	 * Returns a vector whose components are three consecutive parameters,
+	 * such as the position of a body with respect to which derivatives
+	 * are taken.
+	 *
+	 * @param value the value of the vector
+	 * @param parameters the number of parameters
+	 * @param firstIndex the index of the parameter which is the
+	 *        x-component; the y- and z-components are the next two
+	 * @return the vector {@code value} whose derivative with respect to
+	 *         the parameters {@code firstIndex} to {@code firstIndex + 2}
+	 *         is the respective unit vector
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code value} is not 3
+	 * @throws IllegalArgumentException if {@code parameters} is negative
+	 * @throws IndexOutOfBoundsException if the parameter indices are
+	 *         out of range
+	 */
+	public static DualVector3D variable(Vector value, int parameters, int firstIndex) {
+		Geometry.checkDimension(value);
+		Dual.checkParameters(parameters);
+		if (firstIndex < 0 || firstIndex + 3 > parameters) {
+			throw new IndexOutOfBoundsException("Invalid parameter index: "
+					+ firstIndex + ", parameters: " + parameters);
+		}
+		int s = parameters + 1;
+		double[] data = new double[3 * s];
+		for (int k = 0; k < 3; k++) {
+			data[k * s] = value.get(k);
+			data[k * s + 1 + firstIndex + k] = 1;
+		}
+		return new DualVector3D(parameters, data);
+	}
+
+	/**
+	 * Returns the vector with the given components.
+	 *
+	 * @param x x-component of the vector
+	 * @param y y-component of the vector
+	 * @param z z-component of the vector
+	 * @return the vector with the given components
+	 * @throws IllegalArgumentException if the components have different
+	 *         numbers of parameters
+	 */
+	public static DualVector3D valueOf(Dual x, Dual y, Dual z) {
+		int parameters = x.parameters();
+		if (y.parameters() != parameters || z.parameters() != parameters) {
+			throw new IllegalArgumentException("Numbers of parameters do not match: "
+					+ x.parameters() + ", " + y.parameters() + " and " + z.parameters());
+		}
+		int s = parameters + 1;
+		double[] data = new double[3 * s];
+		System.arraycopy(x.array(), 0, data, 0, s);
+		System.arraycopy(y.array(), 0, data, s, s);
+		System.arraycopy(z.array(), 0, data, 2 * s, s);
+		return new DualVector3D(parameters, data);
+	}
+
+	/**
+	 * Returns the given component of this vector.
+	 *
+	 * @param component the (zero-based) index of the component
+	 * @return the {@code component}th component of this vector
+	 * @throws IndexOutOfBoundsException if {@code component} is not
+	 *         0, 1 or 2
+	 */
+	public Dual get(int component) {
+		if (component < 0 || component > 2) {
+			throw new IndexOutOfBoundsException(
+					"Invalid component index: " + component);
+		}
+		int s = p + 1;
+		return Dual.wrap(Arrays.copyOfRange(data, component * s, (component + 1) * s));
+	}
+
+	/**
+	 * Returns the dimension of this vector, which is always 3.
+	 *
+	 * @return the number 3
+	 */
+	public int dimension() {
+		return 3;
+	}
+
+	/**
+	 * Returns the number of parameters.
+	 *
+	 * @return the number of partial derivatives of each component
+	 */
+	public int parameters() {
+		return p;
+	}
+
+	/**
+	 * Returns the value of this vector.
+	 *
+	 * @return the vector of the values of the components
+	 */
+	public Vector3D value() {
+		int s = p + 1;
+		return Vector3D.valueOf(data[0], data[s], data[2 * s]);
+	}
+
+	/**
+	 * Returns the partial derivative of this vector with respect
+	 * to the given parameter.
+	 *
+	 * @param parameter the index of the parameter
+	 * @return the vector of the derivatives of the components
+	 *         with respect to {@code parameter}
+	 * @throws IndexOutOfBoundsException if {@code parameter} is negative or
+	 *         not lower than {@code parameters()}
+	 */
+	public Vector3D derivative(int parameter) {
+		if (parameter < 0 || parameter >= p) {
+			throw new IndexOutOfBoundsException("Invalid parameter index: "
+					+ parameter + ", parameters: " + p);
+		}
+		int s = p + 1;
+		int j = 1 + parameter;
+		return Vector3D.valueOf(data[j], data[s + j], data[2 * s + j]);
+	}
+
+	/**
+	 * Returns the sum of this vector and the given vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return {@code this + addend}
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualVector3D plus(DualVector3D addend) {
+		checkParameters(addend);
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] + addend.data[i];
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the sum of this vector and the given constant vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return {@code this + addend}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code addend} is not 3
+	 */
+	public DualVector3D plus(Vector addend) {
+		Geometry.checkDimension(addend);
+		double[] result = data.clone();
+		for (int k = 0; k < 3; k++) {
+			result[k * (p + 1)] += addend.get(k);
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the difference of this vector and the given vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return {@code this - subtrahend}
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualVector3D minus(DualVector3D subtrahend) {
+		checkParameters(subtrahend);
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] - subtrahend.data[i];
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the difference of this vector and the given constant vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return {@code this - subtrahend}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code subtrahend} is not 3
+	 */
+	public DualVector3D minus(Vector subtrahend) {
+		Geometry.checkDimension(subtrahend);
+		double[] result = data.clone();
+		for (int k = 0; k < 3; k++) {
+			result[k * (p + 1)] -= subtrahend.get(k);
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the opposite of this vector.
+	 *
+	 * @return {@code -this}
+	 */
+	public DualVector3D negative() {
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = -data[i];
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the product of this vector and the given constant.
+	 *
+	 * @param scalar the constant to multiply by
+	 * @return {@code this * scalar}
+	 */
+	public DualVector3D times(double scalar) {
+		double[] result = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			result[i] = data[i] * scalar;
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the product of this vector and the given number.
+	 *
+	 * @param scalar the number to multiply by
+	 * @return {@code this * scalar}
+	 * @throws IllegalArgumentException if the vector and the number have
+	 *         different numbers of parameters
+	 */
+	public DualVector3D times(Dual scalar) {
+		checkParameters(scalar);
+		double[] result = new double[data.length];
+		int s = p + 1;
+		for (int k = 0; k < 3; k++) {
+			Dual.multiply(data, k * s, scalar.array(), 0, result, k * s, p);
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the pointwise product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return the vector of products of corresponding components
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualVector3D pointwiseProduct(DualVector3D a) {
+		checkParameters(a);
+		double[] result = new double[data.length];
+		int s = p + 1;
+		for (int k = 0; k < 3; k++) {
+			Dual.multiply(data, k * s, a.data, k * s, result, k * s, p);
+		}
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the dot product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return {@code this . a}
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public Dual dotProduct(DualVector3D a) {
+		checkParameters(a);
+		int s = p + 1;
+		double[] result = new double[s];
+		Dual.multiply(data, 0, a.data, 0, result, 0, p);
+		Dual.multiplyAdd(data, s, a.data, s, result, 0, p);
+		Dual.multiplyAdd(data, 2 * s, a.data, 2 * s, result, 0, p);
+		return Dual.wrap(result);
+	}
+
+	/**
+	 * Returns the cross product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return {@code this x a}
+	 * @throws IllegalArgumentException if the vectors have different
+	 *         numbers of parameters
+	 */
+	public DualVector3D crossProduct(DualVector3D a) {
+		checkParameters(a);
+		int s = p + 1;
+		int x = 0, y = s, z = 2 * s;
+		double[] b = a.data;
+		double[] result = new double[data.length];
+		Dual.multiply(data, y, b, z, result, x, p);
+		Dual.multiplySubtract(data, z, b, y, result, x, p);
+		Dual.multiply(data, z, b, x, result, y, p);
+		Dual.multiplySubtract(data, x, b, z, result, y, p);
+		Dual.multiply(data, x, b, y, result, z, p);
+		Dual.multiplySubtract(data, y, b, x, result, z, p);
+		return new DualVector3D(p, result);
+	}
+
+	/**
+	 * Returns the square of the Euclidean norm of this vector.
+	 *
+	 * @return {@code this . this}
+	 */
+	public Dual magnitudeSquared() {
+		return dotProduct(this);
+	}
+
+	/**
+	 * Returns the Euclidean norm of this vector. The derivatives
+	 * are infinite or {@code NaN} if this vector is zero.
+	 *
+	 * @return the magnitude of this vector
+	 */
+	public Dual magnitude() {
+		double[] result = magnitudeSquared().array();
+		Dual.sqrt(result, 0, result, 0, p);
+		return Dual.wrap(result);
+	}
+
+	/**
+	 * Returns this vector divided by its magnitude.
+	 *
+	 * @return the unit vector in the direction of this vector
+	 */
+	public DualVector3D normalized() {
+		double[] magnitude = magnitude().array();
+		double[] result = new double[data.length];
+		int s = p + 1;
+		for (int k = 0; k < 3; k++) {
+			Dual.divide(data, k * s, magnitude, 0, result, k * s, p);
+		}
+		return new DualVector3D(p, result);
+	}
+
+	private void checkParameters(DualVector3D other) {
+		if (other.p != p) {
+			throw new IllegalArgumentException("Numbers of parameters do not match: "
+					+ p + " and " + other.p);
+		}
+	}
+
+	private void checkParameters(Dual other) {
+		if (other.parameters() != p) {
+			throw new IllegalArgumentException("Numbers of parameters do not match: "
+					+ p + " and " + other.parameters());
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(data);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof DualVector3D)) return false;
+		return Arrays.equals(data, ((DualVector3D) obj).data);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + get(0) + ", " + get(1) + ", " + get(2) + "]";
+	}
+}
@@ -0,0 +1,25 @@
+package com.github.singond.physics.vector;
+
+/**
+ * An integrator using the explicit (forward) Euler method.
+ *
+ * @author Singon
+ * @see Integrator#euler(ForceFunction)
+ */
+final class EulerIntegrator extends Integrator {
+
+	EulerIntegrator(ForceFunction force) {
+		super(force);
+	}
+
+	@Override
+	void doStep(SystemState state, double step) {
+		updateAcceleration(state);
+		final double[] x = state.position;
+		final double[] v = state.velocity;
+		final double[] a = state.acceleration;
+		Kernels.axpy(step, v, x, x.length);
+		Kernels.axpy(step, a, v, v.length);
+		state.accelerationSource = null;
+	}
+}
@@ -0,0 +1,86 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A function giving the accelerations of a system of bodies
+ * (that is the forces acting on the bodies divided by their masses)
+ * in terms of time and the positions and velocities of the bodies.
+ * <p>
+ * The state of the system is passed in flat arrays of {@code double}s,
+ * where the {@code c}th component of the position of the {@code i}th body
+ * is stored at index {@code i * dimension + c}, and similarly for
+ * the velocity and acceleration. This layout is the same as used by
+ * {@link SystemState}.
+ * <p>
+ * Implementations are called once or more per integration step and should
+ * avoid allocating objects. Where this is not a concern, a force function
+ * can be written in terms of {@code Vector} objects using
+ * {@link #perBody(int, PerBody)}.
+ *
+ * @author Singon
+ * @see Integrator
+ */
+@FunctionalInterface
+public interface ForceFunction {
+
+	/**
+	 * Calculates the accelerations of all bodies in the given state
+	 * and writes them into {@code acceleration}.
+	 * The implementation must not modify {@code position} or {@code velocity}.
+	 *
+	 * @param time the time of the state
+	 * @param position the positions of all bodies
+	 * @param velocity the velocities of all bodies
+	 * @param acceleration the array to write the accelerations into;
+	 *        of the same length as {@code position}
+	 */
+	void accelerations(double time, double[] position, double[] velocity,
+			double[] acceleration);
+
+	/**
+	 * Returns a force function which calculates the acceleration of each
+	 * body independently of the others, using the given function
+	 * of {@code Vector}s.
+	 * <p>
+	 * The resulting force function creates new vector objects for every
+	 * body in every evaluation. It is convenient for simple models, but
+	 * performance-sensitive code should implement {@code ForceFunction}
+	 * directly.
+	 *
+	 * @param dimension the dimension of the space the bodies move in
+	 * @param force the function giving the acceleration of a single body
+	 * @return a force function applying {@code force} to every body
+	 */
+	static ForceFunction perBody(int dimension, PerBody force) {
+		return (time, position, velocity, acceleration) -> {
+			for (int offset = 0; offset < position.length; offset += dimension) {
+				Vector a = force.acceleration(time,
+						SystemState.vector(position, offset, dimension),
+						SystemState.vector(velocity, offset, dimension));
+				if (a.dimension() != dimension) {
+					throw new IllegalVectorDimensionException(a);
+				}
+				for (int c = 0; c < dimension; c++) {
+					acceleration[offset + c] = a.get(c);
+				}
+			}
+		};
+	}
+
+	/**
+	 * The acceleration of a single body as a function of time and the
+	 * position and velocity of the body.
+	 */
+	@FunctionalInterface
+	interface PerBody {
+
+		/**
+		 * Returns the acceleration of a body in the given state.
+		 *
+		 * @param time the time of the state
+		 * @param position the position of the body
+		 * @param velocity the velocity of the body
+		 * @return the acceleration of the body
+		 */
+		Vector acceleration(double time, Vector position, Vector velocity);
+	}
+}
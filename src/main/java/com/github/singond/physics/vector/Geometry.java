@@ -0,0 +1,127 @@
+package com.github.singond.physics.vector;
+
+/**
+ * Intersection routines shared by the geometric primitives and
+ * their batched versions in {@link Kernels}.
+ * <p>
+ * Each routine returns the parameter {@code t >= 0} of the first
+ * intersection of the ray {@code o + t * d} with the primitive,
+ * or {@code NaN} if there is none. The routines avoid branches where
+ * possible, so that their vectorized versions can compute exactly
+ * the same sequence of operations.
+ *
+ * @author Singon
+ */
+final class Geometry {
+
+	private Geometry() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Intersects a ray with a sphere of center {@code c} and squared
+	 * radius {@code r2}. If the ray starts inside the sphere,
+	 * the intersection with the surface in front of it is returned.
+	 */
+	static double raySphere(double ox, double oy, double oz,
+			double dx, double dy, double dz,
+			double cx, double cy, double cz, double r2) {
+		double lx = ox - cx;
+		double ly = oy - cy;
+		double lz = oz - cz;
+		double a = dx * dx + dy * dy + dz * dz;
+		double b = lx * dx + ly * dy + lz * dz;
+		double c = lx * lx + ly * ly + lz * lz - r2;
+		// The square root is NaN if the ray misses the sphere
+		double s = Math.sqrt(b * b - a * c);
+		double t0 = (-b - s) / a;
+		double t1 = (-b + s) / a;
+		return t0 >= 0 ? t0 : t1 >= 0 ? t1 : Double.NaN;
+	}
+
+	/**
+	 * Intersects a ray with an axis-aligned box by the slab method.
+	 * If the ray starts inside the box, zero is returned.
+	 * A ray lying in the plane of a face of the box may miss it.
+	 */
+	static double rayBox(double ox, double oy, double oz,
+			double dx, double dy, double dz,
+			double minX, double minY, double minZ,
+			double maxX, double maxY, double maxZ) {
+		double ix = 1 / dx;
+		double iy = 1 / dy;
+		double iz = 1 / dz;
+		double t1 = (minX - ox) * ix;
+		double t2 = (maxX - ox) * ix;
+		double near = Math.min(t1, t2);
+		double far = Math.max(t1, t2);
+		t1 = (minY - oy) * iy;
+		t2 = (maxY - oy) * iy;
+		near = Math.max(near, Math.min(t1, t2));
+		far = Math.min(far, Math.max(t1, t2));
+		t1 = (minZ - oz) * iz;
+		t2 = (maxZ - oz) * iz;
+		near = Math.max(near, Math.min(t1, t2));
+		far = Math.min(far, Math.max(t1, t2));
+		near = Math.max(near, 0);
+		return near <= far ? near : Double.NaN;
+	}
+
+	/**
+	 * Intersects a ray with a plane of unit normal {@code n}
+	 * and offset {@code offset}. A ray parallel to the plane misses it.
+	 */
+	static double rayPlane(double ox, double oy, double oz,
+			double dx, double dy, double dz,
+			double nx, double ny, double nz, double offset) {
+		double t = (offset - (nx * ox + ny * oy + nz * oz))
+				/ (nx * dx + ny * dy + nz * dz);
+		return t >= 0 && t < Double.POSITIVE_INFINITY ? t : Double.NaN;
+	}
+
+	/**
+	 * Intersects a ray with a triangle with vertex {@code a} and edges
+	 * {@code e1 = b - a} and {@code e2 = c - a}
+	 * by the Moller-Trumbore algorithm. Both sides of the triangle
+	 * are hit; a ray in the plane of the triangle misses it.
+	 */
+	static double rayTriangle(double ox, double oy, double oz,
+			double dx, double dy, double dz,
+			double ax, double ay, double az,
+			double e1x, double e1y, double e1z,
+			double e2x, double e2y, double e2z) {
+		double px = dy * e2z - dz * e2y;
+		double py = dz * e2x - dx * e2z;
+		double pz = dx * e2y - dy * e2x;
+		double inverse = 1 / (e1x * px + e1y * py + e1z * pz);
+		double sx = ox - ax;
+		double sy = oy - ay;
+		double sz = oz - az;
+		double u = (sx * px + sy * py + sz * pz) * inverse;
+		double qx = sy * e1z - sz * e1y;
+		double qy = sz * e1x - sx * e1z;
+		double qz = sx * e1y - sy * e1x;
+		double v = (dx * qx + dy * qy + dz * qz) * inverse;
+		double t = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+		return u >= 0 && v >= 0 && u + v <= 1 && t >= 0 ? t : Double.NaN;
+	}
+
+	/**
+	 * Checks that the given vector is three-dimensional.
+	 *
+	 * @throws IllegalVectorDimensionException if it is not
+	 */
+	static void checkDimension(Vector vector) {
+		if (vector.dimension() != 3) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+	}
+
+	/**
+	 * Indicates whether two numbers are equal in the sense of
+	 * {@link Double#equals(Object)}.
+	 */
+	static boolean equal(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+}
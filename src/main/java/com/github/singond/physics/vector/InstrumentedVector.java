@@ -0,0 +1,166 @@
+package com.github.singond.physics.vector;
+
+import java.util.List;
+
+import com.github.singond.physics.vector.VectorInstrumentation.Operation;
+
+/**
+ * A vector which records every operation performed on it in
+ * {@link VectorInstrumentation} and forwards it to another vector.
+ * Vectors returned by the operations are instrumented as well,
+ * so that wrapping the inputs of a computation is enough to instrument
+ * the whole computation.
+ * <p>
+ * The operations are recorded under the class of the wrapped vector.
+ *
+ * @author Singon
+ */
+public final class InstrumentedVector implements Vector {
+
+	private final Vector delegate;
+
+	private InstrumentedVector(Vector delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Returns an instrumented view of the given vector.
+	 *
+	 * @param vector the vector to be instrumented
+	 * @return an instrumented vector forwarding to {@code vector},
+	 *         or {@code vector} itself if it is already instrumented
+	 */
+	public static InstrumentedVector wrap(Vector vector) {
+		if (vector instanceof InstrumentedVector) {
+			return (InstrumentedVector) vector;
+		}
+		return new InstrumentedVector(vector);
+	}
+
+	/**
+	 * Returns the vector wrapped by this instrumented vector.
+	 *
+	 * @return the wrapped vector
+	 */
+	public Vector unwrap() {
+		return delegate;
+	}
+
+	private static Vector unwrap(Vector vector) {
+		if (vector instanceof InstrumentedVector) {
+			return ((InstrumentedVector) vector).delegate;
+		}
+		return vector;
+	}
+
+	private void record(Operation operation) {
+		VectorInstrumentation.recordOperation(operation, delegate);
+	}
+
+	@Override
+	public List<Double> components() {
+		record(Operation.COMPONENTS);
+		return delegate.components();
+	}
+
+	@Override
+	public double get(int component) {
+		record(Operation.GET);
+		return delegate.get(component);
+	}
+
+	@Override
+	public int dimension() {
+		return delegate.dimension();
+	}
+
+	@Override
+	public double magnitude() {
+		record(Operation.MAGNITUDE);
+		return delegate.magnitude();
+	}
+
+	@Override
+	public double magnitudeSquared() {
+		record(Operation.MAGNITUDE_SQUARED);
+		return delegate.magnitudeSquared();
+	}
+
+	@Override
+	public InstrumentedVector normalized() {
+		record(Operation.NORMALIZED);
+		return wrap(delegate.normalized());
+	}
+
+	@Override
+	public InstrumentedVector negative() {
+		record(Operation.NEGATIVE);
+		return wrap(delegate.negative());
+	}
+
+	@Override
+	public InstrumentedVector plus(Vector addend) {
+		record(Operation.PLUS);
+		return wrap(delegate.plus(unwrap(addend)));
+	}
+
+	@Override
+	public InstrumentedVector minus(Vector subtrahend) {
+		record(Operation.MINUS);
+		return wrap(delegate.minus(unwrap(subtrahend)));
+	}
+
+	@Override
+	public InstrumentedVector times(double scalar) {
+		record(Operation.TIMES);
+		return wrap(delegate.times(scalar));
+	}
+
+	@Override
+	public double dotProduct(Vector a) {
+		record(Operation.DOT_PRODUCT);
+		return delegate.dotProduct(unwrap(a));
+	}
+
+	@Override
+	public InstrumentedVector crossProduct(Vector a) {
+		record(Operation.CROSS_PRODUCT);
+		return wrap(delegate.crossProduct(unwrap(a)));
+	}
+
+	@Override
+	public InstrumentedVector pointwiseProduct(Vector a) {
+		record(Operation.POINTWISE_PRODUCT);
+		return wrap(delegate.pointwiseProduct(unwrap(a)));
+	}
+
+	@Override
+	public double angleWith(Vector a) {
+		record(Operation.ANGLE_WITH);
+		return delegate.angleWith(unwrap(a));
+	}
+
+	@Override
+	public boolean equalsWithin(Vector a, double absTolerance, double relTolerance) {
+		record(Operation.EQUALS_WITHIN);
+		return delegate.equalsWithin(unwrap(a), absTolerance, relTolerance);
+	}
+
+	@Override
+	public int hashCode() {
+		return delegate.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof InstrumentedVector) {
+			obj = ((InstrumentedVector) obj).delegate;
+		}
+		return delegate.equals(obj);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
@@ -0,0 +1,150 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A numerical method for solving the equations of motion of a system
+ * of bodies, advancing a {@link SystemState} in time by discrete steps.
+ * The accelerations of the bodies are given by a {@link ForceFunction}.
+ * <p>
+ * Integrators keep any intermediate values in scratch buffers which are
+ * allocated on the first step and reused in all following steps of systems
+ * of the same size. Stepping a system therefore produces no garbage,
+ * provided that the force function does not produce any either.
+ * Because of the shared buffers, a single instance of {@code Integrator}
+ * must not be used by multiple threads at once.
+ *
+ * @author Singon
+ */
+public abstract class Integrator {
+
+	/** The function giving the accelerations of the bodies. */
+	final ForceFunction force;
+
+	/** The length of the state arrays the scratch buffers are sized for. */
+	private int capacity = -1;
+
+	Integrator(ForceFunction force) {
+		if (force == null) {
+			throw new NullPointerException("Force function must not be null");
+		}
+		this.force = force;
+	}
+
+	/**
+	 * Returns an integrator using the explicit (forward) Euler method.
+	 * This is a first-order method which does not conserve energy;
+	 * it is mostly useful as a reference.
+	 *
+	 * @param force the function giving the accelerations of the bodies
+	 * @return an explicit Euler integrator
+	 */
+	public static Integrator euler(ForceFunction force) {
+		return new EulerIntegrator(force);
+	}
+
+	/**
+	 * Returns an integrator using the semi-implicit (symplectic) Euler
+	 * method, which updates the velocities first and then uses the new
+	 * velocities to update the positions.
+	 * This is a first-order method with good long-term energy behaviour.
+	 *
+	 * @param force the function giving the accelerations of the bodies
+	 * @return a semi-implicit Euler integrator
+	 */
+	public static Integrator semiImplicitEuler(ForceFunction force) {
+		return new SemiImplicitEulerIntegrator(force);
+	}
+
+	/**
+	 * Returns an integrator using the velocity Verlet method.
+	 * This is a second-order symplectic method evaluating the force
+	 * function only once per step.
+	 * Velocity-dependent forces are evaluated with the velocity estimated
+	 * at the middle of the step.
+	 *
+	 * @param force the function giving the accelerations of the bodies
+	 * @return a velocity Verlet integrator
+	 */
+	public static Integrator velocityVerlet(ForceFunction force) {
+		return new VelocityVerletIntegrator(force);
+	}
+
+	/**
+	 * Returns an integrator using the classical fourth-order Runge-Kutta
+	 * method. This evaluates the force function four times per step.
+	 *
+	 * @param force the function giving the accelerations of the bodies
+	 * @return a fourth-order Runge-Kutta integrator
+	 */
+	public static Integrator rungeKutta4(ForceFunction force) {
+		return new RungeKutta4Integrator(force);
+	}
+
+	/**
+	 * Advances the given state by a single step.
+	 *
+	 * @param state the state to be advanced; it is modified in place
+	 * @param step the length of the time step
+	 */
+	public final void step(SystemState state, double step) {
+		ensureCapacity(state);
+		doStep(state, step);
+		state.advanceTime(step);
+	}
+
+	/**
+	 * Advances the given state by the given number of steps.
+	 *
+	 * @param state the state to be advanced; it is modified in place
+	 * @param step the length of each time step
+	 * @param steps the number of steps
+	 */
+	public final void integrate(SystemState state, double step, long steps) {
+		ensureCapacity(state);
+		for (long i = 0; i < steps; i++) {
+			doStep(state, step);
+			state.advanceTime(step);
+		}
+	}
+
+	private void ensureCapacity(SystemState state) {
+		int length = state.position.length;
+		if (length != capacity) {
+			allocate(length);
+			capacity = length;
+		}
+	}
+
+	/**
+	 * Allocates the scratch buffers for states whose arrays are
+	 * of the given length. Does nothing by default.
+	 *
+	 * @param length the length of the position and velocity arrays
+	 */
+	void allocate(int length) {}
+
+	/**
+	 * Advances the positions and velocities in the given state by a single
+	 * step. The time of the state is updated by the caller.
+	 *
+	 * @param state the state to be advanced
+	 * @param step the length of the time step
+	 */
+	abstract void doStep(SystemState state, double step);
+
+	/**
+	 * Makes sure that the cached acceleration in the given state
+	 * is up to date, evaluating the force function if necessary.
+	 * The cached acceleration is reused only if it was stored by this
+	 * integrator, so that it always comes from this force function
+	 * and from the way this method evaluates it.
+	 *
+	 * @param state the state whose acceleration is required
+	 */
+	final void updateAcceleration(SystemState state) {
+		if (state.accelerationSource != this) {
+			force.accelerations(state.time(), state.position, state.velocity,
+					state.acceleration);
+			state.accelerationSource = this;
+		}
+	}
+}
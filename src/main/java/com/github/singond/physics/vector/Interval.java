@@ -0,0 +1,384 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A closed interval of real numbers {@code [lower, upper]}, used as
+ * a number with rigorous bounds on its rounding error.
+ * <p>
+ * The arithmetic operations of this class return intervals which
+ * contain the exact result of the operation applied to any numbers
+ * in the operands. Java rounds floating-point results to the nearest
+ * representable number, so each bound is computed by the ordinary
+ * operation and then moved outwards by one unit in the last place
+ * with {@link Math#nextDown(double)} or {@link Math#nextUp(double)}.
+ * Because rounding to nearest is monotonic, the resulting interval also
+ * contains the result of the same computation in ordinary
+ * {@code double} arithmetic. The width of the result of a long
+ * computation is thus a bound on its accumulated rounding error.
+ * <p>
+ * Bounds may be infinite. Operations whose result is not bounded,
+ * such as division by an interval containing zero, return the whole
+ * real line {@code [-Infinity, Infinity]}.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ * @see IntervalVector3D
+ * @see IntervalArrayVector
+ */
+public final class Interval {
+
+	private static final Interval ZERO = new Interval(0, 0);
+	private static final Interval ENTIRE = new Interval(
+			Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+	final double lower;
+	final double upper;
+
+	private Interval(double lower, double upper) {
+		this.lower = lower;
+		this.upper = upper;
+	}
+
+	/**
+	 * Returns the interval containing the given number only.
+	 *
+	 * @param value the number
+	 * @return the interval {@code [value, value]}
+	 */
+	public static Interval of(double value) {
+		return new Interval(value, value);
+	}
+
+	/**
+	 * Returns the interval with the given bounds.
+	 *
+	 * @param lower the lower bound
+	 * @param upper the upper bound
+	 * @return the interval {@code [lower, upper]}
+	 * @throws IllegalArgumentException if {@code lower} is greater than
+	 *         {@code upper} or either bound is {@code NaN}
+	 */
+	public static Interval of(double lower, double upper) {
+		checkBounds(lower, upper);
+		return new Interval(lower, upper);
+	}
+
+	/**
+	 * Returns the interval containing only zero.
+	 *
+	 * @return the interval {@code [0, 0]}
+	 */
+	public static Interval zero() {
+		return ZERO;
+	}
+
+	/**
+	 * Returns the interval containing all real numbers.
+	 *
+	 * @return the interval {@code [-Infinity, Infinity]}
+	 */
+	public static Interval entire() {
+		return ENTIRE;
+	}
+
+	/**
+	 * Returns the lower bound of this interval.
+	 *
+	 * @return the lower bound
+	 */
+	public double lower() {
+		return lower;
+	}
+
+	/**
+	 * Returns the upper bound of this interval.
+	 *
+	 * @return the upper bound
+	 */
+	public double upper() {
+		return upper;
+	}
+
+	/**
+	 * Returns the number in the middle of this interval.
+	 *
+	 * @return the midpoint, rounded to the nearest {@code double}
+	 */
+	public double midpoint() {
+		if (Double.isInfinite(lower) || Double.isInfinite(upper)) {
+			return lower == -upper ? 0 : lower + upper;
+		}
+		return lower * 0.5 + upper * 0.5;
+	}
+
+	/**
+	 * Returns the width of this interval, rounded upwards.
+	 *
+	 * @return {@code upper() - lower()}, or an upper bound thereof
+	 */
+	public double width() {
+		return Math.nextUp(upper - lower);
+	}
+
+	/**
+	 * Indicates whether the given number lies in this interval.
+	 *
+	 * @param value the number
+	 * @return {@code true} if {@code lower() <= value <= upper()}
+	 */
+	public boolean contains(double value) {
+		return lower <= value && value <= upper;
+	}
+
+	/**
+	 * Indicates whether the given interval is a subset of this interval.
+	 *
+	 * @param other the other interval
+	 * @return {@code true} if every number in {@code other} lies
+	 *         in this interval
+	 */
+	public boolean contains(Interval other) {
+		return lower <= other.lower && other.upper <= upper;
+	}
+
+	/**
+	 * Returns the sum of this interval and the given interval.
+	 *
+	 * @param addend the interval to be added
+	 * @return an interval containing {@code a + b} for all {@code a}
+	 *         in this interval and {@code b} in {@code addend}
+	 */
+	public Interval plus(Interval addend) {
+		return new Interval(Math.nextDown(lower + addend.lower),
+				Math.nextUp(upper + addend.upper));
+	}
+
+	/**
+	 * Returns the sum of this interval and the given number.
+	 *
+	 * @param addend the number to be added
+	 * @return an interval containing {@code a + addend} for all {@code a}
+	 *         in this interval
+	 */
+	public Interval plus(double addend) {
+		return new Interval(Math.nextDown(lower + addend),
+				Math.nextUp(upper + addend));
+	}
+
+	/**
+	 * Returns the difference of this interval and the given interval.
+	 *
+	 * @param subtrahend the interval to be subtracted
+	 * @return an interval containing {@code a - b} for all {@code a}
+	 *         in this interval and {@code b} in {@code subtrahend}
+	 */
+	public Interval minus(Interval subtrahend) {
+		return new Interval(Math.nextDown(lower - subtrahend.upper),
+				Math.nextUp(upper - subtrahend.lower));
+	}
+
+	/**
+	 * Returns the difference of this interval and the given number.
+	 *
+	 * @param subtrahend the number to be subtracted
+	 * @return an interval containing {@code a - subtrahend} for all
+	 *         {@code a} in this interval
+	 */
+	public Interval minus(double subtrahend) {
+		return new Interval(Math.nextDown(lower - subtrahend),
+				Math.nextUp(upper - subtrahend));
+	}
+
+	/**
+	 * Returns the additive inverse of this interval.
+	 * The result is exact.
+	 *
+	 * @return the interval {@code [-upper(), -lower()]}
+	 */
+	public Interval negative() {
+		return new Interval(-upper, -lower);
+	}
+
+	/**
+	 * Returns the product of this interval and the given interval.
+	 *
+	 * @param factor the interval to multiply by
+	 * @return an interval containing {@code a * b} for all {@code a}
+	 *         in this interval and {@code b} in {@code factor}
+	 */
+	public Interval times(Interval factor) {
+		return new Interval(
+				productLower(lower, upper, factor.lower, factor.upper),
+				productUpper(lower, upper, factor.lower, factor.upper));
+	}
+
+	/**
+	 * Returns the product of this interval and the given number.
+	 *
+	 * @param factor the number to multiply by
+	 * @return an interval containing {@code a * factor} for all {@code a}
+	 *         in this interval
+	 */
+	public Interval times(double factor) {
+		return new Interval(scaleLower(lower, upper, factor),
+				scaleUpper(lower, upper, factor));
+	}
+
+	/**
+	 * Returns the quotient of this interval and the given interval.
+	 *
+	 * @param divisor the interval to divide by
+	 * @return an interval containing {@code a / b} for all {@code a}
+	 *         in this interval and {@code b} in {@code divisor},
+	 *         or the whole real line if {@code divisor} contains zero
+	 */
+	public Interval dividedBy(Interval divisor) {
+		return new Interval(
+				quotientLower(lower, upper, divisor.lower, divisor.upper),
+				quotientUpper(lower, upper, divisor.lower, divisor.upper));
+	}
+
+	/**
+	 * Returns the quotient of this interval and the given number.
+	 *
+	 * @param divisor the number to divide by
+	 * @return an interval containing {@code a / divisor} for all {@code a}
+	 *         in this interval, or the whole real line if {@code divisor}
+	 *         is zero
+	 */
+	public Interval dividedBy(double divisor) {
+		return new Interval(
+				quotientLower(lower, upper, divisor, divisor),
+				quotientUpper(lower, upper, divisor, divisor));
+	}
+
+	/**
+	 * Returns the square of this interval. This is narrower than the
+	 * product of this interval with itself if it contains zero.
+	 *
+	 * @return an interval containing {@code a * a} for all {@code a}
+	 *         in this interval
+	 */
+	public Interval square() {
+		return new Interval(squareLower(lower, upper), squareUpper(lower, upper));
+	}
+
+	/**
+	 * Returns the square root of this interval. Negative numbers
+	 * in this interval are ignored.
+	 *
+	 * @return an interval containing the square roots of all non-negative
+	 *         numbers in this interval, or an interval of {@code NaN}s
+	 *         if there are none
+	 */
+	public Interval sqrt() {
+		if (upper < 0) {
+			return new Interval(Double.NaN, Double.NaN);
+		}
+		return new Interval(sqrtLower(lower), sqrtUpper(upper));
+	}
+
+	/*
+	 * Bounds of operations on intervals given by their bounds,
+	 * shared with the interval vectors so that they need not allocate
+	 * intermediate intervals.
+	 */
+
+	static void checkBounds(double lower, double upper) {
+		if (!(lower <= upper)) {
+			throw new IllegalArgumentException(
+					"Invalid interval bounds: [" + lower + ", " + upper + "]");
+		}
+	}
+
+	/**
+	 * Returns the product of two bounds, taking zero times infinity
+	 * to be zero.
+	 */
+	private static double product(double a, double b) {
+		double p = a * b;
+		if (p != p && (a == 0 || b == 0)) {
+			return 0;
+		}
+		return p;
+	}
+
+	static double productLower(double al, double au, double bl, double bu) {
+		return Math.nextDown(Math.min(
+				Math.min(product(al, bl), product(al, bu)),
+				Math.min(product(au, bl), product(au, bu))));
+	}
+
+	static double productUpper(double al, double au, double bl, double bu) {
+		return Math.nextUp(Math.max(
+				Math.max(product(al, bl), product(al, bu)),
+				Math.max(product(au, bl), product(au, bu))));
+	}
+
+	static double scaleLower(double al, double au, double factor) {
+		return Math.nextDown(factor >= 0 ? product(al, factor) : product(au, factor));
+	}
+
+	static double scaleUpper(double al, double au, double factor) {
+		return Math.nextUp(factor >= 0 ? product(au, factor) : product(al, factor));
+	}
+
+	static double quotientLower(double al, double au, double bl, double bu) {
+		if (bl <= 0 && bu >= 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		return Math.nextDown(Math.min(Math.min(al / bl, al / bu),
+				Math.min(au / bl, au / bu)));
+	}
+
+	static double quotientUpper(double al, double au, double bl, double bu) {
+		if (bl <= 0 && bu >= 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return Math.nextUp(Math.max(Math.max(al / bl, al / bu),
+				Math.max(au / bl, au / bu)));
+	}
+
+	static double squareLower(double al, double au) {
+		if (al >= 0) {
+			return Math.nextDown(al * al);
+		} else if (au <= 0) {
+			return Math.nextDown(au * au);
+		} else {
+			return 0;
+		}
+	}
+
+	static double squareUpper(double al, double au) {
+		return Math.nextUp(Math.max(al * al, au * au));
+	}
+
+	static double sqrtLower(double lower) {
+		// Math.sqrt is correctly rounded
+		return lower <= 0 ? 0 : Math.nextDown(Math.sqrt(lower));
+	}
+
+	static double sqrtUpper(double upper) {
+		return Math.nextUp(Math.sqrt(upper));
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Double.hashCode(lower) + Double.hashCode(upper);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Interval)) return false;
+		Interval other = (Interval) obj;
+		return Double.doubleToLongBits(lower) == Double.doubleToLongBits(other.lower)
+			&& Double.doubleToLongBits(upper) == Double.doubleToLongBits(other.upper);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + lower + ", " + upper + "]";
+	}
+}
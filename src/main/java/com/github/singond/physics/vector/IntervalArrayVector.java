@@ -0,0 +1,468 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * A vector of arbitrary dimension whose components are
+ * {@link Interval}s, for computations with rigorous bounds on their
+ * rounding error.
+ * <p>
+ * This class is the counterpart of {@link IntervalVector3D} for
+ * {@link ArrayVector}: it provides the operations of {@link Vector}
+ * with interval arithmetic, so that the result of each operation
+ * contains the exact result for all vectors within the bounds of the
+ * operands, as well as the result of the same operation on
+ * {@code ArrayVector}s. As noted there, the bounds are rigorous but may
+ * widen much faster than the actual error in iterated computations.
+ * The lower and upper bounds of the components
+ * are stored alternately in a single array of {@code double}s.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class IntervalArrayVector {
+
+	/**
+	 * The bounds of the components: the lower bound of the {@code i}th
+	 * component at index {@code 2 * i}, the upper bound at {@code 2 * i + 1}.
+	 */
+	private final double[] bounds;
+
+	private IntervalArrayVector(double[] bounds) {
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Returns the interval vector containing the vector with the given
+	 * components only.
+	 *
+	 * @param components the components of the vector
+	 * @return the interval vector whose {@code i}th component is the
+	 *         interval {@code [components[i], components[i]]}
+	 */
+	public static IntervalArrayVector valueOf(double... components) {
+		double[] bounds = new double[2 * components.length];
+		for (int i = 0; i < components.length; i++) {
+			bounds[2 * i] = bounds[2 * i + 1] = components[i];
+		}
+		return new IntervalArrayVector(bounds);
+	}
+
+	/**
+	 * Returns the interval vector with the given components.
+	 *
+	 * @param components the components of the vector
+	 * @return the interval vector with {@code components}
+	 */
+	public static IntervalArrayVector valueOf(Interval... components) {
+		double[] bounds = new double[2 * components.length];
+		for (int i = 0; i < components.length; i++) {
+			bounds[2 * i] = components[i].lower;
+			bounds[2 * i + 1] = components[i].upper;
+		}
+		return new IntervalArrayVector(bounds);
+	}
+
+	/**
+	 * Returns the interval vector containing the given vector only.
+	 *
+	 * @param vector the vector
+	 * @return the interval vector containing {@code vector}
+	 */
+	public static IntervalArrayVector of(Vector vector) {
+		double[] bounds = new double[2 * vector.dimension()];
+		for (int i = 0; i < vector.dimension(); i++) {
+			bounds[2 * i] = bounds[2 * i + 1] = vector.get(i);
+		}
+		return new IntervalArrayVector(bounds);
+	}
+
+	/**
+	 * Returns the interval vector containing all vectors whose
+	 * components lie between those of the given vectors.
+	 *
+	 * @param lower the lower bounds of the components
+	 * @param upper the upper bounds of the components
+	 * @return the interval vector with the given bounds
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 * @throws IllegalArgumentException if a component of {@code lower}
+	 *         is greater than the corresponding component of {@code upper}
+	 */
+	public static IntervalArrayVector of(Vector lower, Vector upper) {
+		if (lower.dimension() != upper.dimension()) {
+			throw new IllegalVectorDimensionException(upper);
+		}
+		double[] bounds = new double[2 * lower.dimension()];
+		for (int i = 0; i < lower.dimension(); i++) {
+			Interval.checkBounds(lower.get(i), upper.get(i));
+			bounds[2 * i] = lower.get(i);
+			bounds[2 * i + 1] = upper.get(i);
+		}
+		return new IntervalArrayVector(bounds);
+	}
+
+	/**
+	 * Returns the given component of this vector.
+	 *
+	 * @param component the (zero-based) index of the component
+	 * @return the {@code component}th component of this vector
+	 * @throws IndexOutOfBoundsException if {@code component} is lower than
+	 *         {@code 0} or higher than or equal to {@code dimension()}
+	 */
+	public Interval get(int component) {
+		if (component < 0 || component >= dimension()) {
+			throw new IndexOutOfBoundsException(
+					"Invalid component index: " + component);
+		}
+		return Interval.of(bounds[2 * component], bounds[2 * component + 1]);
+	}
+
+	/**
+	 * Returns the dimension of this vector (the number of its components).
+	 *
+	 * @return the number of the components of the vector
+	 */
+	public int dimension() {
+		return bounds.length / 2;
+	}
+
+	/**
+	 * Returns the vector of the lower bounds of the components.
+	 *
+	 * @return the lower bounds
+	 */
+	public ArrayVector lower() {
+		double[] result = new double[dimension()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds[2 * i];
+		}
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Returns the vector of the upper bounds of the components.
+	 *
+	 * @return the upper bounds
+	 */
+	public ArrayVector upper() {
+		double[] result = new double[dimension()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds[2 * i + 1];
+		}
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Returns the vector of the midpoints of the components.
+	 *
+	 * @return the midpoint of this interval vector
+	 */
+	public ArrayVector midpoint() {
+		double[] result = new double[dimension()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Interval.of(bounds[2 * i], bounds[2 * i + 1]).midpoint();
+		}
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Returns the largest width of the components of this vector,
+	 * which bounds the error of any vector within it in each component.
+	 *
+	 * @return the largest difference of the upper and lower bound
+	 */
+	public double maxWidth() {
+		double max = 0;
+		for (int i = 0; i < bounds.length; i += 2) {
+			max = Math.max(max, bounds[i + 1] - bounds[i]);
+		}
+		return Math.nextUp(max);
+	}
+
+	/**
+	 * Indicates whether the given vector lies within the bounds
+	 * of this vector.
+	 *
+	 * @param vector the vector
+	 * @return {@code true} if each component of {@code vector} lies
+	 *         in the corresponding component of this vector
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} differs from that of this vector
+	 */
+	public boolean contains(Vector vector) {
+		checkDimension(vector.dimension(), vector);
+		for (int i = 0; i < dimension(); i++) {
+			double v = vector.get(i);
+			if (!(bounds[2 * i] <= v && v <= bounds[2 * i + 1])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the sum of this vector and the given vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return an interval vector containing the sum
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public IntervalArrayVector plus(IntervalArrayVector addend) {
+		checkDimension(addend.dimension(), addend);
+		double[] a = addend.bounds;
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = Math.nextDown(bounds[i] + a[i]);
+			result[i + 1] = Math.nextUp(bounds[i + 1] + a[i + 1]);
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	/**
+	 * Returns the sum of this vector and the given exact vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return an interval vector containing the sum
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public IntervalArrayVector plus(Vector addend) {
+		return plus(of(addend));
+	}
+
+	/**
+	 * Returns the difference of this vector and the given vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return an interval vector containing the difference
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public IntervalArrayVector minus(IntervalArrayVector subtrahend) {
+		checkDimension(subtrahend.dimension(), subtrahend);
+		double[] s = subtrahend.bounds;
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = Math.nextDown(bounds[i] - s[i + 1]);
+			result[i + 1] = Math.nextUp(bounds[i + 1] - s[i]);
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	/**
+	 * Returns the difference of this vector and the given exact vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return an interval vector containing the difference
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public IntervalArrayVector minus(Vector subtrahend) {
+		return minus(of(subtrahend));
+	}
+
+	/**
+	 * Returns the opposite of this vector. The result is exact.
+	 *
+	 * @return the interval vector containing the opposites of all
+	 *         vectors in this interval vector
+	 */
+	public IntervalArrayVector negative() {
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = -bounds[i + 1];
+			result[i + 1] = -bounds[i];
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	/**
+	 * Returns the product of this vector and the given number.
+	 *
+	 * @param scalar the number to multiply by
+	 * @return an interval vector containing the product
+	 */
+	public IntervalArrayVector times(double scalar) {
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = Interval.scaleLower(bounds[i], bounds[i + 1], scalar);
+			result[i + 1] = Interval.scaleUpper(bounds[i], bounds[i + 1], scalar);
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	/**
+	 * Returns the product of this vector and the given interval.
+	 *
+	 * @param scalar the interval to multiply by
+	 * @return an interval vector containing the product
+	 */
+	public IntervalArrayVector times(Interval scalar) {
+		double sl = scalar.lower, su = scalar.upper;
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = Interval.productLower(bounds[i], bounds[i + 1], sl, su);
+			result[i + 1] = Interval.productUpper(bounds[i], bounds[i + 1], sl, su);
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	/**
+	 * Returns the pointwise product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return an interval vector containing the vectors of products
+	 *         of corresponding components
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public IntervalArrayVector pointwiseProduct(IntervalArrayVector a) {
+		checkDimension(a.dimension(), a);
+		double[] b = a.bounds;
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = Interval.productLower(bounds[i], bounds[i + 1], b[i], b[i + 1]);
+			result[i + 1] = Interval.productUpper(bounds[i], bounds[i + 1], b[i], b[i + 1]);
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	/**
+	 * Returns the dot product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return an interval containing the dot product
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public Interval dotProduct(IntervalArrayVector a) {
+		checkDimension(a.dimension(), a);
+		double[] b = a.bounds;
+		double lower = 0, upper = 0;
+		for (int i = 0; i < bounds.length; i += 2) {
+			lower = Math.nextDown(lower
+					+ Interval.productLower(bounds[i], bounds[i + 1], b[i], b[i + 1]));
+			upper = Math.nextUp(upper
+					+ Interval.productUpper(bounds[i], bounds[i + 1], b[i], b[i + 1]));
+		}
+		return Interval.of(lower, upper);
+	}
+
+	/**
+	 * Returns the cross product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return an interval vector containing the cross product
+	 * @throws IllegalVectorDimensionException if either vector is not
+	 *         three-dimensional
+	 */
+	public IntervalArrayVector crossProduct(IntervalArrayVector a) {
+		if (dimension() != 3 || a.dimension() != 3) {
+			throw new IllegalVectorDimensionException(
+					"Cross product is not defined for vectors of dimension "
+							+ dimension() + " and " + a.dimension());
+		}
+		IntervalVector3D product = toIntervalVector3D().crossProduct(a.toIntervalVector3D());
+		return new IntervalArrayVector(new double[] {
+				product.xl, product.xu, product.yl, product.yu, product.zl, product.zu});
+	}
+
+	private IntervalVector3D toIntervalVector3D() {
+		return IntervalVector3D.valueOf(get(0), get(1), get(2));
+	}
+
+	/**
+	 * Returns the square of the Euclidean norm of this vector.
+	 *
+	 * @return an interval containing the squared magnitudes of all
+	 *         vectors in this interval vector
+	 */
+	public Interval magnitudeSquared() {
+		return Interval.of(magnitudeSquaredLower(), magnitudeSquaredUpper());
+	}
+
+	/**
+	 * Returns the Euclidean norm of this vector.
+	 *
+	 * @return an interval containing the magnitudes of all vectors
+	 *         in this interval vector
+	 */
+	public Interval magnitude() {
+		return Interval.of(Interval.sqrtLower(magnitudeSquaredLower()),
+				Interval.sqrtUpper(magnitudeSquaredUpper()));
+	}
+
+	private double magnitudeSquaredLower() {
+		double sum = 0;
+		for (int i = 0; i < bounds.length; i += 2) {
+			sum = Math.nextDown(sum + Interval.squareLower(bounds[i], bounds[i + 1]));
+		}
+		// A sum of squares is never negative
+		return Math.max(0, sum);
+	}
+
+	private double magnitudeSquaredUpper() {
+		double sum = 0;
+		for (int i = 0; i < bounds.length; i += 2) {
+			sum = Math.nextUp(sum + Interval.squareUpper(bounds[i], bounds[i + 1]));
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns this vector divided by its magnitude.
+	 * The components are divided by the magnitude independently,
+	 * so the bounds are wider than those of the unit vectors
+	 * in this interval vector.
+	 *
+	 * @return an interval vector containing the normalized vectors
+	 *         of all vectors in this interval vector, or unbounded if
+	 *         this vector contains the zero vector
+	 */
+	public IntervalArrayVector normalized() {
+		double ml = Interval.sqrtLower(magnitudeSquaredLower());
+		double mu = Interval.sqrtUpper(magnitudeSquaredUpper());
+		double[] result = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i += 2) {
+			result[i] = Interval.quotientLower(bounds[i], bounds[i + 1], ml, mu);
+			result[i + 1] = Interval.quotientUpper(bounds[i], bounds[i + 1], ml, mu);
+		}
+		return new IntervalArrayVector(result);
+	}
+
+	private void checkDimension(int dimension, Object other) {
+		if (dimension != dimension()) {
+			throw new IllegalVectorDimensionException(
+					"The dimension of vector " + other + " is not " + dimension());
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(bounds);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof IntervalArrayVector)) return false;
+		return Arrays.equals(bounds, ((IntervalArrayVector) obj).bounds);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < bounds.length; i += 2) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('[').append(bounds[i]).append(", ")
+					.append(bounds[i + 1]).append(']');
+		}
+		return sb.append(']').toString();
+	}
+}
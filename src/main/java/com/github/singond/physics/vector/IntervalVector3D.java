@@ -0,0 +1,412 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A three-dimensional vector whose components are {@link Interval}s,
+ * for computations with rigorous bounds on their rounding error.
+ * <p>
+ * This class provides the operations of {@link Vector} with interval
+ * arithmetic: the result of each operation contains the exact result
+ * for all vectors within the bounds of the operands, and also the result
+ * of the same operation on {@link Vector3D}s in {@code double} arithmetic.
+ * Repeating a {@code Vector3D} computation with this class therefore
+ * yields bounds on the error accumulated by the original computation
+ * in a single run. The bounds are computed in the same order of
+ * operations as in {@code Vector3D}.
+ * <p>
+ * The bounds are rigorous, but not tight: interval arithmetic does not
+ * know that two quantities depend on each other, such as the position
+ * and velocity of an oscillating body, and each operation widens the
+ * bounds as if the operands varied independently. In iterated
+ * computations the width may thus grow exponentially, much faster
+ * than the actual error, and the bounds are most useful over moderate
+ * numbers of steps.
+ * <p>
+ * Scalar results such as the magnitude are returned as {@code Interval}s.
+ * For this reason, this class does not implement {@code Vector},
+ * whose scalar results are plain {@code double}s.
+ * The bounds are stored in primitive fields, so that an operation
+ * allocates only its result.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ * @see IntervalArrayVector
+ */
+public final class IntervalVector3D {
+
+	final double xl, xu;
+	final double yl, yu;
+	final double zl, zu;
+
+	private IntervalVector3D(double xl, double xu, double yl, double yu,
+			double zl, double zu) {
+		this.xl = xl;
+		this.xu = xu;
+		this.yl = yl;
+		this.yu = yu;
+		this.zl = zl;
+		this.zu = zu;
+	}
+
+	/**
+	 * Returns the interval vector containing the vector with the given
+	 * components only.
+	 *
+	 * @param x x-component of the vector
+	 * @param y y-component of the vector
+	 * @param z z-component of the vector
+	 * @return the interval vector whose components are the intervals
+	 *         {@code [x, x]}, {@code [y, y]} and {@code [z, z]}
+	 */
+	public static IntervalVector3D of(double x, double y, double z) {
+		return new IntervalVector3D(x, x, y, y, z, z);
+	}
+
+	/**
+	 * Returns the interval vector containing the given vector only.
+	 *
+	 * @param vector the vector
+	 * @return the interval vector containing {@code vector}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not 3
+	 */
+	public static IntervalVector3D of(Vector vector) {
+		Geometry.checkDimension(vector);
+		return of(vector.get(0), vector.get(1), vector.get(2));
+	}
+
+	/**
+	 * Returns the interval vector containing all vectors whose
+	 * components lie between those of the given vectors.
+	 *
+	 * @param lower the lower bounds of the components
+	 * @param upper the upper bounds of the components
+	 * @return the interval vector with the given bounds
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         either vector is not 3
+	 * @throws IllegalArgumentException if a component of {@code lower}
+	 *         is greater than the corresponding component of {@code upper}
+	 */
+	public static IntervalVector3D of(Vector lower, Vector upper) {
+		Geometry.checkDimension(lower);
+		Geometry.checkDimension(upper);
+		for (int i = 0; i < 3; i++) {
+			Interval.checkBounds(lower.get(i), upper.get(i));
+		}
+		return new IntervalVector3D(lower.get(0), upper.get(0),
+				lower.get(1), upper.get(1), lower.get(2), upper.get(2));
+	}
+
+	/**
+	 * Returns the interval vector with the given components.
+	 *
+	 * @param x x-component of the vector
+	 * @param y y-component of the vector
+	 * @param z z-component of the vector
+	 * @return the interval vector with the given components
+	 */
+	public static IntervalVector3D valueOf(Interval x, Interval y, Interval z) {
+		return new IntervalVector3D(x.lower, x.upper, y.lower, y.upper,
+				z.lower, z.upper);
+	}
+
+	/**
+	 * Returns the given component of this vector.
+	 *
+	 * @param component the (zero-based) index of the component
+	 * @return the {@code component}th component of this vector
+	 * @throws IndexOutOfBoundsException if {@code component} is not
+	 *         0, 1 or 2
+	 */
+	public Interval get(int component) {
+		switch (component) {
+			case 0: return Interval.of(xl, xu);
+			case 1: return Interval.of(yl, yu);
+			case 2: return Interval.of(zl, zu);
+			default: throw new IndexOutOfBoundsException(
+					"Invalid component index: " + component);
+		}
+	}
+
+	/**
+	 * Returns the dimension of this vector, which is always 3.
+	 *
+	 * @return the number 3
+	 */
+	public int dimension() {
+		return 3;
+	}
+
+	/**
+	 * Returns the vector of the lower bounds of the components.
+	 *
+	 * @return the lower bounds
+	 */
+	public Vector3D lower() {
+		return Vector3D.valueOf(xl, yl, zl);
+	}
+
+	/**
+	 * Returns the vector of the upper bounds of the components.
+	 *
+	 * @return the upper bounds
+	 */
+	public Vector3D upper() {
+		return Vector3D.valueOf(xu, yu, zu);
+	}
+
+	/**
+	 * Returns the vector of the midpoints of the components.
+	 *
+	 * @return the midpoint of this interval vector
+	 */
+	public Vector3D midpoint() {
+		return Vector3D.valueOf(Interval.of(xl, xu).midpoint(),
+				Interval.of(yl, yu).midpoint(), Interval.of(zl, zu).midpoint());
+	}
+
+	/**
+	 * Returns the largest width of the components of this vector,
+	 * which bounds the error of any vector within it in each component.
+	 *
+	 * @return the largest difference of the upper and lower bound
+	 */
+	public double maxWidth() {
+		return Math.nextUp(Math.max(xu - xl, Math.max(yu - yl, zu - zl)));
+	}
+
+	/**
+	 * Indicates whether the given vector lies within the bounds
+	 * of this vector.
+	 *
+	 * @param vector the vector
+	 * @return {@code true} if each component of {@code vector} lies
+	 *         in the corresponding component of this vector
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not 3
+	 */
+	public boolean contains(Vector vector) {
+		Geometry.checkDimension(vector);
+		double x = vector.get(0), y = vector.get(1), z = vector.get(2);
+		return xl <= x && x <= xu && yl <= y && y <= yu && zl <= z && z <= zu;
+	}
+
+	/**
+	 * Returns the sum of this vector and the given vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return an interval vector containing the sum
+	 */
+	public IntervalVector3D plus(IntervalVector3D addend) {
+		IntervalVector3D a = addend;
+		return new IntervalVector3D(
+				Math.nextDown(xl + a.xl), Math.nextUp(xu + a.xu),
+				Math.nextDown(yl + a.yl), Math.nextUp(yu + a.yu),
+				Math.nextDown(zl + a.zl), Math.nextUp(zu + a.zu));
+	}
+
+	/**
+	 * Returns the sum of this vector and the given exact vector.
+	 *
+	 * @param addend the vector to be added
+	 * @return an interval vector containing the sum
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code addend} is not 3
+	 */
+	public IntervalVector3D plus(Vector addend) {
+		return plus(of(addend));
+	}
+
+	/**
+	 * Returns the difference of this vector and the given vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return an interval vector containing the difference
+	 */
+	public IntervalVector3D minus(IntervalVector3D subtrahend) {
+		IntervalVector3D s = subtrahend;
+		return new IntervalVector3D(
+				Math.nextDown(xl - s.xu), Math.nextUp(xu - s.xl),
+				Math.nextDown(yl - s.yu), Math.nextUp(yu - s.yl),
+				Math.nextDown(zl - s.zu), Math.nextUp(zu - s.zl));
+	}
+
+	/**
+	 * Returns the difference of this vector and the given exact vector.
+	 *
+	 * @param subtrahend the vector to be subtracted
+	 * @return an interval vector containing the difference
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code subtrahend} is not 3
+	 */
+	public IntervalVector3D minus(Vector subtrahend) {
+		return minus(of(subtrahend));
+	}
+
+	/**
+	 * Returns the opposite of this vector. The result is exact.
+	 *
+	 * @return the interval vector containing the opposites of all
+	 *         vectors in this interval vector
+	 */
+	public IntervalVector3D negative() {
+		return new IntervalVector3D(-xu, -xl, -yu, -yl, -zu, -zl);
+	}
+
+	/**
+	 * Returns the product of this vector and the given number.
+	 *
+	 * @param scalar the number to multiply by
+	 * @return an interval vector containing the product
+	 */
+	public IntervalVector3D times(double scalar) {
+		return new IntervalVector3D(
+				Interval.scaleLower(xl, xu, scalar), Interval.scaleUpper(xl, xu, scalar),
+				Interval.scaleLower(yl, yu, scalar), Interval.scaleUpper(yl, yu, scalar),
+				Interval.scaleLower(zl, zu, scalar), Interval.scaleUpper(zl, zu, scalar));
+	}
+
+	/**
+	 * Returns the product of this vector and the given interval.
+	 *
+	 * @param scalar the interval to multiply by
+	 * @return an interval vector containing the product
+	 */
+	public IntervalVector3D times(Interval scalar) {
+		double sl = scalar.lower, su = scalar.upper;
+		return new IntervalVector3D(
+				Interval.productLower(xl, xu, sl, su), Interval.productUpper(xl, xu, sl, su),
+				Interval.productLower(yl, yu, sl, su), Interval.productUpper(yl, yu, sl, su),
+				Interval.productLower(zl, zu, sl, su), Interval.productUpper(zl, zu, sl, su));
+	}
+
+	/**
+	 * Returns the pointwise product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return an interval vector containing the vectors of products
+	 *         of corresponding components
+	 */
+	public IntervalVector3D pointwiseProduct(IntervalVector3D a) {
+		return new IntervalVector3D(
+				Interval.productLower(xl, xu, a.xl, a.xu),
+				Interval.productUpper(xl, xu, a.xl, a.xu),
+				Interval.productLower(yl, yu, a.yl, a.yu),
+				Interval.productUpper(yl, yu, a.yl, a.yu),
+				Interval.productLower(zl, zu, a.zl, a.zu),
+				Interval.productUpper(zl, zu, a.zl, a.zu));
+	}
+
+	/**
+	 * Returns the dot product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return an interval containing the dot product
+	 */
+	public Interval dotProduct(IntervalVector3D a) {
+		double lower = Math.nextDown(Math.nextDown(
+				Interval.productLower(xl, xu, a.xl, a.xu)
+				+ Interval.productLower(yl, yu, a.yl, a.yu))
+				+ Interval.productLower(zl, zu, a.zl, a.zu));
+		double upper = Math.nextUp(Math.nextUp(
+				Interval.productUpper(xl, xu, a.xl, a.xu)
+				+ Interval.productUpper(yl, yu, a.yl, a.yu))
+				+ Interval.productUpper(zl, zu, a.zl, a.zu));
+		return Interval.of(lower, upper);
+	}
+
+	/**
+	 * Returns the cross product of this vector and the given vector.
+	 *
+	 * @param a the other vector
+	 * @return an interval vector containing the cross product
+	 */
+	public IntervalVector3D crossProduct(IntervalVector3D a) {
+		return new IntervalVector3D(
+				Math.nextDown(Interval.productLower(yl, yu, a.zl, a.zu)
+						- Interval.productUpper(zl, zu, a.yl, a.yu)),
+				Math.nextUp(Interval.productUpper(yl, yu, a.zl, a.zu)
+						- Interval.productLower(zl, zu, a.yl, a.yu)),
+				Math.nextDown(Interval.productLower(zl, zu, a.xl, a.xu)
+						- Interval.productUpper(xl, xu, a.zl, a.zu)),
+				Math.nextUp(Interval.productUpper(zl, zu, a.xl, a.xu)
+						- Interval.productLower(xl, xu, a.zl, a.zu)),
+				Math.nextDown(Interval.productLower(xl, xu, a.yl, a.yu)
+						- Interval.productUpper(yl, yu, a.xl, a.xu)),
+				Math.nextUp(Interval.productUpper(xl, xu, a.yl, a.yu)
+						- Interval.productLower(yl, yu, a.xl, a.xu)));
+	}
+
+	/**
+	 * Returns the square of the Euclidean norm of this vector.
+	 *
+	 * @return an interval containing the squared magnitudes of all
+	 *         vectors in this interval vector
+	 */
+	public Interval magnitudeSquared() {
+		return Interval.of(magnitudeSquaredLower(), magnitudeSquaredUpper());
+	}
+
+	/**
+	 * Returns the Euclidean norm of this vector.
+	 *
+	 * @return an interval containing the magnitudes of all vectors
+	 *         in this interval vector
+	 */
+	public Interval magnitude() {
+		return Interval.of(Interval.sqrtLower(magnitudeSquaredLower()),
+				Interval.sqrtUpper(magnitudeSquaredUpper()));
+	}
+
+	private double magnitudeSquaredLower() {
+		// A sum of squares is never negative
+		return Math.max(0, Math.nextDown(Math.nextDown(Interval.squareLower(xl, xu)
+				+ Interval.squareLower(yl, yu)) + Interval.squareLower(zl, zu)));
+	}
+
+	private double magnitudeSquaredUpper() {
+		return Math.nextUp(Math.nextUp(Interval.squareUpper(xl, xu)
+				+ Interval.squareUpper(yl, yu)) + Interval.squareUpper(zl, zu));
+	}
+
+	/**
+	 * Returns this vector divided by its magnitude.
+	 * The components are divided by the magnitude independently,
+	 * so the bounds are wider than those of the unit vectors
+	 * in this interval vector.
+	 *
+	 * @return an interval vector containing the normalized vectors
+	 *         of all vectors in this interval vector, or unbounded if
+	 *         this vector contains the zero vector
+	 */
+	public IntervalVector3D normalized() {
+		double ml = Interval.sqrtLower(magnitudeSquaredLower());
+		double mu = Interval.sqrtUpper(magnitudeSquaredUpper());
+		return new IntervalVector3D(
+				Interval.quotientLower(xl, xu, ml, mu), Interval.quotientUpper(xl, xu, ml, mu),
+				Interval.quotientLower(yl, yu, ml, mu), Interval.quotientUpper(yl, yu, ml, mu),
+				Interval.quotientLower(zl, zu, ml, mu), Interval.quotientUpper(zl, zu, ml, mu));
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Vector3D.hashCode(xl, yl, zl) + Vector3D.hashCode(xu, yu, zu);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof IntervalVector3D)) return false;
+		IntervalVector3D other = (IntervalVector3D) obj;
+		return Geometry.equal(xl, other.xl) && Geometry.equal(xu, other.xu)
+			&& Geometry.equal(yl, other.yl) && Geometry.equal(yu, other.yu)
+			&& Geometry.equal(zl, other.zl) && Geometry.equal(zu, other.zu);
+	}
+
+	@Override
+	public String toString() {
+		return "[[" + xl + ", " + xu + "], [" + yl + ", " + yu + "], ["
+				+ zl + ", " + zu + "]]";
+	}
+}
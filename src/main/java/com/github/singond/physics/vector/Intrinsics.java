@@ -0,0 +1,71 @@
+package com.github.singond.physics.vector;
+
+/**
+ * Platform-specific acceleration of the loops in {@link Kernels}.
+ * <p>
+ * Each method processes a leading part of the work of the corresponding
+ * method of {@code Kernels}, as far as the running platform can accelerate
+ * it, and returns the index at which {@code Kernels} continues with its
+ * plain loop. This is the baseline version for Java 8, which accelerates
+ * nothing. The library jar is a multi-release jar which replaces this class
+ * with versions for newer Java releases.
+ *
+ * @author Singon
+ */
+final class Intrinsics {
+
+	private Intrinsics() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Processes a leading part of {@link Kernels#axpy}.
+	 *
+	 * @return the index of the first element not processed
+	 */
+	static int axpy(double a, double[] x, double[] y, int length) {
+		return 0;
+	}
+
+	/**
+	 * Processes a leading part of {@link Kernels#scale}.
+	 *
+	 * @return the index of the first element not processed
+	 */
+	static int scale(double a, double[] x, int from, int to) {
+		return from;
+	}
+
+	/**
+	 * Implements {@link Kernels#mismatch} entirely.
+	 */
+	static int mismatch(double[] a, int aFrom, double[] b, int bFrom, int length) {
+		for (int i = 0; i < length; i++) {
+			if (Double.doubleToLongBits(a[aFrom + i])
+					!= Double.doubleToLongBits(b[bFrom + i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Processes a leading part of {@link Kernels#raySphere}.
+	 *
+	 * @return the index of the first ray not processed
+	 */
+	static int raySphere(Vector3DArray origins, Vector3DArray directions,
+			Sphere sphere, double[] t) {
+		return 0;
+	}
+
+	/**
+	 * Processes a leading part of {@link Kernels#rayBox}.
+	 *
+	 * @return the index of the first ray not processed
+	 */
+	static int rayBox(Vector3DArray origins, Vector3DArray directions,
+			AABB box, double[] t) {
+		return 0;
+	}
+}
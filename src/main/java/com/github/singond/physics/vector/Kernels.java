@@ -0,0 +1,108 @@
+package com.github.singond.physics.vector;
+
+/**
+ * Elementary loops over arrays of {@code double}s shared by the bulk
+ * operations of this package.
+ * <p>
+ * The loops are written plainly for the just-in-time compiler to vectorize
+ * where it can. Each loop first offers its work to {@link Intrinsics},
+ * which processes as much of it as the running platform can accelerate,
+ * and finishes the rest itself. The library jar is a multi-release jar
+ * which replaces {@code Intrinsics} with versions for newer Java releases,
+ * while this class is shared by all of them. The accelerated versions
+ * must give results identical to the loops in this class: every element
+ * is computed by the same sequence of rounded operations, without fused
+ * multiply-add.
+ *
+ * @author Singon
+ */
+final class Kernels {
+
+	private Kernels() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Adds a multiple of one array to another:
+	 * {@code y[i] += a * x[i]} for {@code i} from zero to {@code length}.
+	 *
+	 * @param a the multiplier
+	 * @param x the array to be multiplied
+	 * @param y the array to be added to
+	 * @param length the number of elements to process
+	 */
+	static void axpy(double a, double[] x, double[] y, int length) {
+		for (int i = Intrinsics.axpy(a, x, y, length); i < length; i++) {
+			y[i] += x[i] * a;
+		}
+	}
+
+	/**
+	 * Multiplies a range of an array by a scalar in place.
+	 *
+	 * @param a the multiplier
+	 * @param x the array to be multiplied
+	 * @param from the first index to multiply, inclusive
+	 * @param to the last index to multiply, exclusive
+	 */
+	static void scale(double a, double[] x, int from, int to) {
+		for (int i = Intrinsics.scale(a, x, from, to); i < to; i++) {
+			x[i] *= a;
+		}
+	}
+
+	/**
+	 * Returns the offset of the first element which differs between
+	 * two ranges of equal length. Elements are compared by their bits
+	 * as in {@link Double#doubleToLongBits}.
+	 *
+	 * @param a the first array
+	 * @param aFrom the first index of the range in {@code a}
+	 * @param b the second array
+	 * @param bFrom the first index of the range in {@code b}
+	 * @param length the length of the ranges
+	 * @return the offset of the first mismatch relative to the start
+	 *         of the ranges, or {@code -1} if the ranges are equal
+	 */
+	static int mismatch(double[] a, int aFrom, double[] b, int bFrom, int length) {
+		return Intrinsics.mismatch(a, aFrom, b, bFrom, length);
+	}
+
+	/**
+	 * Intersects rays with a sphere, as by {@link Sphere#intersect(Ray3D)}.
+	 *
+	 * @param origins the origins of the rays
+	 * @param directions the directions of the rays
+	 * @param sphere the sphere
+	 * @param t the array to store the parameters of the intersections in
+	 */
+	static void raySphere(Vector3DArray origins, Vector3DArray directions,
+			Sphere sphere, double[] t) {
+		final double[] ox = origins.x, oy = origins.y, oz = origins.z;
+		final double[] dx = directions.x, dy = directions.y, dz = directions.z;
+		final double cx = sphere.cx, cy = sphere.cy, cz = sphere.cz;
+		final double r2 = sphere.radius * sphere.radius;
+		for (int i = Intrinsics.raySphere(origins, directions, sphere, t); i < ox.length; i++) {
+			t[i] = Geometry.raySphere(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i],
+					cx, cy, cz, r2);
+		}
+	}
+
+	/**
+	 * Intersects rays with a box, as by {@link AABB#intersect(Ray3D)}.
+	 *
+	 * @param origins the origins of the rays
+	 * @param directions the directions of the rays
+	 * @param box the box
+	 * @param t the array to store the parameters of the intersections in
+	 */
+	static void rayBox(Vector3DArray origins, Vector3DArray directions,
+			AABB box, double[] t) {
+		final double[] ox = origins.x, oy = origins.y, oz = origins.z;
+		final double[] dx = directions.x, dy = directions.y, dz = directions.z;
+		for (int i = Intrinsics.rayBox(origins, directions, box, t); i < ox.length; i++) {
+			t[i] = Geometry.rayBox(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i],
+					box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+		}
+	}
+}
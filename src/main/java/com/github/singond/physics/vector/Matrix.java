@@ -0,0 +1,433 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A dense matrix of real numbers with arbitrary dimensions.
+ * The elements are stored in a single array of {@code double}s
+ * in row-major order.
+ * <p>
+ * Instances of this class are immutable.
+ * For the common case of linear transformations in three dimensions,
+ * see {@link Matrix3x3} and {@link Matrix4x4}.
+ *
+ * @author Singon
+ */
+public final class Matrix {
+
+	/**
+	 * The size of the square blocks the operands are divided into
+	 * in matrix multiplication and transposition.
+	 * The blocks of the three operands should fit into the L2 cache together.
+	 */
+	private static final int BLOCK = 64;
+
+	/**
+	 * The minimum number of multiplications in a matrix product
+	 * for the product to be calculated in parallel.
+	 */
+	private static final long PARALLEL_THRESHOLD = 1L << 20;
+
+	private final int rows;
+	private final int columns;
+
+	/** The elements of the matrix in row-major order. */
+	private final double[] value;
+
+	/**
+	 * Constructs a new matrix with the given dimensions.
+	 * This uses the given array directly.
+	 */
+	private Matrix(int rows, int columns, double[] value) {
+		this.rows = rows;
+		this.columns = columns;
+		this.value = value;
+	}
+
+	/**
+	 * Returns a matrix with the given dimensions and elements.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param elements the elements of the matrix in row-major order
+	 * @return a {@code rows} by {@code columns} matrix of {@code elements}
+	 * @throws IllegalArgumentException if the number of elements
+	 *         is not equal to {@code rows * columns}
+	 */
+	public static Matrix valueOf(int rows, int columns, double... elements) {
+		int size = checkDimensions(rows, columns);
+		if (elements.length != size) {
+			throw new IllegalArgumentException("Expected " + size
+					+ " elements, got " + elements.length);
+		}
+		return new Matrix(rows, columns, elements.clone());
+	}
+
+	/**
+	 * Returns a matrix with the given rows.
+	 *
+	 * @param rows the rows of the matrix; all must be of the same length
+	 * @return a matrix with {@code rows}
+	 * @throws IllegalArgumentException if the rows are not of the same length
+	 */
+	public static Matrix valueOf(double[][] rows) {
+		int columns = rows.length == 0 ? 0 : rows[0].length;
+		double[] value = new double[checkDimensions(rows.length, columns)];
+		for (int i = 0; i < rows.length; i++) {
+			if (rows[i].length != columns) {
+				throw new IllegalArgumentException("Row " + i + " has length "
+						+ rows[i].length + ", expected " + columns);
+			}
+			System.arraycopy(rows[i], 0, value, i * columns, columns);
+		}
+		return new Matrix(rows.length, columns, value);
+	}
+
+	/**
+	 * Returns a matrix whose rows are the given vectors.
+	 *
+	 * @param rows the rows of the matrix; all must be of the same dimension
+	 * @return a matrix with {@code rows}
+	 * @throws IllegalVectorDimensionException if the vectors are not
+	 *         of the same dimension
+	 */
+	public static Matrix ofRows(Vector... rows) {
+		int columns = rows.length == 0 ? 0 : rows[0].dimension();
+		double[] value = new double[checkDimensions(rows.length, columns)];
+		for (int i = 0; i < rows.length; i++) {
+			if (rows[i].dimension() != columns) {
+				throw new IllegalVectorDimensionException(rows[i]);
+			}
+			for (int j = 0; j < columns; j++) {
+				value[i * columns + j] = rows[i].get(j);
+			}
+		}
+		return new Matrix(rows.length, columns, value);
+	}
+
+	/**
+	 * Returns a matrix of the given dimensions filled with zeros.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @return a {@code rows} by {@code columns} zero matrix
+	 */
+	public static Matrix zero(int rows, int columns) {
+		return new Matrix(rows, columns, new double[checkDimensions(rows, columns)]);
+	}
+
+	/**
+	 * Returns the identity matrix of the given size.
+	 *
+	 * @param size the number of rows and columns
+	 * @return a {@code size} by {@code size} identity matrix
+	 */
+	public static Matrix identity(int size) {
+		double[] value = new double[checkDimensions(size, size)];
+		for (int i = 0; i < size; i++) {
+			value[i * size + i] = 1;
+		}
+		return new Matrix(size, size, value);
+	}
+
+	/**
+	 * Checks the dimensions of a matrix and returns its number of elements.
+	 */
+	private static int checkDimensions(int rows, int columns) {
+		if (rows < 0 || columns < 0) {
+			throw new IllegalArgumentException(
+					"Invalid matrix dimensions: " + rows + "x" + columns);
+		}
+		try {
+			return Math.multiplyExact(rows, columns);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(
+					"Matrix too large: " + rows + "x" + columns);
+		}
+	}
+
+	/**
+	 * Returns the number of rows of this matrix.
+	 *
+	 * @return the number of rows
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of this matrix.
+	 *
+	 * @return the number of columns
+	 */
+	public int columns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the element at the given position.
+	 *
+	 * @param row the (zero-based) index of the row
+	 * @param column the (zero-based) index of the column
+	 * @return the element in {@code row} and {@code column}
+	 * @throws IndexOutOfBoundsException if {@code row} or {@code column}
+	 *         is out of range
+	 */
+	public double get(int row, int column) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns) {
+			throw new IndexOutOfBoundsException("Invalid matrix position: ["
+					+ row + ", " + column + "]");
+		}
+		return value[row * columns + column];
+	}
+
+	/**
+	 * Returns the given row of this matrix as a vector.
+	 *
+	 * @param row the (zero-based) index of the row
+	 * @return the {@code row}th row
+	 */
+	public ArrayVector row(int row) {
+		if (row < 0 || row >= rows) {
+			throw new IndexOutOfBoundsException("Invalid row index: " + row);
+		}
+		return ArrayVector.wrap(Arrays.copyOfRange(
+				value, row * columns, (row + 1) * columns));
+	}
+
+	/**
+	 * Returns the product of this matrix and the given column vector.
+	 * The dimension of the vector must be equal to the number of columns
+	 * of this matrix.
+	 *
+	 * @param vector the vector to multiply
+	 * @return {@code this * vector}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not equal to the number of columns
+	 */
+	public ArrayVector times(Vector vector) {
+		if (vector.dimension() != columns) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+		double[] v;
+		if (vector instanceof ArrayVector) {
+			v = ((ArrayVector) vector).array();
+		} else {
+			v = new double[columns];
+			for (int j = 0; j < columns; j++) {
+				v[j] = vector.get(j);
+			}
+		}
+		double[] result = new double[rows];
+		multiply(v, 0, result, 0);
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Multiplies a number of vectors stored contiguously in an array
+	 * by this matrix and writes the results into another array.
+	 * <p>
+	 * The {@code i}th source vector occupies the {@code columns()} elements
+	 * of {@code source} starting at {@code sourceOffset + i * columns()};
+	 * the product is written into the {@code rows()} elements of
+	 * {@code target} starting at {@code targetOffset + i * rows()}.
+	 * The source and target ranges must not overlap.
+	 *
+	 * @param source the array containing the vectors to be transformed
+	 * @param sourceOffset the index of the first component of the first
+	 *        vector in {@code source}
+	 * @param target the array to write the results into
+	 * @param targetOffset the index in {@code target} at which the first
+	 *        result is written
+	 * @param count the number of vectors to transform
+	 */
+	public void transform(double[] source, int sourceOffset,
+			double[] target, int targetOffset, int count) {
+		for (int i = 0; i < count; i++) {
+			multiply(source, sourceOffset + i * columns,
+					target, targetOffset + i * rows);
+		}
+	}
+
+	/**
+	 * Multiplies the vector at {@code v[vOffset]} by this matrix
+	 * and writes the result to {@code out[outOffset]}.
+	 */
+	private void multiply(double[] v, int vOffset, double[] out, int outOffset) {
+		for (int i = 0; i < rows; i++) {
+			int r = i * columns;
+			double sum = 0;
+			for (int j = 0; j < columns; j++) {
+				sum += value[r + j] * v[vOffset + j];
+			}
+			out[outOffset + i] = sum;
+		}
+	}
+
+	/**
+	 * Returns the product of this matrix and the given scalar.
+	 *
+	 * @param scalar the number to multiply this matrix by
+	 * @return {@code this * scalar}
+	 */
+	public Matrix times(double scalar) {
+		double[] result = new double[value.length];
+		for (int i = 0; i < value.length; i++) {
+			result[i] = value[i] * scalar;
+		}
+		return new Matrix(rows, columns, result);
+	}
+
+	/**
+	 * Returns the matrix product of this matrix and the given matrix.
+	 * The number of rows of {@code m} must be equal to the number of
+	 * columns of this matrix.
+	 * <p>
+	 * The product is computed block by block to make good use of the
+	 * processor caches. Large products are computed in parallel
+	 * in the common fork/join pool.
+	 *
+	 * @param m the matrix to multiply this matrix by from the right
+	 * @return {@code this * m}
+	 * @throws IllegalArgumentException if the number of rows of {@code m}
+	 *         is not equal to the number of columns of this matrix
+	 */
+	public Matrix times(Matrix m) {
+		if (m.rows != columns) {
+			throw new IllegalArgumentException("Cannot multiply matrices "
+					+ rows + "x" + columns + " and " + m.rows + "x" + m.columns);
+		}
+		double[] result = new double[checkDimensions(rows, m.columns)];
+		MultiplyTask task = new MultiplyTask(this, m, result, 0, rows);
+		if ((long) rows * columns * m.columns >= PARALLEL_THRESHOLD) {
+			ForkJoinPool.commonPool().invoke(task);
+		} else {
+			task.compute();
+		}
+		return new Matrix(rows, m.columns, result);
+	}
+
+	/**
+	 * Computes a horizontal band of rows of a matrix product.
+	 * Bands larger than a single block are split in two halves
+	 * which are computed in parallel.
+	 */
+	@SuppressWarnings("serial")
+	private static class MultiplyTask extends RecursiveAction {
+
+		private final Matrix a;
+		private final Matrix b;
+		private final double[] c;
+		private final int rowFrom;
+		private final int rowTo;
+
+		MultiplyTask(Matrix a, Matrix b, double[] c, int rowFrom, int rowTo) {
+			this.a = a;
+			this.b = b;
+			this.c = c;
+			this.rowFrom = rowFrom;
+			this.rowTo = rowTo;
+		}
+
+		@Override
+		protected void compute() {
+			if (rowTo - rowFrom > BLOCK
+					&& (long) (rowTo - rowFrom) * a.columns * b.columns
+					   >= PARALLEL_THRESHOLD) {
+				int mid = (rowFrom + rowTo) >>> 1;
+				invokeAll(new MultiplyTask(a, b, c, rowFrom, mid),
+				          new MultiplyTask(a, b, c, mid, rowTo));
+			} else {
+				multiplyBlocked(a, b, c, rowFrom, rowTo);
+			}
+		}
+	}
+
+	/**
+	 * Computes the rows {@code rowFrom} to {@code rowTo} of {@code a * b}
+	 * into {@code c}, iterating over blocks of the operands.
+	 * Inside a block, the innermost loop runs along a row of {@code b}
+	 * and {@code c}, so that both are read sequentially.
+	 */
+	private static void multiplyBlocked(Matrix a, Matrix b, double[] c,
+			int rowFrom, int rowTo) {
+		final int n = a.columns;
+		final int p = b.columns;
+		final double[] av = a.value;
+		final double[] bv = b.value;
+		for (int i0 = rowFrom; i0 < rowTo; i0 += BLOCK) {
+			int i1 = Math.min(i0 + BLOCK, rowTo);
+			for (int k0 = 0; k0 < n; k0 += BLOCK) {
+				int k1 = Math.min(k0 + BLOCK, n);
+				for (int j0 = 0; j0 < p; j0 += BLOCK) {
+					int j1 = Math.min(j0 + BLOCK, p);
+					for (int i = i0; i < i1; i++) {
+						int cRow = i * p;
+						int aRow = i * n;
+						for (int k = k0; k < k1; k++) {
+							double aik = av[aRow + k];
+							int bRow = k * p;
+							for (int j = j0; j < j1; j++) {
+								c[cRow + j] += aik * bv[bRow + j];
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the transpose of this matrix.
+	 *
+	 * @return the transposed matrix
+	 */
+	public Matrix transpose() {
+		double[] result = new double[value.length];
+		for (int i0 = 0; i0 < rows; i0 += BLOCK) {
+			int i1 = Math.min(i0 + BLOCK, rows);
+			for (int j0 = 0; j0 < columns; j0 += BLOCK) {
+				int j1 = Math.min(j0 + BLOCK, columns);
+				for (int i = i0; i < i1; i++) {
+					for (int j = j0; j < j1; j++) {
+						result[j * rows + i] = value[i * columns + j];
+					}
+				}
+			}
+		}
+		return new Matrix(columns, rows, result);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + rows;
+		result = prime * result + columns;
+		result = prime * result + Arrays.hashCode(value);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Matrix)) return false;
+		Matrix other = (Matrix) obj;
+		return rows == other.rows && columns == other.columns
+				&& Arrays.equals(value, other.value);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) sb.append(", ");
+			sb.append(Arrays.toString(
+					Arrays.copyOfRange(value, i * columns, (i + 1) * columns)));
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,243 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A specific implementation of a 3x3 matrix, used for linear
+ * transformations of three-dimensional vectors.
+ * The elements are stored in fields rather than in an array, so that
+ * transforming a {@code Vector3D} allocates nothing but the result.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Matrix3x3 {
+
+	private static final Matrix3x3 IDENTITY = new Matrix3x3(
+			1, 0, 0,
+			0, 1, 0,
+			0, 0, 1);
+
+	final double m00, m01, m02;
+	final double m10, m11, m12;
+	final double m20, m21, m22;
+
+	private Matrix3x3(
+			double m00, double m01, double m02,
+			double m10, double m11, double m12,
+			double m20, double m21, double m22) {
+		this.m00 = m00; this.m01 = m01; this.m02 = m02;
+		this.m10 = m10; this.m11 = m11; this.m12 = m12;
+		this.m20 = m20; this.m21 = m21; this.m22 = m22;
+	}
+
+	/**
+	 * Returns a matrix with the given elements, listed in row-major order.
+	 *
+	 * @return a {@code Matrix3x3} with the given elements
+	 */
+	public static Matrix3x3 valueOf(
+			double m00, double m01, double m02,
+			double m10, double m11, double m12,
+			double m20, double m21, double m22) {
+		return new Matrix3x3(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+	}
+
+	/**
+	 * Returns a matrix whose rows are the given vectors.
+	 *
+	 * @param row0 the first row
+	 * @param row1 the second row
+	 * @param row2 the third row
+	 * @return a {@code Matrix3x3} with the given rows
+	 */
+	public static Matrix3x3 ofRows(Vector3D row0, Vector3D row1, Vector3D row2) {
+		return new Matrix3x3(
+				row0.get(0), row0.get(1), row0.get(2),
+				row1.get(0), row1.get(1), row1.get(2),
+				row2.get(0), row2.get(1), row2.get(2));
+	}
+
+	/**
+	 * Returns the 3x3 identity matrix.
+	 *
+	 * @return the identity matrix
+	 */
+	public static Matrix3x3 identity() {
+		return IDENTITY;
+	}
+
+	/**
+	 * Returns the element at the given position.
+	 *
+	 * @param row the (zero-based) index of the row
+	 * @param column the (zero-based) index of the column
+	 * @return the element in {@code row} and {@code column}
+	 * @throws IndexOutOfBoundsException if {@code row} or {@code column}
+	 *         is not between 0 and 2
+	 */
+	public double get(int row, int column) {
+		if (row < 0 || row >= 3 || column < 0 || column >= 3) {
+			throw new IndexOutOfBoundsException("Invalid matrix position: ["
+					+ row + ", " + column + "]");
+		}
+		switch (row * 3 + column) {
+			case 0: return m00;
+			case 1: return m01;
+			case 2: return m02;
+			case 3: return m10;
+			case 4: return m11;
+			case 5: return m12;
+			case 6: return m20;
+			case 7: return m21;
+			default: return m22;
+		}
+	}
+
+	/**
+	 * Returns the product of this matrix and the given column vector.
+	 *
+	 * @param v the vector to multiply
+	 * @return {@code this * v}
+	 */
+	public Vector3D times(Vector3D v) {
+		double x = v.get(0), y = v.get(1), z = v.get(2);
+		return Vector3D.valueOf(
+				m00 * x + m01 * y + m02 * z,
+				m10 * x + m11 * y + m12 * z,
+				m20 * x + m21 * y + m22 * z);
+	}
+
+	/**
+	 * Returns the product of this matrix and the given column vector.
+	 * The vector must be of dimension 3.
+	 *
+	 * @param v the vector to multiply
+	 * @return {@code this * v}
+	 * @throws IllegalVectorDimensionException if the dimension of {@code v}
+	 *         is not 3
+	 */
+	public Vector3D times(Vector v) {
+		if (v.dimension() != 3) {
+			throw new IllegalVectorDimensionException(v);
+		}
+		double x = v.get(0), y = v.get(1), z = v.get(2);
+		return Vector3D.valueOf(
+				m00 * x + m01 * y + m02 * z,
+				m10 * x + m11 * y + m12 * z,
+				m20 * x + m21 * y + m22 * z);
+	}
+
+	/**
+	 * Multiplies every vector in {@code source} by this matrix and stores
+	 * the results at the same positions in {@code target}.
+	 * The two arrays may be the same object, in which case the vectors
+	 * are transformed in place.
+	 *
+	 * @param source the vectors to be transformed
+	 * @param target the array to write the results into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public void transform(Vector3DArray source, Vector3DArray target) {
+		source.checkSize(target);
+		final double[] sx = source.x, sy = source.y, sz = source.z;
+		final double[] tx = target.x, ty = target.y, tz = target.z;
+		for (int i = 0; i < sx.length; i++) {
+			double x = sx[i], y = sy[i], z = sz[i];
+			tx[i] = m00 * x + m01 * y + m02 * z;
+			ty[i] = m10 * x + m11 * y + m12 * z;
+			tz[i] = m20 * x + m21 * y + m22 * z;
+		}
+	}
+
+	/**
+	 * Returns the matrix product of this matrix and the given matrix.
+	 *
+	 * @param m the matrix to multiply this matrix by from the right
+	 * @return {@code this * m}
+	 */
+	public Matrix3x3 times(Matrix3x3 m) {
+		return new Matrix3x3(
+				m00 * m.m00 + m01 * m.m10 + m02 * m.m20,
+				m00 * m.m01 + m01 * m.m11 + m02 * m.m21,
+				m00 * m.m02 + m01 * m.m12 + m02 * m.m22,
+				m10 * m.m00 + m11 * m.m10 + m12 * m.m20,
+				m10 * m.m01 + m11 * m.m11 + m12 * m.m21,
+				m10 * m.m02 + m11 * m.m12 + m12 * m.m22,
+				m20 * m.m00 + m21 * m.m10 + m22 * m.m20,
+				m20 * m.m01 + m21 * m.m11 + m22 * m.m21,
+				m20 * m.m02 + m21 * m.m12 + m22 * m.m22);
+	}
+
+	/**
+	 * Returns the product of this matrix and the given scalar.
+	 *
+	 * @param scalar the number to multiply this matrix by
+	 * @return {@code this * scalar}
+	 */
+	public Matrix3x3 times(double scalar) {
+		return new Matrix3x3(
+				m00 * scalar, m01 * scalar, m02 * scalar,
+				m10 * scalar, m11 * scalar, m12 * scalar,
+				m20 * scalar, m21 * scalar, m22 * scalar);
+	}
+
+	/**
+	 * Returns the transpose of this matrix.
+	 *
+	 * @return the transposed matrix
+	 */
+	public Matrix3x3 transpose() {
+		return new Matrix3x3(
+				m00, m10, m20,
+				m01, m11, m21,
+				m02, m12, m22);
+	}
+
+	/**
+	 * Returns the determinant of this matrix.
+	 *
+	 * @return the determinant
+	 */
+	public double determinant() {
+		return m00 * (m11 * m22 - m12 * m21)
+		     - m01 * (m10 * m22 - m12 * m20)
+		     + m02 * (m10 * m21 - m11 * m20);
+	}
+
+	/**
+	 * Returns this matrix as a general {@code Matrix}.
+	 *
+	 * @return a 3x3 {@code Matrix} with the same elements
+	 */
+	public Matrix toMatrix() {
+		return Matrix.valueOf(3, 3,
+				m00, m01, m02,
+				m10, m11, m12,
+				m20, m21, m22);
+	}
+
+	@Override
+	public int hashCode() {
+		return toMatrix().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Matrix3x3)) return false;
+		Matrix3x3 o = (Matrix3x3) obj;
+		return eq(m00, o.m00) && eq(m01, o.m01) && eq(m02, o.m02)
+		    && eq(m10, o.m10) && eq(m11, o.m11) && eq(m12, o.m12)
+		    && eq(m20, o.m20) && eq(m21, o.m21) && eq(m22, o.m22);
+	}
+
+	private static boolean eq(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+}
@@ -0,0 +1,235 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A specific implementation of a 4x4 matrix, used for transformations
+ * of three-dimensional vectors in homogeneous coordinates.
+ * The elements are stored in fields rather than in an array, so that
+ * transforming a {@code Vector3D} allocates nothing but the result.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Matrix4x4 {
+
+	private static final Matrix4x4 IDENTITY = new Matrix4x4(
+			1, 0, 0, 0,
+			0, 1, 0, 0,
+			0, 0, 1, 0,
+			0, 0, 0, 1);
+
+	final double m00, m01, m02, m03;
+	final double m10, m11, m12, m13;
+	final double m20, m21, m22, m23;
+	final double m30, m31, m32, m33;
+
+	private Matrix4x4(
+			double m00, double m01, double m02, double m03,
+			double m10, double m11, double m12, double m13,
+			double m20, double m21, double m22, double m23,
+			double m30, double m31, double m32, double m33) {
+		this.m00 = m00; this.m01 = m01; this.m02 = m02; this.m03 = m03;
+		this.m10 = m10; this.m11 = m11; this.m12 = m12; this.m13 = m13;
+		this.m20 = m20; this.m21 = m21; this.m22 = m22; this.m23 = m23;
+		this.m30 = m30; this.m31 = m31; this.m32 = m32; this.m33 = m33;
+	}
+
+	/**
+	 * Returns a matrix with the given elements, listed in row-major order.
+	 *
+	 * @return a {@code Matrix4x4} with the given elements
+	 */
+	public static Matrix4x4 valueOf(
+			double m00, double m01, double m02, double m03,
+			double m10, double m11, double m12, double m13,
+			double m20, double m21, double m22, double m23,
+			double m30, double m31, double m32, double m33) {
+		return new Matrix4x4(
+				m00, m01, m02, m03,
+				m10, m11, m12, m13,
+				m20, m21, m22, m23,
+				m30, m31, m32, m33);
+	}
+
+	/**
+	 * Returns the 4x4 identity matrix.
+	 *
+	 * @return the identity matrix
+	 */
+	public static Matrix4x4 identity() {
+		return IDENTITY;
+	}
+
+	/**
+	 * Returns the element at the given position.
+	 *
+	 * @param row the (zero-based) index of the row
+	 * @param column the (zero-based) index of the column
+	 * @return the element in {@code row} and {@code column}
+	 * @throws IndexOutOfBoundsException if {@code row} or {@code column}
+	 *         is not between 0 and 3
+	 */
+	public double get(int row, int column) {
+		if (row < 0 || row >= 4 || column < 0 || column >= 4) {
+			throw new IndexOutOfBoundsException("Invalid matrix position: ["
+					+ row + ", " + column + "]");
+		}
+		return elements()[row * 4 + column];
+	}
+
+	/**
+	 * Returns the elements of this matrix in a new array in row-major order.
+	 */
+	private double[] elements() {
+		return new double[] {
+				m00, m01, m02, m03,
+				m10, m11, m12, m13,
+				m20, m21, m22, m23,
+				m30, m31, m32, m33};
+	}
+
+	/**
+	 * Returns the product of this matrix and the given column vector.
+	 * The vector must be of dimension 4.
+	 *
+	 * @param v the vector to multiply
+	 * @return {@code this * v}
+	 * @throws IllegalVectorDimensionException if the dimension of {@code v}
+	 *         is not 4
+	 */
+	public ArrayVector times(Vector v) {
+		if (v.dimension() != 4) {
+			throw new IllegalVectorDimensionException(v);
+		}
+		double x = v.get(0), y = v.get(1), z = v.get(2), w = v.get(3);
+		return ArrayVector.wrap(new double[] {
+				m00 * x + m01 * y + m02 * z + m03 * w,
+				m10 * x + m11 * y + m12 * z + m13 * w,
+				m20 * x + m21 * y + m22 * z + m23 * w,
+				m30 * x + m31 * y + m32 * z + m33 * w});
+	}
+
+	/**
+	 * Transforms the given point by this matrix.
+	 * The point is extended to homogeneous coordinates with {@code w = 1},
+	 * multiplied by this matrix and projected back by dividing
+	 * by the resulting {@code w}.
+	 *
+	 * @param point the point to be transformed
+	 * @return the transformed point
+	 */
+	public Vector3D transformPoint(Vector3D point) {
+		double x = point.get(0), y = point.get(1), z = point.get(2);
+		double w = m30 * x + m31 * y + m32 * z + m33;
+		return Vector3D.valueOf(
+				(m00 * x + m01 * y + m02 * z + m03) / w,
+				(m10 * x + m11 * y + m12 * z + m13) / w,
+				(m20 * x + m21 * y + m22 * z + m23) / w);
+	}
+
+	/**
+	 * Transforms the given direction by this matrix.
+	 * The direction is extended to homogeneous coordinates with
+	 * {@code w = 0}, so that it is not affected by translation.
+	 *
+	 * @param direction the direction to be transformed
+	 * @return the transformed direction
+	 */
+	public Vector3D transformDirection(Vector3D direction) {
+		double x = direction.get(0), y = direction.get(1), z = direction.get(2);
+		return Vector3D.valueOf(
+				m00 * x + m01 * y + m02 * z,
+				m10 * x + m11 * y + m12 * z,
+				m20 * x + m21 * y + m22 * z);
+	}
+
+	/**
+	 * Transforms every point in {@code source} by this matrix as in
+	 * {@link #transformPoint} and stores the results at the same positions
+	 * in {@code target}.
+	 * The two arrays may be the same object, in which case the points
+	 * are transformed in place.
+	 *
+	 * @param source the points to be transformed
+	 * @param target the array to write the results into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public void transformPoints(Vector3DArray source, Vector3DArray target) {
+		source.checkSize(target);
+		final double[] sx = source.x, sy = source.y, sz = source.z;
+		final double[] tx = target.x, ty = target.y, tz = target.z;
+		for (int i = 0; i < sx.length; i++) {
+			double x = sx[i], y = sy[i], z = sz[i];
+			double w = m30 * x + m31 * y + m32 * z + m33;
+			tx[i] = (m00 * x + m01 * y + m02 * z + m03) / w;
+			ty[i] = (m10 * x + m11 * y + m12 * z + m13) / w;
+			tz[i] = (m20 * x + m21 * y + m22 * z + m23) / w;
+		}
+	}
+
+	/**
+	 * Returns the matrix product of this matrix and the given matrix.
+	 *
+	 * @param m the matrix to multiply this matrix by from the right
+	 * @return {@code this * m}
+	 */
+	public Matrix4x4 times(Matrix4x4 m) {
+		return new Matrix4x4(
+				m00 * m.m00 + m01 * m.m10 + m02 * m.m20 + m03 * m.m30,
+				m00 * m.m01 + m01 * m.m11 + m02 * m.m21 + m03 * m.m31,
+				m00 * m.m02 + m01 * m.m12 + m02 * m.m22 + m03 * m.m32,
+				m00 * m.m03 + m01 * m.m13 + m02 * m.m23 + m03 * m.m33,
+				m10 * m.m00 + m11 * m.m10 + m12 * m.m20 + m13 * m.m30,
+				m10 * m.m01 + m11 * m.m11 + m12 * m.m21 + m13 * m.m31,
+				m10 * m.m02 + m11 * m.m12 + m12 * m.m22 + m13 * m.m32,
+				m10 * m.m03 + m11 * m.m13 + m12 * m.m23 + m13 * m.m33,
+				m20 * m.m00 + m21 * m.m10 + m22 * m.m20 + m23 * m.m30,
+				m20 * m.m01 + m21 * m.m11 + m22 * m.m21 + m23 * m.m31,
+				m20 * m.m02 + m21 * m.m12 + m22 * m.m22 + m23 * m.m32,
+				m20 * m.m03 + m21 * m.m13 + m22 * m.m23 + m23 * m.m33,
+				m30 * m.m00 + m31 * m.m10 + m32 * m.m20 + m33 * m.m30,
+				m30 * m.m01 + m31 * m.m11 + m32 * m.m21 + m33 * m.m31,
+				m30 * m.m02 + m31 * m.m12 + m32 * m.m22 + m33 * m.m32,
+				m30 * m.m03 + m31 * m.m13 + m32 * m.m23 + m33 * m.m33);
+	}
+
+	/**
+	 * Returns the transpose of this matrix.
+	 *
+	 * @return the transposed matrix
+	 */
+	public Matrix4x4 transpose() {
+		return new Matrix4x4(
+				m00, m10, m20, m30,
+				m01, m11, m21, m31,
+				m02, m12, m22, m32,
+				m03, m13, m23, m33);
+	}
+
+	/**
+	 * Returns this matrix as a general {@code Matrix}.
+	 *
+	 * @return a 4x4 {@code Matrix} with the same elements
+	 */
+	public Matrix toMatrix() {
+		return Matrix.valueOf(4, 4, elements());
+	}
+
+	@Override
+	public int hashCode() {
+		return toMatrix().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Matrix4x4)) return false;
+		return toMatrix().equals(((Matrix4x4) obj).toMatrix());
+	}
+
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+}
@@ -0,0 +1,308 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * A vector of arbitrary dimension whose value can be changed,
+ * stored as an array of {@code double}s.
+ * <p>
+ * Besides the operations of the {@code Vector} interface, which return
+ * a new vector, this class provides in-place operations like
+ * {@link #add(Vector)} or {@link #scale(double)}, which modify this vector
+ * and return it to allow chaining.
+ * <p>
+ * Mutable vectors are mostly obtained from a {@link VectorArena}, in which
+ * case the {@code Vector} operations return vectors from the same arena.
+ * Vectors created by {@link #valueOf} belong to no arena and their
+ * operations return new vectors.
+ * <p>
+ * Instances of this class are not thread-safe.
+ * Since their value may change, they should not be used as keys in maps.
+ *
+ * @author Singon
+ */
+public final class MutableArrayVector extends AbstractVector<MutableArrayVector>
+		implements Vector {
+
+	/** The components of the vector. */
+	final double[] value;
+
+	/** The arena scope this vector belongs to, or {@code null}. */
+	private final VectorArena.Scope arena;
+	/** The generation of {@code arena} in which this vector was handed out. */
+	int generation;
+	/** Whether this vector was handed out in debug mode. */
+	boolean debug;
+
+	MutableArrayVector(VectorArena.Scope arena, int dimension) {
+		this.arena = arena;
+		this.value = new double[dimension];
+		if (VectorInstrumentation.COUNT_ALLOCATIONS) {
+			VectorInstrumentation.recordAllocation(MutableArrayVector.class);
+		}
+	}
+
+	/**
+	 * Returns a new {@code MutableArrayVector} with the given components,
+	 * which does not belong to any arena.
+	 *
+	 * @param components components of the vector
+	 * @return a new mutable vector with the given components
+	 */
+	public static MutableArrayVector valueOf(double... components) {
+		MutableArrayVector v = new MutableArrayVector(null, components.length);
+		System.arraycopy(components, 0, v.value, 0, components.length);
+		return v;
+	}
+
+	private void check() {
+		if (arena != null) {
+			arena.checkAccess(generation, debug);
+		}
+	}
+
+	/** Returns a new zero vector from the arena of this vector. */
+	private MutableArrayVector blank() {
+		if (arena != null) {
+			return arena.vector(value.length);
+		} else {
+			return new MutableArrayVector(null, value.length);
+		}
+	}
+
+	@Override
+	protected MutableArrayVector instance(double... components) {
+		if (arena != null) {
+			return arena.vector(components);
+		} else {
+			return valueOf(components);
+		}
+	}
+
+	/**
+	 * Returns an immutable copy of the current value of this vector.
+	 *
+	 * @return an {@code ArrayVector} with the components of this vector
+	 */
+	public ArrayVector toArrayVector() {
+		check();
+		return ArrayVector.valueOf(value);
+	}
+
+	@Override
+	public double get(int component) {
+		check();
+		return value[component];
+	}
+
+	@Override
+	public int dimension() {
+		return value.length;
+	}
+
+	/**
+	 * Sets the given component of this vector.
+	 *
+	 * @param component the index of the component
+	 * @param newValue the new value of the component
+	 * @return this vector
+	 */
+	public MutableArrayVector set(int component, double newValue) {
+		check();
+		value[component] = newValue;
+		return this;
+	}
+
+	/**
+	 * Sets the value of this vector to the value of the given vector.
+	 *
+	 * @param a the new value
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not equal to the dimension of this vector
+	 */
+	public MutableArrayVector set(Vector a) {
+		checkDimension(a);
+		for (int i = 0; i < value.length; i++) {
+			value[i] = a.get(i);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the given vector to this vector.
+	 *
+	 * @param a the vector to be added
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not equal to the dimension of this vector
+	 */
+	public MutableArrayVector add(Vector a) {
+		return addScaled(a, 1);
+	}
+
+	/**
+	 * Adds the given multiple of the given vector to this vector.
+	 *
+	 * @param a the vector to be added
+	 * @param factor the number to multiply {@code a} by
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not equal to the dimension of this vector
+	 */
+	public MutableArrayVector addScaled(Vector a, double factor) {
+		checkDimension(a);
+		for (int i = 0; i < value.length; i++) {
+			value[i] += a.get(i) * factor;
+		}
+		return this;
+	}
+
+	/**
+	 * Subtracts the given vector from this vector.
+	 *
+	 * @param a the vector to be subtracted
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not equal to the dimension of this vector
+	 */
+	public MutableArrayVector subtract(Vector a) {
+		return addScaled(a, -1);
+	}
+
+	/**
+	 * Multiplies this vector by the given scalar.
+	 *
+	 * @param scalar the number to multiply this vector by
+	 * @return this vector
+	 */
+	public MutableArrayVector scale(double scalar) {
+		check();
+		for (int i = 0; i < value.length; i++) {
+			value[i] *= scalar;
+		}
+		return this;
+	}
+
+	/**
+	 * Scales this vector to unit magnitude.
+	 *
+	 * @return this vector
+	 */
+	public MutableArrayVector normalize() {
+		return scale(1 / magnitude());
+	}
+
+	@Override
+	public double magnitude() {
+		return Math.sqrt(magnitudeSquared());
+	}
+
+	@Override
+	public double magnitudeSquared() {
+		check();
+		double square = 0;
+		for (double component : value) {
+			square += component * component;
+		}
+		return square;
+	}
+
+	@Override
+	public MutableArrayVector normalized() {
+		return times(1 / magnitude());
+	}
+
+	@Override
+	public MutableArrayVector negative() {
+		return times(-1);
+	}
+
+	@Override
+	public MutableArrayVector plus(Vector addend) {
+		checkDimension(addend);
+		MutableArrayVector result = blank();
+		for (int i = 0; i < value.length; i++) {
+			result.value[i] = value[i] + addend.get(i);
+		}
+		return result;
+	}
+
+	@Override
+	public MutableArrayVector minus(Vector subtrahend) {
+		checkDimension(subtrahend);
+		MutableArrayVector result = blank();
+		for (int i = 0; i < value.length; i++) {
+			result.value[i] = value[i] - subtrahend.get(i);
+		}
+		return result;
+	}
+
+	@Override
+	public MutableArrayVector times(double scalar) {
+		check();
+		MutableArrayVector result = blank();
+		for (int i = 0; i < value.length; i++) {
+			result.value[i] = value[i] * scalar;
+		}
+		return result;
+	}
+
+	@Override
+	public double dotProduct(Vector a) {
+		checkDimension(a);
+		double result = 0;
+		for (int i = 0; i < value.length; i++) {
+			result += value[i] * a.get(i);
+		}
+		return result;
+	}
+
+	@Override
+	public MutableArrayVector crossProduct(Vector a) {
+		check();
+		if (value.length != 3 || a.dimension() != 3) {
+			throw new IllegalVectorDimensionException(
+					"Cross product is not defined for vectors of dimension "
+							+ value.length + " and " + a.dimension());
+		}
+		double ax = a.get(0), ay = a.get(1), az = a.get(2);
+		MutableArrayVector result = blank();
+		result.value[0] = value[1] * az - value[2] * ay;
+		result.value[1] = value[2] * ax - value[0] * az;
+		result.value[2] = value[0] * ay - value[1] * ax;
+		return result;
+	}
+
+	@Override
+	public MutableArrayVector pointwiseProduct(Vector a) {
+		checkDimension(a);
+		MutableArrayVector result = blank();
+		for (int i = 0; i < value.length; i++) {
+			result.value[i] = value[i] * a.get(i);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		check();
+		return Arrays.toString(value);
+	}
+
+	/**
+	 * Checks that this vector can be used and that the given vector
+	 * has the same dimension as this vector, and throws an exception if not.
+	 *
+	 * @param other the vector whose dimension is being checked
+	 * @throws IllegalVectorDimensionException if the dimension of {@code other}
+	 *         does not match the dimension of this vector
+	 */
+	private void checkDimension(Vector other) {
+		check();
+		if (other.dimension() != value.length) {
+			throw new IllegalVectorDimensionException(
+					"The dimension of vector " + other + " is not " + value.length);
+		}
+	}
+}
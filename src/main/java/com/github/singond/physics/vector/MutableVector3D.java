@@ -0,0 +1,319 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A three-dimensional vector whose value can be changed.
+ * <p>
+ * Besides the operations of the {@code Vector} interface, which return
+ * a new vector, this class provides in-place operations like
+ * {@link #add(Vector)} or {@link #scale(double)}, which modify this vector
+ * and return it to allow chaining.
+ * <p>
+ * Mutable vectors are mostly obtained from a {@link VectorArena}, in which
+ * case the {@code Vector} operations return vectors from the same arena.
+ * Vectors created by {@link #valueOf} belong to no arena and their
+ * operations return new vectors.
+ * <p>
+ * Instances of this class are not thread-safe.
+ * Since their value may change, they should not be used as keys in maps.
+ *
+ * @author Singon
+ */
+public final class MutableVector3D implements Vector {
+
+	private double x;
+	private double y;
+	private double z;
+
+	/** The arena scope this vector belongs to, or {@code null}. */
+	private final VectorArena.Scope arena;
+	/** The generation of {@code arena} in which this vector was handed out. */
+	int generation;
+	/** Whether this vector was handed out in debug mode. */
+	boolean debug;
+
+	MutableVector3D(VectorArena.Scope arena) {
+		this.arena = arena;
+		if (VectorInstrumentation.COUNT_ALLOCATIONS) {
+			VectorInstrumentation.recordAllocation(MutableVector3D.class);
+		}
+	}
+
+	/**
+	 * Returns a new {@code MutableVector3D} with the given components,
+	 * which does not belong to any arena.
+	 *
+	 * @param x x-component of the vector
+	 * @param y y-component of the vector
+	 * @param z z-component of the vector
+	 * @return a new mutable vector with the given components
+	 */
+	public static MutableVector3D valueOf(double x, double y, double z) {
+		return new MutableVector3D(null).set(x, y, z);
+	}
+
+	private void check() {
+		if (arena != null) {
+			arena.checkAccess(generation, debug);
+		}
+	}
+
+	/** Returns a new vector from the arena of this vector. */
+	private MutableVector3D instance(double x, double y, double z) {
+		if (arena != null) {
+			return arena.vector3D(x, y, z);
+		} else {
+			return valueOf(x, y, z);
+		}
+	}
+
+	/**
+	 * Returns an immutable copy of the current value of this vector.
+	 *
+	 * @return a {@code Vector3D} with the components of this vector
+	 */
+	public Vector3D toVector3D() {
+		check();
+		return Vector3D.valueOf(x, y, z);
+	}
+
+	/**
+	 * Sets the components of this vector.
+	 *
+	 * @param x the new x-component
+	 * @param y the new y-component
+	 * @param z the new z-component
+	 * @return this vector
+	 */
+	public MutableVector3D set(double x, double y, double z) {
+		check();
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	/**
+	 * Sets the value of this vector to the value of the given vector.
+	 *
+	 * @param a the new value
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not 3
+	 */
+	public MutableVector3D set(Vector a) {
+		checkDimension(a);
+		return set(a.get(0), a.get(1), a.get(2));
+	}
+
+	/**
+	 * Adds the given vector to this vector.
+	 *
+	 * @param a the vector to be added
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not 3
+	 */
+	public MutableVector3D add(Vector a) {
+		checkDimension(a);
+		return set(x + a.get(0), y + a.get(1), z + a.get(2));
+	}
+
+	/**
+	 * Adds the given multiple of the given vector to this vector.
+	 *
+	 * @param a the vector to be added
+	 * @param factor the number to multiply {@code a} by
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not 3
+	 */
+	public MutableVector3D addScaled(Vector a, double factor) {
+		checkDimension(a);
+		return set(x + a.get(0) * factor, y + a.get(1) * factor,
+				z + a.get(2) * factor);
+	}
+
+	/**
+	 * Subtracts the given vector from this vector.
+	 *
+	 * @param a the vector to be subtracted
+	 * @return this vector
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         is not 3
+	 */
+	public MutableVector3D subtract(Vector a) {
+		checkDimension(a);
+		return set(x - a.get(0), y - a.get(1), z - a.get(2));
+	}
+
+	/**
+	 * Multiplies this vector by the given scalar.
+	 *
+	 * @param scalar the number to multiply this vector by
+	 * @return this vector
+	 */
+	public MutableVector3D scale(double scalar) {
+		return set(x * scalar, y * scalar, z * scalar);
+	}
+
+	/**
+	 * Scales this vector to unit magnitude.
+	 *
+	 * @return this vector
+	 */
+	public MutableVector3D normalize() {
+		return scale(1 / magnitude());
+	}
+
+	/**
+	 * Sets this vector to the cross product of the given vectors.
+	 * Either of the vectors may be this vector.
+	 *
+	 * @param a the first factor
+	 * @param b the second factor
+	 * @return this vector, set to {@code a x b}
+	 * @throws IllegalVectorDimensionException if the dimension of {@code a}
+	 *         or {@code b} is not 3
+	 */
+	public MutableVector3D setCrossProduct(Vector a, Vector b) {
+		checkDimension(a);
+		checkDimension(b);
+		double ax = a.get(0), ay = a.get(1), az = a.get(2);
+		double bx = b.get(0), by = b.get(1), bz = b.get(2);
+		return set(ay * bz - az * by, az * bx - ax * bz, ax * by - ay * bx);
+	}
+
+	@Override
+	public double get(int component) {
+		check();
+		if (component == 0) return x;
+		else if (component == 1) return y;
+		else if (component == 2) return z;
+		else throw new IndexOutOfBoundsException(
+				"Invalid vector component index: " + component);
+	}
+
+	@Override
+	public int dimension() {
+		return 3;
+	}
+
+	@Override
+	public List<Double> components() {
+		check();
+		return Arrays.asList(x, y, z);
+	}
+
+	@Override
+	public double magnitude() {
+		check();
+		return Math.sqrt(x*x + y*y + z*z);
+	}
+
+	@Override
+	public double magnitudeSquared() {
+		check();
+		return x*x + y*y + z*z;
+	}
+
+	@Override
+	public MutableVector3D normalized() {
+		double mag = magnitude();
+		return instance(x/mag, y/mag, z/mag);
+	}
+
+	@Override
+	public MutableVector3D negative() {
+		check();
+		return instance(-x, -y, -z);
+	}
+
+	@Override
+	public MutableVector3D plus(Vector a) {
+		checkDimension(a);
+		return instance(x + a.get(0), y + a.get(1), z + a.get(2));
+	}
+
+	@Override
+	public MutableVector3D minus(Vector a) {
+		checkDimension(a);
+		return instance(x - a.get(0), y - a.get(1), z - a.get(2));
+	}
+
+	@Override
+	public MutableVector3D times(double scalar) {
+		check();
+		return instance(x * scalar, y * scalar, z * scalar);
+	}
+
+	@Override
+	public double dotProduct(Vector a) {
+		checkDimension(a);
+		return x * a.get(0) + y * a.get(1) + z * a.get(2);
+	}
+
+	@Override
+	public MutableVector3D crossProduct(Vector a) {
+		checkDimension(a);
+		double ax = a.get(0), ay = a.get(1), az = a.get(2);
+		return instance(y * az - z * ay, z * ax - x * az, x * ay - y * ax);
+	}
+
+	@Override
+	public MutableVector3D pointwiseProduct(Vector a) {
+		checkDimension(a);
+		return instance(x * a.get(0), y * a.get(1), z * a.get(2));
+	}
+
+	@Override
+	public double angleWith(Vector a) {
+		double cosine = this.dotProduct(a) / (this.magnitude() * a.magnitude());
+		if (cosine < -1) cosine = -1;
+		else if (cosine > 1) cosine = 1;
+		return Math.acos(cosine);
+	}
+
+	@Override
+	public int hashCode() {
+		check();
+		return Vector3D.hashCode(x, y, z);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Vector)) return false;
+		Vector other = (Vector) obj;
+		if (other.dimension() != 3) return false;
+		check();
+		return Double.doubleToLongBits(x) == Double.doubleToLongBits(other.get(0))
+			&& Double.doubleToLongBits(y) == Double.doubleToLongBits(other.get(1))
+			&& Double.doubleToLongBits(z) == Double.doubleToLongBits(other.get(2));
+	}
+
+	@Override
+	public String toString() {
+		check();
+		return "[" + x + ", " + y + ", " + z + "]";
+	}
+
+	/**
+	 * Checks that this vector can be used and that the given vector has
+	 * dimension 3, and throws an exception if not.
+	 *
+	 * @param other the vector whose dimension is being checked
+	 * @throws IllegalVectorDimensionException if the dimension of {@code other}
+	 *         is not 3
+	 */
+	private void checkDimension(Vector other) {
+		check();
+		if (other.dimension() != 3) {
+			throw new IllegalVectorDimensionException(
+					"The dimension of vector " + other + " is not 3");
+		}
+	}
+}
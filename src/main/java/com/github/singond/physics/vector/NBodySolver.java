@@ -0,0 +1,599 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates the accelerations of bodies interacting by an inverse-square
+ * law force, such as gravity.
+ * <p>
+ * Given bodies with positions {@code r[j]} and masses {@code m[j]}, the
+ * acceleration of the {@code i}th body is calculated as
+ * <pre>
+ * a[i] = G * sum over j != i of m[j] * (r[j] - r[i]) / (|r[j] - r[i]|^2 + eps^2)^(3/2),</pre>
+ * where {@code G} is the coupling constant and {@code eps} the softening
+ * length. For electrostatic interaction, pass charges instead of masses
+ * and the negative Coulomb constant as {@code G}; the result is then the
+ * electric field, which must be multiplied by the charge-to-mass ratio
+ * of each body to obtain its acceleration.
+ * <p>
+ * The solver sums the interactions directly for small systems,
+ * which takes time proportional to {@code n^2}. For systems larger
+ * than a configurable threshold, it uses the Barnes-Hut approximation,
+ * where distant groups of bodies are replaced by their centre of mass.
+ * This takes time proportional to {@code n log(n)}, but requires the masses
+ * to be non-negative. Both methods run in parallel in the common
+ * fork/join pool. The acceleration of each body is always summed
+ * in the same order, so the results do not depend on the number of threads.
+ * <p>
+ * The positions, masses and accelerations are passed in separate arrays
+ * for each component (the "structure of arrays" layout), either directly
+ * or in a {@link Vector3DArray}.
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ *
+ * @author Singon
+ */
+public final class NBodySolver {
+
+	/**
+	 * The number of bodies processed together in the direct method.
+	 * A tile of source bodies should fit into the L1 cache.
+	 */
+	private static final int TILE = 256;
+
+	/** The number of bodies processed by one task in the Barnes-Hut method. */
+	private static final int CHUNK = 512;
+
+	private static final double DEFAULT_OPENING_ANGLE = 0.5;
+	private static final int DEFAULT_DIRECT_THRESHOLD = 4096;
+
+	private final double constant;
+	private final double softening;
+	private final double openingAngle;
+	private final int directThreshold;
+
+	private NBodySolver(double constant, double softening,
+			double openingAngle, int directThreshold) {
+		this.constant = constant;
+		this.softening = softening;
+		this.openingAngle = openingAngle;
+		this.directThreshold = directThreshold;
+	}
+
+	/**
+	 * Returns a solver with the given coupling constant, no softening
+	 * and the default opening angle and direct threshold.
+	 *
+	 * @param constant the coupling constant {@code G}
+	 * @return a new solver
+	 */
+	public static NBodySolver withConstant(double constant) {
+		return new NBodySolver(constant, 0, DEFAULT_OPENING_ANGLE,
+				DEFAULT_DIRECT_THRESHOLD);
+	}
+
+	/**
+	 * Returns a solver like this one, but with the given softening length.
+	 * Softening limits the force between close bodies, which would
+	 * otherwise grow without bounds.
+	 *
+	 * @param softening the softening length {@code eps}
+	 * @return a new solver with the given softening length
+	 */
+	public NBodySolver withSoftening(double softening) {
+		if (softening < 0) {
+			throw new IllegalArgumentException(
+					"Softening must not be negative: " + softening);
+		}
+		return new NBodySolver(constant, softening, openingAngle,
+				directThreshold);
+	}
+
+	/**
+	 * Returns a solver like this one, but with the given opening angle
+	 * of the Barnes-Hut method. A group of bodies is approximated by its
+	 * centre of mass if the ratio of its size to its distance is lower
+	 * than the opening angle. Lower values give more accurate results
+	 * at the cost of speed; zero reduces to the direct method.
+	 *
+	 * @param openingAngle the opening angle
+	 * @return a new solver with the given opening angle
+	 */
+	public NBodySolver withOpeningAngle(double openingAngle) {
+		if (openingAngle < 0) {
+			throw new IllegalArgumentException(
+					"Opening angle must not be negative: " + openingAngle);
+		}
+		return new NBodySolver(constant, softening, openingAngle,
+				directThreshold);
+	}
+
+	/**
+	 * Returns a solver like this one, but with the given number of bodies
+	 * above which the Barnes-Hut method is used instead of the direct one.
+	 *
+	 * @param directThreshold the maximum number of bodies to be solved
+	 *        by the direct method
+	 * @return a new solver with the given threshold
+	 */
+	public NBodySolver withDirectThreshold(int directThreshold) {
+		return new NBodySolver(constant, softening, openingAngle,
+				directThreshold);
+	}
+
+	/**
+	 * Calculates the accelerations of the given bodies,
+	 * choosing the method by the number of bodies.
+	 *
+	 * @param positions the positions of the bodies
+	 * @param masses the masses of the bodies
+	 * @param accelerations the array to write the accelerations into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public void accelerations(Vector3DArray positions, double[] masses,
+			Vector3DArray accelerations) {
+		accelerations(positions.x, positions.y, positions.z, masses,
+				accelerations.x, accelerations.y, accelerations.z);
+	}
+
+	/**
+	 * Calculates the accelerations of the given bodies,
+	 * choosing the method by the number of bodies.
+	 * All arrays must be of the same length.
+	 *
+	 * @param x the x-coordinates of the bodies
+	 * @param y the y-coordinates of the bodies
+	 * @param z the z-coordinates of the bodies
+	 * @param mass the masses of the bodies
+	 * @param ax the array to write the x-components of the accelerations into
+	 * @param ay the array to write the y-components of the accelerations into
+	 * @param az the array to write the z-components of the accelerations into
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public void accelerations(double[] x, double[] y, double[] z, double[] mass,
+			double[] ax, double[] ay, double[] az) {
+		if (x.length > directThreshold) {
+			barnesHut(x, y, z, mass, ax, ay, az);
+		} else {
+			direct(x, y, z, mass, ax, ay, az);
+		}
+	}
+
+	/**
+	 * Calculates the accelerations of the given bodies by summing all
+	 * pairwise interactions.
+	 * All arrays must be of the same length.
+	 *
+	 * @param x the x-coordinates of the bodies
+	 * @param y the y-coordinates of the bodies
+	 * @param z the z-coordinates of the bodies
+	 * @param mass the masses of the bodies
+	 * @param ax the array to write the x-components of the accelerations into
+	 * @param ay the array to write the y-components of the accelerations into
+	 * @param az the array to write the z-components of the accelerations into
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public void direct(double[] x, double[] y, double[] z, double[] mass,
+			double[] ax, double[] ay, double[] az) {
+		checkLengths(x, y, z, mass, ax, ay, az);
+		final int n = x.length;
+		final int tiles = (n + TILE - 1) / TILE;
+		IntStream.range(0, tiles).parallel().forEach(t -> directTile(
+				x, y, z, mass, ax, ay, az, t * TILE, Math.min(n, (t + 1) * TILE)));
+	}
+
+	/**
+	 * Calculates the accelerations of bodies {@code from} to {@code to}
+	 * directly, iterating over the sources one tile at a time.
+	 */
+	private void directTile(double[] x, double[] y, double[] z, double[] mass,
+			double[] ax, double[] ay, double[] az, int from, int to) {
+		final int n = x.length;
+		final double eps2 = softening * softening;
+		for (int i = from; i < to; i++) {
+			ax[i] = 0;
+			ay[i] = 0;
+			az[i] = 0;
+		}
+		for (int j0 = 0; j0 < n; j0 += TILE) {
+			int j1 = Math.min(n, j0 + TILE);
+			for (int i = from; i < to; i++) {
+				double xi = x[i], yi = y[i], zi = z[i];
+				double sx = 0, sy = 0, sz = 0;
+				for (int j = j0; j < j1; j++) {
+					double dx = x[j] - xi;
+					double dy = y[j] - yi;
+					double dz = z[j] - zi;
+					double r2 = dx*dx + dy*dy + dz*dz + eps2;
+					if (r2 > 0) {
+						double f = mass[j] / (r2 * Math.sqrt(r2));
+						sx += f * dx;
+						sy += f * dy;
+						sz += f * dz;
+					}
+				}
+				ax[i] += sx;
+				ay[i] += sy;
+				az[i] += sz;
+			}
+		}
+		for (int i = from; i < to; i++) {
+			ax[i] *= constant;
+			ay[i] *= constant;
+			az[i] *= constant;
+		}
+	}
+
+	/**
+	 * Calculates the accelerations of the given bodies using the
+	 * Barnes-Hut approximation with this solver's opening angle.
+	 * All arrays must be of the same length and the masses must not
+	 * be negative.
+	 *
+	 * @param x the x-coordinates of the bodies
+	 * @param y the y-coordinates of the bodies
+	 * @param z the z-coordinates of the bodies
+	 * @param mass the masses of the bodies
+	 * @param ax the array to write the x-components of the accelerations into
+	 * @param ay the array to write the y-components of the accelerations into
+	 * @param az the array to write the z-components of the accelerations into
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public void barnesHut(double[] x, double[] y, double[] z, double[] mass,
+			double[] ax, double[] ay, double[] az) {
+		checkLengths(x, y, z, mass, ax, ay, az);
+		final int n = x.length;
+		if (n == 0) return;
+		final Octree tree = Octree.build(x, y, z, mass);
+		final int chunks = (n + CHUNK - 1) / CHUNK;
+		// Visit the bodies in the order of the tree, so that neighbouring
+		// bodies, which traverse similar parts of the tree, are processed
+		// together
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int[] stack = new int[Octree.MAX_DEPTH * 8 + 8];
+			int to = Math.min(n, (c + 1) * CHUNK);
+			for (int k = c * CHUNK; k < to; k++) {
+				barnesHutBody(tree, k, ax, ay, az, stack);
+			}
+		});
+	}
+
+	/**
+	 * Calculates the acceleration of the {@code k}th body in the order
+	 * of the tree by traversing the tree from the root.
+	 */
+	private void barnesHutBody(Octree tree, int k,
+			double[] ax, double[] ay, double[] az, int[] stack) {
+		final double eps2 = softening * softening;
+		final double theta2 = openingAngle * openingAngle;
+		final double[] px = tree.px, py = tree.py, pz = tree.pz, pm = tree.pm;
+		final double xi = px[k], yi = py[k], zi = pz[k];
+		double sx = 0, sy = 0, sz = 0;
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (tree.mass[node] == 0) {
+				continue;
+			}
+			if (tree.isLeaf(node)) {
+				int end = tree.leafEnd[node];
+				for (int j = tree.leafStart[node]; j < end; j++) {
+					double dx = px[j] - xi;
+					double dy = py[j] - yi;
+					double dz = pz[j] - zi;
+					double r2 = dx*dx + dy*dy + dz*dz + eps2;
+					if (j != k && r2 > 0) {
+						double f = pm[j] / (r2 * Math.sqrt(r2));
+						sx += f * dx;
+						sy += f * dy;
+						sz += f * dz;
+					}
+				}
+				continue;
+			}
+			double dx = tree.comX[node] - xi;
+			double dy = tree.comY[node] - yi;
+			double dz = tree.comZ[node] - zi;
+			double d2 = dx*dx + dy*dy + dz*dz;
+			double size = 2 * tree.halfSize[node];
+			if (size * size < theta2 * d2 && !tree.contains(node, xi, yi, zi)) {
+				double r2 = d2 + eps2;
+				double f = tree.mass[node] / (r2 * Math.sqrt(r2));
+				sx += f * dx;
+				sy += f * dy;
+				sz += f * dz;
+			} else {
+				int base = node * 8;
+				for (int c = 0; c < 8; c++) {
+					int child = tree.children[base + c];
+					if (child > 0) {
+						stack[top++] = child;
+					}
+				}
+			}
+		}
+		int i = tree.order[k];
+		ax[i] = constant * sx;
+		ay[i] = constant * sy;
+		az[i] = constant * sz;
+	}
+
+	/**
+	 * Returns a force function evaluating the accelerations of bodies with
+	 * the given masses using this solver. The function can be used with
+	 * {@link Integrator} to advance a three-dimensional {@link SystemState}
+	 * with one body per element of {@code masses}.
+	 * <p>
+	 * The returned function keeps scratch buffers for converting between
+	 * the layout of {@code SystemState} and the one used by this class,
+	 * and must not be used by multiple threads at once.
+	 *
+	 * @param masses the masses of the bodies
+	 * @return a force function for the bodies with {@code masses}
+	 */
+	public ForceFunction forceFunction(double[] masses) {
+		final int n = masses.length;
+		final double[] m = masses.clone();
+		final Vector3DArray r = Vector3DArray.ofSize(n);
+		final Vector3DArray a = Vector3DArray.ofSize(n);
+		return (time, position, velocity, acceleration) -> {
+			if (position.length != 3 * n) {
+				throw new IllegalArgumentException("Expected " + n
+						+ " bodies in three dimensions");
+			}
+			for (int i = 0; i < n; i++) {
+				r.x[i] = position[3*i];
+				r.y[i] = position[3*i + 1];
+				r.z[i] = position[3*i + 2];
+			}
+			accelerations(r, m, a);
+			for (int i = 0; i < n; i++) {
+				acceleration[3*i] = a.x[i];
+				acceleration[3*i + 1] = a.y[i];
+				acceleration[3*i + 2] = a.z[i];
+			}
+		};
+	}
+
+	private static void checkLengths(double[]... arrays) {
+		int n = arrays[0].length;
+		for (double[] array : arrays) {
+			if (array.length != n) {
+				throw new IllegalArgumentException(
+						"Arrays differ in length: " + n + " and " + array.length);
+			}
+		}
+	}
+
+	/**
+	 * An octree of bodies stored in flat arrays, one element per node.
+	 * The root is node 0 and the children of node {@code k} are listed
+	 * in {@code children[8*k]} to {@code children[8*k + 7]}, with zero
+	 * marking a missing child.
+	 * While the tree is built, leaves hold a linked list of bodies,
+	 * starting in {@code firstBody} and continuing through {@code nextBody}.
+	 * Once it is complete, the bodies are copied into arrays in the order
+	 * of the leaves, so that the bodies in each leaf are contiguous.
+	 */
+	private static final class Octree {
+
+		/** The maximum number of bodies in a leaf, unless at maximum depth. */
+		static final int LEAF_SIZE = 8;
+		/**
+		 * The maximum depth of the tree. Bodies which still fall into
+		 * the same leaf at this depth are kept together in that leaf.
+		 */
+		static final int MAX_DEPTH = 48;
+
+		private int nodes;
+		double[] centerX, centerY, centerZ, halfSize;
+		double[] mass, comX, comY, comZ;
+		int[] children;
+		int[] firstBody;
+		int[] bodyCount;
+		int[] depth;
+		final int[] nextBody;
+
+		/** The positions and masses of the bodies in the order of leaves. */
+		final double[] px, py, pz, pm;
+		/** The original index of each body in the order of leaves. */
+		final int[] order;
+		/** The range of bodies in each leaf, in the order of leaves. */
+		int[] leafStart, leafEnd;
+		private int cursor;
+
+		private Octree(int bodies) {
+			int capacity = Math.max(16, bodies / 2);
+			centerX = new double[capacity];
+			centerY = new double[capacity];
+			centerZ = new double[capacity];
+			halfSize = new double[capacity];
+			mass = new double[capacity];
+			comX = new double[capacity];
+			comY = new double[capacity];
+			comZ = new double[capacity];
+			children = new int[capacity * 8];
+			firstBody = new int[capacity];
+			bodyCount = new int[capacity];
+			depth = new int[capacity];
+			nextBody = new int[bodies];
+			px = new double[bodies];
+			py = new double[bodies];
+			pz = new double[bodies];
+			pm = new double[bodies];
+			order = new int[bodies];
+		}
+
+		static Octree build(double[] x, double[] y, double[] z, double[] m) {
+			final int n = x.length;
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			double minZ = Double.POSITIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				if (m[i] < 0) {
+					throw new IllegalArgumentException(
+							"Negative mass of body " + i + ": " + m[i]);
+				}
+				minX = Math.min(minX, x[i]); maxX = Math.max(maxX, x[i]);
+				minY = Math.min(minY, y[i]); maxY = Math.max(maxY, y[i]);
+				minZ = Math.min(minZ, z[i]); maxZ = Math.max(maxZ, z[i]);
+			}
+			double half = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ)) / 2;
+			// Make sure that the bounds contain all points despite rounding
+			half = half * (1 + 1e-9) + Double.MIN_NORMAL;
+
+			Octree tree = new Octree(n);
+			tree.newNode((minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2,
+					half, 0);
+			for (int i = 0; i < n; i++) {
+				tree.insert(i, x, y, z);
+			}
+			tree.leafStart = new int[tree.nodes];
+			tree.leafEnd = new int[tree.nodes];
+			tree.computeMoments(0, x, y, z, m);
+			return tree;
+		}
+
+		/** Returns whether the cell of the given node contains the point. */
+		boolean contains(int node, double px, double py, double pz) {
+			double h = halfSize[node];
+			return Math.abs(px - centerX[node]) <= h
+					&& Math.abs(py - centerY[node]) <= h
+					&& Math.abs(pz - centerZ[node]) <= h;
+		}
+
+		boolean isLeaf(int node) {
+			return firstBody[node] >= 0 || bodyCount[node] == 0;
+		}
+
+		private int newNode(double cx, double cy, double cz, double half, int d) {
+			if (nodes == mass.length) {
+				grow();
+			}
+			int node = nodes++;
+			centerX[node] = cx;
+			centerY[node] = cy;
+			centerZ[node] = cz;
+			halfSize[node] = half;
+			firstBody[node] = -1;
+			depth[node] = d;
+			return node;
+		}
+
+		private void grow() {
+			int capacity = mass.length * 2;
+			centerX = Arrays.copyOf(centerX, capacity);
+			centerY = Arrays.copyOf(centerY, capacity);
+			centerZ = Arrays.copyOf(centerZ, capacity);
+			halfSize = Arrays.copyOf(halfSize, capacity);
+			mass = Arrays.copyOf(mass, capacity);
+			comX = Arrays.copyOf(comX, capacity);
+			comY = Arrays.copyOf(comY, capacity);
+			comZ = Arrays.copyOf(comZ, capacity);
+			children = Arrays.copyOf(children, capacity * 8);
+			firstBody = Arrays.copyOf(firstBody, capacity);
+			bodyCount = Arrays.copyOf(bodyCount, capacity);
+			depth = Arrays.copyOf(depth, capacity);
+		}
+
+		/** Inserts body {@code i} into the tree, starting at the root. */
+		private void insert(int i, double[] x, double[] y, double[] z) {
+			int node = 0;
+			while (true) {
+				bodyCount[node]++;
+				if (bodyCount[node] == 1 || firstBody[node] >= 0) {
+					// Node is a leaf (possibly empty until now)
+					if (bodyCount[node] <= LEAF_SIZE || depth[node] >= MAX_DEPTH) {
+						nextBody[i] = firstBody[node];
+						firstBody[node] = i;
+						return;
+					}
+					// Leaf is full: turn it into an internal node
+					int j = firstBody[node];
+					firstBody[node] = -1;
+					while (j >= 0) {
+						int next = nextBody[j];
+						int child = childFor(node, x[j], y[j], z[j]);
+						bodyCount[child]++;
+						nextBody[j] = firstBody[child];
+						firstBody[child] = j;
+						j = next;
+					}
+				}
+				node = childFor(node, x[i], y[i], z[i]);
+			}
+		}
+
+		/**
+		 * Returns the child of {@code node} containing the given point,
+		 * creating it if it does not exist.
+		 */
+		private int childFor(int node, double px, double py, double pz) {
+			int octant = (px >= centerX[node] ? 1 : 0)
+					| (py >= centerY[node] ? 2 : 0)
+					| (pz >= centerZ[node] ? 4 : 0);
+			int slot = node * 8 + octant;
+			int child = children[slot];
+			if (child == 0) {
+				double h = halfSize[node] / 2;
+				child = newNode(
+						centerX[node] + ((octant & 1) != 0 ? h : -h),
+						centerY[node] + ((octant & 2) != 0 ? h : -h),
+						centerZ[node] + ((octant & 4) != 0 ? h : -h),
+						h, depth[node] + 1);
+				// newNode may have reallocated the children array
+				children[slot] = child;
+			}
+			return child;
+		}
+
+		/**
+		 * Calculates the mass and centre of mass of every node
+		 * and copies the bodies into the order of leaves.
+		 */
+		private void computeMoments(int node, double[] x, double[] y, double[] z,
+				double[] m) {
+			double sm = 0, sx = 0, sy = 0, sz = 0;
+			if (firstBody[node] >= 0) {
+				leafStart[node] = cursor;
+				for (int j = firstBody[node]; j >= 0; j = nextBody[j]) {
+					px[cursor] = x[j];
+					py[cursor] = y[j];
+					pz[cursor] = z[j];
+					pm[cursor] = m[j];
+					order[cursor] = j;
+					cursor++;
+					sm += m[j];
+					sx += m[j] * x[j];
+					sy += m[j] * y[j];
+					sz += m[j] * z[j];
+				}
+				leafEnd[node] = cursor;
+			} else {
+				for (int k = 0; k < 8; k++) {
+					int child = children[node * 8 + k];
+					if (child > 0) {
+						computeMoments(child, x, y, z, m);
+						double cm = mass[child];
+						sm += cm;
+						sx += cm * comX[child];
+						sy += cm * comY[child];
+						sz += cm * comZ[child];
+					}
+				}
+			}
+			mass[node] = sm;
+			if (sm > 0) {
+				comX[node] = sx / sm;
+				comY[node] = sy / sm;
+				comZ[node] = sz / sm;
+			} else {
+				comX[node] = centerX[node];
+				comY[node] = centerY[node];
+				comZ[node] = centerZ[node];
+			}
+		}
+	}
+}
@@ -0,0 +1,592 @@
+package com.github.singond.physics.vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An orthonormal basis of the subspace spanned by a set of vectors,
+ * with projection of vectors onto that subspace and its orthogonal
+ * complement.
+ * <p>
+ * The basis is computed either by the modified Gram-Schmidt process,
+ * which keeps the order of the vectors, or by Householder QR
+ * factorization with column pivoting, which is slower but yields
+ * an orthonormal basis to working precision even for nearly dependent
+ * vectors. Both methods discard vectors which are numerically dependent
+ * on the others: a vector is dependent if its component orthogonal to
+ * the basis found so far is at most {@code tolerance} times the largest
+ * magnitude of the given vectors. The number of basis vectors is the
+ * numerical {@linkplain #rank() rank} of the set.
+ * <p>
+ * The vectors are processed in a single contiguous array of
+ * {@code double}s, one vector after another. The methods operating on
+ * such arrays directly ({@link #gramSchmidtInPlace gramSchmidtInPlace},
+ * {@link #householderInPlace householderInPlace} and the bulk
+ * {@code project} and {@code reject}) allocate no vector objects.
+ * The loops go through the vectors in blocks, reading each basis vector
+ * once for a whole block of vectors, so that large sets are processed
+ * from the cache; the results are identical to processing the vectors
+ * one by one.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Orthonormalizer {
+
+	/**
+	 * The number of vectors processed together against each basis vector.
+	 */
+	private static final int BLOCK = 32;
+
+	/**
+	 * The fraction of its original magnitude below which the magnitude
+	 * of a column in QR factorization is computed anew rather than
+	 * updated, to avoid cancellation.
+	 */
+	private static final double RECOMPUTE = Math.sqrt(Math.ulp(1.0));
+
+	private final int dimension;
+	private final int rank;
+
+	/** The basis vectors, one after another. */
+	private final double[] basis;
+
+	private Orthonormalizer(int dimension, int rank, double[] basis) {
+		this.dimension = dimension;
+		this.rank = rank;
+		this.basis = basis;
+	}
+
+	/**
+	 * Returns an orthonormal basis of the span of the given vectors
+	 * computed by the modified Gram-Schmidt process with the default
+	 * tolerance.
+	 *
+	 * @param vectors the vectors to be orthonormalized
+	 * @return an orthonormal basis whose {@code i}th vector lies in the
+	 *         span of the first {@code i + 1} independent given vectors
+	 * @throws IllegalArgumentException if {@code vectors} is empty
+	 * @throws IllegalVectorDimensionException if the vectors are not
+	 *         of the same dimension
+	 * @see #gramSchmidt(List, double)
+	 */
+	public static Orthonormalizer gramSchmidt(List<? extends Vector> vectors) {
+		return gramSchmidt(vectors, defaultTolerance(vectors));
+	}
+
+	/**
+	 * Returns an orthonormal basis of the span of the given vectors
+	 * computed by the modified Gram-Schmidt process.
+	 * <p>
+	 * The orthogonality of the basis degrades with the condition of the
+	 * vectors; for nearly dependent vectors, use
+	 * {@link #householder(List, double)}.
+	 *
+	 * @param vectors the vectors to be orthonormalized
+	 * @param tolerance the relative magnitude below which a vector
+	 *        is considered dependent on the preceding vectors
+	 * @return an orthonormal basis whose {@code i}th vector lies in the
+	 *         span of the first {@code i + 1} independent given vectors
+	 * @throws IllegalArgumentException if {@code vectors} is empty
+	 *         or {@code tolerance} is negative
+	 * @throws IllegalVectorDimensionException if the vectors are not
+	 *         of the same dimension
+	 */
+	public static Orthonormalizer gramSchmidt(List<? extends Vector> vectors,
+			double tolerance) {
+		int dimension = checkVectors(vectors);
+		double[] buffer = toBuffer(vectors, dimension);
+		int rank = gramSchmidtInPlace(buffer, 0, vectors.size(), dimension, tolerance);
+		return create(dimension, rank, buffer);
+	}
+
+	/**
+	 * Returns an orthonormal basis of the span of the given vectors
+	 * computed by Householder QR factorization with the default tolerance.
+	 *
+	 * @param vectors the vectors to be orthonormalized
+	 * @return an orthonormal basis of the span of {@code vectors}
+	 * @throws IllegalArgumentException if {@code vectors} is empty
+	 * @throws IllegalVectorDimensionException if the vectors are not
+	 *         of the same dimension
+	 * @see #householder(List, double)
+	 */
+	public static Orthonormalizer householder(List<? extends Vector> vectors) {
+		return householder(vectors, defaultTolerance(vectors));
+	}
+
+	/**
+	 * Returns an orthonormal basis of the span of the given vectors
+	 * computed by Householder QR factorization with column pivoting.
+	 * <p>
+	 * Pivoting takes the vectors in order of decreasing magnitude of their
+	 * component orthogonal to the basis found so far, so the basis vectors
+	 * do not correspond to the given vectors in order.
+	 *
+	 * @param vectors the vectors to be orthonormalized
+	 * @param tolerance the relative magnitude below which a vector
+	 *        is considered dependent on the others
+	 * @return an orthonormal basis of the span of {@code vectors}
+	 * @throws IllegalArgumentException if {@code vectors} is empty
+	 *         or {@code tolerance} is negative
+	 * @throws IllegalVectorDimensionException if the vectors are not
+	 *         of the same dimension
+	 */
+	public static Orthonormalizer householder(List<? extends Vector> vectors,
+			double tolerance) {
+		int dimension = checkVectors(vectors);
+		double[] buffer = toBuffer(vectors, dimension);
+		int rank = householderInPlace(buffer, 0, vectors.size(), dimension, tolerance);
+		return create(dimension, rank, buffer);
+	}
+
+	/**
+	 * Orthonormalizes vectors stored contiguously in an array
+	 * by the modified Gram-Schmidt process, in place.
+	 * <p>
+	 * The {@code i}th vector occupies the {@code dimension} elements
+	 * of {@code vectors} starting at {@code offset + i * dimension}.
+	 * On return, the first {@code r} of these positions hold the
+	 * orthonormal basis, where {@code r} is the returned rank;
+	 * the contents of the remaining {@code count - r} positions
+	 * are unspecified.
+	 *
+	 * @param vectors the array containing the vectors
+	 * @param offset the index of the first component of the first vector
+	 * @param count the number of vectors
+	 * @param dimension the dimension of the vectors
+	 * @param tolerance the relative magnitude below which a vector
+	 *        is considered dependent on the preceding vectors
+	 * @return the number of basis vectors
+	 * @throws IllegalArgumentException if {@code tolerance} is negative
+	 * @see #gramSchmidt(List, double)
+	 */
+	public static int gramSchmidtInPlace(double[] vectors, int offset,
+			int count, int dimension, double tolerance) {
+		checkTolerance(tolerance);
+		final double[] a = vectors;
+		final int n = dimension;
+		double threshold = tolerance * maxMagnitude(a, offset, count, n);
+		int rank = 0;
+		for (int b0 = 0; b0 < count; b0 += BLOCK) {
+			int b1 = Math.min(b0 + BLOCK, count);
+			// Orthogonalize the whole block against the basis completed
+			// in the preceding blocks
+			int blockStart = rank;
+			for (int j = 0; j < blockStart; j++) {
+				int q = offset + j * n;
+				for (int i = b0; i < b1; i++) {
+					int v = offset + i * n;
+					axpy(-dot(a, q, v, n), a, q, v, n);
+				}
+			}
+			// Orthogonalize the vectors of the block among themselves
+			for (int i = b0; i < b1; i++) {
+				int v = offset + i * n;
+				for (int j = blockStart; j < rank; j++) {
+					int q = offset + j * n;
+					axpy(-dot(a, q, v, n), a, q, v, n);
+				}
+				double magnitude = Math.sqrt(dot(a, v, v, n));
+				if (magnitude > threshold) {
+					// Move the new basis vector to its place, which is
+					// either its own or that of a discarded vector
+					int target = offset + rank * n;
+					double scale = 1 / magnitude;
+					for (int t = 0; t < n; t++) {
+						a[target + t] = a[v + t] * scale;
+					}
+					rank++;
+				}
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Orthonormalizes vectors stored contiguously in an array
+	 * by Householder QR factorization with column pivoting, in place.
+	 * <p>
+	 * The {@code i}th vector occupies the {@code dimension} elements
+	 * of {@code vectors} starting at {@code offset + i * dimension}.
+	 * On return, the first {@code r} of these positions hold the
+	 * orthonormal basis, where {@code r} is the returned rank;
+	 * the contents of the remaining {@code count - r} positions
+	 * are unspecified.
+	 *
+	 * @param vectors the array containing the vectors
+	 * @param offset the index of the first component of the first vector
+	 * @param count the number of vectors
+	 * @param dimension the dimension of the vectors
+	 * @param tolerance the relative magnitude below which a vector
+	 *        is considered dependent on the others
+	 * @return the number of basis vectors
+	 * @throws IllegalArgumentException if {@code tolerance} is negative
+	 * @see #householder(List, double)
+	 */
+	public static int householderInPlace(double[] vectors, int offset,
+			int count, int dimension, double tolerance) {
+		checkTolerance(tolerance);
+		final double[] a = vectors;
+		final int n = dimension;
+		// The squares of the magnitudes of the columns below the
+		// current row, and of the whole columns
+		double[] partial = new double[count];
+		double[] original = new double[count];
+		double max = 0;
+		for (int j = 0; j < count; j++) {
+			int col = offset + j * n;
+			partial[j] = original[j] = dot(a, col, col, n);
+			max = Math.max(max, original[j]);
+		}
+		double threshold = tolerance * Math.sqrt(max);
+
+		int steps = Math.min(count, n);
+		int rank = 0;
+		while (rank < steps) {
+			int k = rank;
+			int pivot = k;
+			for (int j = k + 1; j < count; j++) {
+				if (partial[j] > partial[pivot]) {
+					pivot = j;
+				}
+			}
+			if (pivot != k) {
+				swap(a, offset + k * n, offset + pivot * n, n);
+				swap(partial, k, pivot);
+				swap(original, k, pivot);
+			}
+			int col = offset + k * n + k;
+			int length = n - k;
+			double magnitude = Math.sqrt(dot(a, col, col, length));
+			if (magnitude <= threshold) {
+				break;
+			}
+			// Reflect the column onto the k-th axis; the unit normal
+			// of the reflecting hyperplane replaces the column
+			double x0 = a[col];
+			double alpha = x0 >= 0 ? -magnitude : magnitude;
+			a[col] = x0 - alpha;
+			double scale = 1 / Math.sqrt(2 * magnitude * (magnitude + Math.abs(x0)));
+			for (int t = 0; t < length; t++) {
+				a[col + t] *= scale;
+			}
+			// Apply the reflection to the remaining columns
+			for (int j = k + 1; j < count; j++) {
+				int other = offset + j * n + k;
+				axpy(-2 * dot(a, col, other, length), a, col, other, length);
+				double head = a[other];
+				partial[j] -= head * head;
+				if (partial[j] <= RECOMPUTE * original[j]) {
+					partial[j] = dot(a, other + 1, other + 1, length - 1);
+				}
+			}
+			rank++;
+		}
+
+		// Accumulate the first rank columns of Q = H(0) H(1) ... H(rank-1)
+		// by applying the reflections to unit vectors in reverse order
+		double[] q = new double[rank * n];
+		for (int i = 0; i < rank; i++) {
+			q[i * n + i] = 1;
+		}
+		for (int k = rank - 1; k >= 0; k--) {
+			int v = offset + k * n + k;
+			int length = n - k;
+			for (int i = k; i < rank; i++) {
+				int target = i * n + k;
+				double d = 0;
+				for (int t = 0; t < length; t++) {
+					d += a[v + t] * q[target + t];
+				}
+				d *= -2;
+				for (int t = 0; t < length; t++) {
+					q[target + t] += a[v + t] * d;
+				}
+			}
+		}
+		System.arraycopy(q, 0, a, offset, q.length);
+		return rank;
+	}
+
+	/**
+	 * Returns the dimension of the vectors in the basis.
+	 *
+	 * @return the dimension of the space containing the subspace
+	 */
+	public int dimension() {
+		return dimension;
+	}
+
+	/**
+	 * Returns the number of vectors in the basis, which is the numerical
+	 * rank of the orthonormalized vectors.
+	 *
+	 * @return the dimension of the subspace
+	 */
+	public int rank() {
+		return rank;
+	}
+
+	/**
+	 * Returns the basis vector with the given index.
+	 *
+	 * @param index the index of the basis vector
+	 * @return the {@code index}th basis vector
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or
+	 *         not lower than {@code rank()}
+	 */
+	public ArrayVector basisVector(int index) {
+		if (index < 0 || index >= rank) {
+			throw new IndexOutOfBoundsException("Invalid basis vector index: "
+					+ index + ", rank: " + rank);
+		}
+		double[] result = new double[dimension];
+		System.arraycopy(basis, index * dimension, result, 0, dimension);
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Returns the vectors of the basis.
+	 * The returned list is immutable.
+	 *
+	 * @return the orthonormal basis vectors
+	 */
+	public List<ArrayVector> basis() {
+		List<ArrayVector> result = new ArrayList<>(rank);
+		for (int i = 0; i < rank; i++) {
+			result.add(basisVector(i));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Returns a matrix whose rows are the basis vectors.
+	 * Multiplying a vector by this matrix gives its coordinates
+	 * in the basis.
+	 *
+	 * @return a {@code rank()} by {@code dimension()} matrix
+	 */
+	public Matrix toMatrix() {
+		return Matrix.valueOf(rank, dimension, basis);
+	}
+
+	/**
+	 * Returns the orthogonal projection of the given vector onto the
+	 * subspace spanned by the basis.
+	 *
+	 * @param vector the vector to be projected
+	 * @return the component of {@code vector} in the subspace
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not {@code dimension()}
+	 */
+	public ArrayVector project(Vector vector) {
+		double[] result = toArray(vector);
+		project(result, 0, 1);
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Returns the component of the given vector orthogonal to the
+	 * subspace spanned by the basis.
+	 *
+	 * @param vector the vector to be projected
+	 * @return the component of {@code vector} orthogonal to the subspace,
+	 *         that is {@code vector.minus(project(vector))}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not {@code dimension()}
+	 */
+	public ArrayVector reject(Vector vector) {
+		double[] result = toArray(vector);
+		reject(result, 0, 1);
+		return ArrayVector.wrap(result);
+	}
+
+	/**
+	 * Replaces vectors stored contiguously in an array by their
+	 * orthogonal projections onto the subspace spanned by the basis.
+	 * <p>
+	 * The {@code i}th vector occupies the {@code dimension()} elements
+	 * of {@code vectors} starting at {@code offset + i * dimension()}.
+	 *
+	 * @param vectors the array containing the vectors
+	 * @param offset the index of the first component of the first vector
+	 * @param count the number of vectors
+	 */
+	public void project(double[] vectors, int offset, int count) {
+		final int n = dimension;
+		double[] coefficients = new double[Math.min(count, BLOCK) * rank];
+		for (int b0 = 0; b0 < count; b0 += BLOCK) {
+			int b1 = Math.min(b0 + BLOCK, count);
+			// Coordinates of the block in the basis
+			for (int j = 0; j < rank; j++) {
+				int q = j * n;
+				for (int i = b0; i < b1; i++) {
+					coefficients[(i - b0) * rank + j] =
+							dot(basis, q, vectors, offset + i * n, n);
+				}
+			}
+			// The linear combinations of the basis with these coordinates
+			for (int i = b0; i < b1; i++) {
+				int v = offset + i * n;
+				for (int t = 0; t < n; t++) {
+					vectors[v + t] = 0;
+				}
+				for (int j = 0; j < rank; j++) {
+					double c = coefficients[(i - b0) * rank + j];
+					axpy(c, basis, j * n, vectors, v, n);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces vectors stored contiguously in an array by their components
+	 * orthogonal to the subspace spanned by the basis.
+	 * <p>
+	 * The {@code i}th vector occupies the {@code dimension()} elements
+	 * of {@code vectors} starting at {@code offset + i * dimension()}.
+	 * The projections onto the basis vectors are subtracted one after
+	 * another as in the modified Gram-Schmidt process.
+	 *
+	 * @param vectors the array containing the vectors
+	 * @param offset the index of the first component of the first vector
+	 * @param count the number of vectors
+	 */
+	public void reject(double[] vectors, int offset, int count) {
+		final int n = dimension;
+		for (int b0 = 0; b0 < count; b0 += BLOCK) {
+			int b1 = Math.min(b0 + BLOCK, count);
+			for (int j = 0; j < rank; j++) {
+				int q = j * n;
+				for (int i = b0; i < b1; i++) {
+					int v = offset + i * n;
+					double c = dot(basis, q, vectors, v, n);
+					axpy(-c, basis, q, vectors, v, n);
+				}
+			}
+		}
+	}
+
+	private static Orthonormalizer create(int dimension, int rank, double[] buffer) {
+		double[] basis = new double[rank * dimension];
+		System.arraycopy(buffer, 0, basis, 0, basis.length);
+		return new Orthonormalizer(dimension, rank, basis);
+	}
+
+	/**
+	 * Checks that the vectors are not empty and have the same dimension,
+	 * and returns the dimension.
+	 */
+	private static int checkVectors(List<? extends Vector> vectors) {
+		if (vectors.isEmpty()) {
+			throw new IllegalArgumentException("No vectors to orthonormalize");
+		}
+		int dimension = vectors.get(0).dimension();
+		for (Vector v : vectors) {
+			if (v.dimension() != dimension) {
+				throw new IllegalVectorDimensionException(v);
+			}
+		}
+		return dimension;
+	}
+
+	private static void checkTolerance(double tolerance) {
+		if (!(tolerance >= 0)) {
+			throw new IllegalArgumentException("Invalid tolerance: " + tolerance);
+		}
+	}
+
+	/**
+	 * Returns the default tolerance for the given vectors: the unit
+	 * roundoff multiplied by their number or dimension.
+	 */
+	private static double defaultTolerance(List<? extends Vector> vectors) {
+		int dimension = vectors.isEmpty() ? 0 : vectors.get(0).dimension();
+		return Math.max(vectors.size(), dimension) * Math.ulp(1.0);
+	}
+
+	private static double[] toBuffer(List<? extends Vector> vectors, int dimension) {
+		double[] buffer = new double[vectors.size() * dimension];
+		int offset = 0;
+		for (Vector v : vectors) {
+			if (v instanceof ArrayVector) {
+				System.arraycopy(((ArrayVector) v).array(), 0, buffer, offset, dimension);
+			} else {
+				for (int i = 0; i < dimension; i++) {
+					buffer[offset + i] = v.get(i);
+				}
+			}
+			offset += dimension;
+		}
+		return buffer;
+	}
+
+	private double[] toArray(Vector vector) {
+		if (vector.dimension() != dimension) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+		double[] result = new double[dimension];
+		for (int i = 0; i < dimension; i++) {
+			result[i] = vector.get(i);
+		}
+		return result;
+	}
+
+	private static double maxMagnitude(double[] a, int offset, int count, int n) {
+		double max = 0;
+		for (int i = 0; i < count; i++) {
+			int v = offset + i * n;
+			max = Math.max(max, dot(a, v, v, n));
+		}
+		return Math.sqrt(max);
+	}
+
+	/** The dot product of two ranges of one array. */
+	private static double dot(double[] a, int x, int y, int length) {
+		return dot(a, x, a, y, length);
+	}
+
+	/** The dot product of ranges of two arrays. */
+	private static double dot(double[] a, int aFrom, double[] b, int bFrom, int length) {
+		double sum = 0;
+		for (int t = 0; t < length; t++) {
+			sum += a[aFrom + t] * b[bFrom + t];
+		}
+		return sum;
+	}
+
+	/** Adds {@code c} times a range of an array to another range of it. */
+	private static void axpy(double c, double[] a, int x, int y, int length) {
+		axpy(c, a, x, a, y, length);
+	}
+
+	/** Adds {@code c} times a range of one array to a range of another. */
+	private static void axpy(double c, double[] a, int aFrom,
+			double[] b, int bFrom, int length) {
+		for (int t = 0; t < length; t++) {
+			b[bFrom + t] += a[aFrom + t] * c;
+		}
+	}
+
+	private static void swap(double[] a, int x, int y, int length) {
+		for (int t = 0; t < length; t++) {
+			double tmp = a[x + t];
+			a[x + t] = a[y + t];
+			a[y + t] = tmp;
+		}
+	}
+
+	private static void swap(double[] a, int i, int j) {
+		double tmp = a[i];
+		a[i] = a[j];
+		a[j] = tmp;
+	}
+
+	@Override
+	public String toString() {
+		return "Orthonormalizer[dimension " + dimension + ", rank " + rank + "]";
+	}
+}
@@ -0,0 +1,198 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A plane in three dimensions, given by a unit normal {@code n}
+ * and an offset {@code d} as the set of points {@code p} satisfying
+ * {@code n . p = d}.
+ * <p>
+ * The normal determines the orientation of the plane: points on its
+ * side have a positive {@linkplain #signedDistance signed distance}.
+ * The methods taking components of points instead of vectors, and those
+ * writing the result into an array, do not allocate any objects.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Plane {
+
+	final double nx, ny, nz;
+	final double offset;
+
+	private Plane(double nx, double ny, double nz, double offset) {
+		this.nx = nx;
+		this.ny = ny;
+		this.nz = nz;
+		this.offset = offset;
+	}
+
+	/**
+	 * Returns the plane with the given normal passing through
+	 * the given point.
+	 *
+	 * @param normal a vector perpendicular to the plane, not necessarily
+	 *        normalized
+	 * @param point a point of the plane
+	 * @return the plane perpendicular to {@code normal}
+	 *         containing {@code point}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code normal} or {@code point} is not 3
+	 * @throws IllegalArgumentException if {@code normal} is zero
+	 *         or not finite
+	 */
+	public static Plane of(Vector normal, Vector point) {
+		Geometry.checkDimension(normal);
+		Geometry.checkDimension(point);
+		return of(normal.get(0), normal.get(1), normal.get(2),
+				point.get(0), point.get(1), point.get(2));
+	}
+
+	/**
+	 * Returns the plane passing through the three given points.
+	 * Seen from the side of the normal, the points go counterclockwise.
+	 *
+	 * @param a the first point
+	 * @param b the second point
+	 * @param c the third point
+	 * @return the plane containing {@code a}, {@code b} and {@code c}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         any of the points is not 3
+	 * @throws IllegalArgumentException if the points are collinear
+	 */
+	public static Plane through(Vector a, Vector b, Vector c) {
+		Geometry.checkDimension(a);
+		Geometry.checkDimension(b);
+		Geometry.checkDimension(c);
+		double e1x = b.get(0) - a.get(0);
+		double e1y = b.get(1) - a.get(1);
+		double e1z = b.get(2) - a.get(2);
+		double e2x = c.get(0) - a.get(0);
+		double e2y = c.get(1) - a.get(1);
+		double e2z = c.get(2) - a.get(2);
+		return of(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z,
+				e1x * e2y - e1y * e2x, a.get(0), a.get(1), a.get(2));
+	}
+
+	private static Plane of(double nx, double ny, double nz,
+			double px, double py, double pz) {
+		double magnitude = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (!(magnitude > 0) || Double.isInfinite(magnitude)) {
+			throw new IllegalArgumentException("Invalid normal of a plane: ("
+					+ nx + ", " + ny + ", " + nz + ")");
+		}
+		nx /= magnitude;
+		ny /= magnitude;
+		nz /= magnitude;
+		return new Plane(nx, ny, nz, nx * px + ny * py + nz * pz);
+	}
+
+	/**
+	 * Returns the unit normal of this plane.
+	 *
+	 * @return the normal
+	 */
+	public Vector3D normal() {
+		return Vector3D.valueOf(nx, ny, nz);
+	}
+
+	/**
+	 * Returns the signed distance of this plane from the origin
+	 * of coordinates, that is the dot product of the normal
+	 * with any point of this plane.
+	 *
+	 * @return the offset {@code d} in {@code n . p = d}
+	 */
+	public double offset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the signed distance of the given point from this plane.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return the distance of the point, positive if it lies on the side
+	 *         of the normal and negative otherwise
+	 */
+	public double signedDistance(double x, double y, double z) {
+		return nx * x + ny * y + nz * z - offset;
+	}
+
+	/**
+	 * Returns the signed distance of the given point from this plane.
+	 *
+	 * @param point the point
+	 * @return the distance of {@code point}, positive if it lies on the
+	 *         side of the normal and negative otherwise
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public double signedDistance(Vector point) {
+		Geometry.checkDimension(point);
+		return signedDistance(point.get(0), point.get(1), point.get(2));
+	}
+
+	/**
+	 * Writes the components of the orthogonal projection of the given
+	 * point onto this plane into the given array.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @param result the array to store the three components in
+	 */
+	public void project(double x, double y, double z, double[] result) {
+		double distance = signedDistance(x, y, z);
+		result[0] = x - distance * nx;
+		result[1] = y - distance * ny;
+		result[2] = z - distance * nz;
+	}
+
+	/**
+	 * Returns the orthogonal projection of the given point onto this plane.
+	 *
+	 * @param point the point
+	 * @return the point of this plane closest to {@code point}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public Vector3D project(Vector point) {
+		double distance = signedDistance(point);
+		return Vector3D.valueOf(point.get(0) - distance * nx,
+				point.get(1) - distance * ny, point.get(2) - distance * nz);
+	}
+
+	/**
+	 * Returns the parameter of the intersection of the given ray
+	 * with this plane.
+	 *
+	 * @param ray the ray
+	 * @return the parameter of the intersection, or {@code NaN} if the
+	 *         ray does not intersect this plane or is parallel to it
+	 */
+	public double intersect(Ray3D ray) {
+		return Geometry.rayPlane(ray.ox, ray.oy, ray.oz, ray.dx, ray.dy, ray.dz,
+				nx, ny, nz, offset);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Vector3D.hashCode(nx, ny, nz) + Double.hashCode(offset);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Plane)) return false;
+		Plane other = (Plane) obj;
+		return Geometry.equal(nx, other.nx) && Geometry.equal(ny, other.ny)
+			&& Geometry.equal(nz, other.nz) && Geometry.equal(offset, other.offset);
+	}
+
+	@Override
+	public String toString() {
+		return "Plane[(" + nx + ", " + ny + ", " + nz + ") . p = " + offset + "]";
+	}
+}
@@ -0,0 +1,168 @@
+package com.github.singond.physics.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A key identifying the cell of a regular grid containing a vector,
+ * for finding approximately equal vectors in hash-based collections.
+ * <p>
+ * The space is divided into cubic cells of the given size, and the key
+ * of a vector identifies the cell containing it. Keys of vectors in the
+ * same cell are equal and have equal hash codes. Vectors which differ
+ * in each component by less than the cell size lie either in the same
+ * cell or in adjacent cells, so an approximate lookup inspects the keys
+ * returned by {@link #adjacentKeys()}:
+ * <pre>{@code
+ * Map<QuantizedVectorKey, Result> cache = ...;
+ * // Store
+ * cache.put(QuantizedVectorKey.of(vector, cellSize), result);
+ * // Look up vectors within cellSize of query
+ * for (QuantizedVectorKey key : QuantizedVectorKey.of(query, cellSize).adjacentKeys()) {
+ *     Result r = cache.get(key);
+ *     if (r != null && r.vector().equalsWithin(query, cellSize, 0)) {
+ *         return r;
+ *     }
+ * }}</pre>
+ * There are {@code 3^dimension} adjacent keys, which makes this
+ * practical only for vectors of low dimension.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class QuantizedVectorKey {
+
+	private final double cellSize;
+	/** The indices of the cell along each axis. */
+	private final long[] cell;
+	private final int hash;
+
+	private QuantizedVectorKey(double cellSize, long[] cell) {
+		this.cellSize = cellSize;
+		this.cell = cell;
+		this.hash = 31 * Arrays.hashCode(cell) + Double.hashCode(cellSize);
+	}
+
+	/**
+	 * Returns the key of the cell of the given size containing
+	 * the given vector.
+	 *
+	 * @param vector the vector
+	 * @param cellSize the length of the edge of the cells
+	 * @return the key of the cell containing {@code vector}
+	 * @throws IllegalArgumentException if {@code cellSize} is not positive
+	 *         and finite, or if a component of {@code vector} is not finite,
+	 *         or if its magnitude divided by {@code cellSize} is
+	 *         {@code 2^63} or more, so that the index of its cell
+	 *         or of an adjacent cell would not fit in a {@code long}
+	 */
+	public static QuantizedVectorKey of(Vector vector, double cellSize) {
+		if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+			throw new IllegalArgumentException("Invalid cell size: " + cellSize);
+		}
+		long[] cell = new long[vector.dimension()];
+		for (int i = 0; i < cell.length; i++) {
+			double component = vector.get(i);
+			if (Double.isNaN(component) || Double.isInfinite(component)) {
+				throw new IllegalArgumentException(
+						"Cannot quantize vector " + vector);
+			}
+			double index = Math.floor(component / cellSize);
+			// The largest double below 2^63 is 2^63 - 1024, which leaves
+			// room for the adjacent cells
+			if (!(Math.abs(index) < 0x1p63)) {
+				throw new IllegalArgumentException("Vector " + vector
+						+ " is out of the range of cells of size " + cellSize);
+			}
+			cell[i] = (long) index;
+		}
+		return new QuantizedVectorKey(cellSize, cell);
+	}
+
+	/**
+	 * Returns the dimension of the quantized vector.
+	 *
+	 * @return the dimension of the grid
+	 */
+	public int dimension() {
+		return cell.length;
+	}
+
+	/**
+	 * Returns the size of the cells.
+	 *
+	 * @return the length of the edge of the cells
+	 */
+	public double cellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Returns the index of the cell along the given axis.
+	 * The cell with index {@code n} contains the components {@code c}
+	 * satisfying {@code n * cellSize <= c < (n + 1) * cellSize}.
+	 *
+	 * @param component the index of the axis
+	 * @return the index of the cell along the {@code component}th axis
+	 */
+	public long cell(int component) {
+		return cell[component];
+	}
+
+	/**
+	 * Returns the keys of this cell and all cells adjacent to it,
+	 * including those adjacent only by an edge or a corner.
+	 *
+	 * @return the {@code 3^dimension} keys of the neighbourhood of this cell
+	 * @throws IllegalStateException if there are too many adjacent keys
+	 *         to be returned in a list, that is if the dimension
+	 *         is 20 or more
+	 */
+	public List<QuantizedVectorKey> adjacentKeys() {
+		int count = 1;
+		try {
+			for (int i = 0; i < cell.length; i++) {
+				count = Math.multiplyExact(count, 3);
+			}
+		} catch (ArithmeticException e) {
+			throw new IllegalStateException("Too many adjacent keys for dimension "
+					+ cell.length + ": 3^" + cell.length + " exceeds the range of int");
+		}
+		List<QuantizedVectorKey> keys = new ArrayList<>(count);
+		for (int n = 0; n < count; n++) {
+			long[] neighbour = new long[cell.length];
+			int offsets = n;
+			for (int i = 0; i < cell.length; i++) {
+				neighbour[i] = Math.addExact(cell[i], offsets % 3 - 1);
+				offsets /= 3;
+			}
+			keys.add(new QuantizedVectorKey(cellSize, neighbour));
+		}
+		return keys;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof QuantizedVectorKey)) return false;
+		QuantizedVectorKey other = (QuantizedVectorKey) obj;
+		return hash == other.hash
+				&& Double.doubleToLongBits(cellSize)
+						== Double.doubleToLongBits(other.cellSize)
+				&& Arrays.equals(cell, other.cell);
+	}
+
+	@Override
+	public String toString() {
+		return "QuantizedVectorKey[" + Arrays.toString(cell)
+				+ " x " + cellSize + "]";
+	}
+}
@@ -0,0 +1,224 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A quaternion, that is a number of the form {@code w + xi + yj + zk},
+ * where {@code i}, {@code j} and {@code k} are the quaternion units.
+ * <p>
+ * Quaternions of unit norm represent rotations in three dimensions;
+ * see {@link Rotation3D} for a type which guarantees this.
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Quaternion {
+
+	private static final Quaternion ONE = new Quaternion(1, 0, 0, 0);
+
+	final double w;
+	final double x;
+	final double y;
+	final double z;
+
+	private Quaternion(double w, double x, double y, double z) {
+		this.w = w;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * Returns a quaternion with the given components.
+	 *
+	 * @param w the real (scalar) part
+	 * @param x the coefficient of {@code i}
+	 * @param y the coefficient of {@code j}
+	 * @param z the coefficient of {@code k}
+	 * @return the quaternion {@code w + xi + yj + zk}
+	 */
+	public static Quaternion valueOf(double w, double x, double y, double z) {
+		return new Quaternion(w, x, y, z);
+	}
+
+	/**
+	 * Returns a quaternion with the given real part and vector part.
+	 *
+	 * @param w the real (scalar) part
+	 * @param v the vector part
+	 * @return the quaternion {@code w + v}
+	 */
+	public static Quaternion valueOf(double w, Vector3D v) {
+		return new Quaternion(w, v.get(0), v.get(1), v.get(2));
+	}
+
+	/**
+	 * Returns the multiplicative identity quaternion, {@code 1}.
+	 *
+	 * @return the quaternion {@code 1 + 0i + 0j + 0k}
+	 */
+	public static Quaternion one() {
+		return ONE;
+	}
+
+	/**
+	 * Returns the real part of this quaternion.
+	 *
+	 * @return the real part of this quaternion
+	 */
+	public double w() {
+		return w;
+	}
+
+	/**
+	 * Returns the coefficient of {@code i} of this quaternion.
+	 *
+	 * @return the coefficient of {@code i}
+	 */
+	public double x() {
+		return x;
+	}
+
+	/**
+	 * Returns the coefficient of {@code j} of this quaternion.
+	 *
+	 * @return the coefficient of {@code j}
+	 */
+	public double y() {
+		return y;
+	}
+
+	/**
+	 * Returns the coefficient of {@code k} of this quaternion.
+	 *
+	 * @return the coefficient of {@code k}
+	 */
+	public double z() {
+		return z;
+	}
+
+	/**
+	 * Returns the vector part of this quaternion.
+	 *
+	 * @return the vector {@code [x, y, z]}
+	 */
+	public Vector3D vectorPart() {
+		return Vector3D.valueOf(x, y, z);
+	}
+
+	/**
+	 * Returns the norm of this quaternion.
+	 *
+	 * @return {@code sqrt(w^2 + x^2 + y^2 + z^2)}
+	 */
+	public double norm() {
+		return Math.sqrt(w*w + x*x + y*y + z*z);
+	}
+
+	/**
+	 * Returns the quaternion with the same direction as this one
+	 * and the norm equal to one.
+	 *
+	 * @return the normalized quaternion
+	 */
+	public Quaternion normalized() {
+		double n = norm();
+		return new Quaternion(w/n, x/n, y/n, z/n);
+	}
+
+	/**
+	 * Returns the conjugate of this quaternion.
+	 *
+	 * @return {@code w - xi - yj - zk}
+	 */
+	public Quaternion conjugate() {
+		return new Quaternion(w, -x, -y, -z);
+	}
+
+	/**
+	 * Returns the multiplicative inverse of this quaternion.
+	 *
+	 * @return the inverse of this quaternion
+	 */
+	public Quaternion inverse() {
+		double n2 = w*w + x*x + y*y + z*z;
+		return new Quaternion(w/n2, -x/n2, -y/n2, -z/n2);
+	}
+
+	/**
+	 * Returns the sum of this quaternion and the given quaternion.
+	 *
+	 * @param q the quaternion to be added
+	 * @return {@code this + q}
+	 */
+	public Quaternion plus(Quaternion q) {
+		return new Quaternion(w + q.w, x + q.x, y + q.y, z + q.z);
+	}
+
+	/**
+	 * Returns the product of this quaternion and the given scalar.
+	 *
+	 * @param scalar the number to multiply this quaternion by
+	 * @return {@code this * scalar}
+	 */
+	public Quaternion times(double scalar) {
+		return new Quaternion(w * scalar, x * scalar, y * scalar, z * scalar);
+	}
+
+	/**
+	 * Returns the Hamilton product of this quaternion and the given
+	 * quaternion. Note that quaternion multiplication is not commutative.
+	 *
+	 * @param q the quaternion to multiply this quaternion by from the right
+	 * @return {@code this * q}
+	 */
+	public Quaternion times(Quaternion q) {
+		return new Quaternion(
+				w * q.w - x * q.x - y * q.y - z * q.z,
+				w * q.x + x * q.w + y * q.z - z * q.y,
+				w * q.y - x * q.z + y * q.w + z * q.x,
+				w * q.z + x * q.y - y * q.x + z * q.w);
+	}
+
+	/**
+	 * Returns the four-dimensional dot product of this quaternion
+	 * with the given quaternion.
+	 *
+	 * @param q the other quaternion
+	 * @return {@code w*q.w + x*q.x + y*q.y + z*q.z}
+	 */
+	public double dotProduct(Quaternion q) {
+		return w * q.w + x * q.x + y * q.y + z * q.z;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		long temp;
+		temp = Double.doubleToLongBits(w);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(x);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(y);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(z);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Quaternion)) return false;
+		Quaternion other = (Quaternion) obj;
+		return Double.doubleToLongBits(w) == Double.doubleToLongBits(other.w)
+			&& Double.doubleToLongBits(x) == Double.doubleToLongBits(other.x)
+			&& Double.doubleToLongBits(y) == Double.doubleToLongBits(other.y)
+			&& Double.doubleToLongBits(z) == Double.doubleToLongBits(other.z);
+	}
+
+	@Override
+	public String toString() {
+		return w + " + " + x + "i + " + y + "j + " + z + "k";
+	}
+}
@@ -0,0 +1,179 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A half-line in three dimensions, starting at an origin and extending
+ * infinitely in a direction.
+ * <p>
+ * A point on the ray is identified by its <em>parameter</em>
+ * {@code t >= 0}, the point being {@code origin + t * direction}.
+ * The direction need not be normalized; if it is, the parameter
+ * is the distance from the origin. The {@code intersect} methods
+ * of the geometric primitives ({@link Plane}, {@link AABB},
+ * {@link Sphere} and {@link Triangle}) return the parameter
+ * of the first intersection, or {@code NaN} if there is none.
+ * To intersect many rays with a primitive, use {@link RayBatch}.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Ray3D {
+
+	final double ox, oy, oz;
+	final double dx, dy, dz;
+
+	private Ray3D(double ox, double oy, double oz,
+			double dx, double dy, double dz) {
+		this.ox = ox;
+		this.oy = oy;
+		this.oz = oz;
+		this.dx = dx;
+		this.dy = dy;
+		this.dz = dz;
+	}
+
+	/**
+	 * Returns the ray with the given origin and direction.
+	 *
+	 * @param origin the starting point of the ray
+	 * @param direction the direction of the ray
+	 * @return the ray from {@code origin} in {@code direction}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code origin} or {@code direction} is not 3
+	 * @throws IllegalArgumentException if {@code direction} is zero
+	 */
+	public static Ray3D of(Vector origin, Vector direction) {
+		Geometry.checkDimension(origin);
+		Geometry.checkDimension(direction);
+		return of(origin.get(0), origin.get(1), origin.get(2),
+				direction.get(0), direction.get(1), direction.get(2));
+	}
+
+	/**
+	 * Returns the ray with the given components of the origin
+	 * and direction.
+	 *
+	 * @param ox x-component of the origin
+	 * @param oy y-component of the origin
+	 * @param oz z-component of the origin
+	 * @param dx x-component of the direction
+	 * @param dy y-component of the direction
+	 * @param dz z-component of the direction
+	 * @return the ray from the origin in the direction
+	 * @throws IllegalArgumentException if the direction is zero
+	 */
+	public static Ray3D of(double ox, double oy, double oz,
+			double dx, double dy, double dz) {
+		if (dx == 0 && dy == 0 && dz == 0) {
+			throw new IllegalArgumentException("The direction of a ray is zero");
+		}
+		return new Ray3D(ox, oy, oz, dx, dy, dz);
+	}
+
+	/**
+	 * Returns the starting point of this ray.
+	 *
+	 * @return the origin
+	 */
+	public Vector3D origin() {
+		return Vector3D.valueOf(ox, oy, oz);
+	}
+
+	/**
+	 * Returns the direction of this ray, as given when it was created.
+	 *
+	 * @return the direction
+	 */
+	public Vector3D direction() {
+		return Vector3D.valueOf(dx, dy, dz);
+	}
+
+	/**
+	 * Returns the point of this ray with the given parameter.
+	 *
+	 * @param t the parameter of the point
+	 * @return the point {@code origin + t * direction}
+	 */
+	public Vector3D pointAt(double t) {
+		return Vector3D.valueOf(ox + t * dx, oy + t * dy, oz + t * dz);
+	}
+
+	/**
+	 * Writes the components of the point of this ray with the given
+	 * parameter into the given array.
+	 *
+	 * @param t the parameter of the point
+	 * @param result the array to store the three components in
+	 */
+	public void pointAt(double t, double[] result) {
+		result[0] = ox + t * dx;
+		result[1] = oy + t * dy;
+		result[2] = oz + t * dz;
+	}
+
+	/**
+	 * Returns the parameter of the point of this ray closest
+	 * to the given point.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return the parameter of the closest point, which is non-negative
+	 */
+	public double closestParameter(double x, double y, double z) {
+		double t = ((x - ox) * dx + (y - oy) * dy + (z - oz) * dz)
+				/ (dx * dx + dy * dy + dz * dz);
+		return Math.max(t, 0);
+	}
+
+	/**
+	 * Returns the square of the distance of the given point from this ray.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return the square of the distance to the closest point of the ray
+	 */
+	public double distanceSquared(double x, double y, double z) {
+		double t = closestParameter(x, y, z);
+		double ex = ox + t * dx - x;
+		double ey = oy + t * dy - y;
+		double ez = oz + t * dz - z;
+		return ex * ex + ey * ey + ez * ez;
+	}
+
+	/**
+	 * Returns the distance of the given point from this ray.
+	 *
+	 * @param point the point
+	 * @return the distance to the closest point of the ray
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public double distance(Vector point) {
+		Geometry.checkDimension(point);
+		return Math.sqrt(distanceSquared(point.get(0), point.get(1), point.get(2)));
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Vector3D.hashCode(ox, oy, oz) + Vector3D.hashCode(dx, dy, dz);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Ray3D)) return false;
+		Ray3D other = (Ray3D) obj;
+		return Geometry.equal(ox, other.ox) && Geometry.equal(oy, other.oy)
+			&& Geometry.equal(oz, other.oz) && Geometry.equal(dx, other.dx)
+			&& Geometry.equal(dy, other.dy) && Geometry.equal(dz, other.dz);
+	}
+
+	@Override
+	public String toString() {
+		return "Ray3D[(" + ox + ", " + oy + ", " + oz + ") -> ("
+				+ dx + ", " + dy + ", " + dz + ")]";
+	}
+}
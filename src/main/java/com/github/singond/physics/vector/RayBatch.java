@@ -0,0 +1,166 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A sequence of rays in three dimensions whose origins and directions
+ * are stored in structure-of-arrays layout, for intersecting many rays
+ * with a geometric primitive at once.
+ * <p>
+ * The {@code intersect} methods store the parameter of the first
+ * intersection of each ray into an array of {@code double}s,
+ * with {@code NaN} for rays which miss the primitive. The results
+ * are identical to those of the {@code intersect} methods of the
+ * primitives called with each {@link Ray3D}, but no objects are
+ * allocated, and intersections with spheres and boxes use vector
+ * instructions on Java 16 and later if the {@code jdk.incubator.vector}
+ * module is present.
+ * <p>
+ * A batch is backed by the arrays of origins and directions it was
+ * created with, so that rays can be updated in place between queries,
+ * for example in each frame of an animation.
+ * Instances of this class are not thread-safe.
+ *
+ * @author Singon
+ */
+public final class RayBatch {
+
+	private final Vector3DArray origins;
+	private final Vector3DArray directions;
+
+	private RayBatch(Vector3DArray origins, Vector3DArray directions) {
+		this.origins = origins;
+		this.directions = directions;
+	}
+
+	/**
+	 * Returns a batch of rays with the given origins and directions,
+	 * backed by the given arrays.
+	 *
+	 * @param origins the starting points of the rays
+	 * @param directions the directions of the rays, which must not be zero
+	 * @return a batch of rays, the {@code i}th ray starting from the
+	 *         {@code i}th element of {@code origins}
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public static RayBatch of(Vector3DArray origins, Vector3DArray directions) {
+		origins.checkSize(directions);
+		return new RayBatch(origins, directions);
+	}
+
+	/**
+	 * Returns the number of rays in this batch.
+	 *
+	 * @return the number of rays
+	 */
+	public int size() {
+		return origins.size();
+	}
+
+	/**
+	 * Returns the ray at the given index.
+	 *
+	 * @param index the index of the ray
+	 * @return the {@code index}th ray
+	 * @throws IndexOutOfBoundsException if {@code index} is out of range
+	 * @throws IllegalArgumentException if the direction of the ray is zero
+	 */
+	public Ray3D ray(int index) {
+		return Ray3D.of(origins.x[index], origins.y[index], origins.z[index],
+				directions.x[index], directions.y[index], directions.z[index]);
+	}
+
+	/**
+	 * Intersects all rays of this batch with the given sphere.
+	 *
+	 * @param sphere the sphere
+	 * @param t the array to store the parameter of the first intersection
+	 *        of each ray in, as given by {@link Sphere#intersect(Ray3D)}
+	 * @return the number of rays intersecting the sphere
+	 * @throws IllegalArgumentException if {@code t} is shorter than
+	 *         this batch
+	 */
+	public int intersect(Sphere sphere, double[] t) {
+		checkResult(t);
+		Kernels.raySphere(origins, directions, sphere, t);
+		return hits(t);
+	}
+
+	/**
+	 * Intersects all rays of this batch with the given box.
+	 *
+	 * @param box the box
+	 * @param t the array to store the parameter of the first intersection
+	 *        of each ray in, as given by {@link AABB#intersect(Ray3D)}
+	 * @return the number of rays intersecting the box
+	 * @throws IllegalArgumentException if {@code t} is shorter than
+	 *         this batch
+	 */
+	public int intersect(AABB box, double[] t) {
+		checkResult(t);
+		Kernels.rayBox(origins, directions, box, t);
+		return hits(t);
+	}
+
+	/**
+	 * Intersects all rays of this batch with the given plane.
+	 *
+	 * @param plane the plane
+	 * @param t the array to store the parameter of the intersection
+	 *        of each ray in, as given by {@link Plane#intersect(Ray3D)}
+	 * @return the number of rays intersecting the plane
+	 * @throws IllegalArgumentException if {@code t} is shorter than
+	 *         this batch
+	 */
+	public int intersect(Plane plane, double[] t) {
+		checkResult(t);
+		final double[] ox = origins.x, oy = origins.y, oz = origins.z;
+		final double[] dx = directions.x, dy = directions.y, dz = directions.z;
+		for (int i = 0; i < ox.length; i++) {
+			t[i] = Geometry.rayPlane(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i],
+					plane.nx, plane.ny, plane.nz, plane.offset);
+		}
+		return hits(t);
+	}
+
+	/**
+	 * Intersects all rays of this batch with the given triangle.
+	 *
+	 * @param triangle the triangle
+	 * @param t the array to store the parameter of the intersection
+	 *        of each ray in, as given by {@link Triangle#intersect(Ray3D)}
+	 * @return the number of rays intersecting the triangle
+	 * @throws IllegalArgumentException if {@code t} is shorter than
+	 *         this batch
+	 */
+	public int intersect(Triangle triangle, double[] t) {
+		checkResult(t);
+		final double[] ox = origins.x, oy = origins.y, oz = origins.z;
+		final double[] dx = directions.x, dy = directions.y, dz = directions.z;
+		final Triangle tr = triangle;
+		for (int i = 0; i < ox.length; i++) {
+			t[i] = Geometry.rayTriangle(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i],
+					tr.ax, tr.ay, tr.az, tr.e1x, tr.e1y, tr.e1z, tr.e2x, tr.e2y, tr.e2z);
+		}
+		return hits(t);
+	}
+
+	private void checkResult(double[] t) {
+		if (t.length < size()) {
+			throw new IllegalArgumentException("The result array of length "
+					+ t.length + " cannot hold " + size() + " rays");
+		}
+	}
+
+	/**
+	 * Counts the rays which hit, that is those with a parameter
+	 * other than {@code NaN}.
+	 */
+	private int hits(double[] t) {
+		int hits = 0;
+		for (int i = 0; i < size(); i++) {
+			if (t[i] == t[i]) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+}
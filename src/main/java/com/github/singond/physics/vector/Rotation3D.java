@@ -0,0 +1,297 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A rotation in three-dimensional space about an axis passing through
+ * the origin.
+ * The rotation is represented by a unit quaternion, stored in fields.
+ * <p>
+ * Applying a rotation to a {@code Vector3D} allocates only the result.
+ * To rotate many vectors at once without any allocation, use
+ * {@link #apply(Vector3DArray, Vector3DArray)}.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Rotation3D {
+
+	private static final Rotation3D IDENTITY = new Rotation3D(1, 0, 0, 0);
+
+	/**
+	 * The cosine of the angle between two rotations, above which
+	 * {@link #slerp} falls back to linear interpolation.
+	 */
+	private static final double SLERP_THRESHOLD = 0.9995;
+
+	/* Components of the unit quaternion */
+	private final double w;
+	private final double x;
+	private final double y;
+	private final double z;
+
+	/**
+	 * Constructs a new rotation from the components of a unit quaternion.
+	 * No normalization is done.
+	 */
+	private Rotation3D(double w, double x, double y, double z) {
+		this.w = w;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * Returns a new rotation from the components of a quaternion,
+	 * normalizing them first.
+	 */
+	private static Rotation3D normalize(double w, double x, double y, double z) {
+		double n = Math.sqrt(w*w + x*x + y*y + z*z);
+		if (n == 0) {
+			throw new IllegalArgumentException(
+					"Zero quaternion does not represent a rotation");
+		}
+		return new Rotation3D(w/n, x/n, y/n, z/n);
+	}
+
+	/**
+	 * Returns the identity rotation, which leaves every vector unchanged.
+	 *
+	 * @return the identity rotation
+	 */
+	public static Rotation3D identity() {
+		return IDENTITY;
+	}
+
+	/**
+	 * Returns a rotation by the given angle about the given axis.
+	 * The rotation is counter-clockwise when looking against the axis.
+	 *
+	 * @param axis the axis of rotation; need not be normalized
+	 * @param angle the angle of rotation in radians
+	 * @return the rotation by {@code angle} about {@code axis}
+	 * @throws IllegalArgumentException if {@code axis} is the zero vector
+	 */
+	public static Rotation3D about(Vector3D axis, double angle) {
+		double mag = axis.magnitude();
+		if (mag == 0) {
+			throw new IllegalArgumentException("Zero vector is not a valid axis");
+		}
+		double s = Math.sin(angle / 2) / mag;
+		return new Rotation3D(Math.cos(angle / 2),
+				axis.get(0) * s, axis.get(1) * s, axis.get(2) * s);
+	}
+
+	/**
+	 * Returns the rotation represented by the given quaternion.
+	 * The quaternion is normalized first.
+	 *
+	 * @param q the quaternion representing the rotation
+	 * @return the rotation represented by {@code q}
+	 * @throws IllegalArgumentException if {@code q} is zero
+	 */
+	public static Rotation3D of(Quaternion q) {
+		return normalize(q.w, q.x, q.y, q.z);
+	}
+
+	/**
+	 * Returns the shortest rotation which turns the direction of
+	 * {@code from} into the direction of {@code to}.
+	 *
+	 * @param from the initial direction
+	 * @param to the final direction
+	 * @return a rotation taking {@code from} to the direction of {@code to}
+	 * @throws IllegalArgumentException if either vector is zero
+	 */
+	public static Rotation3D between(Vector3D from, Vector3D to) {
+		double ax = from.get(0), ay = from.get(1), az = from.get(2);
+		double bx = to.get(0), by = to.get(1), bz = to.get(2);
+		double norms = Math.sqrt((ax*ax + ay*ay + az*az) * (bx*bx + by*by + bz*bz));
+		if (norms == 0) {
+			throw new IllegalArgumentException("Zero vector has no direction");
+		}
+		double w = norms + ax*bx + ay*by + az*bz;
+		if (w < 1e-12 * norms) {
+			// Opposite vectors: rotate by pi about any perpendicular axis
+			if (Math.abs(ax) > Math.abs(az)) {
+				return normalize(0, -ay, ax, 0);
+			} else {
+				return normalize(0, 0, -az, ay);
+			}
+		}
+		return normalize(w, ay*bz - az*by, az*bx - ax*bz, ax*by - ay*bx);
+	}
+
+	/**
+	 * Returns the unit quaternion representing this rotation.
+	 *
+	 * @return this rotation as a quaternion
+	 */
+	public Quaternion quaternion() {
+		return Quaternion.valueOf(w, x, y, z);
+	}
+
+	/**
+	 * Returns the angle of this rotation in radians,
+	 * in the range from 0 to 2 pi.
+	 *
+	 * @return the angle of this rotation
+	 */
+	public double angle() {
+		return 2 * Math.atan2(Math.sqrt(x*x + y*y + z*z), w);
+	}
+
+	/**
+	 * Returns the unit vector in the direction of the axis of this rotation.
+	 * For the identity rotation, this returns an arbitrary unit vector.
+	 *
+	 * @return the axis of this rotation
+	 */
+	public Vector3D axis() {
+		double n = Math.sqrt(x*x + y*y + z*z);
+		if (n == 0) {
+			return Vector3D.valueOf(1, 0, 0);
+		}
+		return Vector3D.valueOf(x/n, y/n, z/n);
+	}
+
+	/**
+	 * Returns the rotation which reverses this rotation.
+	 *
+	 * @return the inverse rotation
+	 */
+	public Rotation3D inverse() {
+		return new Rotation3D(w, -x, -y, -z);
+	}
+
+	/**
+	 * Returns the rotation obtained by first applying this rotation
+	 * and then the given rotation.
+	 *
+	 * @param next the rotation to be applied after this one
+	 * @return the composition of {@code this} followed by {@code next}
+	 */
+	public Rotation3D then(Rotation3D next) {
+		// Product next * this, renormalized to prevent drift
+		return normalize(
+				next.w * w - next.x * x - next.y * y - next.z * z,
+				next.w * x + next.x * w + next.y * z - next.z * y,
+				next.w * y - next.x * z + next.y * w + next.z * x,
+				next.w * z + next.x * y - next.y * x + next.z * w);
+	}
+
+	/**
+	 * Interpolates spherically between this rotation and the given rotation
+	 * along the shortest path.
+	 *
+	 * @param target the rotation at {@code t = 1}
+	 * @param t the interpolation parameter, usually between 0 and 1
+	 * @return this rotation for {@code t = 0}, {@code target} for
+	 *         {@code t = 1} and a rotation in between for other values
+	 */
+	public Rotation3D slerp(Rotation3D target, double t) {
+		double tw = target.w, tx = target.x, ty = target.y, tz = target.z;
+		double cos = w*tw + x*tx + y*ty + z*tz;
+		if (cos < 0) {
+			// q and -q represent the same rotation; take the shorter arc
+			cos = -cos;
+			tw = -tw; tx = -tx; ty = -ty; tz = -tz;
+		}
+		double a, b;
+		if (cos > SLERP_THRESHOLD) {
+			a = 1 - t;
+			b = t;
+		} else {
+			double theta = Math.acos(cos);
+			double sin = Math.sin(theta);
+			a = Math.sin((1 - t) * theta) / sin;
+			b = Math.sin(t * theta) / sin;
+		}
+		return normalize(a*w + b*tw, a*x + b*tx, a*y + b*ty, a*z + b*tz);
+	}
+
+	/**
+	 * Rotates the given vector by this rotation.
+	 *
+	 * @param v the vector to be rotated
+	 * @return the rotated vector
+	 */
+	public Vector3D apply(Vector3D v) {
+		double vx = v.get(0), vy = v.get(1), vz = v.get(2);
+		// v' = v + w*t + q x t, where t = 2 * (q x v)
+		double tx = 2 * (y * vz - z * vy);
+		double ty = 2 * (z * vx - x * vz);
+		double tz = 2 * (x * vy - y * vx);
+		return Vector3D.valueOf(
+				vx + w * tx + (y * tz - z * ty),
+				vy + w * ty + (z * tx - x * tz),
+				vz + w * tz + (x * ty - y * tx));
+	}
+
+	/**
+	 * Rotates every vector in {@code source} by this rotation and stores
+	 * the results at the same positions in {@code target}.
+	 * The two arrays may be the same object, in which case the vectors
+	 * are rotated in place.
+	 *
+	 * @param source the vectors to be rotated
+	 * @param target the array to write the results into
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 */
+	public void apply(Vector3DArray source, Vector3DArray target) {
+		source.checkSize(target);
+		final double[] sx = source.x, sy = source.y, sz = source.z;
+		final double[] rx = target.x, ry = target.y, rz = target.z;
+		// The same operations as in apply(Vector3D), so that the results
+		// are identical to rotating the vectors one by one
+		for (int i = 0; i < sx.length; i++) {
+			double vx = sx[i], vy = sy[i], vz = sz[i];
+			double tx = 2 * (y * vz - z * vy);
+			double ty = 2 * (z * vx - x * vz);
+			double tz = 2 * (x * vy - y * vx);
+			rx[i] = vx + w * tx + (y * tz - z * ty);
+			ry[i] = vy + w * ty + (z * tx - x * tz);
+			rz[i] = vz + w * tz + (x * ty - y * tx);
+		}
+	}
+
+	/**
+	 * Returns the rotation matrix of this rotation.
+	 *
+	 * @return the matrix which rotates vectors the same way as this rotation
+	 */
+	public Matrix3x3 toMatrix() {
+		double xx = x*x, yy = y*y, zz = z*z;
+		double xy = x*y, xz = x*z, yz = y*z;
+		double wx = w*x, wy = w*y, wz = w*z;
+		return Matrix3x3.valueOf(
+				1 - 2*(yy + zz), 2*(xy - wz), 2*(xz + wy),
+				2*(xy + wz), 1 - 2*(xx + zz), 2*(yz - wx),
+				2*(xz - wy), 2*(yz + wx), 1 - 2*(xx + yy));
+	}
+
+	@Override
+	public int hashCode() {
+		return quaternion().hashCode();
+	}
+
+	/**
+	 * Indicates whether the given object is a {@code Rotation3D}
+	 * represented by the same quaternion as this one.
+	 * <p>
+	 * Note that since {@code q} and {@code -q} represent the same rotation,
+	 * this method may return {@code false} for two equal rotations.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Rotation3D)) return false;
+		Rotation3D other = (Rotation3D) obj;
+		return quaternion().equals(other.quaternion());
+	}
+
+	@Override
+	public String toString() {
+		return "Rotation3D[" + quaternion() + "]";
+	}
+}
@@ -0,0 +1,76 @@
+package com.github.singond.physics.vector;
+
+/**
+ * An integrator using the classical fourth-order Runge-Kutta method.
+ *
+ * @author Singon
+ * @see Integrator#rungeKutta4(ForceFunction)
+ */
+final class RungeKutta4Integrator extends Integrator {
+
+	/** Position in the current stage */
+	private double[] xs;
+	/** Velocity in the current stage */
+	private double[] vs;
+	/** Acceleration in the current stage */
+	private double[] as;
+	/** Weighted sum of the stage velocities */
+	private double[] sumV;
+	/** Weighted sum of the stage accelerations */
+	private double[] sumA;
+
+	RungeKutta4Integrator(ForceFunction force) {
+		super(force);
+	}
+
+	@Override
+	void allocate(int length) {
+		xs = new double[length];
+		vs = new double[length];
+		as = new double[length];
+		sumV = new double[length];
+		sumA = new double[length];
+	}
+
+	@Override
+	void doStep(SystemState state, double step) {
+		updateAcceleration(state);
+		final double[] x = state.position;
+		final double[] v = state.velocity;
+		final double[] a = state.acceleration;
+		final double t = state.time();
+		final double half = step / 2;
+
+		// Stage 1: the derivatives at the start of the step
+		for (int i = 0; i < x.length; i++) {
+			sumV[i] = v[i];
+			sumA[i] = a[i];
+			xs[i] = x[i] + v[i] * half;
+			vs[i] = v[i] + a[i] * half;
+		}
+		// Stage 2: the derivatives in the middle, using stage 1
+		force.accelerations(t + half, xs, vs, as);
+		for (int i = 0; i < x.length; i++) {
+			sumV[i] += 2 * vs[i];
+			sumA[i] += 2 * as[i];
+			xs[i] = x[i] + vs[i] * half;
+			vs[i] = v[i] + as[i] * half;
+		}
+		// Stage 3: the derivatives in the middle, using stage 2
+		force.accelerations(t + half, xs, vs, as);
+		for (int i = 0; i < x.length; i++) {
+			sumV[i] += 2 * vs[i];
+			sumA[i] += 2 * as[i];
+			xs[i] = x[i] + vs[i] * step;
+			vs[i] = v[i] + as[i] * step;
+		}
+		// Stage 4: the derivatives at the end, using stage 3
+		force.accelerations(t + step, xs, vs, as);
+		final double sixth = step / 6;
+		for (int i = 0; i < x.length; i++) {
+			x[i] += (sumV[i] + vs[i]) * sixth;
+			v[i] += (sumA[i] + as[i]) * sixth;
+		}
+		state.accelerationSource = null;
+	}
+}
@@ -0,0 +1,25 @@
+package com.github.singond.physics.vector;
+
+/**
+ * An integrator using the semi-implicit (symplectic) Euler method.
+ *
+ * @author Singon
+ * @see Integrator#semiImplicitEuler(ForceFunction)
+ */
+final class SemiImplicitEulerIntegrator extends Integrator {
+
+	SemiImplicitEulerIntegrator(ForceFunction force) {
+		super(force);
+	}
+
+	@Override
+	void doStep(SystemState state, double step) {
+		updateAcceleration(state);
+		final double[] x = state.position;
+		final double[] v = state.velocity;
+		final double[] a = state.acceleration;
+		Kernels.axpy(step, a, v, v.length);
+		Kernels.axpy(step, v, x, x.length);
+		state.accelerationSource = null;
+	}
+}
@@ -0,0 +1,74 @@
+package com.github.singond.physics.vector;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * The serialized form of the vectors in this package.
+ * <p>
+ * Vectors are replaced by an instance of this class when serialized,
+ * which writes them in the exact encoding of {@link VectorCodec},
+ * preceded by a byte identifying the class of the vector, and which is
+ * resolved to an equal vector of the same class when deserialized.
+ * This is much more compact than the default serialized form and keeps
+ * the vector classes themselves immutable.
+ *
+ * @author Singon
+ */
+final class SerializedVector implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final byte VECTOR_3D = 1;
+	private static final byte ARRAY_VECTOR = 2;
+
+	private Vector vector;
+
+	/**
+	 * Constructs an empty instance to be filled by {@code readExternal}.
+	 * Required by {@code Externalizable}; do not use.
+	 */
+	public SerializedVector() {}
+
+	SerializedVector(Vector vector) {
+		this.vector = vector;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(vector instanceof Vector3D ? VECTOR_3D : ARRAY_VECTOR);
+		VectorCodec.exact().write(vector, out);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		byte type = in.readByte();
+		double[] components;
+		try {
+			components = VectorCodec.exact().readComponents(in);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidObjectException(e.getMessage());
+		}
+		if (type == VECTOR_3D) {
+			if (components.length != 3) {
+				throw new InvalidObjectException("Invalid dimension of Vector3D: "
+						+ components.length);
+			}
+			vector = Vector3D.valueOf(components[0], components[1], components[2]);
+		} else if (type == ARRAY_VECTOR) {
+			vector = ArrayVector.wrap(components);
+		} else {
+			throw new InvalidObjectException("Unknown vector type: " + type);
+		}
+	}
+
+	/**
+	 * Returns the deserialized vector in place of this object.
+	 */
+	private Object readResolve() {
+		return vector;
+	}
+}
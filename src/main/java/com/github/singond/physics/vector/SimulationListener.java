@@ -0,0 +1,33 @@
+package com.github.singond.physics.vector;
+
+/**
+ * Receives the progress and results of the systems simulated by
+ * a {@link SimulationRunner}.
+ * <p>
+ * The methods are called from the worker threads of the runner,
+ * possibly from several threads at once, and must be thread-safe.
+ * The states passed to them are copies owned by the listener.
+ *
+ * @author Singon
+ */
+public interface SimulationListener {
+
+	/**
+	 * Called for every system when a checkpoint is reached.
+	 * Does nothing by default.
+	 *
+	 * @param system the index of the system
+	 * @param step the number of steps completed so far
+	 * @param state a copy of the state of the system
+	 */
+	default void checkpoint(int system, long step, SystemState state) {}
+
+	/**
+	 * Called for every system when the simulation of that system
+	 * has finished.
+	 *
+	 * @param system the index of the system
+	 * @param state the final state of the system
+	 */
+	void finished(int system, SystemState state);
+}
@@ -0,0 +1,260 @@
+package com.github.singond.physics.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs many independent systems of bodies, which share the same form
+ * of equations of motion but may differ in parameters and initial state.
+ * <p>
+ * Instead of stepping each system on its own, the runner packs the systems
+ * into batches, each of which is stored in a single {@link SystemState}
+ * and stepped in lockstep by a single {@link Integrator}. The loops of the
+ * integrator then run over the whole batch and can be vectorized.
+ * The batches are distributed among the threads of an executor.
+ * <p>
+ * The progress is reported to a {@link SimulationListener}: at regular
+ * checkpoints, and for each system as soon as its batch has finished.
+ * <p>
+ * The configuration of the runner must not be changed while it is running.
+ *
+ * @author Singon
+ */
+public final class SimulationRunner {
+
+	private static final int DEFAULT_BATCH_SIZE = 256;
+
+	private final int systems;
+	private final int bodies;
+	private final int dimension;
+	private final BatchForceFunction force;
+
+	private Function<ForceFunction, Integrator> integrator = Integrator::rungeKutta4;
+	private Initializer initializer = (system, state) -> {};
+	private double step = 1e-3;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private long checkpointInterval = 0;
+
+	/**
+	 * Creates a new runner of the given number of systems.
+	 *
+	 * @param systems the number of systems
+	 * @param bodies the number of bodies in each system
+	 * @param dimension the dimension of the space the bodies move in
+	 * @param force the function giving the accelerations of the bodies
+	 */
+	public SimulationRunner(int systems, int bodies, int dimension,
+			BatchForceFunction force) {
+		if (systems < 0 || bodies < 1 || dimension < 1) {
+			throw new IllegalArgumentException("Invalid simulation size: "
+					+ systems + " systems of " + bodies + " bodies of dimension "
+					+ dimension);
+		}
+		this.systems = systems;
+		this.bodies = bodies;
+		this.dimension = dimension;
+		this.force = force;
+	}
+
+	/**
+	 * Sets the integration method, given as a function which creates
+	 * an integrator from a force function, such as
+	 * {@code Integrator::velocityVerlet}. The default is
+	 * {@link Integrator#rungeKutta4}.
+	 *
+	 * @param integrator the factory of integrators
+	 */
+	public void setIntegrator(Function<ForceFunction, Integrator> integrator) {
+		this.integrator = integrator;
+	}
+
+	/**
+	 * Sets the function which sets up the initial state of each system.
+	 * By default, all bodies start at rest in the origin.
+	 *
+	 * @param initializer the function setting up the initial states
+	 */
+	public void setInitializer(Initializer initializer) {
+		this.initializer = initializer;
+	}
+
+	/**
+	 * Sets the length of the time step.
+	 *
+	 * @param step the time step
+	 */
+	public void setStep(double step) {
+		this.step = step;
+	}
+
+	/**
+	 * Sets the maximum number of systems stepped together.
+	 * Larger batches make better use of vectorized loops,
+	 * while smaller ones distribute better among threads.
+	 *
+	 * @param batchSize the maximum number of systems in a batch
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets the number of steps between checkpoints.
+	 * By default, there are no checkpoints.
+	 *
+	 * @param checkpointInterval the number of steps between checkpoints
+	 * @throws IllegalArgumentException if {@code checkpointInterval}
+	 *         is not positive
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		if (checkpointInterval <= 0) {
+			throw new IllegalArgumentException(
+					"Invalid checkpoint interval: " + checkpointInterval);
+		}
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Runs all systems for the given number of steps in a fixed pool
+	 * of threads, one per available processor, and waits for them to finish.
+	 *
+	 * @param steps the number of steps
+	 * @param listener the listener to be notified of checkpoints and results
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void run(long steps, SimulationListener listener)
+			throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors());
+		try {
+			run(steps, executor, listener);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs all systems for the given number of steps in the given executor
+	 * and waits for them to finish.
+	 * The executor is not shut down afterwards.
+	 *
+	 * @param steps the number of steps
+	 * @param executor the executor to run the batches in
+	 * @param listener the listener to be notified of checkpoints and results
+	 * @throws InterruptedException if interrupted while waiting,
+	 *         or if a thread running a batch was interrupted
+	 */
+	public void run(long steps, ExecutorService executor,
+			SimulationListener listener) throws InterruptedException {
+		List<Future<?>> futures = new ArrayList<>();
+		for (int first = 0; first < systems; first += batchSize) {
+			final int firstSystem = first;
+			final int count = Math.min(batchSize, systems - first);
+			futures.add(executor.submit(() -> {
+				runBatch(firstSystem, count, steps, listener);
+				return null;
+			}));
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+			Throwable cause = e.getCause();
+			if (cause instanceof InterruptedException) {
+				throw (InterruptedException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new IllegalStateException("Simulation failed", cause);
+			}
+		} catch (InterruptedException e) {
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Runs {@code count} systems starting at {@code firstSystem}
+	 * as a single batch.
+	 *
+	 * @throws InterruptedException if the current thread is interrupted
+	 *         before the batch has finished; the interrupt status
+	 *         is left set
+	 */
+	private void runBatch(int firstSystem, int count, long steps,
+			SimulationListener listener) throws InterruptedException {
+		SystemState state = SystemState.ofSize(count * bodies, dimension);
+		for (int s = 0; s < count; s++) {
+			SystemState system = SystemState.ofSize(bodies, dimension);
+			initializer.initialize(firstSystem + s, system);
+			if (s > 0 && system.time() != state.time()) {
+				throw new IllegalStateException("System " + (firstSystem + s)
+						+ " starts at time " + system.time() + ", but system "
+						+ firstSystem + " in the same batch starts at time "
+						+ state.time());
+			}
+			state.copyBodiesFrom(system, s * bodies);
+		}
+		Integrator batchIntegrator = integrator.apply(
+				(time, position, velocity, acceleration) -> force.accelerations(
+						firstSystem, count, time, position, velocity, acceleration));
+
+		long done = 0;
+		while (done < steps) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedException("Batch of systems " + firstSystem
+						+ " to " + (firstSystem + count - 1)
+						+ " interrupted after " + done + " steps");
+			}
+			long n = steps - done;
+			if (checkpointInterval > 0 && checkpointInterval < n) {
+				n = checkpointInterval;
+			}
+			batchIntegrator.integrate(state, step, n);
+			done += n;
+			if (done < steps) {
+				for (int s = 0; s < count; s++) {
+					listener.checkpoint(firstSystem + s, done,
+							state.copyBodies(s * bodies, bodies));
+				}
+			}
+		}
+		for (int s = 0; s < count; s++) {
+			listener.finished(firstSystem + s,
+					state.copyBodies(s * bodies, bodies));
+		}
+	}
+
+	/**
+	 * Sets up the initial state of a system.
+	 */
+	@FunctionalInterface
+	public interface Initializer {
+
+		/**
+		 * Sets up the initial state of the given system.
+		 *
+		 * @param system the index of the system
+		 * @param state the state to be initialized, with all bodies
+		 *        at rest in the origin at time zero; if the time is changed,
+		 *        it must be the same for all systems
+		 */
+		void initialize(int system, SystemState state);
+	}
+}
@@ -0,0 +1,212 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A ball in three dimensions, given by its center and radius.
+ * <p>
+ * The ball includes its interior: a point inside it is contained
+ * in it, and a ray starting inside it intersects its surface.
+ * The methods taking components of points instead of vectors, and those
+ * writing the result into an array, do not allocate any objects.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Sphere {
+
+	final double cx, cy, cz;
+	final double radius;
+
+	private Sphere(double cx, double cy, double cz, double radius) {
+		this.cx = cx;
+		this.cy = cy;
+		this.cz = cz;
+		this.radius = radius;
+	}
+
+	/**
+	 * Returns the sphere with the given center and radius.
+	 *
+	 * @param center the center of the sphere
+	 * @param radius the radius of the sphere
+	 * @return the sphere of {@code radius} around {@code center}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code center} is not 3
+	 * @throws IllegalArgumentException if {@code radius} is negative
+	 *         or not finite
+	 */
+	public static Sphere of(Vector center, double radius) {
+		Geometry.checkDimension(center);
+		if (!(radius >= 0) || Double.isInfinite(radius)) {
+			throw new IllegalArgumentException("Invalid radius: " + radius);
+		}
+		return new Sphere(center.get(0), center.get(1), center.get(2), radius);
+	}
+
+	/**
+	 * Returns the center of this sphere.
+	 *
+	 * @return the center
+	 */
+	public Vector3D center() {
+		return Vector3D.valueOf(cx, cy, cz);
+	}
+
+	/**
+	 * Returns the radius of this sphere.
+	 *
+	 * @return the radius
+	 */
+	public double radius() {
+		return radius;
+	}
+
+	/**
+	 * Returns the smallest axis-aligned box containing this sphere.
+	 *
+	 * @return the bounding box of this sphere
+	 */
+	public AABB boundingBox() {
+		return AABB.of(cx - radius, cy - radius, cz - radius,
+				cx + radius, cy + radius, cz + radius);
+	}
+
+	/**
+	 * Indicates whether the given point lies in this sphere,
+	 * including its surface.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return {@code true} if the point lies in this sphere
+	 */
+	public boolean contains(double x, double y, double z) {
+		double ex = x - cx, ey = y - cy, ez = z - cz;
+		return ex * ex + ey * ey + ez * ez <= radius * radius;
+	}
+
+	/**
+	 * Indicates whether the given point lies in this sphere,
+	 * including its surface.
+	 *
+	 * @param point the point
+	 * @return {@code true} if {@code point} lies in this sphere
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public boolean contains(Vector point) {
+		Geometry.checkDimension(point);
+		return contains(point.get(0), point.get(1), point.get(2));
+	}
+
+	/**
+	 * Indicates whether this sphere overlaps the given sphere.
+	 *
+	 * @param other the other sphere
+	 * @return {@code true} if the spheres have a common point
+	 */
+	public boolean intersects(Sphere other) {
+		double ex = other.cx - cx, ey = other.cy - cy, ez = other.cz - cz;
+		double r = radius + other.radius;
+		return ex * ex + ey * ey + ez * ez <= r * r;
+	}
+
+	/**
+	 * Indicates whether this sphere overlaps the given box.
+	 *
+	 * @param box the box
+	 * @return {@code true} if this sphere and {@code box} have
+	 *         a common point
+	 */
+	public boolean intersects(AABB box) {
+		return box.distanceSquared(cx, cy, cz) <= radius * radius;
+	}
+
+	/**
+	 * Returns the signed distance of the given point from the surface
+	 * of this sphere.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return the distance of the point from the surface, negative
+	 *         if it lies inside this sphere
+	 */
+	public double signedDistance(double x, double y, double z) {
+		double ex = x - cx, ey = y - cy, ez = z - cz;
+		return Math.sqrt(ex * ex + ey * ey + ez * ez) - radius;
+	}
+
+	/**
+	 * Returns the signed distance of the given point from the surface
+	 * of this sphere.
+	 *
+	 * @param point the point
+	 * @return the distance of {@code point} from the surface, negative
+	 *         if it lies inside this sphere
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public double signedDistance(Vector point) {
+		Geometry.checkDimension(point);
+		return signedDistance(point.get(0), point.get(1), point.get(2));
+	}
+
+	/**
+	 * Writes the components of the projection of the given point
+	 * onto the surface of this sphere into the given array.
+	 * The projection of the center is the point of the surface
+	 * in the direction of the x-axis.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @param result the array to store the three components in
+	 */
+	public void project(double x, double y, double z, double[] result) {
+		double ex = x - cx, ey = y - cy, ez = z - cz;
+		double distance = Math.sqrt(ex * ex + ey * ey + ez * ez);
+		if (distance == 0) {
+			ex = 1;
+			distance = 1;
+		}
+		double scale = radius / distance;
+		result[0] = cx + ex * scale;
+		result[1] = cy + ey * scale;
+		result[2] = cz + ez * scale;
+	}
+
+	/**
+	 * Returns the parameter of the first intersection of the given ray
+	 * with the surface of this sphere.
+	 *
+	 * @param ray the ray
+	 * @return the parameter of the point where {@code ray} enters this
+	 *         sphere, or leaves it if the ray starts inside this sphere;
+	 *         or {@code NaN} if the ray misses this sphere
+	 */
+	public double intersect(Ray3D ray) {
+		return Geometry.raySphere(ray.ox, ray.oy, ray.oz, ray.dx, ray.dy, ray.dz,
+				cx, cy, cz, radius * radius);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Vector3D.hashCode(cx, cy, cz) + Double.hashCode(radius);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Sphere)) return false;
+		Sphere other = (Sphere) obj;
+		return Geometry.equal(cx, other.cx) && Geometry.equal(cy, other.cy)
+			&& Geometry.equal(cz, other.cz) && Geometry.equal(radius, other.radius);
+	}
+
+	@Override
+	public String toString() {
+		return "Sphere[(" + cx + ", " + cy + ", " + cz + "), " + radius + "]";
+	}
+}
@@ -0,0 +1,364 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * The state of a system of bodies at a given time: the positions and
+ * velocities of all the bodies.
+ * <p>
+ * The state is stored in flat arrays of {@code double}s, where the
+ * {@code c}th component of the position of the {@code i}th body is stored
+ * at index {@code i * dimension() + c}, and similarly for the velocity.
+ * A single body is simply a system with {@code count() == 1}.
+ * <p>
+ * Instances of this class are mutable and not thread-safe.
+ * They are advanced in time by an {@link Integrator}.
+ *
+ * @author Singon
+ */
+public final class SystemState {
+
+	private final int dimension;
+	private final int count;
+
+	/** The positions of all bodies. */
+	final double[] position;
+	/** The velocities of all bodies. */
+	final double[] velocity;
+	/**
+	 * The accelerations of all bodies in this state, valid only if
+	 * {@code accelerationSource} is set. Integrators which evaluate
+	 * the acceleration at the end of a step store it here so that
+	 * the next step can reuse it.
+	 */
+	final double[] acceleration;
+	/**
+	 * The integrator which calculated {@code acceleration} for the current
+	 * positions and velocities, or {@code null} if it is not valid.
+	 * Only that integrator may reuse it, because another one may have
+	 * a different force function.
+	 */
+	Integrator accelerationSource;
+
+	private double time;
+
+	private SystemState(int count, int dimension) {
+		if (count < 0 || dimension < 1) {
+			throw new IllegalArgumentException("Invalid system size: "
+					+ count + " bodies of dimension " + dimension);
+		}
+		this.dimension = dimension;
+		this.count = count;
+		this.position = new double[count * dimension];
+		this.velocity = new double[count * dimension];
+		this.acceleration = new double[count * dimension];
+	}
+
+	/**
+	 * Returns a new state of {@code count} bodies of the given dimension,
+	 * all at rest in the origin at time zero.
+	 *
+	 * @param count the number of bodies
+	 * @param dimension the dimension of the space the bodies move in
+	 * @return a new state of {@code count} bodies
+	 */
+	public static SystemState ofSize(int count, int dimension) {
+		return new SystemState(count, dimension);
+	}
+
+	/**
+	 * Returns a new state of a single body with the given position
+	 * and velocity at time zero.
+	 *
+	 * @param position the position of the body
+	 * @param velocity the velocity of the body
+	 * @return a new state of a single body
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public static SystemState of(Vector position, Vector velocity) {
+		SystemState state = new SystemState(1, position.dimension());
+		state.setPosition(0, position);
+		state.setVelocity(0, velocity);
+		return state;
+	}
+
+	/**
+	 * Returns the dimension of the space the bodies move in.
+	 *
+	 * @return the dimension of the position of each body
+	 */
+	public int dimension() {
+		return dimension;
+	}
+
+	/**
+	 * Returns the number of bodies in the system.
+	 *
+	 * @return the number of bodies
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns the time of this state.
+	 *
+	 * @return the time
+	 */
+	public double time() {
+		return time;
+	}
+
+	/**
+	 * Sets the time of this state.
+	 *
+	 * @param time the new time
+	 */
+	public void setTime(double time) {
+		this.time = time;
+		accelerationSource = null;
+	}
+
+	/**
+	 * Advances the time of this state by the given amount.
+	 * Used by integrators, which maintain the cached acceleration themselves.
+	 */
+	void advanceTime(double step) {
+		time += step;
+	}
+
+	/**
+	 * Returns the position of the given body.
+	 *
+	 * @param body the index of the body
+	 * @return the position of the body, as a {@code Vector3D}
+	 *         if the dimension is 3
+	 */
+	public Vector position(int body) {
+		checkBody(body);
+		return vector(position, body * dimension, dimension);
+	}
+
+	/**
+	 * Returns the velocity of the given body.
+	 *
+	 * @param body the index of the body
+	 * @return the velocity of the body, as a {@code Vector3D}
+	 *         if the dimension is 3
+	 */
+	public Vector velocity(int body) {
+		checkBody(body);
+		return vector(velocity, body * dimension, dimension);
+	}
+
+	/**
+	 * Returns a component of the position of the given body.
+	 * Unlike {@link #position(int)}, this does not create any object.
+	 *
+	 * @param body the index of the body
+	 * @param component the index of the component
+	 * @return the {@code component}th component of the position of
+	 *         the {@code body}th body
+	 */
+	public double getPosition(int body, int component) {
+		checkBody(body);
+		checkComponent(component);
+		return position[body * dimension + component];
+	}
+
+	/**
+	 * Returns a component of the velocity of the given body.
+	 * Unlike {@link #velocity(int)}, this does not create any object.
+	 *
+	 * @param body the index of the body
+	 * @param component the index of the component
+	 * @return the {@code component}th component of the velocity of
+	 *         the {@code body}th body
+	 */
+	public double getVelocity(int body, int component) {
+		checkBody(body);
+		checkComponent(component);
+		return velocity[body * dimension + component];
+	}
+
+	/**
+	 * Sets the position of the given body.
+	 *
+	 * @param body the index of the body
+	 * @param value the new position
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code value} is not equal to {@code dimension()}
+	 */
+	public void setPosition(int body, Vector value) {
+		set(position, body, value);
+	}
+
+	/**
+	 * Sets the velocity of the given body.
+	 *
+	 * @param body the index of the body
+	 * @param value the new velocity
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code value} is not equal to {@code dimension()}
+	 */
+	public void setVelocity(int body, Vector value) {
+		set(velocity, body, value);
+	}
+
+	private void set(double[] array, int body, Vector value) {
+		checkBody(body);
+		if (value.dimension() != dimension) {
+			throw new IllegalVectorDimensionException(value);
+		}
+		int offset = body * dimension;
+		for (int c = 0; c < dimension; c++) {
+			array[offset + c] = value.get(c);
+		}
+		accelerationSource = null;
+	}
+
+	/**
+	 * Sets the positions of all bodies from an array in the layout
+	 * described in the class documentation.
+	 *
+	 * @param positions the new positions
+	 * @throws IllegalArgumentException if the length of {@code positions}
+	 *         is not {@code count() * dimension()}
+	 */
+	public void setPositions(double[] positions) {
+		copyIn(positions, position);
+	}
+
+	/**
+	 * Sets the velocities of all bodies from an array in the layout
+	 * described in the class documentation.
+	 *
+	 * @param velocities the new velocities
+	 * @throws IllegalArgumentException if the length of {@code velocities}
+	 *         is not {@code count() * dimension()}
+	 */
+	public void setVelocities(double[] velocities) {
+		copyIn(velocities, velocity);
+	}
+
+	private void copyIn(double[] source, double[] target) {
+		if (source.length != target.length) {
+			throw new IllegalArgumentException("Expected an array of length "
+					+ target.length + ", got " + source.length);
+		}
+		System.arraycopy(source, 0, target, 0, target.length);
+		accelerationSource = null;
+	}
+
+	/**
+	 * Returns a copy of the positions of all bodies in the layout
+	 * described in the class documentation.
+	 *
+	 * @return the positions of all bodies
+	 */
+	public double[] positions() {
+		return position.clone();
+	}
+
+	/**
+	 * Returns a copy of the velocities of all bodies in the layout
+	 * described in the class documentation.
+	 *
+	 * @return the velocities of all bodies
+	 */
+	public double[] velocities() {
+		return velocity.clone();
+	}
+
+	/**
+	 * Returns a copy of this state.
+	 *
+	 * @return a new state equal to this one
+	 */
+	public SystemState copy() {
+		SystemState copy = new SystemState(count, dimension);
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Overwrites this state with the contents of the given state,
+	 * which must be of the same size.
+	 *
+	 * @param other the state to copy from
+	 * @throws IllegalArgumentException if the states differ in size
+	 */
+	public void copyFrom(SystemState other) {
+		if (other.count != count || other.dimension != dimension) {
+			throw new IllegalArgumentException("States differ in size");
+		}
+		System.arraycopy(other.position, 0, position, 0, position.length);
+		System.arraycopy(other.velocity, 0, velocity, 0, velocity.length);
+		System.arraycopy(other.acceleration, 0, acceleration, 0,
+				acceleration.length);
+		accelerationSource = other.accelerationSource;
+		time = other.time;
+	}
+
+	/**
+	 * Copies the positions and velocities of {@code part.count()} bodies
+	 * from {@code part} into this state, starting at the given body,
+	 * and sets the time of this state to that of {@code part}.
+	 */
+	void copyBodiesFrom(SystemState part, int firstBody) {
+		int offset = firstBody * dimension;
+		System.arraycopy(part.position, 0, position, offset, part.position.length);
+		System.arraycopy(part.velocity, 0, velocity, offset, part.velocity.length);
+		accelerationSource = null;
+		time = part.time;
+	}
+
+	/**
+	 * Returns a new state containing {@code count} bodies of this state,
+	 * starting at the given body.
+	 */
+	SystemState copyBodies(int firstBody, int count) {
+		SystemState part = new SystemState(count, dimension);
+		int offset = firstBody * dimension;
+		System.arraycopy(position, offset, part.position, 0, part.position.length);
+		System.arraycopy(velocity, offset, part.velocity, 0, part.velocity.length);
+		part.time = time;
+		return part;
+	}
+
+	private void checkBody(int body) {
+		if (body < 0 || body >= count) {
+			throw new IndexOutOfBoundsException("Invalid body index: " + body);
+		}
+	}
+
+	private void checkComponent(int component) {
+		if (component < 0 || component >= dimension) {
+			throw new IndexOutOfBoundsException(
+					"Invalid vector component index: " + component);
+		}
+	}
+
+	/**
+	 * Returns the vector stored in {@code dimension} elements of
+	 * {@code array} starting at {@code offset}.
+	 * Returns a {@code Vector3D} for dimension 3 and an {@code ArrayVector}
+	 * otherwise.
+	 */
+	static Vector vector(double[] array, int offset, int dimension) {
+		if (dimension == 3) {
+			return Vector3D.valueOf(array[offset], array[offset + 1],
+					array[offset + 2]);
+		} else {
+			return ArrayVector.wrap(
+					Arrays.copyOfRange(array, offset, offset + dimension));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SystemState[t=" + time + ", x=" + Arrays.toString(position)
+				+ ", v=" + Arrays.toString(velocity) + "]";
+	}
+}
@@ -0,0 +1,47 @@
+package com.github.singond.physics.vector;
+
+/**
+ * Comparison of floating-point numbers within a tolerance.
+ *
+ * @author Singon
+ */
+final class Tolerance {
+
+	/** Not instantiable. */
+	private Tolerance() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Checks that the given tolerances are valid and throws an exception
+	 * if not.
+	 *
+	 * @param absTolerance the absolute tolerance
+	 * @param relTolerance the relative tolerance
+	 * @throws IllegalArgumentException if either tolerance is negative
+	 *         or not a number
+	 */
+	static void check(double absTolerance, double relTolerance) {
+		if (!(absTolerance >= 0) || !(relTolerance >= 0)) {
+			throw new IllegalArgumentException("Invalid tolerance: absolute "
+					+ absTolerance + ", relative " + relTolerance);
+		}
+	}
+
+	/**
+	 * Returns whether the given numbers are equal within the given tolerance,
+	 * as defined in {@link Vector#equalsWithin}.
+	 */
+	static boolean equal(double a, double b, double absTolerance,
+			double relTolerance) {
+		if (a == b) {
+			return true;
+		}
+		double difference = Math.abs(a - b);
+		if (difference == Double.POSITIVE_INFINITY) {
+			return false;
+		}
+		return difference <= absTolerance
+				|| difference <= relTolerance * Math.max(Math.abs(a), Math.abs(b));
+	}
+}
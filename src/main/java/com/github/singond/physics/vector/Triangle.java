@@ -0,0 +1,240 @@
+package com.github.singond.physics.vector;
+
+/**
+ * A triangle in three dimensions, given by its vertices
+ * {@code a}, {@code b} and {@code c}.
+ * <p>
+ * The edges {@code b - a} and {@code c - a} are computed once when
+ * the triangle is created, so that intersection tests need not compute
+ * them again. The methods taking components of points instead of vectors,
+ * and those writing the result into an array, do not allocate any objects.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class Triangle {
+
+	final double ax, ay, az;
+	/** The edge {@code b - a}. */
+	final double e1x, e1y, e1z;
+	/** The edge {@code c - a}. */
+	final double e2x, e2y, e2z;
+
+	private Triangle(double ax, double ay, double az,
+			double e1x, double e1y, double e1z,
+			double e2x, double e2y, double e2z) {
+		this.ax = ax;
+		this.ay = ay;
+		this.az = az;
+		this.e1x = e1x;
+		this.e1y = e1y;
+		this.e1z = e1z;
+		this.e2x = e2x;
+		this.e2y = e2y;
+		this.e2z = e2z;
+	}
+
+	/**
+	 * Returns the triangle with the given vertices.
+	 *
+	 * @param a the first vertex
+	 * @param b the second vertex
+	 * @param c the third vertex
+	 * @return the triangle {@code abc}
+	 * @throws IllegalVectorDimensionException if the dimension of any
+	 *         of the vertices is not 3
+	 */
+	public static Triangle of(Vector a, Vector b, Vector c) {
+		Geometry.checkDimension(a);
+		Geometry.checkDimension(b);
+		Geometry.checkDimension(c);
+		double ax = a.get(0), ay = a.get(1), az = a.get(2);
+		return new Triangle(ax, ay, az,
+				b.get(0) - ax, b.get(1) - ay, b.get(2) - az,
+				c.get(0) - ax, c.get(1) - ay, c.get(2) - az);
+	}
+
+	/**
+	 * Returns the vertex of this triangle with the given index.
+	 *
+	 * @param index the index of the vertex: 0 for {@code a},
+	 *        1 for {@code b} and 2 for {@code c}
+	 * @return the vertex
+	 * @throws IndexOutOfBoundsException if {@code index} is not
+	 *         0, 1 or 2
+	 */
+	public Vector3D vertex(int index) {
+		switch (index) {
+			case 0: return Vector3D.valueOf(ax, ay, az);
+			case 1: return Vector3D.valueOf(ax + e1x, ay + e1y, az + e1z);
+			case 2: return Vector3D.valueOf(ax + e2x, ay + e2y, az + e2z);
+			default: throw new IndexOutOfBoundsException(
+					"Invalid vertex index: " + index);
+		}
+	}
+
+	/**
+	 * Returns the unit normal of this triangle. Seen from the side
+	 * of the normal, the vertices go counterclockwise.
+	 *
+	 * @return the normal, or a vector of {@code NaN}s if this triangle
+	 *         is degenerate
+	 */
+	public Vector3D normal() {
+		double nx = e1y * e2z - e1z * e2y;
+		double ny = e1z * e2x - e1x * e2z;
+		double nz = e1x * e2y - e1y * e2x;
+		double magnitude = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		return Vector3D.valueOf(nx / magnitude, ny / magnitude, nz / magnitude);
+	}
+
+	/**
+	 * Returns the area of this triangle.
+	 *
+	 * @return the area
+	 */
+	public double area() {
+		double nx = e1y * e2z - e1z * e2y;
+		double ny = e1z * e2x - e1x * e2z;
+		double nz = e1x * e2y - e1y * e2x;
+		return Math.sqrt(nx * nx + ny * ny + nz * nz) / 2;
+	}
+
+	/**
+	 * Writes the components of the point of this triangle closest
+	 * to the given point into the given array.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @param result the array to store the three components in
+	 */
+	public void closestPoint(double x, double y, double z, double[] result) {
+		closest(x, y, z, result);
+	}
+
+	/**
+	 * Returns the square of the distance of the given point from this
+	 * triangle.
+	 *
+	 * @param x x-component of the point
+	 * @param y y-component of the point
+	 * @param z z-component of the point
+	 * @return the square of the distance to the closest point of this triangle
+	 */
+	public double distanceSquared(double x, double y, double z) {
+		return closest(x, y, z, null);
+	}
+
+	/**
+	 * Returns the distance of the given point from this triangle.
+	 *
+	 * @param point the point
+	 * @return the distance to the closest point of this triangle
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code point} is not 3
+	 */
+	public double distance(Vector point) {
+		Geometry.checkDimension(point);
+		return Math.sqrt(distanceSquared(point.get(0), point.get(1), point.get(2)));
+	}
+
+	/**
+	 * Finds the point {@code a + u * e1 + v * e2} of this triangle closest
+	 * to the given point, stores it into {@code result} unless it is
+	 * {@code null}, and returns the square of its distance from the point.
+	 */
+	private double closest(double x, double y, double z, double[] result) {
+		// Determine the Voronoi region of the point, after Ericson,
+		// Real-Time Collision Detection, section 5.1.5
+		double px = x - ax, py = y - ay, pz = z - az;
+		// Vectors from b and c to the point
+		double bx = px - e1x, by = py - e1y, bz = pz - e1z;
+		double cx = px - e2x, cy = py - e2y, cz = pz - e2z;
+		double d1 = e1x * px + e1y * py + e1z * pz;
+		double d2 = e2x * px + e2y * py + e2z * pz;
+		double d3 = e1x * bx + e1y * by + e1z * bz;
+		double d4 = e2x * bx + e2y * by + e2z * bz;
+		double d5 = e1x * cx + e1y * cy + e1z * cz;
+		double d6 = e2x * cx + e2y * cy + e2z * cz;
+		double va = d3 * d6 - d5 * d4;
+		double vb = d5 * d2 - d1 * d6;
+		double vc = d1 * d4 - d3 * d2;
+		double u, v;
+		if (d1 <= 0 && d2 <= 0) {
+			u = 0;
+			v = 0;
+		} else if (d3 >= 0 && d4 <= d3) {
+			u = 1;
+			v = 0;
+		} else if (vc <= 0 && d1 >= 0 && d3 <= 0) {
+			u = d1 / (d1 - d3);
+			v = 0;
+		} else if (d6 >= 0 && d5 <= d6) {
+			u = 0;
+			v = 1;
+		} else if (vb <= 0 && d2 >= 0 && d6 <= 0) {
+			u = 0;
+			v = d2 / (d2 - d6);
+		} else if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0) {
+			double w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+			u = 1 - w;
+			v = w;
+		} else {
+			double denominator = 1 / (va + vb + vc);
+			u = vb * denominator;
+			v = vc * denominator;
+		}
+		double qx = ax + u * e1x + v * e2x;
+		double qy = ay + u * e1y + v * e2y;
+		double qz = az + u * e1z + v * e2z;
+		if (result != null) {
+			result[0] = qx;
+			result[1] = qy;
+			result[2] = qz;
+		}
+		double ex = qx - x, ey = qy - y, ez = qz - z;
+		return ex * ex + ey * ey + ez * ez;
+	}
+
+	/**
+	 * Returns the parameter of the intersection of the given ray
+	 * with this triangle. Both sides of the triangle are hit.
+	 *
+	 * @param ray the ray
+	 * @return the parameter of the intersection, or {@code NaN} if the
+	 *         ray misses this triangle or lies in its plane
+	 */
+	public double intersect(Ray3D ray) {
+		return Geometry.rayTriangle(ray.ox, ray.oy, ray.oz, ray.dx, ray.dy, ray.dz,
+				ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * Vector3D.hashCode(ax, ay, az)
+				+ Vector3D.hashCode(e1x, e1y, e1z))
+				+ Vector3D.hashCode(e2x, e2y, e2z);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Triangle)) return false;
+		Triangle other = (Triangle) obj;
+		return Geometry.equal(ax, other.ax) && Geometry.equal(ay, other.ay)
+			&& Geometry.equal(az, other.az) && Geometry.equal(e1x, other.e1x)
+			&& Geometry.equal(e1y, other.e1y) && Geometry.equal(e1z, other.e1z)
+			&& Geometry.equal(e2x, other.e2x) && Geometry.equal(e2y, other.e2y)
+			&& Geometry.equal(e2z, other.e2z);
+	}
+
+	@Override
+	public String toString() {
+		return "Triangle[(" + ax + ", " + ay + ", " + az + "), ("
+				+ (ax + e1x) + ", " + (ay + e1y) + ", " + (az + e1z) + "), ("
+				+ (ax + e2x) + ", " + (ay + e2y) + ", " + (az + e2z) + ")]";
+	}
+}
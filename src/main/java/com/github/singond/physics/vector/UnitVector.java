@@ -0,0 +1,225 @@
+package com.github.singond.physics.vector;
+
+import java.util.List;
+
+/**
+ * A vector of unit magnitude, representing a direction.
+ * <p>
+ * The type of this vector guarantees that it is normalized, which allows
+ * operations depending on the magnitude to skip computing it:
+ * {@link #magnitude()} returns one, {@link #normalized()} returns this vector
+ * and {@link #angleWith(Vector)} of two unit vectors does not compute
+ * any square roots. Methods which take directions as arguments can
+ * accept a {@code UnitVector} to avoid normalizing them again.
+ * <p>
+ * A unit vector is created from any non-zero vector by {@link #of(Vector)},
+ * which normalizes the vector once. Operations other than those mentioned
+ * above are performed on the normalized vector, whose components are
+ * equal to the components of this vector.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Singon
+ */
+public final class UnitVector implements Vector {
+
+	/** The normalized vector. */
+	private final Vector direction;
+
+	private UnitVector(Vector direction) {
+		this.direction = direction;
+		if (VectorInstrumentation.COUNT_ALLOCATIONS) {
+			VectorInstrumentation.recordAllocation(UnitVector.class);
+		}
+	}
+
+	/**
+	 * Returns the unit vector in the direction of the given vector.
+	 *
+	 * @param vector a non-zero vector
+	 * @return the normalized {@code vector}, or {@code vector} itself
+	 *         if it is a {@code UnitVector}
+	 * @throws IllegalArgumentException if {@code vector} is zero or its
+	 *         magnitude is not finite
+	 */
+	public static UnitVector of(Vector vector) {
+		if (vector instanceof UnitVector) {
+			return (UnitVector) vector;
+		}
+		double magnitude = vector.magnitude();
+		if (!(magnitude > 0) || Double.isInfinite(magnitude)) {
+			throw new IllegalArgumentException(
+					"Cannot normalize vector " + vector);
+		}
+		return new UnitVector(immutable(vector.normalized()));
+	}
+
+	/**
+	 * Returns the unit vector in the direction of the given components.
+	 *
+	 * @param x x-component of the direction
+	 * @param y y-component of the direction
+	 * @param z z-component of the direction
+	 * @return the normalized vector of the given components
+	 * @throws IllegalArgumentException if all components are zero or the
+	 *         magnitude is not finite
+	 */
+	public static UnitVector of(double x, double y, double z) {
+		return of(Vector3D.valueOf(x, y, z));
+	}
+
+	/**
+	 * Returns an immutable copy of the given vector, or the vector itself
+	 * if it is an immutable implementation.
+	 */
+	private static Vector immutable(Vector vector) {
+		if (vector instanceof Vector3D || vector instanceof ArrayVector) {
+			return vector;
+		}
+		int dimension = vector.dimension();
+		double[] components = new double[dimension];
+		for (int i = 0; i < dimension; i++) {
+			components[i] = vector.get(i);
+		}
+		return SystemState.vector(components, 0, dimension);
+	}
+
+	/**
+	 * Returns this direction as an ordinary vector, a {@code Vector3D}
+	 * if the dimension is 3.
+	 *
+	 * @return a vector with the components of this vector
+	 */
+	public Vector vector() {
+		return direction;
+	}
+
+	@Override
+	public List<Double> components() {
+		return direction.components();
+	}
+
+	@Override
+	public double get(int component) {
+		return direction.get(component);
+	}
+
+	@Override
+	public int dimension() {
+		return direction.dimension();
+	}
+
+	/**
+	 * Returns one.
+	 *
+	 * @return one
+	 */
+	@Override
+	public double magnitude() {
+		return 1;
+	}
+
+	/**
+	 * Returns one.
+	 *
+	 * @return one
+	 */
+	@Override
+	public double magnitudeSquared() {
+		return 1;
+	}
+
+	/**
+	 * Returns this vector.
+	 *
+	 * @return this vector
+	 */
+	@Override
+	public UnitVector normalized() {
+		return this;
+	}
+
+	@Override
+	public UnitVector negative() {
+		return new UnitVector(direction.negative());
+	}
+
+	@Override
+	public Vector plus(Vector addend) {
+		return direction.plus(addend);
+	}
+
+	@Override
+	public Vector minus(Vector subtrahend) {
+		return direction.minus(subtrahend);
+	}
+
+	@Override
+	public Vector times(double scalar) {
+		return direction.times(scalar);
+	}
+
+	@Override
+	public double dotProduct(Vector a) {
+		return direction.dotProduct(unwrap(a));
+	}
+
+	@Override
+	public Vector crossProduct(Vector a) {
+		return direction.crossProduct(unwrap(a));
+	}
+
+	@Override
+	public Vector pointwiseProduct(Vector a) {
+		return direction.pointwiseProduct(unwrap(a));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If {@code a} is also a {@code UnitVector}, the angle is computed from
+	 * the dot product alone.
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public double angleWith(Vector a) {
+		double cosine = direction.dotProduct(unwrap(a));
+		if (!(a instanceof UnitVector)) {
+			cosine /= a.magnitude();
+		}
+		if (cosine < -1) cosine = -1;
+		else if (cosine > 1) cosine = 1;
+		return Math.acos(cosine);
+	}
+
+	@Override
+	public boolean equalsWithin(Vector a, double absTolerance, double relTolerance) {
+		return direction.equalsWithin(unwrap(a), absTolerance, relTolerance);
+	}
+
+	private static Vector unwrap(Vector vector) {
+		if (vector instanceof UnitVector) {
+			return ((UnitVector) vector).direction;
+		}
+		return vector;
+	}
+
+	@Override
+	public int hashCode() {
+		return direction.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof UnitVector) {
+			obj = ((UnitVector) obj).direction;
+		}
+		return direction.equals(obj);
+	}
+
+	@Override
+	public String toString() {
+		return direction.toString();
+	}
+}
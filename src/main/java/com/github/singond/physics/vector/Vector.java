@@ -54,6 +54,22 @@ public interface Vector {
 	 */
 	double magnitude();
 
+	/**
+	 * Returns the square of the Euclidean norm of this vector.
+	 * This is cheaper to compute than {@link #magnitude()} and suffices
+	 * for comparing the magnitudes of vectors.
+	 *
+	 * @return the square of the Euclidean norm of this vector
+	 */
+	default double magnitudeSquared() {
+		double square = 0;
+		for (int i = 0; i < dimension(); i++) {
+			double component = get(i);
+			square += component * component;
+		}
+		return square;
+	}
+
 	/**
 	 * Returns the normalized vector; that is a vector with the same dimension
 	 * and direction as this vector, but with the magnitude equal to one.
@@ -150,6 +166,41 @@ public interface Vector {
 	 */
 	double angleWith(Vector a);
 
+	/**
+	 * Indicates whether the given vector is equal to this one within
+	 * the given tolerance. The vectors are equal within the tolerance if
+	 * they have the same dimension and for each pair of components
+	 * {@code a} and {@code b} at matching positions, either
+	 * {@code |a - b| <= absTolerance} or
+	 * {@code |a - b| <= relTolerance * max(|a|, |b|)}.
+	 * Components which are not a number are never equal.
+	 * <p>
+	 * Unlike {@code equals}, this relation is not transitive and there
+	 * is no hash code consistent with it. To find approximately equal
+	 * vectors in a hash table, use {@link QuantizedVectorKey}.
+	 *
+	 * @param a the vector to compare with
+	 * @param absTolerance the maximum absolute difference of components
+	 * @param relTolerance the maximum difference of components relative
+	 *        to their magnitude
+	 * @return {@code true} if the dimension of {@code a} is equal to the
+	 *         dimension of this vector and all components of the vectors
+	 *         at matching positions are equal within the tolerance
+	 * @throws IllegalArgumentException if either tolerance is negative
+	 */
+	default boolean equalsWithin(Vector a, double absTolerance, double relTolerance) {
+		Tolerance.check(absTolerance, relTolerance);
+		if (a.dimension() != dimension()) {
+			return false;
+		}
+		for (int i = 0; i < dimension(); i++) {
+			if (!Tolerance.equal(get(i), a.get(i), absTolerance, relTolerance)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Indicates whether the given object is equal to this one.
 	 * Two vectors are equal if they have the same dimensions and their
@@ -1,14 +1,31 @@
 package com.github.singond.physics.vector;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * A specific implementation of the {@code Vector} interface for three dimensions.
+ * <p>
+ * This is a <em>value-based</em> class: instances are immutable, are
+ * obtained only through factory methods, and are considered equal
+ * solely by their components. Programs should not use identity-sensitive
+ * operations on instances, such as reference equality ({@code ==}),
+ * identity hash codes or synchronization, and should not rely on
+ * {@link #valueOf} returning a new instance. This keeps the class
+ * compatible with a future migration to a value class, whose instances
+ * could be stored inline in arrays and fields. Until then, collections
+ * of many vectors are best stored in {@link Vector3DList} or
+ * {@link Vector3DArray}, which keep the components in contiguous arrays
+ * of {@code double}s.
  *
  * @author Singon
  */
-public final class Vector3D implements Vector {
+public final class Vector3D implements Vector, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final double x;
 	private final double y;
@@ -20,6 +37,9 @@ public final class Vector3D implements Vector {
 		this.x = x;
 		this.y = y;
 		this.z = z;
+		if (VectorInstrumentation.COUNT_ALLOCATIONS) {
+			VectorInstrumentation.recordAllocation(Vector3D.class);
+		}
 	}
 
 	/**
@@ -62,6 +82,11 @@ public final class Vector3D implements Vector {
 		return Math.sqrt(x*x + y*y + z*z);
 	}
 
+	@Override
+	public double magnitudeSquared() {
+		return x*x + y*y + z*z;
+	}
+
 	@Override
 	public Vector3D normalized() {
 		double mag = magnitude();
@@ -182,8 +207,25 @@ public final class Vector3D implements Vector {
 		return Math.acos(cosine);
 	}
 
+	@Override
+	public boolean equalsWithin(Vector a, double absTolerance, double relTolerance) {
+		Tolerance.check(absTolerance, relTolerance);
+		return a.dimension() == 3
+				&& Tolerance.equal(x, a.get(0), absTolerance, relTolerance)
+				&& Tolerance.equal(y, a.get(1), absTolerance, relTolerance)
+				&& Tolerance.equal(z, a.get(2), absTolerance, relTolerance);
+	}
+
 	@Override
 	public int hashCode() {
+		return hashCode(x, y, z);
+	}
+
+	/**
+	 * Returns the hash code of a vector with the given components,
+	 * as defined in {@link Vector#hashCode()}.
+	 */
+	static int hashCode(double x, double y, double z) {
 		final int prime = 31;
 		int result = 1;
 		long temp;
@@ -225,4 +267,24 @@ public final class Vector3D implements Vector {
 					"The dimension of vector " + other + "is not 3");
 		}
 	}
+
+	/**
+	 * Replaces this vector by its compact serialized form.
+	 *
+	 * @return the serialized form of this vector
+	 */
+	private Object writeReplace() {
+		return new SerializedVector(this);
+	}
+
+	/**
+	 * Rejects attempts to deserialize this class directly,
+	 * bypassing its serialized form.
+	 *
+	 * @param in the input stream
+	 * @throws InvalidObjectException always
+	 */
+	private void readObject(ObjectInputStream in) throws InvalidObjectException {
+		throw new InvalidObjectException("SerializedVector required");
+	}
 }
@@ -0,0 +1,281 @@
+package com.github.singond.physics.vector;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A three-dimensional vector sum which can be updated concurrently
+ * by multiple threads without locking.
+ * <p>
+ * This class is the vector analogue of
+ * {@link java.util.concurrent.atomic.DoubleAdder}.
+ * The sum is kept in a single cell while threads do not compete
+ * in updating it. When contention is detected, the sum is spread over
+ * a table of cells, each updated by a subset of the threads, and the
+ * table grows up to the number of processors as long as contention
+ * persists. Calling {@link #sum()} adds up the cells.
+ * The cells are padded to occupy separate cache lines.
+ * Updates do not allocate any objects once the table has grown.
+ * <p>
+ * This makes the class preferable to an {@code AtomicReference<Vector3D>}
+ * for sums to which many threads add frequently, such as the force
+ * acting on a body, at the expense of memory.
+ * To sum a large number of vectors, consider
+ * {@link ConcurrentVector3DArray}, which uses less memory per element.
+ * <p>
+ * Like {@code DoubleAdder}, the sum is not an atomic snapshot:
+ * additions concurrent with {@link #sum()} may or may not be included,
+ * and the order in which the values are added is not defined.
+ * Because floating-point addition is not associative, the result
+ * may vary slightly between runs. Where results must be reproducible,
+ * store the terms in a {@link Vector3DArray} and sum them by
+ * {@link VectorReductions#sum(Vector3DArray)}.
+ *
+ * @author Singon
+ */
+public final class Vector3DAccumulator {
+
+	/** The maximum number of cells. */
+	private static final int MAX_CELLS = maxCells();
+
+	private static final AtomicReferenceFieldUpdater<Vector3DAccumulator, Cell[]> CELLS
+			= AtomicReferenceFieldUpdater.newUpdater(
+					Vector3DAccumulator.class, Cell[].class, "cells");
+
+	/** The index of the cell used by each thread, randomized on contention. */
+	private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(
+			() -> new int[] {ThreadLocalRandom.current().nextInt() | 1});
+
+	/** The cell used while there is no contention. */
+	private final Cell base = new Cell();
+
+	/** The table of cells, or {@code null}. The length is a power of two. */
+	private volatile Cell[] cells;
+
+	/**
+	 * Creates a new accumulator with the sum equal to the zero vector.
+	 */
+	public Vector3DAccumulator() {}
+
+	private static int maxCells() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		return Integer.highestOneBit(Math.max(processors - 1, 1)) << 1;
+	}
+
+	/**
+	 * Adds the given vector to the sum.
+	 *
+	 * @param vector the vector to be added
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not 3
+	 */
+	public void add(Vector vector) {
+		if (vector.dimension() != 3) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+		add(vector.get(0), vector.get(1), vector.get(2));
+	}
+
+	/**
+	 * Adds a vector with the given components to the sum.
+	 *
+	 * @param x x-component of the vector to be added
+	 * @param y y-component of the vector to be added
+	 * @param z z-component of the vector to be added
+	 */
+	public void add(double x, double y, double z) {
+		Cell[] cs = cells;
+		if (cs == null) {
+			if (base.add(x, y, z)) {
+				contended(null);
+			}
+		} else {
+			int[] probe = PROBE.get();
+			if (cs[probe[0] & (cs.length - 1)].add(x, y, z)) {
+				probe[0] = nextProbe(probe[0]);
+				contended(cs);
+			}
+		}
+	}
+
+	/**
+	 * Grows the table of cells after contention has been detected
+	 * in the given table, unless it has already been replaced or has
+	 * reached the maximum size.
+	 */
+	private void contended(Cell[] cs) {
+		if (cs != null && cs.length >= MAX_CELLS) {
+			return;
+		}
+		int length = (cs == null) ? 2 : cs.length * 2;
+		Cell[] grown = new Cell[length];
+		int i = 0;
+		if (cs != null) {
+			System.arraycopy(cs, 0, grown, 0, cs.length);
+			i = cs.length;
+		}
+		for (; i < length; i++) {
+			grown[i] = new Cell();
+		}
+		// If another thread has grown the table, keep its table
+		CELLS.compareAndSet(this, cs, grown);
+	}
+
+	private static int nextProbe(int probe) {
+		probe ^= probe << 13;
+		probe ^= probe >>> 17;
+		probe ^= probe << 5;
+		return probe;
+	}
+
+	/**
+	 * Returns the current sum.
+	 *
+	 * @return the sum of all vectors added so far
+	 */
+	public Vector3D sum() {
+		double x = base.x(), y = base.y(), z = base.z();
+		Cell[] cs = cells;
+		if (cs != null) {
+			for (Cell cell : cs) {
+				x += cell.x();
+				y += cell.y();
+				z += cell.z();
+			}
+		}
+		return Vector3D.valueOf(x, y, z);
+	}
+
+	/**
+	 * Resets the sum to the zero vector.
+	 * Vectors added concurrently with this method may be lost.
+	 * The cells are kept, so that the accumulator can be reused
+	 * without allocating.
+	 */
+	public void reset() {
+		base.reset();
+		Cell[] cs = cells;
+		if (cs != null) {
+			for (Cell cell : cs) {
+				cell.reset();
+			}
+		}
+	}
+
+	/**
+	 * Returns the current sum and resets it to the zero vector.
+	 * This is equivalent to {@link #sum()} followed by {@link #reset()}.
+	 *
+	 * @return the sum of all vectors added since the last reset
+	 */
+	public Vector3D sumThenReset() {
+		double x = base.resetX(), y = base.resetY(), z = base.resetZ();
+		Cell[] cs = cells;
+		if (cs != null) {
+			for (Cell cell : cs) {
+				x += cell.resetX();
+				y += cell.resetY();
+				z += cell.resetZ();
+			}
+		}
+		return Vector3D.valueOf(x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return sum().toString();
+	}
+
+	/**
+	 * Padding preceding the values of a cell.
+	 */
+	@SuppressWarnings("unused")
+	private static class CellPadding {
+		private long p0, p1, p2, p3, p4, p5, p6, p7;
+	}
+
+	/**
+	 * The components of a partial sum, stored as the bits of
+	 * {@code double}s so that they can be updated atomically.
+	 */
+	private static class CellValues extends CellPadding {
+		volatile long x, y, z;
+	}
+
+	/**
+	 * A partial sum of the vectors, padded on both sides to fill
+	 * its own cache line.
+	 */
+	@SuppressWarnings("unused")
+	private static final class Cell extends CellValues {
+		private long q0, q1, q2, q3, q4, q5, q6, q7;
+
+		private static final AtomicLongFieldUpdater<CellValues> X
+				= AtomicLongFieldUpdater.newUpdater(CellValues.class, "x");
+		private static final AtomicLongFieldUpdater<CellValues> Y
+				= AtomicLongFieldUpdater.newUpdater(CellValues.class, "y");
+		private static final AtomicLongFieldUpdater<CellValues> Z
+				= AtomicLongFieldUpdater.newUpdater(CellValues.class, "z");
+
+		/**
+		 * Adds the given vector to this cell.
+		 *
+		 * @return {@code true} if the addition had to be retried
+		 *         due to a concurrent update
+		 */
+		boolean add(double dx, double dy, double dz) {
+			boolean contended = false;
+			contended |= add(X, dx);
+			contended |= add(Y, dy);
+			contended |= add(Z, dz);
+			return contended;
+		}
+
+		private boolean add(AtomicLongFieldUpdater<CellValues> component,
+				double value) {
+			long bits = component.get(this);
+			if (component.compareAndSet(this, bits, plus(bits, value))) {
+				return false;
+			}
+			do {
+				bits = component.get(this);
+			} while (!component.compareAndSet(this, bits, plus(bits, value)));
+			return true;
+		}
+
+		private static long plus(long bits, double value) {
+			return Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + value);
+		}
+
+		double x() {
+			return Double.longBitsToDouble(x);
+		}
+
+		double y() {
+			return Double.longBitsToDouble(y);
+		}
+
+		double z() {
+			return Double.longBitsToDouble(z);
+		}
+
+		double resetX() {
+			return Double.longBitsToDouble(X.getAndSet(this, 0L));
+		}
+
+		double resetY() {
+			return Double.longBitsToDouble(Y.getAndSet(this, 0L));
+		}
+
+		double resetZ() {
+			return Double.longBitsToDouble(Z.getAndSet(this, 0L));
+		}
+
+		void reset() {
+			X.set(this, 0L);
+			Y.set(this, 0L);
+			Z.set(this, 0L);
+		}
+	}
+}
@@ -0,0 +1,362 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A fixed-size sequence of three-dimensional vectors stored as three
+ * parallel arrays of {@code double}s, one for each component
+ * (the "structure of arrays" layout).
+ * <p>
+ * Unlike an array of {@code Vector3D} objects, this container keeps the
+ * components of all its elements in contiguous memory and does not allocate
+ * an object per element. This makes it suitable for bulk operations
+ * over large numbers of vectors.
+ * <p>
+ * The elements can be processed by a {@link #stream()} or
+ * {@link #parallelStream()}. The streams are sized and split evenly,
+ * so that parallel streams divide the work well between threads,
+ * but they create a {@code Vector3D} for each element.
+ * <p>
+ * Instances of this class are mutable and not thread-safe.
+ *
+ * @author Singon
+ */
+public final class Vector3DArray implements Iterable<Vector3D> {
+
+	/** The x-components of the elements. */
+	final double[] x;
+	/** The y-components of the elements. */
+	final double[] y;
+	/** The z-components of the elements. */
+	final double[] z;
+
+	private Vector3DArray(double[] x, double[] y, double[] z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * Returns a new {@code Vector3DArray} of the given size with all
+	 * elements equal to the zero vector.
+	 *
+	 * @param size the number of elements
+	 * @return a new array of {@code size} zero vectors
+	 * @throws IllegalArgumentException if {@code size} is negative
+	 */
+	public static Vector3DArray ofSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Negative size: " + size);
+		}
+		return new Vector3DArray(new double[size], new double[size],
+				new double[size]);
+	}
+
+	/**
+	 * Returns a new {@code Vector3DArray} containing the given vectors.
+	 *
+	 * @param vectors the elements of the array
+	 * @return a new array containing {@code vectors}
+	 */
+	public static Vector3DArray valueOf(Vector3D... vectors) {
+		Vector3DArray result = ofSize(vectors.length);
+		for (int i = 0; i < vectors.length; i++) {
+			result.set(i, vectors[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of elements in this array.
+	 *
+	 * @return the number of vectors in this array
+	 */
+	public int size() {
+		return x.length;
+	}
+
+	/**
+	 * Returns the element at the given index as a {@code Vector3D}.
+	 *
+	 * @param index the index of the element
+	 * @return the {@code index}th element
+	 * @throws IndexOutOfBoundsException if {@code index} is out of range
+	 */
+	public Vector3D get(int index) {
+		return Vector3D.valueOf(x[index], y[index], z[index]);
+	}
+
+	/**
+	 * Returns the x-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the x-component of the {@code index}th element
+	 */
+	public double getX(int index) {
+		return x[index];
+	}
+
+	/**
+	 * Returns the y-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the y-component of the {@code index}th element
+	 */
+	public double getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * Returns the z-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the z-component of the {@code index}th element
+	 */
+	public double getZ(int index) {
+		return z[index];
+	}
+
+	/**
+	 * Replaces the element at the given index with the given vector.
+	 *
+	 * @param index the index of the element
+	 * @param vector the new value of the element
+	 */
+	public void set(int index, Vector3D vector) {
+		x[index] = vector.get(0);
+		y[index] = vector.get(1);
+		z[index] = vector.get(2);
+	}
+
+	/**
+	 * Replaces the element at the given index with a vector
+	 * of the given components.
+	 *
+	 * @param index the index of the element
+	 * @param x x-component of the new value
+	 * @param y y-component of the new value
+	 * @param z z-component of the new value
+	 */
+	public void set(int index, double x, double y, double z) {
+		this.x[index] = x;
+		this.y[index] = y;
+		this.z[index] = z;
+	}
+
+	/**
+	 * Returns a copy of this array.
+	 *
+	 * @return a new {@code Vector3DArray} with the same elements
+	 */
+	public Vector3DArray copy() {
+		return new Vector3DArray(x.clone(), y.clone(), z.clone());
+	}
+
+	/**
+	 * Returns the index of the first element of this array which is not
+	 * equal within the given tolerance to the element of the given array
+	 * at the same index, as defined by {@link Vector#equalsWithin}.
+	 *
+	 * @param other the array to compare with
+	 * @param absTolerance the maximum absolute difference of components
+	 * @param relTolerance the maximum difference of components relative
+	 *        to their magnitude
+	 * @return the index of the first mismatch, or {@code -1} if all
+	 *         elements are equal within the tolerance
+	 * @throws IllegalArgumentException if the arrays differ in size
+	 *         or either tolerance is negative
+	 */
+	public int mismatchWithin(Vector3DArray other, double absTolerance,
+			double relTolerance) {
+		checkSize(other);
+		Tolerance.check(absTolerance, relTolerance);
+		for (int i = 0; i < x.length; i++) {
+			if (!Tolerance.equal(x[i], other.x[i], absTolerance, relTolerance)
+					|| !Tolerance.equal(y[i], other.y[i], absTolerance, relTolerance)
+					|| !Tolerance.equal(z[i], other.z[i], absTolerance, relTolerance)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Indicates whether all elements of this array are equal within the
+	 * given tolerance to the elements of the given array at the same index,
+	 * as defined by {@link Vector#equalsWithin}.
+	 *
+	 * @param other the array to compare with
+	 * @param absTolerance the maximum absolute difference of components
+	 * @param relTolerance the maximum difference of components relative
+	 *        to their magnitude
+	 * @return {@code true} if the arrays are of the same size and their
+	 *         elements are equal within the tolerance
+	 * @throws IllegalArgumentException if either tolerance is negative
+	 */
+	public boolean equalsWithin(Vector3DArray other, double absTolerance,
+			double relTolerance) {
+		Tolerance.check(absTolerance, relTolerance);
+		return other.size() == size()
+				&& mismatchWithin(other, absTolerance, relTolerance) < 0;
+	}
+
+	/**
+	 * Returns an iterator over the elements of this array.
+	 *
+	 * @return an iterator returning the elements as {@code Vector3D}
+	 */
+	@Override
+	public Iterator<Vector3D> iterator() {
+		return new Iterator<Vector3D>() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < size();
+			}
+
+			@Override
+			public Vector3D next() {
+				if (index >= size()) {
+					throw new NoSuchElementException();
+				}
+				return get(index++);
+			}
+		};
+	}
+
+	/**
+	 * Returns a spliterator over the elements of this array.
+	 * The spliterator is {@code SIZED} and {@code SUBSIZED}
+	 * and splits the array in halves.
+	 *
+	 * @return a spliterator over the elements of this array
+	 */
+	@Override
+	public Spliterator<Vector3D> spliterator() {
+		return new ElementSpliterator(this, 0, size());
+	}
+
+	/**
+	 * Returns a sequential stream of the elements of this array.
+	 *
+	 * @return a sequential stream of the elements
+	 */
+	public Stream<Vector3D> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the elements of this array.
+	 *
+	 * @return a parallel stream of the elements
+	 */
+	public Stream<Vector3D> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Checks that the given array has the same size as this array
+	 * and throws an exception if not.
+	 *
+	 * @param other the array whose size is being checked
+	 * @throws IllegalArgumentException if the sizes do not match
+	 */
+	void checkSize(Vector3DArray other) {
+		if (other.size() != size()) {
+			throw new IllegalArgumentException("Array sizes do not match: "
+					+ size() + " and " + other.size());
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(x);
+		result = prime * result + Arrays.hashCode(y);
+		result = prime * result + Arrays.hashCode(z);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (!(obj instanceof Vector3DArray)) return false;
+		Vector3DArray other = (Vector3DArray) obj;
+		return Arrays.equals(x, other.x)
+				&& Arrays.equals(y, other.y)
+				&& Arrays.equals(z, other.z);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size(); i++) {
+			if (i > 0) sb.append(", ");
+			sb.append('[').append(x[i]).append(", ").append(y[i])
+					.append(", ").append(z[i]).append(']');
+		}
+		return sb.append(']').toString();
+	}
+
+	/** A spliterator over a range of elements of an array. */
+	private static final class ElementSpliterator implements Spliterator<Vector3D> {
+
+		private final Vector3DArray array;
+		private int index;
+		private final int fence;
+
+		ElementSpliterator(Vector3DArray array, int from, int to) {
+			this.array = array;
+			this.index = from;
+			this.fence = to;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Vector3D> action) {
+			if (index < fence) {
+				action.accept(array.get(index++));
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Vector3D> action) {
+			double[] x = array.x, y = array.y, z = array.z;
+			for (int i = index; i < fence; i++) {
+				action.accept(Vector3D.valueOf(x[i], y[i], z[i]));
+			}
+			index = fence;
+		}
+
+		@Override
+		public Spliterator<Vector3D> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+			Spliterator<Vector3D> prefix = new ElementSpliterator(array, index, mid);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+}
@@ -0,0 +1,479 @@
+package com.github.singond.physics.vector;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A resizable list of three-dimensional vectors storing the components
+ * of its elements inline in a single array of {@code double}s.
+ * <p>
+ * The components of the {@code i}th element are stored at indices
+ * {@code 3*i}, {@code 3*i + 1} and {@code 3*i + 2} of the backing array,
+ * so iterating over the list or applying a bulk operation reads memory
+ * sequentially, unlike a {@code List} or an array of {@code Vector3D}
+ * objects, which holds a pointer to each separately allocated element.
+ * The list creates a {@code Vector3D} only when an element is retrieved
+ * as an object; such short-lived objects can usually be eliminated
+ * by the just-in-time compiler. The components can also be accessed
+ * directly by {@link #getX(int)} and related methods, or by
+ * {@link #forEachComponents(ComponentConsumer)}.
+ * <p>
+ * The list does not permit {@code null} elements.
+ * Instances of this class are not thread-safe.
+ *
+ * @author Singon
+ * @see Vector3DArray
+ */
+public final class Vector3DList extends AbstractList<Vector3D>
+		implements RandomAccess {
+
+	private static final int DEFAULT_CAPACITY = 10;
+	private static final int MAX_SIZE = (Integer.MAX_VALUE - 8) / 3;
+
+	/** The components of the elements, interleaved. */
+	double[] data;
+	private int size;
+
+	/**
+	 * Constructs an empty list.
+	 */
+	public Vector3DList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty list with the given initial capacity.
+	 *
+	 * @param capacity the number of elements the list can hold
+	 *        before it needs to grow
+	 */
+	public Vector3DList(int capacity) {
+		if (capacity < 0 || capacity > MAX_SIZE) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		data = new double[3 * capacity];
+	}
+
+	/**
+	 * Constructs a list containing the given vectors, in the order
+	 * of the collection's iterator.
+	 *
+	 * @param vectors the initial elements of the list
+	 */
+	public Vector3DList(Collection<? extends Vector3D> vectors) {
+		this(vectors.size());
+		addAll(vectors);
+	}
+
+	/**
+	 * Returns a new list containing the elements of the given array.
+	 *
+	 * @param array the vectors
+	 * @return a new list of the elements of {@code array}
+	 */
+	public static Vector3DList copyOf(Vector3DArray array) {
+		int n = array.size();
+		Vector3DList list = new Vector3DList(n);
+		double[] data = list.data;
+		for (int i = 0; i < n; i++) {
+			data[3*i] = array.x[i];
+			data[3*i + 1] = array.y[i];
+			data[3*i + 2] = array.z[i];
+		}
+		list.size = n;
+		return list;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Vector3D get(int index) {
+		checkIndex(index);
+		int i = 3 * index;
+		return Vector3D.valueOf(data[i], data[i + 1], data[i + 2]);
+	}
+
+	/**
+	 * Returns the x-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the x-component of the {@code index}th element
+	 */
+	public double getX(int index) {
+		checkIndex(index);
+		return data[3 * index];
+	}
+
+	/**
+	 * Returns the y-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the y-component of the {@code index}th element
+	 */
+	public double getY(int index) {
+		checkIndex(index);
+		return data[3 * index + 1];
+	}
+
+	/**
+	 * Returns the z-component of the element at the given index.
+	 *
+	 * @param index the index of the element
+	 * @return the z-component of the {@code index}th element
+	 */
+	public double getZ(int index) {
+		checkIndex(index);
+		return data[3 * index + 2];
+	}
+
+	@Override
+	public Vector3D set(int index, Vector3D vector) {
+		Vector3D old = get(index);
+		set(index, vector.get(0), vector.get(1), vector.get(2));
+		return old;
+	}
+
+	/**
+	 * Replaces the element at the given index with a vector
+	 * of the given components.
+	 *
+	 * @param index the index of the element
+	 * @param x x-component of the new value
+	 * @param y y-component of the new value
+	 * @param z z-component of the new value
+	 */
+	public void set(int index, double x, double y, double z) {
+		checkIndex(index);
+		int i = 3 * index;
+		data[i] = x;
+		data[i + 1] = y;
+		data[i + 2] = z;
+	}
+
+	@Override
+	public boolean add(Vector3D vector) {
+		add(vector.get(0), vector.get(1), vector.get(2));
+		return true;
+	}
+
+	/**
+	 * Appends a vector of the given components to the end of this list.
+	 *
+	 * @param x x-component of the new element
+	 * @param y y-component of the new element
+	 * @param z z-component of the new element
+	 */
+	public void add(double x, double y, double z) {
+		ensureCapacity(size + 1);
+		int i = 3 * size;
+		data[i] = x;
+		data[i + 1] = y;
+		data[i + 2] = z;
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public void add(int index, Vector3D vector) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+		double x = vector.get(0), y = vector.get(1), z = vector.get(2);
+		ensureCapacity(size + 1);
+		int i = 3 * index;
+		System.arraycopy(data, i, data, i + 3, 3 * (size - index));
+		data[i] = x;
+		data[i + 1] = y;
+		data[i + 2] = z;
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Appends all elements of the given list to the end of this list.
+	 *
+	 * @param list the list whose elements are to be added
+	 * @return {@code true} if this list changed
+	 */
+	public boolean addAll(Vector3DList list) {
+		int n = list.size;
+		ensureCapacity(size + n);
+		System.arraycopy(list.data, 0, data, 3 * size, 3 * n);
+		size += n;
+		modCount++;
+		return n > 0;
+	}
+
+	@Override
+	public Vector3D remove(int index) {
+		Vector3D old = get(index);
+		int i = 3 * index;
+		System.arraycopy(data, i + 3, data, i, 3 * (size - index - 1));
+		size--;
+		modCount++;
+		return old;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		System.arraycopy(data, 3 * toIndex, data, 3 * fromIndex, 3 * (size - toIndex));
+		size -= toIndex - fromIndex;
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Increases the capacity of this list, if necessary, so that it can
+	 * hold at least the given number of elements without growing.
+	 *
+	 * @param capacity the desired minimum capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > MAX_SIZE) {
+			throw new OutOfMemoryError("List too large: " + capacity);
+		}
+		if (3 * capacity > data.length) {
+			int grown = (int) Math.min(MAX_SIZE, data.length / 3 * 3L / 2 + 1);
+			data = Arrays.copyOf(data, 3 * Math.max(capacity, grown));
+		}
+	}
+
+	/**
+	 * Reduces the capacity of this list to its size.
+	 */
+	public void trimToSize() {
+		if (data.length > 3 * size) {
+			data = Arrays.copyOf(data, 3 * size);
+		}
+	}
+
+	/**
+	 * Adds the given vector to every element of this list.
+	 *
+	 * @param shift the vector to be added
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code shift} is not 3
+	 */
+	public void translate(Vector shift) {
+		if (shift.dimension() != 3) {
+			throw new IllegalVectorDimensionException(shift);
+		}
+		double dx = shift.get(0), dy = shift.get(1), dz = shift.get(2);
+		for (int i = 0; i < 3 * size; i += 3) {
+			data[i] += dx;
+			data[i + 1] += dy;
+			data[i + 2] += dz;
+		}
+	}
+
+	/**
+	 * Multiplies every element of this list by the given scalar.
+	 *
+	 * @param scalar the number to multiply the elements by
+	 */
+	public void scale(double scalar) {
+		Kernels.scale(scalar, data, 0, 3 * size);
+	}
+
+	/**
+	 * Returns the sum of all elements of this list.
+	 *
+	 * @return the sum of the elements, or the zero vector if the list
+	 *         is empty
+	 */
+	public Vector3D sum() {
+		double x = 0, y = 0, z = 0;
+		for (int i = 0; i < 3 * size; i += 3) {
+			x += data[i];
+			y += data[i + 1];
+			z += data[i + 2];
+		}
+		return Vector3D.valueOf(x, y, z);
+	}
+
+	/**
+	 * Returns a copy of the elements of this list in the "structure of
+	 * arrays" layout.
+	 *
+	 * @return a new array containing the elements of this list
+	 */
+	public Vector3DArray toVector3DArray() {
+		Vector3DArray array = Vector3DArray.ofSize(size);
+		for (int i = 0; i < size; i++) {
+			array.x[i] = data[3*i];
+			array.y[i] = data[3*i + 1];
+			array.z[i] = data[3*i + 2];
+		}
+		return array;
+	}
+
+	/**
+	 * Performs the given action on the components of each element
+	 * of this list, in order, without creating any objects.
+	 *
+	 * @param action the action to be performed on each element
+	 */
+	public void forEachComponents(ComponentConsumer action) {
+		int expectedModCount = modCount;
+		for (int i = 0; i < 3 * size; i += 3) {
+			action.accept(data[i], data[i + 1], data[i + 2]);
+		}
+		if (modCount != expectedModCount) {
+			throw new ConcurrentModificationException();
+		}
+	}
+
+	@Override
+	public void forEach(Consumer<? super Vector3D> action) {
+		Objects.requireNonNull(action);
+		int expectedModCount = modCount;
+		for (int i = 0; i < 3 * size; i += 3) {
+			action.accept(Vector3D.valueOf(data[i], data[i + 1], data[i + 2]));
+		}
+		if (modCount != expectedModCount) {
+			throw new ConcurrentModificationException();
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the elements of this list.
+	 * The spliterator is {@code SIZED} and {@code SUBSIZED}, splits the list
+	 * in halves and binds to the list when it is first used.
+	 *
+	 * @return a spliterator over the elements of this list
+	 */
+	@Override
+	public Spliterator<Vector3D> spliterator() {
+		return new ElementSpliterator(this, 0, -1, 0);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < 3 * size; i += 3) {
+			hash = 31 * hash + Vector3D.hashCode(data[i], data[i + 1], data[i + 2]);
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof Vector3DList) {
+			Vector3DList other = (Vector3DList) obj;
+			return other.size == size
+					&& Kernels.mismatch(data, 0, other.data, 0, 3 * size) < 0;
+		}
+		return super.equals(obj);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+	}
+
+	/**
+	 * An operation on the components of a three-dimensional vector.
+	 */
+	@FunctionalInterface
+	public interface ComponentConsumer {
+
+		/**
+		 * Performs this operation on the given components.
+		 *
+		 * @param x x-component of the vector
+		 * @param y y-component of the vector
+		 * @param z z-component of the vector
+		 */
+		void accept(double x, double y, double z);
+	}
+
+	/** A late-binding spliterator over a range of elements of a list. */
+	private static final class ElementSpliterator implements Spliterator<Vector3D> {
+
+		private final Vector3DList list;
+		private int index;
+		/** One past the last index, or -1 until first used. */
+		private int fence;
+		private int expectedModCount;
+
+		ElementSpliterator(Vector3DList list, int from, int to, int expectedModCount) {
+			this.list = list;
+			this.index = from;
+			this.fence = to;
+			this.expectedModCount = expectedModCount;
+		}
+
+		private int fence() {
+			if (fence < 0) {
+				expectedModCount = list.modCount;
+				fence = list.size;
+			}
+			return fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Vector3D> action) {
+			if (index < fence()) {
+				int i = 3 * index++;
+				double[] data = list.data;
+				action.accept(Vector3D.valueOf(data[i], data[i + 1], data[i + 2]));
+				if (list.modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Vector3D> action) {
+			int end = fence();
+			double[] data = list.data;
+			for (int i = 3 * index; i < 3 * end; i += 3) {
+				action.accept(Vector3D.valueOf(data[i], data[i + 1], data[i + 2]));
+			}
+			index = end;
+			if (list.modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		@Override
+		public Spliterator<Vector3D> trySplit() {
+			int end = fence();
+			int mid = (index + end) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+			Spliterator<Vector3D> prefix
+					= new ElementSpliterator(list, index, mid, expectedModCount);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence() - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+}
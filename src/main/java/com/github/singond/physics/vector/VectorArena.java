@@ -0,0 +1,352 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A scope providing reusable mutable vectors for intermediate results.
+ * <p>
+ * An arena is opened for a block of code, hands out mutable vectors
+ * on request and reclaims all of them when it is closed:
+ * <pre>{@code
+ * Vector3D result;
+ * try (VectorArena arena = VectorArena.open()) {
+ *     MutableVector3D spring = arena.vector3D(position).subtract(support);
+ *     Vector force = spring.normalized().times(-k * strain);
+ *     result = arena.vector3D(force).toVector3D();
+ * }}</pre>
+ * Vector operations on vectors obtained from an arena, such as
+ * {@code plus} or {@code times}, also return vectors from the same arena.
+ * The vectors are kept by the arena after it is closed and handed out
+ * again when an arena is next opened at the same nesting level in the same
+ * thread, so that a loop running the same code repeatedly stops allocating
+ * vectors after the first iteration; opening an arena creates only a small
+ * handle object, which identifies that particular scope. Results which
+ * must outlive the arena are copied out as immutable vectors using
+ * {@link MutableVector3D#toVector3D()} or
+ * {@link MutableArrayVector#toArrayVector()}.
+ * <p>
+ * Using a vector from an arena after the arena has been closed is an error,
+ * which normally goes undetected: the vector may have been handed out again
+ * and its value changed. In <em>debug mode</em>, the arena never reuses
+ * vectors, and any access to a vector after its arena has been closed throws
+ * an {@code IllegalStateException}. Whether a vector is checked is decided
+ * when it is handed out, so vectors from a debug arena stay checked even
+ * if a later arena at the same nesting level is not in debug mode.
+ * Debug mode can be enabled for individual arenas by {@link #open(boolean)},
+ * or for all arenas by setting the system property {@value #DEBUG_PROPERTY}
+ * to {@code true}.
+ * <p>
+ * Arenas are confined to the thread which opened them; neither the arena
+ * nor its vectors may be used by other threads. Nested arenas must be
+ * closed in the reverse order of opening.
+ *
+ * @author Singon
+ */
+public final class VectorArena implements AutoCloseable {
+
+	/** The name of the system property enabling debug mode. */
+	public static final String DEBUG_PROPERTY
+			= "com.github.singond.physics.vector.arenaDebug";
+
+	private static final boolean DEBUG_DEFAULT = Boolean.getBoolean(DEBUG_PROPERTY);
+
+	/** The scopes of each thread, indexed by nesting level. */
+	private static final ThreadLocal<Levels> LEVELS
+			= ThreadLocal.withInitial(Levels::new);
+
+	/** The reusable state at the nesting level of this arena. */
+	private final Scope scope;
+	/** The generation of {@code scope} opened by this handle. */
+	private final int generation;
+	private final boolean debug;
+	private boolean closed;
+
+	private VectorArena(Scope scope, boolean debug) {
+		this.scope = scope;
+		this.generation = scope.generation;
+		this.debug = debug;
+	}
+
+	/**
+	 * Opens a new arena in the current thread, in debug mode if the
+	 * system property {@value #DEBUG_PROPERTY} is {@code true}.
+	 *
+	 * @return an open arena
+	 */
+	public static VectorArena open() {
+		return open(DEBUG_DEFAULT);
+	}
+
+	/**
+	 * Opens a new arena in the current thread.
+	 *
+	 * @param debug whether to detect the use of vectors after the arena
+	 *        is closed
+	 * @return an open arena
+	 */
+	public static VectorArena open(boolean debug) {
+		Levels levels = LEVELS.get();
+		int level = levels.depth++;
+		if (level == levels.scopes.length) {
+			levels.scopes = Arrays.copyOf(levels.scopes, level * 2);
+		}
+		Scope scope = levels.scopes[level];
+		if (scope == null) {
+			scope = new Scope(levels, level);
+			levels.scopes[level] = scope;
+		}
+		scope.debug = debug;
+		scope.open = true;
+		return new VectorArena(scope, debug);
+	}
+
+	/**
+	 * Returns a three-dimensional vector from this arena,
+	 * set to the zero vector.
+	 *
+	 * @return a zero vector
+	 * @throws IllegalStateException if this arena is closed
+	 */
+	public MutableVector3D vector3D() {
+		return vector3D(0, 0, 0);
+	}
+
+	/**
+	 * Returns a three-dimensional vector from this arena,
+	 * set to the given value.
+	 *
+	 * @param x x-component of the vector
+	 * @param y y-component of the vector
+	 * @param z z-component of the vector
+	 * @return a vector with the given components
+	 * @throws IllegalStateException if this arena is closed
+	 */
+	public MutableVector3D vector3D(double x, double y, double z) {
+		checkOpen();
+		return scope.vector3D(x, y, z);
+	}
+
+	/**
+	 * Returns a three-dimensional vector from this arena,
+	 * set to the value of the given vector.
+	 *
+	 * @param value the value of the vector
+	 * @return a copy of {@code value}
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code value} is not 3
+	 * @throws IllegalStateException if this arena is closed
+	 */
+	public MutableVector3D vector3D(Vector value) {
+		if (value.dimension() != 3) {
+			throw new IllegalVectorDimensionException(value);
+		}
+		return vector3D(value.get(0), value.get(1), value.get(2));
+	}
+
+	/**
+	 * Returns a vector of the given dimension from this arena,
+	 * set to the zero vector.
+	 *
+	 * @param dimension the dimension of the vector
+	 * @return a zero vector of dimension {@code dimension}
+	 * @throws IllegalStateException if this arena is closed
+	 */
+	public MutableArrayVector vector(int dimension) {
+		checkOpen();
+		return scope.vector(dimension);
+	}
+
+	/**
+	 * Returns a vector from this arena, set to the given value.
+	 *
+	 * @param components the components of the vector
+	 * @return a vector with the given components
+	 * @throws IllegalStateException if this arena is closed
+	 */
+	public MutableArrayVector vector(double... components) {
+		checkOpen();
+		return scope.vector(components);
+	}
+
+	/**
+	 * Returns a vector from this arena, set to the value of the given vector.
+	 *
+	 * @param value the value of the vector
+	 * @return a copy of {@code value}
+	 * @throws IllegalStateException if this arena is closed
+	 */
+	public MutableArrayVector vector(Vector value) {
+		MutableArrayVector v = vector(value.dimension());
+		return v.set(value);
+	}
+
+	/**
+	 * Returns whether this arena is in debug mode.
+	 *
+	 * @return {@code true} if the use of vectors after this arena
+	 *         is closed is detected
+	 */
+	public boolean isDebug() {
+		return debug;
+	}
+
+	/**
+	 * Closes this arena, reclaiming all vectors it has handed out.
+	 * Closing an arena which has already been closed has no effect,
+	 * even if another arena has since been opened at the same nesting level.
+	 *
+	 * @throws IllegalStateException if called from a thread other than
+	 *         the one which opened this arena, or if a nested arena
+	 *         opened later is still open
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		if (generation != scope.generation) {
+			throw new IllegalStateException("Arena belongs to a scope which has been closed");
+		}
+		scope.close();
+		closed = true;
+	}
+
+	private void checkOpen() {
+		if (closed || generation != scope.generation) {
+			throw new IllegalStateException("Arena is closed");
+		}
+	}
+
+	/**
+	 * The state of the arenas at a single nesting level of a thread,
+	 * reused by all arenas opened at that level.
+	 */
+	static final class Scope {
+
+		private final Levels levels;
+		private final int level;
+		private final Thread owner;
+
+		boolean debug;
+		boolean open;
+		/** Incremented on every close; identifies the vectors of a scope. */
+		int generation;
+
+		private MutableVector3D[] pool3D = new MutableVector3D[16];
+		private int used3D;
+		private final Map<Integer, ArrayPool> arrayPools = new HashMap<>();
+
+		private Scope(Levels levels, int level) {
+			this.levels = levels;
+			this.level = level;
+			this.owner = Thread.currentThread();
+		}
+
+		MutableVector3D vector3D(double x, double y, double z) {
+			checkOpen();
+			MutableVector3D v;
+			if (debug) {
+				v = new MutableVector3D(this);
+			} else {
+				if (used3D == pool3D.length) {
+					pool3D = Arrays.copyOf(pool3D, used3D * 2);
+				}
+				v = pool3D[used3D];
+				if (v == null) {
+					v = new MutableVector3D(this);
+					pool3D[used3D] = v;
+				}
+				used3D++;
+			}
+			v.generation = generation;
+			v.debug = debug;
+			return v.set(x, y, z);
+		}
+
+		MutableArrayVector vector(int dimension) {
+			checkOpen();
+			MutableArrayVector v;
+			if (debug) {
+				v = new MutableArrayVector(this, dimension);
+			} else {
+				ArrayPool pool = arrayPools.get(dimension);
+				if (pool == null) {
+					pool = new ArrayPool();
+					arrayPools.put(dimension, pool);
+				}
+				v = pool.next(this, dimension);
+			}
+			v.generation = generation;
+			v.debug = debug;
+			Arrays.fill(v.value, 0);
+			return v;
+		}
+
+		MutableArrayVector vector(double... components) {
+			MutableArrayVector v = vector(components.length);
+			System.arraycopy(components, 0, v.value, 0, components.length);
+			return v;
+		}
+
+		private void close() {
+			if (Thread.currentThread() != owner) {
+				throw new IllegalStateException(
+						"Arena must be closed by the thread which opened it");
+			}
+			if (levels.depth != level + 1) {
+				throw new IllegalStateException("A nested arena is still open");
+			}
+			open = false;
+			generation++;
+			used3D = 0;
+			for (ArrayPool pool : arrayPools.values()) {
+				pool.used = 0;
+			}
+			levels.depth--;
+		}
+
+		private void checkOpen() {
+			if (!open) {
+				throw new IllegalStateException("Arena is closed");
+			}
+		}
+
+		/**
+		 * Checks that a vector handed out in the given generation can still
+		 * be used. Does nothing unless the vector was handed out in debug mode.
+		 */
+		void checkAccess(int vectorGeneration, boolean vectorDebug) {
+			if (vectorDebug && vectorGeneration != generation) {
+				throw new IllegalStateException(
+						"Vector used after its arena has been closed");
+			}
+		}
+	}
+
+	/** The reusable vectors of a single dimension. */
+	private static final class ArrayPool {
+		private MutableArrayVector[] vectors = new MutableArrayVector[8];
+		private int used;
+
+		MutableArrayVector next(Scope scope, int dimension) {
+			if (used == vectors.length) {
+				vectors = Arrays.copyOf(vectors, used * 2);
+			}
+			MutableArrayVector v = vectors[used];
+			if (v == null) {
+				v = new MutableArrayVector(scope, dimension);
+				vectors[used] = v;
+			}
+			used++;
+			return v;
+		}
+	}
+
+	/** The scopes of a single thread. */
+	private static final class Levels {
+		Scope[] scopes = new Scope[4];
+		int depth;
+	}
+}
@@ -0,0 +1,390 @@
+package com.github.singond.physics.vector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes vectors into a compact binary form and decodes them back.
+ * <p>
+ * A single vector is written as its dimension (an {@code int}) followed
+ * by its components. A {@link Vector3DArray} is written as its size
+ * (an {@code int}) followed by all its x-components, then all
+ * y-components, then all z-components, so that exactly encoded arrays
+ * can be transferred to and from a {@code ByteBuffer} by bulk copying.
+ * For bulk transfers at the speed of a memory copy, the buffer should be
+ * in {@linkplain java.nio.ByteOrder#nativeOrder() native byte order}.
+ * Data must be decoded using a codec with the same encoding and a buffer
+ * with the same byte order as when it was encoded; the encoding itself
+ * is not recorded in the data.
+ * <p>
+ * Three encodings are available:
+ * <ul>
+ * <li>{@link #exact()} writes each component as a {@code double},
+ *     preserving it exactly.</li>
+ * <li>{@link #singlePrecision()} rounds each component to a {@code float},
+ *     halving the size of the data.</li>
+ * <li>{@link #singlePrecisionDelta()} writes the first vector of an array
+ *     exactly and each subsequent vector as its difference from the
+ *     previous one, rounded to a {@code float}. This suits trajectories
+ *     and other arrays of nearby vectors, where the differences are
+ *     small and the rounding error is correspondingly small.
+ *     The differences are taken from the decoded values, so the errors
+ *     do not accumulate along the array. Arrays with non-finite
+ *     components, or with differences too large for a {@code float},
+ *     cannot be encoded this way, because their differences would not
+ *     decode to the original values. Single vectors are written as in
+ *     {@code singlePrecision()}.</li>
+ * </ul>
+ * Decoded vectors of dimension 3 are instances of {@code Vector3D};
+ * other vectors are instances of {@code ArrayVector}.
+ * <p>
+ * Instances of this class are immutable and thread-safe.
+ *
+ * @author Singon
+ */
+public final class VectorCodec {
+
+	private static final VectorCodec EXACT = new VectorCodec(false, false);
+	private static final VectorCodec SINGLE = new VectorCodec(true, false);
+	private static final VectorCodec SINGLE_DELTA = new VectorCodec(true, true);
+
+	/**
+	 * The number of components read from a stream before the storage
+	 * for them is enlarged, so that the storage grows only as fast
+	 * as the data actually arrives.
+	 */
+	private static final int READ_CHUNK = 1024;
+
+	/** Whether components are rounded to {@code float}. */
+	private final boolean single;
+	/** Whether arrays are encoded as differences of consecutive vectors. */
+	private final boolean delta;
+
+	private VectorCodec(boolean single, boolean delta) {
+		this.single = single;
+		this.delta = delta;
+	}
+
+	/**
+	 * Returns a codec which writes components as {@code double}s.
+	 *
+	 * @return the exact codec
+	 */
+	public static VectorCodec exact() {
+		return EXACT;
+	}
+
+	/**
+	 * Returns a codec which writes components as {@code float}s.
+	 *
+	 * @return the single-precision codec
+	 */
+	public static VectorCodec singlePrecision() {
+		return SINGLE;
+	}
+
+	/**
+	 * Returns a codec which writes arrays of vectors as differences
+	 * of consecutive vectors in single precision.
+	 *
+	 * @return the single-precision delta codec
+	 */
+	public static VectorCodec singlePrecisionDelta() {
+		return SINGLE_DELTA;
+	}
+
+	/**
+	 * Returns the number of bytes taken by an encoded vector of the given
+	 * dimension.
+	 *
+	 * @param dimension the dimension of the vector
+	 * @return the size of the encoded vector in bytes
+	 * @throws ArithmeticException if the size does not fit in an {@code int}
+	 */
+	public int encodedSize(int dimension) {
+		return Math.addExact(Integer.BYTES, Math.multiplyExact(dimension, componentSize()));
+	}
+
+	/**
+	 * Returns the number of bytes taken by an encoded {@code Vector3DArray}
+	 * of the given size.
+	 *
+	 * @param size the number of vectors in the array
+	 * @return the size of the encoded array in bytes
+	 */
+	public long encodedArraySize(int size) {
+		if (size == 0) {
+			return Integer.BYTES;
+		} else if (delta) {
+			return Integer.BYTES + 3 * Double.BYTES + 3L * (size - 1) * Float.BYTES;
+		} else {
+			return Integer.BYTES + 3L * size * componentSize();
+		}
+	}
+
+	private int componentSize() {
+		return single ? Float.BYTES : Double.BYTES;
+	}
+
+	/**
+	 * Writes the given vector into a buffer.
+	 *
+	 * @param vector the vector to be written
+	 * @param buffer the buffer to write into
+	 * @throws BufferOverflowException if there are fewer than
+	 *         {@code encodedSize(vector.dimension())} bytes remaining
+	 *         in the buffer
+	 */
+	public void encode(Vector vector, ByteBuffer buffer) {
+		int dimension = vector.dimension();
+		if (buffer.remaining() < encodedSize(dimension)) {
+			throw new BufferOverflowException();
+		}
+		buffer.putInt(dimension);
+		if (single) {
+			for (int i = 0; i < dimension; i++) {
+				buffer.putFloat((float) vector.get(i));
+			}
+		} else {
+			for (int i = 0; i < dimension; i++) {
+				buffer.putDouble(vector.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Reads a vector from a buffer.
+	 *
+	 * @param buffer the buffer to read from
+	 * @return the decoded vector
+	 * @throws BufferUnderflowException if the buffer does not contain
+	 *         the whole vector
+	 * @throws IllegalArgumentException if the data is not a valid vector
+	 */
+	public Vector decode(ByteBuffer buffer) {
+		int dimension = checkLength(buffer.getInt());
+		if (buffer.remaining() < (long) dimension * componentSize()) {
+			throw new BufferUnderflowException();
+		}
+		double[] components = new double[dimension];
+		if (single) {
+			for (int i = 0; i < dimension; i++) {
+				components[i] = buffer.getFloat();
+			}
+		} else {
+			buffer.asDoubleBuffer().get(components);
+			buffer.position(buffer.position() + dimension * Double.BYTES);
+		}
+		return vector(components);
+	}
+
+	/**
+	 * Writes the given vector to a data output.
+	 *
+	 * @param vector the vector to be written
+	 * @param out the output to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(Vector vector, DataOutput out) throws IOException {
+		int dimension = vector.dimension();
+		out.writeInt(dimension);
+		if (single) {
+			for (int i = 0; i < dimension; i++) {
+				out.writeFloat((float) vector.get(i));
+			}
+		} else {
+			for (int i = 0; i < dimension; i++) {
+				out.writeDouble(vector.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Reads a vector from a data input.
+	 *
+	 * @param in the input to read from
+	 * @return the decoded vector
+	 * @throws IOException if an I/O error occurs
+	 * @throws IllegalArgumentException if the data is not a valid vector
+	 */
+	public Vector read(DataInput in) throws IOException {
+		return vector(readComponents(in));
+	}
+
+	/**
+	 * Reads the components of a vector from a data input.
+	 */
+	double[] readComponents(DataInput in) throws IOException {
+		int dimension = checkLength(in.readInt());
+		// The dimension is not trusted: allocate only for data read so far
+		double[] components = new double[Math.min(dimension, READ_CHUNK)];
+		for (int i = 0; i < dimension; i++) {
+			if (i == components.length) {
+				int capacity = (int) Math.min(dimension, 2L * components.length);
+				components = Arrays.copyOf(components, capacity);
+			}
+			components[i] = single ? in.readFloat() : in.readDouble();
+		}
+		return components;
+	}
+
+	/**
+	 * Writes all vectors of the given array into a buffer.
+	 *
+	 * @param array the vectors to be written
+	 * @param buffer the buffer to write into
+	 * @throws BufferOverflowException if there are fewer than
+	 *         {@code encodedArraySize(array.size())} bytes remaining
+	 *         in the buffer
+	 * @throws IllegalArgumentException if this is the delta codec and the
+	 *         array contains non-finite components or differences which
+	 *         overflow a {@code float}; nothing is written in that case
+	 */
+	public void encode(Vector3DArray array, ByteBuffer buffer) {
+		int size = array.size();
+		if (buffer.remaining() < encodedArraySize(size)) {
+			throw new BufferOverflowException();
+		}
+		if (delta && size > 0) {
+			checkDelta(array.x, size);
+			checkDelta(array.y, size);
+			checkDelta(array.z, size);
+		}
+		buffer.putInt(size);
+		if (size == 0) {
+			return;
+		}
+		if (delta) {
+			encodeDelta(array.x, size, buffer);
+			encodeDelta(array.y, size, buffer);
+			encodeDelta(array.z, size, buffer);
+		} else if (single) {
+			encodeFloats(array.x, size, buffer);
+			encodeFloats(array.y, size, buffer);
+			encodeFloats(array.z, size, buffer);
+		} else {
+			encodeDoubles(array.x, size, buffer);
+			encodeDoubles(array.y, size, buffer);
+			encodeDoubles(array.z, size, buffer);
+		}
+	}
+
+	private static void encodeDoubles(double[] values, int size, ByteBuffer buffer) {
+		buffer.asDoubleBuffer().put(values, 0, size);
+		buffer.position(buffer.position() + size * Double.BYTES);
+	}
+
+	private static void encodeFloats(double[] values, int size, ByteBuffer buffer) {
+		for (int i = 0; i < size; i++) {
+			buffer.putFloat((float) values[i]);
+		}
+	}
+
+	/**
+	 * Checks that the given values survive delta encoding, replaying
+	 * the rounding of {@link #encodeDelta}.
+	 */
+	private static void checkDelta(double[] values, int size) {
+		double decoded = values[0];
+		if (!Double.isFinite(decoded)) {
+			throw new IllegalArgumentException(
+					"Cannot delta-encode a non-finite value: " + decoded);
+		}
+		for (int i = 1; i < size; i++) {
+			if (!Double.isFinite(values[i])) {
+				throw new IllegalArgumentException(
+						"Cannot delta-encode a non-finite value: " + values[i]);
+			}
+			float difference = (float) (values[i] - decoded);
+			if (Float.isInfinite(difference)) {
+				throw new IllegalArgumentException(
+						"Difference too large for delta encoding: " + (values[i] - decoded));
+			}
+			decoded += difference;
+		}
+	}
+
+	private static void encodeDelta(double[] values, int size, ByteBuffer buffer) {
+		double decoded = values[0];
+		buffer.putDouble(decoded);
+		for (int i = 1; i < size; i++) {
+			float difference = (float) (values[i] - decoded);
+			buffer.putFloat(difference);
+			decoded += difference;
+		}
+	}
+
+	/**
+	 * Reads an array of vectors from a buffer.
+	 *
+	 * @param buffer the buffer to read from
+	 * @return the decoded array
+	 * @throws BufferUnderflowException if the buffer does not contain
+	 *         the whole array
+	 * @throws IllegalArgumentException if the data is not a valid array
+	 */
+	public Vector3DArray decodeArray(ByteBuffer buffer) {
+		int size = checkLength(buffer.getInt());
+		if (buffer.remaining() < encodedArraySize(size) - Integer.BYTES) {
+			throw new BufferUnderflowException();
+		}
+		Vector3DArray array = Vector3DArray.ofSize(size);
+		if (size == 0) {
+			return array;
+		}
+		if (delta) {
+			decodeDelta(array.x, size, buffer);
+			decodeDelta(array.y, size, buffer);
+			decodeDelta(array.z, size, buffer);
+		} else if (single) {
+			decodeFloats(array.x, size, buffer);
+			decodeFloats(array.y, size, buffer);
+			decodeFloats(array.z, size, buffer);
+		} else {
+			decodeDoubles(array.x, size, buffer);
+			decodeDoubles(array.y, size, buffer);
+			decodeDoubles(array.z, size, buffer);
+		}
+		return array;
+	}
+
+	private static void decodeDoubles(double[] values, int size, ByteBuffer buffer) {
+		buffer.asDoubleBuffer().get(values, 0, size);
+		buffer.position(buffer.position() + size * Double.BYTES);
+	}
+
+	private static void decodeFloats(double[] values, int size, ByteBuffer buffer) {
+		for (int i = 0; i < size; i++) {
+			values[i] = buffer.getFloat();
+		}
+	}
+
+	private static void decodeDelta(double[] values, int size, ByteBuffer buffer) {
+		double decoded = buffer.getDouble();
+		values[0] = decoded;
+		for (int i = 1; i < size; i++) {
+			decoded += buffer.getFloat();
+			values[i] = decoded;
+		}
+	}
+
+	private static int checkLength(int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Invalid length: " + length);
+		}
+		return length;
+	}
+
+	private static Vector vector(double[] components) {
+		if (components.length == 3) {
+			return Vector3D.valueOf(components[0], components[1], components[2]);
+		} else {
+			return ArrayVector.wrap(components);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+/**
+ * Implementations of {@link Collector} which reduce streams of vectors.
+ * <p>
+ * The collectors accumulate the components of the vectors into arrays
+ * of {@code double}s, creating no objects per element, unlike reducing
+ * the stream with an operation like {@code Vector::plus}.
+ * All collectors support parallel streams.
+ * <p>
+ * The dimension of the vectors must be given when creating a collector,
+ * so that the result is defined for an empty stream; vectors of other
+ * dimensions cause an {@link IllegalVectorDimensionException}.
+ * Results of dimension 3 are instances of {@code Vector3D}.
+ *
+ * @author Singon
+ */
+public final class VectorCollectors {
+
+	/** Not instantiable. */
+	private VectorCollectors() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Returns a collector which sums the input vectors.
+	 * The sum is computed with compensated (Kahan-Babuska) summation.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @return a collector producing the sum of the vectors,
+	 *         or the zero vector if there are none
+	 */
+	public static Collector<Vector, ?, Vector> summing(int dimension) {
+		checkDimension(dimension);
+		return Collector.of(
+				() -> new Sum(dimension),
+				Sum::add,
+				Sum::combine,
+				Sum::sum);
+	}
+
+	/**
+	 * Returns a collector which computes the arithmetic mean of the input
+	 * vectors. The sum is computed with compensated (Kahan-Babuska) summation.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @return a collector producing the mean of the vectors,
+	 *         or the zero vector if there are none
+	 */
+	public static Collector<Vector, ?, Vector> averaging(int dimension) {
+		checkDimension(dimension);
+		return Collector.of(
+				() -> new Sum(dimension),
+				Sum::add,
+				Sum::combine,
+				Sum::average);
+	}
+
+	/**
+	 * Returns a collector which computes the bounding box
+	 * of the input vectors. Components which are {@code NaN} are ignored.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @return a collector producing the smallest box containing
+	 *         all the vectors, or an empty box if there are none
+	 */
+	public static Collector<Vector, ?, BoundingBox> boundingBox(int dimension) {
+		checkDimension(dimension);
+		return Collector.of(
+				() -> new Bounds(dimension),
+				Bounds::add,
+				Bounds::combine,
+				Bounds::box,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Returns a collector which computes the statistics of the input
+	 * vectors.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @return a collector producing the statistics of the vectors
+	 * @see VectorStatistics
+	 */
+	public static Collector<Vector, ?, VectorStatistics> statistics(int dimension) {
+		checkDimension(dimension);
+		return Collector.of(
+				() -> new VectorStatistics(dimension),
+				VectorStatistics::accept,
+				(a, b) -> {
+					a.combine(b);
+					return a;
+				},
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	private static void checkDimension(int dimension) {
+		if (dimension < 1) {
+			throw new IllegalArgumentException("Invalid dimension: " + dimension);
+		}
+	}
+
+	private static void checkDimension(Vector vector, int dimension) {
+		if (vector.dimension() != dimension) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+	}
+
+	/** A compensated sum of vectors. */
+	private static final class Sum {
+		private final double[] sum;
+		/** The low-order bits lost from each component of the sum. */
+		private final double[] compensation;
+		private long count;
+
+		Sum(int dimension) {
+			sum = new double[dimension];
+			compensation = new double[dimension];
+		}
+
+		void add(Vector vector) {
+			checkDimension(vector, sum.length);
+			for (int i = 0; i < sum.length; i++) {
+				add(i, vector.get(i));
+			}
+			count++;
+		}
+
+		private void add(int i, double value) {
+			double total = sum[i] + value;
+			if (Math.abs(sum[i]) >= Math.abs(value)) {
+				compensation[i] += (sum[i] - total) + value;
+			} else {
+				compensation[i] += (value - total) + sum[i];
+			}
+			sum[i] = total;
+		}
+
+		Sum combine(Sum other) {
+			for (int i = 0; i < sum.length; i++) {
+				add(i, other.sum[i]);
+				add(i, other.compensation[i]);
+			}
+			count += other.count;
+			return this;
+		}
+
+		Vector sum() {
+			double[] result = new double[sum.length];
+			for (int i = 0; i < sum.length; i++) {
+				result[i] = sum[i] + compensation[i];
+			}
+			return SystemState.vector(result, 0, result.length);
+		}
+
+		Vector average() {
+			double[] result = new double[sum.length];
+			if (count > 0) {
+				for (int i = 0; i < sum.length; i++) {
+					result[i] = (sum[i] + compensation[i]) / count;
+				}
+			}
+			return SystemState.vector(result, 0, result.length);
+		}
+	}
+
+	/** The running minimum and maximum of each component. */
+	private static final class Bounds {
+		private final double[] min;
+		private final double[] max;
+
+		Bounds(int dimension) {
+			min = new double[dimension];
+			max = new double[dimension];
+			Arrays.fill(min, Double.POSITIVE_INFINITY);
+			Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		}
+
+		void add(Vector vector) {
+			checkDimension(vector, min.length);
+			for (int i = 0; i < min.length; i++) {
+				double value = vector.get(i);
+				if (value < min[i]) min[i] = value;
+				if (value > max[i]) max[i] = value;
+			}
+		}
+
+		Bounds combine(Bounds other) {
+			for (int i = 0; i < min.length; i++) {
+				min[i] = Math.min(min[i], other.min[i]);
+				max[i] = Math.max(max[i], other.max[i]);
+			}
+			return this;
+		}
+
+		BoundingBox box() {
+			return BoundingBox.wrap(min, max);
+		}
+	}
+}
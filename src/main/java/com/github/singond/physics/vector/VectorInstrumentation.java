@@ -0,0 +1,314 @@
+package com.github.singond.physics.vector;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Collects statistics about the use of vectors, to help find the operations
+ * and call sites which dominate a workload.
+ * <p>
+ * Two kinds of statistics are collected:
+ * <ul>
+ * <li>The number of calls of each operation, the dimensions of the vectors
+ *     and, optionally, a sample of call sites. These are collected only for
+ *     vectors wrapped by {@link InstrumentedVector#wrap(Vector)}, so that
+ *     the rest of the program runs at full speed.</li>
+ * <li>The number of vectors created, by implementation. This is counted
+ *     for all vectors of the implementations in this package if the system
+ *     property {@value #ALLOCATIONS_PROPERTY} is set to {@code true} when
+ *     the JVM starts. Otherwise, the counting code is removed by the
+ *     just-in-time compiler and costs nothing.</li>
+ * </ul>
+ * The statistics can be read by the static methods of this class or
+ * through JMX after calling {@link #registerMBean()}.
+ * All methods are thread-safe.
+ *
+ * @author Singon
+ */
+public final class VectorInstrumentation {
+
+	/** The name of the system property enabling the counting of allocations. */
+	public static final String ALLOCATIONS_PROPERTY
+			= "com.github.singond.physics.vector.countAllocations";
+
+	/** The name under which the management bean is registered. */
+	public static final String OBJECT_NAME
+			= "com.github.singond.physics.vector:type=VectorInstrumentation";
+
+	/**
+	 * Whether allocations are being counted. Being a constant, the checks
+	 * of this flag are eliminated by the compiler when it is {@code false}.
+	 */
+	static final boolean COUNT_ALLOCATIONS = Boolean.getBoolean(ALLOCATIONS_PROPERTY);
+
+	/** The size of the dimension histogram. */
+	private static final int HISTOGRAM_SIZE = 65;
+
+	private static final ConcurrentMap<Class<?>, LongAdder[]> operations
+			= new ConcurrentHashMap<>();
+	private static final ConcurrentMap<Class<?>, LongAdder> allocations
+			= new ConcurrentHashMap<>();
+	private static final LongAdder[] dimensions = new LongAdder[HISTOGRAM_SIZE];
+	private static final ConcurrentMap<String, LongAdder> callSites
+			= new ConcurrentHashMap<>();
+	private static volatile int samplingInterval = 0;
+
+	static {
+		for (int i = 0; i < dimensions.length; i++) {
+			dimensions[i] = new LongAdder();
+		}
+	}
+
+	/** Not instantiable. */
+	private VectorInstrumentation() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * The operations of the {@code Vector} interface.
+	 */
+	public enum Operation {
+		COMPONENTS("components"),
+		GET("get"),
+		MAGNITUDE("magnitude"),
+		MAGNITUDE_SQUARED("magnitudeSquared"),
+		NORMALIZED("normalized"),
+		NEGATIVE("negative"),
+		PLUS("plus"),
+		MINUS("minus"),
+		TIMES("times"),
+		DOT_PRODUCT("dotProduct"),
+		CROSS_PRODUCT("crossProduct"),
+		POINTWISE_PRODUCT("pointwiseProduct"),
+		ANGLE_WITH("angleWith"),
+		EQUALS_WITHIN("equalsWithin");
+
+		private final String methodName;
+
+		private Operation(String methodName) {
+			this.methodName = methodName;
+		}
+
+		/**
+		 * Returns the name of the method of the {@code Vector} interface
+		 * performing this operation.
+		 *
+		 * @return the name of the method
+		 */
+		public String methodName() {
+			return methodName;
+		}
+	}
+
+	/**
+	 * Records a call of the given operation on the given vector.
+	 */
+	static void recordOperation(Operation operation, Vector vector) {
+		operations.computeIfAbsent(vector.getClass(), c -> newCounters())
+				[operation.ordinal()].increment();
+		dimensions[Math.min(vector.dimension(), HISTOGRAM_SIZE - 1)].increment();
+		int interval = samplingInterval;
+		if (interval > 0 && ThreadLocalRandom.current().nextInt(interval) == 0) {
+			recordCallSite();
+		}
+	}
+
+	private static LongAdder[] newCounters() {
+		LongAdder[] counters = new LongAdder[Operation.values().length];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		return counters;
+	}
+
+	/**
+	 * Records the first method on the stack outside of the instrumentation.
+	 */
+	private static void recordCallSite() {
+		for (StackTraceElement frame : new Throwable().getStackTrace()) {
+			String className = frame.getClassName();
+			if (!className.equals(VectorInstrumentation.class.getName())
+					&& !className.equals(InstrumentedVector.class.getName())) {
+				String site = className + "." + frame.getMethodName()
+						+ ":" + frame.getLineNumber();
+				callSites.computeIfAbsent(site, s -> new LongAdder()).increment();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Records the creation of a vector of the given class.
+	 * Callers should check {@link #COUNT_ALLOCATIONS} first.
+	 */
+	static void recordAllocation(Class<?> type) {
+		allocations.computeIfAbsent(type, c -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Returns the number of calls of the given operation on instrumented
+	 * vectors of the given class.
+	 *
+	 * @param operation the operation
+	 * @param type the class of the vectors
+	 * @return the number of calls of {@code operation} on vectors
+	 *         of class {@code type}
+	 */
+	public static long operationCount(Operation operation, Class<? extends Vector> type) {
+		LongAdder[] counters = operations.get(type);
+		return counters == null ? 0 : counters[operation.ordinal()].sum();
+	}
+
+	/**
+	 * Returns the number of vectors of the given class created so far.
+	 * This is always zero unless allocation counting is enabled.
+	 *
+	 * @param type the class of the vectors
+	 * @return the number of vectors of class {@code type} created
+	 */
+	public static long allocationCount(Class<? extends Vector> type) {
+		LongAdder counter = allocations.get(type);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * Returns the number of operations on instrumented vectors by the
+	 * dimension of the vector. The last element counts all dimensions
+	 * equal to or greater than its index.
+	 *
+	 * @return the histogram of dimensions
+	 */
+	public static long[] dimensionHistogram() {
+		long[] result = new long[HISTOGRAM_SIZE];
+		for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+			result[i] = dimensions[i].sum();
+		}
+		return result;
+	}
+
+	/**
+	 * Sets how often the call sites of operations on instrumented vectors
+	 * are sampled. Sampling requires capturing a stack trace and is
+	 * expensive; the interval should be large.
+	 *
+	 * @param interval the average number of operations per sample,
+	 *        or zero to disable sampling, which is the default
+	 */
+	public static void setCallSiteSamplingInterval(int interval) {
+		if (interval < 0) {
+			throw new IllegalArgumentException("Negative interval: " + interval);
+		}
+		samplingInterval = interval;
+	}
+
+	/**
+	 * Returns the number of sampled operations at each call site,
+	 * keyed by the calling method and line.
+	 *
+	 * @return the number of samples by call site
+	 */
+	public static Map<String, Long> callSiteSamples() {
+		return sums(callSites);
+	}
+
+	/**
+	 * Resets all statistics to zero.
+	 */
+	public static void reset() {
+		operations.clear();
+		allocations.clear();
+		callSites.clear();
+		for (LongAdder counter : dimensions) {
+			counter.reset();
+		}
+	}
+
+	/**
+	 * Registers the management bean exposing these statistics with the
+	 * platform MBean server under the name {@value #OBJECT_NAME},
+	 * unless it is already registered.
+	 *
+	 * @throws JMException if the bean cannot be registered
+	 */
+	public static synchronized void registerMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (!server.isRegistered(name)) {
+			server.registerMBean(new Bean(), name);
+		}
+	}
+
+	private static <K> Map<String, Long> sums(Map<K, LongAdder> counters) {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<K, LongAdder> e : counters.entrySet()) {
+			Object key = e.getKey();
+			String name = key instanceof Class
+					? ((Class<?>) key).getSimpleName() : key.toString();
+			result.put(name, e.getValue().sum());
+		}
+		return result;
+	}
+
+	/** The management bean exposing the statistics. */
+	private static final class Bean implements VectorInstrumentationMXBean {
+
+		@Override
+		public boolean isAllocationCountingEnabled() {
+			return COUNT_ALLOCATIONS;
+		}
+
+		@Override
+		public Map<String, Long> getOperationCounts() {
+			Map<String, Long> result = new TreeMap<>();
+			for (Map.Entry<Class<?>, LongAdder[]> e : operations.entrySet()) {
+				String type = e.getKey().getSimpleName();
+				for (Operation op : Operation.values()) {
+					long count = e.getValue()[op.ordinal()].sum();
+					if (count > 0) {
+						result.put(type + "." + op.methodName(), count);
+					}
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public Map<String, Long> getAllocationCounts() {
+			return sums(allocations);
+		}
+
+		@Override
+		public long[] getDimensionHistogram() {
+			return dimensionHistogram();
+		}
+
+		@Override
+		public Map<String, Long> getCallSiteSamples() {
+			return callSiteSamples();
+		}
+
+		@Override
+		public int getCallSiteSamplingInterval() {
+			return samplingInterval;
+		}
+
+		@Override
+		public void setCallSiteSamplingInterval(int interval) {
+			VectorInstrumentation.setCallSiteSamplingInterval(interval);
+		}
+
+		@Override
+		public void reset() {
+			VectorInstrumentation.reset();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.github.singond.physics.vector;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the statistics collected by
+ * {@link VectorInstrumentation} through JMX.
+ *
+ * @author Singon
+ */
+public interface VectorInstrumentationMXBean {
+
+	/**
+	 * Returns whether allocations of vectors are being counted,
+	 * as set by the system property
+	 * {@value VectorInstrumentation#ALLOCATIONS_PROPERTY}.
+	 *
+	 * @return {@code true} if allocations are being counted
+	 */
+	boolean isAllocationCountingEnabled();
+
+	/**
+	 * Returns the number of calls of each operation on instrumented vectors,
+	 * keyed by the simple name of the implementation and the name of the
+	 * operation, like {@code "Vector3D.plus"}.
+	 *
+	 * @return the number of calls of each operation
+	 */
+	Map<String, Long> getOperationCounts();
+
+	/**
+	 * Returns the number of vectors created, keyed by the simple name
+	 * of their class.
+	 *
+	 * @return the number of vectors created by implementation
+	 */
+	Map<String, Long> getAllocationCounts();
+
+	/**
+	 * Returns the number of operations on instrumented vectors by the
+	 * dimension of the vector. The last element counts all dimensions
+	 * equal to or greater than its index.
+	 *
+	 * @return the histogram of dimensions
+	 */
+	long[] getDimensionHistogram();
+
+	/**
+	 * Returns the number of sampled operations at each call site,
+	 * keyed by the calling method and line.
+	 *
+	 * @return the number of sampled operations by call site
+	 */
+	Map<String, Long> getCallSiteSamples();
+
+	/**
+	 * Returns the sampling interval of call sites.
+	 *
+	 * @return the average number of operations per sample,
+	 *         or zero if sampling is disabled
+	 */
+	int getCallSiteSamplingInterval();
+
+	/**
+	 * Sets the sampling interval of call sites.
+	 *
+	 * @param interval the average number of operations per sample,
+	 *        or zero to disable sampling
+	 */
+	void setCallSiteSamplingInterval(int interval);
+
+	/**
+	 * Resets all statistics to zero.
+	 */
+	void reset();
+}
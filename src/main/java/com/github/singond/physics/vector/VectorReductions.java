@@ -0,0 +1,230 @@
+package com.github.singond.physics.vector;
+
+import java.util.stream.IntStream;
+
+/**
+ * Sums, dot products and magnitudes of large arrays and vectors,
+ * computed in parallel with results reproducible to the last bit.
+ * <p>
+ * Floating-point addition is not associative, so the result of a sum
+ * depends on the order in which its terms are added. Parallel reductions
+ * such as {@code DoubleStream.sum()} or {@link Vector3DAccumulator}
+ * add the terms in an order which depends on the number of threads
+ * and on their timing, and their results may differ in the last bits
+ * between runs and between machines.
+ * <p>
+ * The methods of this class fix the order of addition instead:
+ * the terms are divided into consecutive blocks of a fixed length,
+ * each block is summed from left to right, and the sums of the blocks
+ * are added pairwise in a fixed binary tree. Only the computation of the
+ * block sums is distributed between threads, so the result depends only
+ * on the terms, not on the number of threads or on whether the
+ * computation runs in parallel at all. Sums of at most one block, and
+ * therefore all sums of small arrays, are equal to a plain sequential
+ * loop. Pairwise addition of the block sums also bounds the rounding
+ * error better than a sequential loop over all terms.
+ * <p>
+ * Large arrays are processed in parallel in the common fork/join pool,
+ * or in the pool of the calling thread if it is a fork/join task.
+ *
+ * @author Singon
+ */
+public final class VectorReductions {
+
+	/**
+	 * The number of terms summed sequentially into one block sum.
+	 * This determines the order of addition and hence the results;
+	 * changing it changes the last bits of the results.
+	 */
+	private static final int BLOCK = 1 << 10;
+
+	/** The number of terms above which the blocks are summed in parallel. */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	private VectorReductions() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Returns the sum of the given numbers, independent of the number
+	 * of threads used to compute it.
+	 *
+	 * @param values the numbers to be summed
+	 * @return the sum of {@code values}
+	 */
+	public static double sum(double[] values) {
+		return sum(values, 0, values.length);
+	}
+
+	/**
+	 * Returns the sum of a range of the given numbers, independent
+	 * of the number of threads used to compute it.
+	 *
+	 * @param values the array containing the numbers to be summed
+	 * @param from the first index of the range, inclusive
+	 * @param to the last index of the range, exclusive
+	 * @return the sum of {@code values[from]} to {@code values[to - 1]}
+	 * @throws IndexOutOfBoundsException if the range is out of
+	 *         the bounds of {@code values}
+	 */
+	public static double sum(double[] values, int from, int to) {
+		checkRange(values.length, from, to);
+		return reduce(to - from, (start, end) -> {
+			double sum = 0;
+			for (int i = from + start; i < from + end; i++) {
+				sum += values[i];
+			}
+			return sum;
+		});
+	}
+
+	/**
+	 * Returns the dot product of the given arrays, independent
+	 * of the number of threads used to compute it.
+	 *
+	 * @param a the first array
+	 * @param b the second array
+	 * @return the sum of {@code a[i] * b[i]}
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public static double dotProduct(double[] a, double[] b) {
+		if (a.length != b.length) {
+			throw new IllegalArgumentException("Array lengths do not match: "
+					+ a.length + " and " + b.length);
+		}
+		return reduce(a.length, (start, end) -> {
+			double sum = 0;
+			for (int i = start; i < end; i++) {
+				sum += a[i] * b[i];
+			}
+			return sum;
+		});
+	}
+
+	/**
+	 * Returns the dot product of the given vectors, independent
+	 * of the number of threads used to compute it.
+	 *
+	 * @param a the first vector
+	 * @param b the second vector
+	 * @return the dot product of {@code a} and {@code b}
+	 * @throws IllegalVectorDimensionException if the vectors differ
+	 *         in dimension
+	 */
+	public static double dotProduct(Vector a, Vector b) {
+		if (a.dimension() != b.dimension()) {
+			throw new IllegalVectorDimensionException(b);
+		}
+		return dotProduct(toArray(a), toArray(b));
+	}
+
+	/**
+	 * Returns the Euclidean norm of the given vector, independent
+	 * of the number of threads used to compute it.
+	 *
+	 * @param vector the vector
+	 * @return the magnitude of {@code vector}
+	 */
+	public static double magnitude(Vector vector) {
+		double[] v = toArray(vector);
+		return Math.sqrt(dotProduct(v, v));
+	}
+
+	/**
+	 * Returns the sum of the elements of the given array, independent
+	 * of the number of threads used to compute it.
+	 *
+	 * @param array the vectors to be summed
+	 * @return the sum of the elements, or the zero vector if the array
+	 *         is empty
+	 */
+	public static Vector3D sum(Vector3DArray array) {
+		return Vector3D.valueOf(sum(array.x), sum(array.y), sum(array.z));
+	}
+
+	/**
+	 * Returns the sum of the elements of the given list, independent
+	 * of the number of threads used to compute it.
+	 * The result is equal to the sum of the same vectors
+	 * in a {@link Vector3DArray}.
+	 *
+	 * @param list the vectors to be summed
+	 * @return the sum of the elements, or the zero vector if the list
+	 *         is empty
+	 */
+	public static Vector3D sum(Vector3DList list) {
+		final double[] data = list.data;
+		return Vector3D.valueOf(
+				strided(data, 0, list.size()),
+				strided(data, 1, list.size()),
+				strided(data, 2, list.size()));
+	}
+
+	/**
+	 * Sums every third element of the given array,
+	 * starting at {@code offset}.
+	 */
+	private static double strided(double[] data, int offset, int count) {
+		return reduce(count, (start, end) -> {
+			double sum = 0;
+			for (int i = offset + 3 * start; i < offset + 3 * end; i += 3) {
+				sum += data[i];
+			}
+			return sum;
+		});
+	}
+
+	/**
+	 * Sums {@code count} terms in blocks of fixed length, adding up
+	 * the block sums pairwise.
+	 *
+	 * @param count the number of terms
+	 * @param block the function summing the terms in a range of indices
+	 * @return the sum of all terms
+	 */
+	private static double reduce(int count, BlockSum block) {
+		if (count <= BLOCK) {
+			return block.sum(0, count);
+		}
+		int blocks = (count + BLOCK - 1) / BLOCK;
+		double[] sums = new double[blocks];
+		if (count < PARALLEL_THRESHOLD) {
+			for (int b = 0; b < blocks; b++) {
+				sums[b] = block.sum(b * BLOCK, Math.min(count, (b + 1) * BLOCK));
+			}
+		} else {
+			IntStream.range(0, blocks).parallel().forEach(b ->
+					sums[b] = block.sum(b * BLOCK, Math.min(count, (b + 1) * BLOCK)));
+		}
+		// Add neighbours at increasing distances: ((s0 + s1) + (s2 + s3)) + ...
+		for (int width = 1; width < blocks; width *= 2) {
+			for (int i = 0; i + width < blocks; i += 2 * width) {
+				sums[i] += sums[i + width];
+			}
+		}
+		return sums[0];
+	}
+
+	@FunctionalInterface
+	private interface BlockSum {
+		double sum(int from, int to);
+	}
+
+	private static double[] toArray(Vector vector) {
+		if (vector instanceof ArrayVector) {
+			return ((ArrayVector) vector).array();
+		}
+		double[] result = new double[vector.dimension()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = vector.get(i);
+		}
+		return result;
+	}
+
+	private static void checkRange(int length, int from, int to) {
+		if (from < 0 || to > length || from > to) {
+			throw new IndexOutOfBoundsException("Invalid range [" + from
+					+ ", " + to + ") of array of length " + length);
+		}
+	}
+}
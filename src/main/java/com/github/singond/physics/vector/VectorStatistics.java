@@ -0,0 +1,333 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A state object for collecting statistics about a stream of vectors
+ * of the same dimension: their count, mean, covariance matrix,
+ * the minimum and maximum of each component and, optionally,
+ * a histogram of their magnitudes.
+ * <p>
+ * The statistics are updated as each vector is accepted, using
+ * Welford's algorithm, which is numerically stable even when the mean
+ * is much larger than the spread of the vectors. Accepting a vector
+ * creates no objects, and the memory used is proportional to the square
+ * of the dimension, regardless of the number of vectors.
+ * <p>
+ * Statistics collected separately, for example by different threads,
+ * can be merged by {@link #combine(VectorStatistics)}. This allows
+ * this class to be used in the reduction of a parallel stream:
+ * <pre>{@code
+ * VectorStatistics stats = vectors.parallelStream().collect(
+ *         () -> new VectorStatistics(3),
+ *         VectorStatistics::accept,
+ *         VectorStatistics::combine);
+ * }</pre>
+ * <p>
+ * Instances of this class are not thread-safe.
+ *
+ * @author Singon
+ */
+public final class VectorStatistics implements Consumer<Vector> {
+
+	private final int dimension;
+
+	private long count;
+	private final double[] mean;
+	/**
+	 * The sums of products of deviations from the mean, in row-major order.
+	 * Only the upper triangle is updated; the matrix is symmetric.
+	 */
+	private final double[] comoment;
+	private final double[] min;
+	private final double[] max;
+	/** The deviations of the vector being accepted; a scratch array. */
+	private final double[] deviation;
+
+	/** The upper bound of the magnitude histogram. */
+	private final double histogramMax;
+	/** The magnitude histogram; the last element counts the overflow. */
+	private final long[] histogram;
+
+	/**
+	 * Creates an empty statistics of vectors of the given dimension,
+	 * without a magnitude histogram.
+	 *
+	 * @param dimension the dimension of the vectors
+	 */
+	public VectorStatistics(int dimension) {
+		this(dimension, 0, 0);
+	}
+
+	/**
+	 * Creates an empty statistics of vectors of the given dimension
+	 * with a histogram of their magnitudes. The histogram divides the
+	 * interval from zero to {@code maxMagnitude} into {@code bins}
+	 * bins of equal width.
+	 *
+	 * @param dimension the dimension of the vectors
+	 * @param maxMagnitude the upper bound of the histogram
+	 * @param bins the number of bins of the histogram
+	 */
+	public VectorStatistics(int dimension, double maxMagnitude, int bins) {
+		if (dimension < 1) {
+			throw new IllegalArgumentException("Invalid dimension: " + dimension);
+		}
+		if (bins < 0 || bins > 0 && !(maxMagnitude > 0)) {
+			throw new IllegalArgumentException("Invalid histogram: " + bins
+					+ " bins up to " + maxMagnitude);
+		}
+		this.dimension = dimension;
+		this.mean = new double[dimension];
+		this.comoment = new double[dimension * dimension];
+		this.min = new double[dimension];
+		this.max = new double[dimension];
+		this.deviation = new double[dimension];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		this.histogramMax = maxMagnitude;
+		this.histogram = bins > 0 ? new long[bins + 1] : null;
+	}
+
+	/**
+	 * Records another vector into this statistics.
+	 *
+	 * @param vector the vector
+	 * @throws IllegalVectorDimensionException if the dimension of
+	 *         {@code vector} is not the dimension of this statistics
+	 */
+	@Override
+	public void accept(Vector vector) {
+		if (vector.dimension() != dimension) {
+			throw new IllegalVectorDimensionException(vector);
+		}
+		count++;
+		double square = 0;
+		for (int i = 0; i < dimension; i++) {
+			double value = vector.get(i);
+			square += value * value;
+			deviation[i] = value - mean[i];
+			mean[i] += deviation[i] / count;
+			if (value < min[i]) min[i] = value;
+			if (value > max[i]) max[i] = value;
+		}
+		updateComoment(vector);
+		if (histogram != null) {
+			record(Math.sqrt(square));
+		}
+	}
+
+	/**
+	 * Adds the products of deviations of the given vector from the old
+	 * and the new mean to the upper triangle of the comoment matrix.
+	 */
+	private void updateComoment(Vector vector) {
+		for (int i = 0; i < dimension; i++) {
+			double d = deviation[i];
+			int row = i * dimension;
+			for (int j = i; j < dimension; j++) {
+				comoment[row + j] += d * (vector.get(j) - mean[j]);
+			}
+		}
+	}
+
+	private void record(double magnitude) {
+		int bins = histogram.length - 1;
+		int bin = !(magnitude < histogramMax) ? bins
+				: (int) (magnitude / histogramMax * bins);
+		histogram[bin]++;
+	}
+
+	/**
+	 * Combines the state of another statistics into this one,
+	 * as if all vectors recorded by {@code other} were recorded by this
+	 * statistics. The other statistics is not modified.
+	 *
+	 * @param other another statistics
+	 * @throws IllegalArgumentException if the other statistics differs
+	 *         in dimension or in the magnitude histogram
+	 */
+	public void combine(VectorStatistics other) {
+		if (other.dimension != dimension
+				|| (histogram == null) != (other.histogram == null)
+				|| histogram != null && (histogram.length != other.histogram.length
+						|| histogramMax != other.histogramMax)) {
+			throw new IllegalArgumentException("Incompatible statistics");
+		}
+		if (other.count == 0) {
+			return;
+		}
+		long total = count + other.count;
+		double weight = (double) count * other.count / total;
+		for (int i = 0; i < dimension; i++) {
+			deviation[i] = other.mean[i] - mean[i];
+		}
+		for (int i = 0; i < dimension; i++) {
+			int row = i * dimension;
+			for (int j = i; j < dimension; j++) {
+				comoment[row + j] += other.comoment[row + j]
+						+ deviation[i] * deviation[j] * weight;
+			}
+			mean[i] += deviation[i] * other.count / total;
+			min[i] = Math.min(min[i], other.min[i]);
+			max[i] = Math.max(max[i], other.max[i]);
+		}
+		if (histogram != null) {
+			for (int b = 0; b < histogram.length; b++) {
+				histogram[b] += other.histogram[b];
+			}
+		}
+		count = total;
+	}
+
+	/**
+	 * Returns the dimension of the vectors.
+	 *
+	 * @return the dimension of the vectors
+	 */
+	public int dimension() {
+		return dimension;
+	}
+
+	/**
+	 * Returns the number of vectors recorded.
+	 *
+	 * @return the number of vectors
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * Returns the mean of the vectors recorded, or the zero vector
+	 * if none have been recorded.
+	 *
+	 * @return the mean vector
+	 */
+	public Vector mean() {
+		return SystemState.vector(mean, 0, dimension);
+	}
+
+	/**
+	 * Returns the mean of the given component of the vectors recorded.
+	 *
+	 * @param component the index of the component
+	 * @return the mean of the {@code component}th component
+	 */
+	public double mean(int component) {
+		return mean[checkComponent(component)];
+	}
+
+	/**
+	 * Returns the sample variance of the given component of the vectors
+	 * recorded, that is, the sum of squared deviations from the mean
+	 * divided by {@code count() - 1}. Returns zero if fewer than two
+	 * vectors have been recorded.
+	 *
+	 * @param component the index of the component
+	 * @return the sample variance of the {@code component}th component
+	 */
+	public double variance(int component) {
+		checkComponent(component);
+		return covariance(component, component);
+	}
+
+	/**
+	 * Returns the sample standard deviation of the given component
+	 * of the vectors recorded.
+	 *
+	 * @param component the index of the component
+	 * @return the square root of {@code variance(component)}
+	 */
+	public double standardDeviation(int component) {
+		return Math.sqrt(variance(component));
+	}
+
+	/**
+	 * Returns the sample covariance of two components of the vectors
+	 * recorded. Returns zero if fewer than two vectors have been recorded.
+	 *
+	 * @param i the index of the first component
+	 * @param j the index of the second component
+	 * @return the sample covariance of the {@code i}th and {@code j}th
+	 *         component
+	 */
+	public double covariance(int i, int j) {
+		checkComponent(i);
+		checkComponent(j);
+		if (count < 2) {
+			return 0;
+		}
+		int index = i <= j ? i * dimension + j : j * dimension + i;
+		return comoment[index] / (count - 1);
+	}
+
+	/**
+	 * Returns the sample covariance matrix of the vectors recorded.
+	 *
+	 * @return a square matrix whose element in row {@code i} and column
+	 *         {@code j} is {@code covariance(i, j)}
+	 */
+	public Matrix covariance() {
+		double[] elements = new double[dimension * dimension];
+		for (int i = 0; i < dimension; i++) {
+			for (int j = 0; j < dimension; j++) {
+				elements[i * dimension + j] = covariance(i, j);
+			}
+		}
+		return Matrix.valueOf(dimension, dimension, elements);
+	}
+
+	/**
+	 * Returns the vector of the minimum values of each component
+	 * of the vectors recorded. The components are infinite if no vectors
+	 * have been recorded.
+	 *
+	 * @return the component-wise minimum
+	 */
+	public Vector min() {
+		return SystemState.vector(min, 0, dimension);
+	}
+
+	/**
+	 * Returns the vector of the maximum values of each component
+	 * of the vectors recorded. The components are infinite if no vectors
+	 * have been recorded.
+	 *
+	 * @return the component-wise maximum
+	 */
+	public Vector max() {
+		return SystemState.vector(max, 0, dimension);
+	}
+
+	/**
+	 * Returns the histogram of the magnitudes of the vectors recorded.
+	 * The element at index {@code b} less than the number of bins
+	 * counts the vectors with magnitudes in the {@code b}th bin;
+	 * the last element counts the vectors with magnitudes greater than
+	 * or equal to the upper bound of the histogram, or not a number.
+	 *
+	 * @return the magnitude histogram, of length one greater than
+	 *         the number of bins, or an empty array if this statistics
+	 *         does not collect a histogram
+	 */
+	public long[] magnitudeHistogram() {
+		return histogram == null ? new long[0] : histogram.clone();
+	}
+
+	private int checkComponent(int component) {
+		if (component < 0 || component >= dimension) {
+			throw new IndexOutOfBoundsException(
+					"Invalid vector component index: " + component);
+		}
+		return component;
+	}
+
+	@Override
+	public String toString() {
+		return "VectorStatistics[count=" + count + ", mean="
+				+ Arrays.toString(mean) + ", min=" + Arrays.toString(min)
+				+ ", max=" + Arrays.toString(max) + "]";
+	}
+}
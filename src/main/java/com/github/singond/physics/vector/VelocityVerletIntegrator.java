@@ -0,0 +1,30 @@
+package com.github.singond.physics.vector;
+
+/**
+ * An integrator using the velocity Verlet method.
+ * The acceleration at the end of each step is kept in the state
+ * and reused at the beginning of the next step.
+ *
+ * @author Singon
+ * @see Integrator#velocityVerlet(ForceFunction)
+ */
+final class VelocityVerletIntegrator extends Integrator {
+
+	VelocityVerletIntegrator(ForceFunction force) {
+		super(force);
+	}
+
+	@Override
+	void doStep(SystemState state, double step) {
+		updateAcceleration(state);
+		final double[] x = state.position;
+		final double[] v = state.velocity;
+		final double[] a = state.acceleration;
+		final double half = step / 2;
+		Kernels.axpy(half, a, v, v.length);
+		Kernels.axpy(step, v, x, x.length);
+		force.accelerations(state.time() + step, x, v, a);
+		Kernels.axpy(half, a, v, v.length);
+		state.accelerationSource = this;
+	}
+}
@@ -0,0 +1,101 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Platform-specific acceleration of the loops in {@link Kernels}.
+ * <p>
+ * This is the version for Java 16 and later. It compares ranges of arrays
+ * with {@link Arrays#mismatch(double[], int, int, double[], int, int)}.
+ * If the incubating {@code jdk.incubator.vector} module is present in the
+ * runtime (it is resolved only if requested by {@code --add-modules}),
+ * arithmetic loops over long enough arrays are delegated to
+ * {@link SimdKernels}, which uses the Vector API.
+ * <p>
+ * {@code SimdKernels} is reached only through this class, and every call
+ * into it is guarded against a {@code LinkageError}, which disables
+ * the Vector API for the rest of the run.
+ *
+ * @author Singon
+ */
+final class Intrinsics {
+
+	/**
+	 * Whether the Vector API can be used. Cleared if linking
+	 * {@code SimdKernels} fails; a race in doing so is harmless.
+	 */
+	private static boolean simd = initSimd();
+
+	/** The shortest array for which the Vector API is used. */
+	private static final int SIMD_THRESHOLD = 64;
+
+	private Intrinsics() {
+		throw new AssertionError();
+	}
+
+	private static boolean initSimd() {
+		Optional<Module> vector = ModuleLayer.boot()
+				.findModule("jdk.incubator.vector");
+		if (!vector.isPresent()) {
+			return false;
+		}
+		try {
+			// Named modules must read the incubator module explicitly
+			Intrinsics.class.getModule().addReads(vector.get());
+			return SimdKernels.isSupported();
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+
+	static int axpy(double a, double[] x, double[] y, int length) {
+		if (simd && length >= SIMD_THRESHOLD) {
+			try {
+				return SimdKernels.axpy(a, x, y, length);
+			} catch (LinkageError e) {
+				simd = false;
+			}
+		}
+		return 0;
+	}
+
+	static int scale(double a, double[] x, int from, int to) {
+		if (simd && to - from >= SIMD_THRESHOLD) {
+			try {
+				return SimdKernels.scale(a, x, from, to);
+			} catch (LinkageError e) {
+				simd = false;
+			}
+		}
+		return from;
+	}
+
+	static int mismatch(double[] a, int aFrom, double[] b, int bFrom, int length) {
+		return Arrays.mismatch(a, aFrom, aFrom + length, b, bFrom, bFrom + length);
+	}
+
+	static int raySphere(Vector3DArray origins, Vector3DArray directions,
+			Sphere sphere, double[] t) {
+		if (simd && origins.size() >= SIMD_THRESHOLD) {
+			try {
+				return SimdKernels.raySphere(origins, directions, sphere, t);
+			} catch (LinkageError e) {
+				simd = false;
+			}
+		}
+		return 0;
+	}
+
+	static int rayBox(Vector3DArray origins, Vector3DArray directions,
+			AABB box, double[] t) {
+		if (simd && origins.size() >= SIMD_THRESHOLD) {
+			try {
+				return SimdKernels.rayBox(origins, directions, box, t);
+			} catch (LinkageError e) {
+				simd = false;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,139 @@
+package com.github.singond.physics.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementations of {@link Kernels} using the incubating Vector API.
+ * This class is used only through {@link Intrinsics}, and only if the
+ * {@code jdk.incubator.vector} module is present. Multiplication and
+ * addition are kept as separate operations, so that the results equal
+ * those of the scalar loops.
+ * <p>
+ * Each method processes whole vectors of elements and returns the index
+ * of the first element left for the scalar loop.
+ *
+ * @author Singon
+ */
+final class SimdKernels {
+
+	private static final VectorSpecies<Double> SPECIES
+			= DoubleVector.SPECIES_PREFERRED;
+
+	private SimdKernels() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Indicates whether the preferred vector shape holds more than
+	 * one {@code double}, that is, whether using this class pays off.
+	 */
+	static boolean isSupported() {
+		return SPECIES.length() > 1;
+	}
+
+	static int axpy(double a, double[] x, double[] y, int length) {
+		int upper = SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < upper; i += SPECIES.length()) {
+			DoubleVector vx = DoubleVector.fromArray(SPECIES, x, i);
+			DoubleVector vy = DoubleVector.fromArray(SPECIES, y, i);
+			vy.add(vx.mul(a)).intoArray(y, i);
+		}
+		return i;
+	}
+
+	static int scale(double a, double[] x, int from, int to) {
+		int upper = from + SPECIES.loopBound(to - from);
+		int i = from;
+		for (; i < upper; i += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, x, i).mul(a).intoArray(x, i);
+		}
+		return i;
+	}
+
+	/**
+	 * Intersects rays with a sphere as far as whole vectors of rays
+	 * can be processed, with the same operations as
+	 * {@link Geometry#raySphere}.
+	 *
+	 * @return the index of the first ray which was not processed
+	 */
+	static int raySphere(Vector3DArray origins, Vector3DArray directions,
+			Sphere sphere, double[] t) {
+		final double cx = sphere.cx, cy = sphere.cy, cz = sphere.cz;
+		final double r2 = sphere.radius * sphere.radius;
+		final DoubleVector nan = DoubleVector.broadcast(SPECIES, Double.NaN);
+		int upper = SPECIES.loopBound(origins.size());
+		int i = 0;
+		for (; i < upper; i += SPECIES.length()) {
+			DoubleVector dx = DoubleVector.fromArray(SPECIES, directions.x, i);
+			DoubleVector dy = DoubleVector.fromArray(SPECIES, directions.y, i);
+			DoubleVector dz = DoubleVector.fromArray(SPECIES, directions.z, i);
+			DoubleVector lx = DoubleVector.fromArray(SPECIES, origins.x, i).sub(cx);
+			DoubleVector ly = DoubleVector.fromArray(SPECIES, origins.y, i).sub(cy);
+			DoubleVector lz = DoubleVector.fromArray(SPECIES, origins.z, i).sub(cz);
+			DoubleVector a = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+			DoubleVector b = lx.mul(dx).add(ly.mul(dy)).add(lz.mul(dz));
+			DoubleVector c = lx.mul(lx).add(ly.mul(ly)).add(lz.mul(lz)).sub(r2);
+			DoubleVector s = b.mul(b).sub(a.mul(c)).lanewise(VectorOperators.SQRT);
+			DoubleVector nb = b.neg();
+			DoubleVector t0 = nb.sub(s).div(a);
+			DoubleVector t1 = nb.add(s).div(a);
+			VectorMask<Double> hit0 = t0.compare(VectorOperators.GE, 0);
+			VectorMask<Double> hit1 = t1.compare(VectorOperators.GE, 0);
+			nan.blend(t1, hit1).blend(t0, hit0).intoArray(t, i);
+		}
+		return i;
+	}
+
+	/**
+	 * Intersects rays with a box as far as whole vectors of rays
+	 * can be processed, with the same operations as
+	 * {@link Geometry#rayBox}.
+	 *
+	 * @return the index of the first ray which was not processed
+	 */
+	static int rayBox(Vector3DArray origins, Vector3DArray directions,
+			AABB box, double[] t) {
+		final DoubleVector nan = DoubleVector.broadcast(SPECIES, Double.NaN);
+		final DoubleVector one = DoubleVector.broadcast(SPECIES, 1);
+		final DoubleVector minX = DoubleVector.broadcast(SPECIES, box.minX);
+		final DoubleVector minY = DoubleVector.broadcast(SPECIES, box.minY);
+		final DoubleVector minZ = DoubleVector.broadcast(SPECIES, box.minZ);
+		final DoubleVector maxX = DoubleVector.broadcast(SPECIES, box.maxX);
+		final DoubleVector maxY = DoubleVector.broadcast(SPECIES, box.maxY);
+		final DoubleVector maxZ = DoubleVector.broadcast(SPECIES, box.maxZ);
+		int upper = SPECIES.loopBound(origins.size());
+		int i = 0;
+		for (; i < upper; i += SPECIES.length()) {
+			// Each slab loads its data and divides once, updating both bounds
+			DoubleVector o = DoubleVector.fromArray(SPECIES, origins.x, i);
+			DoubleVector inverse = one.div(DoubleVector.fromArray(SPECIES, directions.x, i));
+			DoubleVector t1 = minX.sub(o).mul(inverse);
+			DoubleVector t2 = maxX.sub(o).mul(inverse);
+			DoubleVector near = t1.min(t2);
+			DoubleVector far = t1.max(t2);
+
+			o = DoubleVector.fromArray(SPECIES, origins.y, i);
+			inverse = one.div(DoubleVector.fromArray(SPECIES, directions.y, i));
+			t1 = minY.sub(o).mul(inverse);
+			t2 = maxY.sub(o).mul(inverse);
+			near = near.max(t1.min(t2));
+			far = far.min(t1.max(t2));
+
+			o = DoubleVector.fromArray(SPECIES, origins.z, i);
+			inverse = one.div(DoubleVector.fromArray(SPECIES, directions.z, i));
+			t1 = minZ.sub(o).mul(inverse);
+			t2 = maxZ.sub(o).mul(inverse);
+			near = near.max(t1.min(t2));
+			far = far.min(t1.max(t2));
+
+			near = near.max(0);
+			nan.blend(near, near.compare(VectorOperators.LE, far)).intoArray(t, i);
+		}
+		return i;
+	}
+}
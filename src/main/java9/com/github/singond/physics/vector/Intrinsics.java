@@ -0,0 +1,41 @@
+package com.github.singond.physics.vector;
+
+import java.util.Arrays;
+
+/**
+ * Platform-specific acceleration of the loops in {@link Kernels}.
+ * <p>
+ * This is the version for Java 9 and later. It compares ranges of arrays
+ * with {@link Arrays#mismatch(double[], int, int, double[], int, int)},
+ * which the virtual machine implements with vector instructions.
+ *
+ * @author Singon
+ */
+final class Intrinsics {
+
+	private Intrinsics() {
+		throw new AssertionError();
+	}
+
+	static int axpy(double a, double[] x, double[] y, int length) {
+		return 0;
+	}
+
+	static int scale(double a, double[] x, int from, int to) {
+		return from;
+	}
+
+	static int mismatch(double[] a, int aFrom, double[] b, int bFrom, int length) {
+		return Arrays.mismatch(a, aFrom, aFrom + length, b, bFrom, bFrom + length);
+	}
+
+	static int raySphere(Vector3DArray origins, Vector3DArray directions,
+			Sphere sphere, double[] t) {
+		return 0;
+	}
+
+	static int rayBox(Vector3DArray origins, Vector3DArray directions,
+			AABB box, double[] t) {
+		return 0;
+	}
+}
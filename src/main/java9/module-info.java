@@ -0,0 +1,17 @@
+/**
+ * Vectors as used in physics, with their arithmetic, bulk storage
+ * and numerical integration of systems of particles.
+ * <p>
+ * The {@code java.management} module is optional. It is only needed to
+ * register the instrumentation bean by
+ * {@link com.github.singond.physics.vector.VectorInstrumentation#registerMBean()},
+ * so applications linked into a runtime image without it can use
+ * the rest of the library.
+ *
+ * @author Singon
+ */
+module com.github.singond.physics.vector {
+	requires static java.management;
+
+	exports com.github.singond.physics.vector;
+}
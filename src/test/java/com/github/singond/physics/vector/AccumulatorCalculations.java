@@ -0,0 +1,84 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class AccumulatorCalculations {
+
+	private static final int THREADS = 8;
+	private static final int ADDITIONS = 20000;
+
+	/**
+	 * Runs the given task in several threads at once and waits
+	 * for all of them to finish.
+	 */
+	private static void concurrently(Runnable task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void accumulator() throws Exception {
+		Vector3DAccumulator accumulator = new Vector3DAccumulator();
+		concurrently(() -> {
+			for (int i = 0; i < ADDITIONS; i++) {
+				accumulator.add(1, -2, 0.5);
+			}
+		});
+		// Sums of these values are exact in any order
+		assertEquals(Vector3D.valueOf(THREADS * ADDITIONS,
+				-2 * THREADS * ADDITIONS, 0.5 * THREADS * ADDITIONS),
+				accumulator.sum());
+		accumulator.add(Vector3D.valueOf(1, 2, 3));
+		assertEquals(Vector3D.valueOf(THREADS * ADDITIONS + 1,
+				-2 * THREADS * ADDITIONS + 2, 0.5 * THREADS * ADDITIONS + 3),
+				accumulator.sumThenReset());
+		assertEquals(Vector3D.valueOf(0, 0, 0), accumulator.sum());
+	}
+
+	@Test(expected = IllegalVectorDimensionException.class)
+	public void accumulatorDimension() {
+		new Vector3DAccumulator().add(ArrayVector.valueOf(1, 2));
+	}
+
+	@Test
+	public void scatterAdd() throws Exception {
+		int size = 100;
+		ConcurrentVector3DArray array = ConcurrentVector3DArray.ofSize(size);
+		array.set(0, Vector3D.valueOf(10, 10, 10));
+		concurrently(() -> {
+			for (int i = 0; i < ADDITIONS; i++) {
+				int index = i % size;
+				array.add(index, index, 1, -1);
+			}
+		});
+		int perElement = THREADS * ADDITIONS / size;
+		assertEquals(Vector3D.valueOf(10, 10 + perElement, 10 - perElement),
+				array.get(0));
+		assertEquals(Vector3D.valueOf(perElement * 42, perElement, -perElement),
+				array.get(42));
+		double[] copy = new double[3 * size + 1];
+		array.copyTo(copy, 1);
+		assertEquals(perElement * 99, copy[1 + 3 * 99], 0);
+		assertEquals(array.get(7), array.toVector3DArray().get(7));
+		array.clear();
+		assertEquals(Vector3D.valueOf(0, 0, 0), array.get(42));
+	}
+}
@@ -0,0 +1,98 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AffineTransformCalculations {
+
+	private static double precision = 1e-12;
+
+	private final Rotation3D rotation = Rotation3D.about(Vector3D.valueOf(1, -1, 2), 0.7);
+	private final AffineTransform3D transform = AffineTransform3D.scaling(2, 0.5, 3)
+			.thenRotate(rotation)
+			.thenTranslate(Vector3D.valueOf(1, -2, 4));
+
+	private void assertVectorEquals(Vector3D expected, Vector3D actual) {
+		for (int i = 0; i < 3; i++) {
+			assertEquals(expected.get(i), actual.get(i), precision);
+		}
+	}
+
+	@Test
+	public void composition() {
+		Vector3D p = Vector3D.valueOf(1, 2, 3);
+		Vector3D expected = rotation.apply(Vector3D.valueOf(2, 1, 9))
+				.plus(Vector3D.valueOf(1, -2, 4));
+		assertVectorEquals(expected, transform.transformPoint(p));
+		assertVectorEquals(rotation.apply(Vector3D.valueOf(2, 1, 9)),
+				transform.transformDirection(p));
+
+		AffineTransform3D shift = AffineTransform3D.translation(0, 0, 1);
+		assertVectorEquals(transform.transformPoint(p.plus(Vector3D.valueOf(0, 0, 1))),
+				shift.then(transform).transformPoint(p));
+		assertVectorEquals(p, AffineTransform3D.identity().transformPoint(p));
+		assertEquals(3.0, transform.determinant(), precision);
+
+		Matrix4x4 m = transform.toMatrix4x4();
+		assertVectorEquals(transform.transformPoint(p), m.transformPoint(p));
+		assertEquals(transform, AffineTransform3D.of(m));
+	}
+
+	@Test
+	public void inverse() {
+		Vector3D p = Vector3D.valueOf(-3, 0.25, 7);
+		AffineTransform3D inverse = transform.inverse();
+		assertVectorEquals(p, inverse.transformPoint(transform.transformPoint(p)));
+		assertVectorEquals(p, transform.then(inverse).transformPoint(p));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void singularInverse() {
+		AffineTransform3D.scaling(1, 0, 1).inverse();
+	}
+
+	@Test
+	public void normals() {
+		// A plane through the origin spanned by two directions
+		Vector3D u = Vector3D.valueOf(1, 2, 0);
+		Vector3D v = Vector3D.valueOf(0, 1, -1);
+		Vector3D normal = u.crossProduct(v);
+		Vector3D transformed = transform.transformNormal(normal);
+		assertEquals(0, transformed.dotProduct(transform.transformDirection(u)), precision);
+		assertEquals(0, transformed.dotProduct(transform.transformDirection(v)), precision);
+	}
+
+	@Test
+	public void bulk() {
+		int size = 100_000;
+		Vector3DArray points = Vector3DArray.ofSize(size);
+		Vector3DList list = new Vector3DList(size);
+		for (int i = 0; i < size; i++) {
+			points.set(i, i, -0.5 * i, Math.sqrt(i));
+			list.add(i, -0.5 * i, Math.sqrt(i));
+		}
+		Vector3DArray target = Vector3DArray.ofSize(size);
+		transform.transformPoints(points, target);
+		transform.transformPoints(list, list);
+		double[] out = new double[3];
+		for (int i = 0; i < size; i += 997) {
+			Vector3D expected = transform.transformPoint(points.get(i));
+			assertEquals(expected, target.get(i));
+			assertEquals(expected, list.get(i));
+			transform.transformPoint(points.getX(i), points.getY(i), points.getZ(i), out);
+			assertEquals(expected, Vector3D.valueOf(out[0], out[1], out[2]));
+		}
+
+		transform.transformDirections(points, target);
+		assertVectorEquals(transform.transformDirection(points.get(5)), target.get(5));
+		transform.transformNormals(points, points);
+		assertVectorEquals(transform.normalMatrix().times(Vector3D.valueOf(5, -2.5, Math.sqrt(5))),
+				points.get(5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sizeMismatch() {
+		transform.transformPoints(Vector3DArray.ofSize(3), Vector3DArray.ofSize(4));
+	}
+}
@@ -1,6 +1,8 @@
 package com.github.singond.physics.vector;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -25,6 +27,37 @@ public class ArrayVectorCalculations {
 		angle(arrayVect(1, 2), arrayVect(2, -1), Math.PI/2);
 	}
 
+	@Test
+	public void magnitude() {
+		ArrayVector a = arrayVect(1, 2, 2, 4);
+		assertEquals(25, a.magnitudeSquared(), 0);
+		assertEquals(5, a.magnitude(), 0);
+		assertEquals(5, a.magnitude(), 0);
+		assertSame(a.normalized(), a.normalized());
+		assertEquals(arrayVect(0.2, 0.4, 0.4, 0.8), a.normalized());
+		assertEquals(0, arrayVect(0, 0).magnitude(), 0);
+		assertEquals(14, Vector3D.valueOf(1, 2, 3).magnitudeSquared(), 0);
+	}
+
+	@Test
+	public void unitVector() {
+		UnitVector u = UnitVector.of(arrayVect(3, 0, 4));
+		assertEquals(1, u.magnitude(), 0);
+		assertSame(u, u.normalized());
+		assertSame(u, UnitVector.of(u));
+		assertTrue(u.equalsWithin(arrayVect(0.6, 0, 0.8), 0, precision));
+		assertEquals(u.vector(), u);
+		assertEquals(u, u.vector());
+		assertEquals(Math.PI / 2, u.angleWith(UnitVector.of(4, 0, -3)), precision);
+		assertEquals(Math.PI / 2, u.angleWith(Vector3D.valueOf(8, 0, -6)), precision);
+		assertEquals(Math.PI, u.angleWith(u.negative()), precision);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitVectorOfZero() {
+		UnitVector.of(0, 0, 0);
+	}
+
 	private void sum(Vector a, Vector b, Vector expected) {
 		Vector sum = a.plus(b);
 		assertEquals(expected, sum);
@@ -0,0 +1,169 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+public class CodecCalculations {
+
+	private static final double DELTA = 1e-6;
+
+	@Test
+	public void exactBuffer() {
+		VectorCodec codec = VectorCodec.exact();
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		codec.encode(Vector3D.valueOf(0.1, -2, 1e300), buffer);
+		codec.encode(ArrayVector.valueOf(1, 2, 3, 4), buffer);
+		assertEquals(codec.encodedSize(3) + codec.encodedSize(4), buffer.position());
+		buffer.flip();
+		assertEquals(Vector3D.valueOf(0.1, -2, 1e300), codec.decode(buffer));
+		Vector v = codec.decode(buffer);
+		assertTrue(v instanceof ArrayVector);
+		assertEquals(ArrayVector.valueOf(1, 2, 3, 4), v);
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void singlePrecisionStream() throws IOException {
+		VectorCodec codec = VectorCodec.singlePrecision();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		codec.write(ArrayVector.valueOf(0.1, 1.5), new DataOutputStream(bytes));
+		assertEquals(codec.encodedSize(2), bytes.size());
+		Vector v = codec.read(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(0.1, v.get(0), DELTA);
+		assertEquals(1.5, v.get(1), 0);
+	}
+
+	@Test
+	public void exactArray() {
+		Vector3DArray array = trajectory(1000);
+		VectorCodec codec = VectorCodec.exact();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(
+				(int) codec.encodedArraySize(array.size()))
+				.order(ByteOrder.nativeOrder());
+		codec.encode(array, buffer);
+		assertEquals(0, buffer.remaining());
+		buffer.flip();
+		assertEquals(array, codec.decodeArray(buffer));
+	}
+
+	@Test
+	public void deltaArray() {
+		Vector3DArray array = trajectory(10000);
+		VectorCodec codec = VectorCodec.singlePrecisionDelta();
+		ByteBuffer buffer = ByteBuffer.allocate(
+				(int) codec.encodedArraySize(array.size()));
+		codec.encode(array, buffer);
+		buffer.flip();
+		Vector3DArray decoded = codec.decodeArray(buffer);
+		assertEquals(array.size(), decoded.size());
+		for (int i = 0; i < array.size(); i++) {
+			assertEquals(array.getX(i), decoded.getX(i), DELTA);
+			assertEquals(array.getY(i), decoded.getY(i), DELTA);
+			assertEquals(array.getZ(i), decoded.getZ(i), DELTA);
+		}
+	}
+
+	@Test
+	public void emptyArray() {
+		VectorCodec codec = VectorCodec.singlePrecisionDelta();
+		ByteBuffer buffer = ByteBuffer.allocate(4);
+		codec.encode(Vector3DArray.ofSize(0), buffer);
+		buffer.flip();
+		assertEquals(0, codec.decodeArray(buffer).size());
+	}
+
+	@Test(expected = EOFException.class)
+	public void truncatedStreamWithHugeDimension() throws IOException {
+		// The header claims 2^31 - 1 components but only one follows
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(Integer.MAX_VALUE);
+		out.writeDouble(1);
+		VectorCodec.exact().read(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	@Test
+	public void longStream() throws IOException {
+		double[] components = new double[5000];
+		for (int i = 0; i < components.length; i++) {
+			components[i] = i * 0.5;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		VectorCodec.exact().write(ArrayVector.valueOf(components), new DataOutputStream(bytes));
+		Vector v = VectorCodec.exact().read(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(ArrayVector.valueOf(components), v);
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void encodedSizeOverflow() {
+		VectorCodec.exact().encodedSize(Integer.MAX_VALUE / 4);
+	}
+
+	@Test
+	public void deltaRejectsNonFinite() {
+		VectorCodec codec = VectorCodec.singlePrecisionDelta();
+		Vector3DArray array = trajectory(10);
+		ByteBuffer buffer = ByteBuffer.allocate((int) codec.encodedArraySize(array.size()));
+		array.set(5, Double.POSITIVE_INFINITY, 0, 0);
+		assertRejected(codec, array, buffer);
+		array.set(5, 0, Double.NaN, 0);
+		assertRejected(codec, array, buffer);
+		array.set(5, 0, 0, 1e300);
+		assertRejected(codec, array, buffer);
+	}
+
+	private static void assertRejected(VectorCodec codec, Vector3DArray array, ByteBuffer buffer) {
+		try {
+			codec.encode(array, buffer);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals(0, buffer.position());
+		}
+	}
+
+	@Test
+	public void serialization() throws Exception {
+		Vector3D a = Vector3D.valueOf(1, 2, 3);
+		ArrayVector b = ArrayVector.valueOf(1, 2, 3);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(a);
+			out.writeObject(b);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))) {
+			Object a2 = in.readObject();
+			Object b2 = in.readObject();
+			assertTrue(a2 instanceof Vector3D);
+			assertTrue(b2 instanceof ArrayVector);
+			assertEquals(a, a2);
+			assertEquals(b, b2);
+		}
+	}
+
+	private static Vector3DArray trajectory(int size) {
+		Vector3DArray array = Vector3DArray.ofSize(size);
+		for (int i = 0; i < size; i++) {
+			double t = i * 0.01;
+			array.set(i, 100 * Math.cos(t), 100 * Math.sin(t), t);
+		}
+		return array;
+	}
+}
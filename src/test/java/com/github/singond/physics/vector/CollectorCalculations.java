@@ -0,0 +1,95 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class CollectorCalculations {
+
+	private static final double DELTA = 1e-9;
+
+	private static Vector3DArray array(int size) {
+		Vector3DArray array = Vector3DArray.ofSize(size);
+		for (int i = 0; i < size; i++) {
+			array.set(i, i, -2 * i, 0.5);
+		}
+		return array;
+	}
+
+	@Test
+	public void summing() {
+		Vector sum = array(1000).parallelStream().collect(VectorCollectors.summing(3));
+		assertTrue(sum instanceof Vector3D);
+		assertEquals(Vector3D.valueOf(499500, -999000, 500), sum);
+		assertEquals(Vector3D.valueOf(0, 0, 0),
+				Stream.<Vector>empty().collect(VectorCollectors.summing(3)));
+	}
+
+	@Test
+	public void compensatedSum() {
+		Vector sum = Stream.of(ArrayVector.valueOf(1), ArrayVector.valueOf(1e-16),
+				ArrayVector.valueOf(1e-16), ArrayVector.valueOf(-1))
+				.collect(VectorCollectors.summing(1));
+		assertEquals(2e-16, sum.get(0), 1e-30);
+	}
+
+	@Test
+	public void averaging() {
+		Vector mean = array(101).stream().collect(VectorCollectors.averaging(3));
+		assertEquals(50, mean.get(0), DELTA);
+		assertEquals(-100, mean.get(1), DELTA);
+		assertEquals(0.5, mean.get(2), DELTA);
+	}
+
+	@Test
+	public void boundingBox() {
+		BoundingBox box = array(100).parallelStream()
+				.collect(VectorCollectors.boundingBox(3));
+		assertEquals(Vector3D.valueOf(0, -198, 0.5), box.min());
+		assertEquals(Vector3D.valueOf(99, 0, 0.5), box.max());
+		assertEquals(BoundingBox.of(array(100)), box);
+		assertTrue(box.contains(Vector3D.valueOf(50, -100, 0.5)));
+		assertFalse(box.contains(Vector3D.valueOf(50, 1, 0.5)));
+		assertTrue(Stream.<Vector>empty().collect(VectorCollectors.boundingBox(2))
+				.isEmpty());
+	}
+
+	@Test
+	public void boundingBoxIgnoresNaN() {
+		Vector3DArray array = array(10);
+		array.set(3, Double.NaN, 1, Double.NaN);
+		array.set(0, Double.NaN, 0, 0.5);
+		BoundingBox box = array.stream().collect(VectorCollectors.boundingBox(3));
+		assertEquals(Vector3D.valueOf(1, -18, 0.5), box.min());
+		assertEquals(Vector3D.valueOf(9, 1, 0.5), box.max());
+		assertEquals(BoundingBox.of(array), box);
+	}
+
+	@Test
+	public void statistics() {
+		VectorStatistics stats = array(100).parallelStream()
+				.collect(VectorCollectors.statistics(3));
+		assertEquals(100, stats.count());
+		assertEquals(49.5, stats.mean(0), DELTA);
+		assertEquals(0, stats.variance(2), DELTA);
+	}
+
+	@Test
+	public void spliterator() {
+		Spliterator<Vector3D> s = array(10).spliterator();
+		assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+		Spliterator<Vector3D> prefix = s.trySplit();
+		assertEquals(5, prefix.estimateSize());
+		assertEquals(5, s.estimateSize());
+		prefix.tryAdvance(v -> assertEquals(Vector3D.valueOf(0, 0, 0.5), v));
+		s.tryAdvance(v -> assertEquals(Vector3D.valueOf(5, -10, 0.5), v));
+		assertNull(array(1).spliterator().trySplit());
+		assertEquals(1000, array(1000).parallelStream().count());
+	}
+}
@@ -0,0 +1,193 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class CompressedTrajectoryCalculations {
+
+	private static final int STEPS = 10000;
+
+	/** Samples the motion of a damped harmonic oscillator. */
+	private static double[] sample(int i) {
+		double t = i * 1e-3;
+		double x = Math.exp(-0.1 * t) * Math.cos(t);
+		double v = -Math.exp(-0.1 * t) * (Math.sin(t) + 0.1 * Math.cos(t));
+		return new double[] {x, v, t};
+	}
+
+	@Test
+	public void lossless() throws Exception {
+		CompressedTrajectory.Encoder encoder = CompressedTrajectory.encoder(3);
+		encoder.setBlockSize(100);
+		for (int i = 0; i < STEPS; i++) {
+			encoder.add(sample(i));
+		}
+		encoder.add(Vector3D.valueOf(Double.NaN, Double.NEGATIVE_INFINITY, -0.0));
+		CompressedTrajectory trajectory = encoder.toTrajectory();
+		assertTrue(trajectory.isLossless());
+		assertEquals(STEPS + 1, trajectory.size());
+
+		CompressedTrajectory.Reader reader = trajectory.reader();
+		double[] components = new double[3];
+		for (int i = 0; i < STEPS; i++) {
+			reader.next(components);
+			double[] expected = sample(i);
+			for (int c = 0; c < 3; c++) {
+				assertEquals(Double.doubleToLongBits(expected[c]),
+						Double.doubleToLongBits(components[c]));
+			}
+		}
+		assertEquals(Vector3D.valueOf(Double.NaN, Double.NEGATIVE_INFINITY, -0.0),
+				reader.next());
+		assertFalse(reader.hasNext());
+		assertEquals(Vector3D.valueOf(sample(1234)[0], sample(1234)[1],
+				sample(1234)[2]), trajectory.get(1234));
+	}
+
+	@Test
+	public void quantized() {
+		double maxError = 1e-6;
+		CompressedTrajectory.Encoder encoder
+				= CompressedTrajectory.encoder(3, maxError);
+		for (int i = 0; i < STEPS; i++) {
+			encoder.add(sample(i));
+		}
+		CompressedTrajectory trajectory = encoder.toTrajectory();
+		assertFalse(trajectory.isLossless());
+		assertTrue(trajectory.compressedSize() < STEPS * 3 * 2);
+
+		CompressedTrajectory.Reader reader = trajectory.reader(5000);
+		double[] components = new double[3];
+		for (int i = 5000; i < STEPS; i++) {
+			reader.next(components);
+			double[] expected = sample(i);
+			for (int c = 0; c < 3; c++) {
+				assertEquals(expected[c], components[c], maxError * (1 + 1e-9));
+			}
+		}
+	}
+
+	@Test
+	public void arbitraryDimension() {
+		CompressedTrajectory.Encoder encoder = CompressedTrajectory.encoder(5, 0.5);
+		encoder.setBlockSize(3);
+		for (int i = 0; i < 10; i++) {
+			encoder.add(ArrayVector.valueOf(i, -i, i * i, 0, 1000 - i));
+		}
+		CompressedTrajectory trajectory = encoder.toTrajectory();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(ArrayVector.valueOf(i, -i, i * i, 0, 1000 - i),
+					trajectory.get(i));
+		}
+	}
+
+	@Test
+	public void writeAndRead() throws Exception {
+		CompressedTrajectory.Encoder encoder = CompressedTrajectory.encoder(3);
+		for (int i = 0; i < 2500; i++) {
+			encoder.add(sample(i));
+		}
+		CompressedTrajectory trajectory = encoder.toTrajectory();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		trajectory.writeTo(out);
+		CompressedTrajectory read = CompressedTrajectory.readFrom(
+				new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(trajectory.size(), read.size());
+		assertEquals(trajectory.compressedSize(), read.compressedSize());
+		for (int i = 0; i < 2500; i += 7) {
+			assertEquals(trajectory.get(i), read.get(i));
+		}
+	}
+
+	@Test
+	public void rejectedVectorLeavesEncoderUnchanged() {
+		CompressedTrajectory.Encoder encoder = CompressedTrajectory.encoder(3, 0.5);
+		encoder.setBlockSize(4);
+		for (int i = 0; i < 6; i++) {
+			encoder.add(i, 2 * i, -i);
+		}
+		try {
+			encoder.add(7, 8, 1e300);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(6, encoder.size());
+		for (int i = 6; i < 10; i++) {
+			encoder.add(i, 2 * i, -i);
+		}
+		CompressedTrajectory trajectory = encoder.toTrajectory();
+		assertEquals(10, trajectory.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(Vector3D.valueOf(i, 2 * i, -i), trajectory.get(i));
+		}
+	}
+
+	/** Writes a header of a trajectory with the given fields. */
+	private static DataOutputStream header(ByteArrayOutputStream bytes,
+			int blockSize, long size, int blockCount) throws IOException {
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0x56545243);
+		out.writeInt(1);
+		out.writeInt(3);
+		out.writeInt(blockSize);
+		out.writeDouble(0);
+		out.writeLong(size);
+		out.writeInt(blockCount);
+		return out;
+	}
+
+	private static void assertCorrupted(ByteArrayOutputStream bytes) {
+		try {
+			CompressedTrajectory.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+			fail("Expected IOException");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void readRejectsHugeBlockCount() throws Exception {
+		// A consistent header claiming 2^31 - 1 blocks, with no data following
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		header(bytes, 1, Integer.MAX_VALUE, Integer.MAX_VALUE);
+		assertCorrupted(bytes);
+	}
+
+	@Test
+	public void readRejectsOverflowingSize() throws Exception {
+		// The true block count of this size exceeds the range of int
+		for (int blockCount : new int[] {0, 1, Integer.MAX_VALUE, -1}) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			header(bytes, Integer.MAX_VALUE, Long.MAX_VALUE, blockCount);
+			assertCorrupted(bytes);
+		}
+	}
+
+	@Test
+	public void readRejectsHugeBlockLength() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = header(bytes, 4, 4, 1);
+		out.writeInt(Integer.MAX_VALUE);
+		assertCorrupted(bytes);
+	}
+
+	@Test
+	public void readRejectsTruncatedBlock() throws Exception {
+		// A plausible length for 1024 vectors, but only a few bytes follow
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = header(bytes, 1 << 20, 1 << 20, 1);
+		out.writeInt(20 << 20);
+		out.writeLong(0);
+		assertCorrupted(bytes);
+	}
+}
@@ -0,0 +1,178 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DualCalculations {
+
+	private static final double FREE_LENGTH = 0.5;
+	private static final double STEP = 1e-4;
+	private static final int STEPS = 2000;
+
+	@Test
+	public void scalarDerivatives() {
+		Dual x = Dual.variable(3, 2, 0);
+		Dual y = Dual.variable(4, 2, 1);
+		// f = (x*y + x) / sqrt(x*x + y*y)
+		Dual r = x.times(x).plus(y.times(y)).sqrt();
+		Dual f = x.times(y).plus(x).dividedBy(r);
+		assertEquals((3 * 4 + 3) / 5.0, f.value(), 1e-15);
+		// df/dx = (y + 1)/r - (xy + x) x / r^3
+		assertEquals(5.0 / 5 - 15.0 * 3 / 125, f.derivative(0), 1e-15);
+		// df/dy = x/r - (xy + x) y / r^3
+		assertEquals(3.0 / 5 - 15.0 * 4 / 125, f.derivative(1), 1e-15);
+		assertEquals(-3, x.negative().value(), 0);
+		assertEquals(-1, x.negative().derivative(0), 0);
+		assertEquals(0, x.negative().derivative(1), 0);
+		assertEquals(Dual.of(5, 1, 0), x.plus(2));
+		assertEquals(Dual.constant(7, 2), x.plus(y).minus(x.plus(y).minus(7)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parameterMismatch() {
+		Dual.variable(1, 2, 0).plus(Dual.constant(1, 3));
+	}
+
+	@Test
+	public void vectorGradients() {
+		// u = (a, b, 1), v = (2, a, b)
+		double a = 0.7, b = -1.3;
+		Dual da = Dual.variable(a, 2, 0);
+		Dual db = Dual.variable(b, 2, 1);
+		Dual one = Dual.constant(1, 2);
+		DualVector3D u = DualVector3D.valueOf(da, db, one);
+		DualVector3D v = DualVector3D.valueOf(Dual.constant(2, 2), da, db);
+
+		// u . v = 2a + ab + b
+		Dual dot = u.dotProduct(v);
+		assertEquals(2 * a + a * b + b, dot.value(), 1e-15);
+		assertEquals(2 + b, dot.derivative(0), 1e-15);
+		assertEquals(a + 1, dot.derivative(1), 1e-15);
+
+		// u x v = (b*b - a, 2 - a*b, a*a - 2b)
+		DualVector3D cross = u.crossProduct(v);
+		assertEquals(Vector3D.valueOf(-1, -b, 2 * a), cross.derivative(0));
+		assertEquals(Vector3D.valueOf(2 * b, -a, -2), cross.derivative(1));
+
+		// |u| = sqrt(a^2 + b^2 + 1)
+		double m = Math.sqrt(a * a + b * b + 1);
+		Dual mag = u.magnitude();
+		assertEquals(a / m, mag.derivative(0), 1e-15);
+		assertEquals(b / m, mag.derivative(1), 1e-15);
+
+		// d(u/|u|)/da = (e_x - n n_x) / |u|
+		DualVector3D n = u.normalized();
+		Vector3D nv = n.value();
+		Vector3D expected = Vector3D.valueOf(1, 0, 0).minus(nv.times(nv.get(0))).times(1 / m);
+		assertEquals(0, n.derivative(0).minus(expected).magnitude(), 1e-15);
+	}
+
+	@Test
+	public void valuesMatchVector3D() {
+		Random random = new Random(7);
+		for (int i = 0; i < 1000; i++) {
+			Vector3D a = Vector3D.valueOf(random.nextGaussian(),
+					random.nextGaussian(), random.nextGaussian());
+			Vector3D b = Vector3D.valueOf(random.nextGaussian(),
+					random.nextGaussian(), random.nextGaussian());
+			double s = random.nextGaussian();
+			DualVector3D da = DualVector3D.variable(a, 6, 0);
+			DualVector3D db = DualVector3D.variable(b, 6, 3);
+			assertEquals(a.plus(b), da.plus(db).value());
+			assertEquals(a.minus(b), da.minus(db).value());
+			assertEquals(a.times(s), da.times(s).value());
+			assertEquals(a.crossProduct(b), da.crossProduct(db).value());
+			assertEquals(a.normalized(), da.normalized().value());
+			assertEquals(a.dotProduct(b), da.dotProduct(db).value(), 0);
+			assertEquals(a.magnitude(), da.magnitude().value(), 0);
+		}
+	}
+
+	@Test
+	public void valuesMatchArrayVector() {
+		Random random = new Random(11);
+		for (int i = 0; i < 200; i++) {
+			double[] x = new double[5];
+			double[] y = new double[5];
+			for (int k = 0; k < x.length; k++) {
+				x[k] = random.nextGaussian();
+				y[k] = random.nextGaussian();
+			}
+			ArrayVector a = ArrayVector.valueOf(x);
+			ArrayVector b = ArrayVector.valueOf(y);
+			DualArrayVector da = DualArrayVector.variable(a, 10, 0);
+			DualArrayVector db = DualArrayVector.variable(b, 10, 5);
+			assertEquals(a.plus(b), da.plus(db).value());
+			assertEquals(a.times(3), da.times(3).value());
+			assertEquals(a.normalized(), da.normalized().value());
+			assertEquals(a.dotProduct(b), da.dotProduct(db).value(), 0);
+			assertEquals(a.magnitude(), da.magnitude().value(), 0);
+
+			// d(a . b)/da_k = b_k and d|a|/da_k = a_k/|a|
+			Dual dot = da.dotProduct(db);
+			Dual mag = da.magnitude();
+			for (int k = 0; k < x.length; k++) {
+				assertEquals(y[k], dot.derivative(k), 0);
+				assertEquals(x[k], dot.derivative(5 + k), 0);
+				assertEquals(x[k] / mag.value(), mag.derivative(k), 1e-15);
+			}
+		}
+	}
+
+	@Test
+	public void arrayCrossProduct() {
+		Vector3D a = Vector3D.valueOf(1, 2, 3);
+		Vector3D b = Vector3D.valueOf(-2, 0.5, 4);
+		DualArrayVector da = DualArrayVector.variable(ArrayVector.valueOf(1, 2, 3), 6, 0);
+		DualArrayVector db = DualArrayVector.variable(ArrayVector.valueOf(-2, 0.5, 4), 6, 3);
+		DualVector3D ea = DualVector3D.variable(a, 6, 0);
+		DualVector3D eb = DualVector3D.variable(b, 6, 3);
+		DualArrayVector cross = da.crossProduct(db);
+		DualVector3D expected = ea.crossProduct(eb);
+		for (int k = 0; k < 3; k++) {
+			assertEquals(expected.get(k), cross.get(k));
+		}
+	}
+
+	@Test(expected = IllegalVectorDimensionException.class)
+	public void arrayDimensionMismatch() {
+		DualArrayVector.constant(ArrayVector.valueOf(1, 2), 1)
+				.plus(DualArrayVector.constant(ArrayVector.valueOf(1, 2, 3), 1));
+	}
+
+	/**
+	 * Runs the spring oscillator of {@code ImplementationComparison}
+	 * with the stiffness and mass as parameters 0 and 1.
+	 */
+	private static DualVector3D oscillator(double stiffness, double mass) {
+		Dual k = Dual.variable(stiffness, 2, 0);
+		Dual inverseMass = Dual.constant(1, 2).dividedBy(Dual.variable(mass, 2, 1));
+		Vector3D support = Vector3D.valueOf(0, 0, 0);
+		DualVector3D position = DualVector3D.constant(Vector3D.valueOf(0, -0.7, 0), 2);
+		DualVector3D velocity = DualVector3D.constant(Vector3D.valueOf(0, 0, 0), 2);
+		for (int i = 0; i < STEPS; i++) {
+			DualVector3D spring = position.minus(support);
+			Dual strain = spring.magnitude().minus(FREE_LENGTH).dividedBy(FREE_LENGTH);
+			DualVector3D force = spring.normalized().negative().times(k.times(strain));
+			velocity = velocity.plus(force.times(inverseMass).times(STEP));
+			position = position.plus(velocity.times(STEP));
+		}
+		return position;
+	}
+
+	@Test
+	public void oscillatorMatchesFiniteDifferences() {
+		double stiffness = 40, mass = 0.8;
+		DualVector3D position = oscillator(stiffness, mass);
+		double hk = 1e-5 * stiffness, hm = 1e-5 * mass;
+		Vector3D dk = oscillator(stiffness + hk, mass).value()
+				.minus(oscillator(stiffness - hk, mass).value()).times(1 / (2 * hk));
+		Vector3D dm = oscillator(stiffness, mass + hm).value()
+				.minus(oscillator(stiffness, mass - hm).value()).times(1 / (2 * hm));
+		assertEquals(0, position.derivative(0).minus(dk).magnitude(), 1e-6 * dk.magnitude());
+		assertEquals(0, position.derivative(1).minus(dm).magnitude(), 1e-6 * dm.magnitude());
+	}
+}
@@ -0,0 +1,133 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class GeometryCalculations {
+
+	private static final double DELTA = 1e-12;
+
+	private static Vector3D v(double x, double y, double z) {
+		return Vector3D.valueOf(x, y, z);
+	}
+
+	@Test
+	public void sphere() {
+		Sphere sphere = Sphere.of(v(0, 0, 0), 1);
+		assertEquals(4, sphere.intersect(Ray3D.of(v(-5, 0, 0), v(1, 0, 0))), DELTA);
+		assertEquals(2, sphere.intersect(Ray3D.of(v(-5, 0, 0), v(2, 0, 0))), DELTA);
+		assertEquals(1, sphere.intersect(Ray3D.of(v(0, 0, 0), v(0, 1, 0))), DELTA);
+		assertTrue(Double.isNaN(sphere.intersect(Ray3D.of(v(-5, 2, 0), v(1, 0, 0)))));
+		assertTrue(Double.isNaN(sphere.intersect(Ray3D.of(v(5, 0, 0), v(1, 0, 0)))));
+		assertEquals(1, sphere.signedDistance(v(0, 2, 0)), DELTA);
+		double[] projection = new double[3];
+		sphere.project(0, 0, -3, projection);
+		assertArrayEquals(new double[] {0, 0, -1}, projection, DELTA);
+		assertTrue(sphere.intersects(AABB.of(v(0.5, 0.5, 0.5), v(2, 2, 2))));
+		assertFalse(sphere.intersects(AABB.of(v(0.8, 0.8, 0.8), v(2, 2, 2))));
+	}
+
+	@Test
+	public void box() {
+		AABB box = AABB.of(v(-1, -1, -1), v(1, 1, 1));
+		assertEquals(4, box.intersect(Ray3D.of(v(-5, 0.5, 0), v(1, 0, 0))), DELTA);
+		assertEquals(0, box.intersect(Ray3D.of(v(0, 0, 0), v(1, 1, 0))), DELTA);
+		assertTrue(Double.isNaN(box.intersect(Ray3D.of(v(-5, 2, 0), v(1, 0, 0)))));
+		assertTrue(Double.isNaN(box.intersect(Ray3D.of(v(-5, 0, 0), v(-1, 0, 0)))));
+		assertEquals(3, box.distance(v(4, 0, 0)), DELTA);
+		assertEquals(0, box.distance(v(0.5, 0, 0)), DELTA);
+		assertTrue(box.contains(v(1, 1, 1)));
+		assertEquals(box, AABB.of(box.toBoundingBox()));
+		assertTrue(box.intersects(AABB.of(v(1, 1, 1), v(2, 2, 2))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invertedBox() {
+		AABB.of(v(1, 0, 0), v(0, 1, 1));
+	}
+
+	@Test
+	public void plane() {
+		Plane plane = Plane.through(v(0, 0, 1), v(1, 0, 1), v(0, 1, 1));
+		assertEquals(v(0, 0, 1), plane.normal());
+		assertEquals(1, plane.offset(), DELTA);
+		assertEquals(0.5, plane.intersect(Ray3D.of(v(0, 0, 0), v(0, 0, 2))), DELTA);
+		assertTrue(Double.isNaN(plane.intersect(Ray3D.of(v(0, 0, 0), v(1, 0, 0)))));
+		assertTrue(Double.isNaN(plane.intersect(Ray3D.of(v(0, 0, 0), v(0, 0, -1)))));
+		assertEquals(-3, plane.signedDistance(v(5, 5, -2)), DELTA);
+		assertEquals(v(5, 5, 1), plane.project(v(5, 5, -2)));
+	}
+
+	@Test
+	public void triangle() {
+		Triangle triangle = Triangle.of(v(0, 0, 0), v(1, 0, 0), v(0, 1, 0));
+		assertEquals(v(0, 0, 1), triangle.normal());
+		assertEquals(0.5, triangle.area(), DELTA);
+		assertEquals(1, triangle.intersect(
+				Ray3D.of(v(0.25, 0.25, 1), v(0, 0, -1))), DELTA);
+		assertEquals(1, triangle.intersect(
+				Ray3D.of(v(0.25, 0.25, -1), v(0, 0, 1))), DELTA);
+		assertTrue(Double.isNaN(triangle.intersect(
+				Ray3D.of(v(1, 1, 1), v(0, 0, -1)))));
+		double[] closest = new double[3];
+		triangle.closestPoint(2, 2, 0, closest);
+		assertArrayEquals(new double[] {0.5, 0.5, 0}, closest, DELTA);
+		triangle.closestPoint(-1, -1, 5, closest);
+		assertArrayEquals(new double[] {0, 0, 0}, closest, DELTA);
+		triangle.closestPoint(3, -1, 0, closest);
+		assertArrayEquals(new double[] {1, 0, 0}, closest, DELTA);
+		triangle.closestPoint(0.5, -1, 0, closest);
+		assertArrayEquals(new double[] {0.5, 0, 0}, closest, DELTA);
+		assertEquals(3, triangle.distance(v(0.2, 0.2, 3)), DELTA);
+		assertEquals(9, triangle.distanceSquared(0.2, 0.2, 3), DELTA);
+		assertEquals(2, triangle.distanceSquared(-1, -1, 0), DELTA);
+		assertEquals(1, triangle.distanceSquared(0, 2, 0), DELTA);
+	}
+
+	@Test
+	public void ray() {
+		Ray3D ray = Ray3D.of(v(1, 0, 0), v(0, 2, 0));
+		assertEquals(v(1, 3, 0), ray.pointAt(1.5));
+		assertEquals(1, ray.distance(v(0, 4, 0)), DELTA);
+		assertEquals(Math.sqrt(2), ray.distance(v(0, -1, 0)), DELTA);
+	}
+
+	@Test
+	public void batch() {
+		int n = 1001;
+		Random random = new Random(42);
+		Vector3DArray origins = Vector3DArray.ofSize(n);
+		Vector3DArray directions = Vector3DArray.ofSize(n);
+		for (int i = 0; i < n; i++) {
+			origins.set(i, 4 * random.nextDouble() - 2, 4 * random.nextDouble() - 2, -3);
+			directions.set(i, random.nextGaussian() * 0.2,
+					random.nextGaussian() * 0.2, 1);
+		}
+		RayBatch batch = RayBatch.of(origins, directions);
+		double[] t = new double[n];
+		Sphere sphere = Sphere.of(v(0, 0, 0), 1);
+		int hits = batch.intersect(sphere, t);
+		assertTrue(hits > 0 && hits < n);
+		for (int i = 0; i < n; i++) {
+			assertEquals(sphere.intersect(batch.ray(i)), t[i], 0);
+		}
+		AABB box = AABB.of(v(-1, -0.5, -1), v(1, 0.5, 1));
+		batch.intersect(box, t);
+		for (int i = 0; i < n; i++) {
+			assertEquals(box.intersect(batch.ray(i)), t[i], 0);
+		}
+		Triangle triangle = Triangle.of(v(-1, -1, 0), v(1, -1, 0), v(0, 1, 0));
+		batch.intersect(triangle, t);
+		for (int i = 0; i < n; i++) {
+			assertEquals(triangle.intersect(batch.ray(i)), t[i], 0);
+		}
+		Plane plane = Plane.of(v(0, 0.1, 1), v(0, 0, 0));
+		assertEquals(n, batch.intersect(plane, t));
+	}
+}
@@ -281,6 +281,51 @@ public class ImplementationComparison {
 		}
 	}
 
+	static class HarmonicOscillatorSolverIntegrator
+			implements HarmonicOscillatorSolver {
+
+		private SystemState state;
+		private Integrator integrator;
+
+		private double step;
+
+		@Override
+		public void setModel(HarmonicOscillatorModel model) {
+			final double freeLength = model.length;
+			final double stiffness = model.stiffness;
+			final double mass = model.mass;
+			// The support is in the origin
+			ForceFunction force = (time, position, velocity, acceleration) -> {
+				double x = position[0], y = position[1], z = position[2];
+				double length = Math.sqrt(x*x + y*y + z*z);
+				double strain = (length - freeLength) / freeLength;
+				double factor = -stiffness * strain / (mass * length);
+				acceleration[0] = x * factor;
+				acceleration[1] = y * factor;
+				acceleration[2] = z * factor;
+			};
+			integrator = Integrator.semiImplicitEuler(force);
+			double initPosition = model.length + model.initialDisplacement;
+			state = SystemState.of(Vector3D.valueOf(0, -initPosition, 0),
+					Vector3D.valueOf(0, 0, 0));
+		}
+
+		@Override
+		public void setStep(double step) {
+			this.step = step;
+		}
+
+		@Override
+		public void doStep() {
+			integrator.step(state, step);
+		}
+
+		@Override
+		public double getPosition() {
+			return state.getPosition(0, 1);
+		}
+	}
+
 	@Test
 	public void harmoscVektor() {
 		System.out.println("Implementation using cz.slanyj.euclideanVector.Vektor");
@@ -309,6 +354,13 @@ public class ImplementationComparison {
 		System.out.println();
 	}
 
+	@Test
+	public void harmoscIntegrator() {
+		System.out.println("Implementation using com.github.singond.physics.Integrator");
+		harmosc(new HarmonicOscillatorSolverIntegrator(), "integrator");
+		System.out.println();
+	}
+
 	private void harmosc(HarmonicOscillatorSolver solver, String suffix) {
 
 		System.out.println("Setting up model of a simple harmonic oscillator");
@@ -0,0 +1,50 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.singond.physics.vector.VectorInstrumentation.Operation;
+
+public class InstrumentationCalculations {
+
+	@Test
+	public void countsOperations() {
+		VectorInstrumentation.reset();
+		Vector a = InstrumentedVector.wrap(Vector3D.valueOf(1, 2, 3));
+		Vector b = Vector3D.valueOf(-1, 0, 4);
+		Vector c = a.plus(b).times(2).crossProduct(b);
+		a.dotProduct(c);
+		assertEquals(1, VectorInstrumentation.operationCount(Operation.PLUS, Vector3D.class));
+		assertEquals(1, VectorInstrumentation.operationCount(Operation.TIMES, Vector3D.class));
+		assertEquals(1, VectorInstrumentation.operationCount(Operation.CROSS_PRODUCT, Vector3D.class));
+		assertEquals(1, VectorInstrumentation.operationCount(Operation.DOT_PRODUCT, Vector3D.class));
+		assertEquals(0, VectorInstrumentation.operationCount(Operation.MINUS, Vector3D.class));
+		assertEquals(4, VectorInstrumentation.dimensionHistogram()[3]);
+	}
+
+	@Test
+	public void instrumentedVectorEqualsWrapped() {
+		Vector v = Vector3D.valueOf(1, 2, 3);
+		Vector w = InstrumentedVector.wrap(v);
+		assertEquals(v, w);
+		assertEquals(w, v);
+		assertEquals(v.hashCode(), w.hashCode());
+		assertEquals(Vector3D.valueOf(2, 4, 6), w.times(2));
+	}
+
+	@Test
+	public void samplesCallSites() {
+		VectorInstrumentation.reset();
+		VectorInstrumentation.setCallSiteSamplingInterval(1);
+		try {
+			InstrumentedVector.wrap(ArrayVector.valueOf(1, 2)).magnitude();
+		} finally {
+			VectorInstrumentation.setCallSiteSamplingInterval(0);
+		}
+		String site = VectorInstrumentation.callSiteSamples().keySet().iterator().next();
+		assertTrue(site, site.startsWith(InstrumentationCalculations.class.getName()
+				+ ".samplesCallSites:"));
+	}
+}
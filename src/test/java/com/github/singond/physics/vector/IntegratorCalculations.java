@@ -0,0 +1,109 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+public class IntegratorCalculations {
+
+	/** Harmonic oscillator with unit angular frequency in each component. */
+	private static final ForceFunction OSCILLATOR =
+			(time, position, velocity, acceleration) -> {
+		for (int i = 0; i < position.length; i++) {
+			acceleration[i] = -position[i];
+		}
+	};
+
+	/**
+	 * Integrates the oscillator from {@code x = 1, v = 0} to {@code t = 1}
+	 * and checks the position against the exact solution {@code cos(t)}.
+	 */
+	private void oscillator(Integrator integrator, double precision) {
+		SystemState state = SystemState.of(
+				ArrayVector.valueOf(1, 2), ArrayVector.valueOf(0, 0));
+		integrator.integrate(state, 0.001, 1000);
+		assertEquals(1, state.time(), 1e-12);
+		assertEquals(Math.cos(1), state.getPosition(0, 0), precision);
+		assertEquals(2 * Math.cos(1), state.getPosition(0, 1), 2 * precision);
+		assertEquals(-Math.sin(1), state.getVelocity(0, 0), precision);
+	}
+
+	@Test
+	public void euler() {
+		oscillator(Integrator.euler(OSCILLATOR), 1e-3);
+	}
+
+	@Test
+	public void semiImplicitEuler() {
+		oscillator(Integrator.semiImplicitEuler(OSCILLATOR), 1e-3);
+	}
+
+	@Test
+	public void velocityVerlet() {
+		oscillator(Integrator.velocityVerlet(OSCILLATOR), 1e-6);
+	}
+
+	@Test
+	public void rungeKutta4() {
+		oscillator(Integrator.rungeKutta4(OSCILLATOR), 1e-12);
+	}
+
+	@Test
+	public void perBodyForce() {
+		ForceFunction f = ForceFunction.perBody(3, (t, x, v) -> x.negative());
+		SystemState state = SystemState.ofSize(2, 3);
+		state.setPosition(0, Vector3D.valueOf(1, 0, 0));
+		state.setPosition(1, Vector3D.valueOf(0, 0, 3));
+		Integrator.rungeKutta4(f).integrate(state, 0.001, 1000);
+		assertEquals(Math.cos(1), state.getPosition(0, 0), 1e-12);
+		assertEquals(3 * Math.cos(1), state.getPosition(1, 2), 1e-12);
+	}
+
+	@Test
+	public void cachedAccelerationIsNotSharedBetweenForces() {
+		ForceFunction none = (time, position, velocity, acceleration) -> {
+			for (int i = 0; i < acceleration.length; i++) {
+				acceleration[i] = 0;
+			}
+		};
+		SystemState state = SystemState.of(
+				ArrayVector.valueOf(1, 2), ArrayVector.valueOf(0, 0));
+		Integrator.velocityVerlet(OSCILLATOR).step(state, 0.1);
+		double v = state.getVelocity(0, 0);
+		Integrator.velocityVerlet(none).step(state, 0.1);
+		assertEquals(v, state.getVelocity(0, 0), 0);
+	}
+
+	@Test
+	public void integratorsProduceNoGarbage() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+		Integrator[] integrators = {
+				Integrator.euler(OSCILLATOR),
+				Integrator.semiImplicitEuler(OSCILLATOR),
+				Integrator.velocityVerlet(OSCILLATOR),
+				Integrator.rungeKutta4(OSCILLATOR)
+		};
+		SystemState state = SystemState.ofSize(100, 3);
+		for (Integrator integrator : integrators) {
+			// Warm up, so that the scratch buffers exist and the loop is compiled
+			for (int i = 0; i < 20; i++) {
+				integrator.integrate(state, 1e-3, 1000);
+			}
+			long before = threads.getThreadAllocatedBytes(thread);
+			integrator.integrate(state, 1e-3, 100_000);
+			long allocated = threads.getThreadAllocatedBytes(thread) - before;
+			// Allow for the measurement itself, but not for anything per step
+			assertTrue(integrator + " allocated " + allocated + " bytes",
+					allocated < 10_000);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntervalCalculations {
+
+	private static boolean contains(Interval interval, BigDecimal exact) {
+		return new BigDecimal(interval.lower()).compareTo(exact) <= 0
+				&& exact.compareTo(new BigDecimal(interval.upper())) <= 0;
+	}
+
+	@Test
+	public void scalarOperations() {
+		Interval a = Interval.of(0.1);
+		Interval b = Interval.of(-3, 2);
+		assertTrue(a.plus(a).plus(a).contains(0.1 + 0.1 + 0.1));
+		assertTrue(a.plus(a).plus(a).contains(Interval.of(0.30000000000000004)));
+		assertEquals(Interval.of(-2, 3), b.negative());
+		Interval product = b.times(Interval.of(-1, 4));
+		assertTrue(product.contains(Interval.of(-12, 8)));
+		assertTrue(product.width() < 20 + 1e-12);
+		Interval square = b.square();
+		assertEquals(0, square.lower(), 0);
+		assertTrue(square.contains(9));
+		assertEquals(Interval.entire(), a.dividedBy(b));
+		assertTrue(Interval.of(2).sqrt().contains(Math.sqrt(2)));
+		assertTrue(Interval.of(4, 9).sqrt().contains(Interval.of(2, 3)));
+		assertEquals(0.5, Interval.of(0, 1).midpoint(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidBounds() {
+		Interval.of(1, 0);
+	}
+
+	@Test
+	public void containsExactResults() {
+		Random random = new Random(1);
+		for (int n = 0; n < 1000; n++) {
+			double[] a = new double[6];
+			for (int i = 0; i < a.length; i++) {
+				a[i] = random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+			}
+			IntervalVector3D u = IntervalVector3D.of(a[0], a[1], a[2]);
+			IntervalVector3D v = IntervalVector3D.of(a[3], a[4], a[5]);
+
+			BigDecimal dot = BigDecimal.ZERO;
+			for (int i = 0; i < 3; i++) {
+				dot = dot.add(new BigDecimal(a[i]).multiply(new BigDecimal(a[i + 3])));
+			}
+			assertTrue(contains(u.dotProduct(v), dot));
+
+			BigDecimal cross = new BigDecimal(a[1]).multiply(new BigDecimal(a[5]))
+					.subtract(new BigDecimal(a[2]).multiply(new BigDecimal(a[4])));
+			assertTrue(contains(u.crossProduct(v).get(0), cross));
+
+			BigDecimal squares = new BigDecimal(a[0]).pow(2)
+					.add(new BigDecimal(a[1]).pow(2)).add(new BigDecimal(a[2]).pow(2));
+			assertTrue(contains(u.magnitudeSquared(), squares));
+			assertTrue(contains(u.magnitude(), sqrt(squares)));
+
+			Vector3D x = Vector3D.valueOf(a[0], a[1], a[2]);
+			Vector3D y = Vector3D.valueOf(a[3], a[4], a[5]);
+			assertTrue(u.plus(v).contains(x.plus(y)));
+			assertTrue(u.minus(v).contains(x.minus(y)));
+			assertTrue(u.crossProduct(v).contains(x.crossProduct(y)));
+			assertTrue(u.normalized().contains(x.normalized()));
+			assertTrue(u.dotProduct(v).contains(x.dotProduct(y)));
+			assertTrue(u.magnitude().contains(x.magnitude()));
+		}
+	}
+
+	private static BigDecimal sqrt(BigDecimal value) {
+		MathContext mc = new MathContext(40);
+		BigDecimal x = new BigDecimal(Math.sqrt(value.doubleValue()));
+		for (int i = 0; i < 5; i++) {
+			x = x.add(value.divide(x, mc)).divide(BigDecimal.valueOf(2), mc);
+		}
+		return x;
+	}
+
+	@Test
+	public void arrayVector() {
+		ArrayVector a = ArrayVector.valueOf(0.1, 0.2, 0.3, 0.4);
+		ArrayVector b = ArrayVector.valueOf(-1.5, 2.25, 1e-3, 7);
+		IntervalArrayVector u = IntervalArrayVector.of(a);
+		IntervalArrayVector v = IntervalArrayVector.of(b);
+		assertEquals(4, u.dimension());
+		assertTrue(u.plus(v).contains(a.plus(b)));
+		assertTrue(u.minus(v).contains(a.minus(b)));
+		assertTrue(u.times(0.3).contains(a.times(0.3)));
+		assertTrue(u.pointwiseProduct(v).contains(a.pointwiseProduct(b)));
+		assertTrue(u.dotProduct(v).contains(a.dotProduct(b)));
+		assertTrue(u.magnitude().contains(a.magnitude()));
+		assertTrue(u.normalized().contains(a.normalized()));
+		assertTrue(u.maxWidth() < 1e-15);
+
+		IntervalArrayVector box = IntervalArrayVector.of(
+				ArrayVector.valueOf(-1, 0), ArrayVector.valueOf(1, 2));
+		assertEquals(Interval.of(-1, 1), box.get(0));
+		assertTrue(box.contains(ArrayVector.valueOf(0.5, 0.5)));
+		assertEquals(ArrayVector.valueOf(0, 1), box.midpoint());
+		assertEquals(0, box.magnitudeSquared().lower(), 0);
+
+		IntervalArrayVector w = IntervalArrayVector.valueOf(1, 2, 3);
+		assertTrue(w.crossProduct(IntervalArrayVector.valueOf(-1, 0, 2))
+				.contains(ArrayVector.valueOf(1, 2, 3).crossProduct(ArrayVector.valueOf(-1, 0, 2))));
+	}
+
+	@Test(expected = IllegalVectorDimensionException.class)
+	public void dimensionMismatch() {
+		IntervalArrayVector.valueOf(1, 2).plus(IntervalArrayVector.valueOf(1, 2, 3));
+	}
+
+	/**
+	 * Runs the harmonic oscillator of {@code ImplementationComparison}
+	 * in double and interval arithmetic and checks that the interval
+	 * result bounds the double result.
+	 */
+	@Test
+	public void oscillatorEnvelope() {
+		double freeLength = 0.5, stiffness = 40, mass = 0.8, step = 0.001;
+		Vector3D support = Vector3D.valueOf(0, 0, 0);
+		Vector3D position = Vector3D.valueOf(0, -0.7, 0);
+		Vector3D velocity = Vector3D.valueOf(0, 0, 0);
+		IntervalVector3D iPosition = IntervalVector3D.of(position);
+		IntervalVector3D iVelocity = IntervalVector3D.of(velocity);
+
+		for (int i = 0; i < 1000; i++) {
+			Vector3D spring = position.minus(support);
+			double elongation = spring.magnitude() - freeLength;
+			double strain = elongation / freeLength;
+			double forceScalar = stiffness * strain;
+			Vector3D force = spring.normalized().negative().times(forceScalar);
+			velocity = velocity.plus(force.times(1 / mass).times(step));
+			position = position.plus(velocity.times(step));
+
+			IntervalVector3D iSpring = iPosition.minus(support);
+			Interval iElongation = iSpring.magnitude().minus(freeLength);
+			Interval iStrain = iElongation.dividedBy(freeLength);
+			Interval iForceScalar = iStrain.times(stiffness);
+			IntervalVector3D iForce = iSpring.normalized().negative().times(iForceScalar);
+			iVelocity = iVelocity.plus(iForce.times(1 / mass).times(step));
+			iPosition = iPosition.plus(iVelocity.times(step));
+		}
+		assertTrue(iPosition.contains(position));
+		assertTrue(iVelocity.contains(velocity));
+		assertTrue(iPosition.maxWidth() < 1e-6);
+	}
+}
@@ -0,0 +1,61 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class KernelsCalculations {
+
+	private static final int LENGTH = 1003;
+
+	private static double[] random(Random random, int length) {
+		double[] array = new double[length];
+		for (int i = 0; i < length; i++) {
+			array[i] = random.nextGaussian();
+		}
+		return array;
+	}
+
+	@Test
+	public void axpy() {
+		Random random = new Random(1);
+		double[] x = random(random, LENGTH);
+		double[] y = random(random, LENGTH);
+		double[] expected = y.clone();
+		for (int i = 0; i < LENGTH - 1; i++) {
+			expected[i] = y[i] + x[i] * 0.37;
+		}
+		Kernels.axpy(0.37, x, y, LENGTH - 1);
+		assertArrayEquals(expected, y, 0);
+	}
+
+	@Test
+	public void scale() {
+		Random random = new Random(2);
+		double[] x = random(random, LENGTH);
+		double[] expected = x.clone();
+		for (int i = 5; i < LENGTH - 3; i++) {
+			expected[i] = x[i] * -1.5;
+		}
+		Kernels.scale(-1.5, x, 5, LENGTH - 3);
+		assertArrayEquals(expected, x, 0);
+	}
+
+	@Test
+	public void mismatch() {
+		double[] a = random(new Random(3), LENGTH);
+		double[] b = new double[LENGTH + 2];
+		System.arraycopy(a, 0, b, 2, LENGTH);
+		assertEquals(-1, Kernels.mismatch(a, 0, b, 2, LENGTH));
+		b[2 + 700] = Math.nextUp(b[2 + 700]);
+		assertEquals(700, Kernels.mismatch(a, 0, b, 2, LENGTH));
+		assertEquals(-1, Kernels.mismatch(a, 0, b, 2, 700));
+		assertEquals(-1, Kernels.mismatch(new double[] {Double.NaN}, 0,
+				new double[] {0.0 / 0.0}, 0, 1));
+		assertEquals(0, Kernels.mismatch(new double[] {0.0}, 0,
+				new double[] {-0.0}, 0, 1));
+	}
+}
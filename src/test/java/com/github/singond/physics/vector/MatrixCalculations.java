@@ -0,0 +1,124 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MatrixCalculations {
+
+	private static double precision = 1e-9;
+
+	@Test
+	public void matrixVectorProduct() {
+		Matrix m = Matrix.valueOf(2, 3,
+				1, 2, 3,
+				4, 5, 6);
+		assertEquals(ArrayVector.valueOf(14, 32), m.times(ArrayVector.valueOf(1, 2, 3)));
+		assertEquals(ArrayVector.valueOf(14, 32), m.times(Vector3D.valueOf(1, 2, 3)));
+	}
+
+	@Test(expected = IllegalVectorDimensionException.class)
+	public void matrixVectorDimensionMismatch() {
+		Matrix.identity(3).times(ArrayVector.valueOf(1, 2));
+	}
+
+	@Test
+	public void transpose() {
+		Matrix m = Matrix.valueOf(2, 3,
+				1, 2, 3,
+				4, 5, 6);
+		Matrix expected = Matrix.valueOf(3, 2,
+				1, 4,
+				2, 5,
+				3, 6);
+		assertEquals(expected, m.transpose());
+	}
+
+	@Test
+	public void smallProduct() {
+		Matrix a = Matrix.valueOf(2, 2, 1, 2, 3, 4);
+		Matrix b = Matrix.valueOf(2, 2, 5, 6, 7, 8);
+		assertEquals(Matrix.valueOf(2, 2, 19, 22, 43, 50), a.times(b));
+	}
+
+	/**
+	 * Compares the blocked (and parallel) product of large matrices
+	 * with the naive algorithm.
+	 */
+	@Test
+	public void largeProduct() {
+		Random random = new Random(42);
+		int n = 150, m = 130, p = 170;
+		double[] a = new double[n * m];
+		double[] b = new double[m * p];
+		for (int i = 0; i < a.length; i++) a[i] = random.nextDouble();
+		for (int i = 0; i < b.length; i++) b[i] = random.nextDouble();
+		Matrix product = Matrix.valueOf(n, m, a).times(Matrix.valueOf(m, p, b));
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < p; j++) {
+				double expected = 0;
+				for (int k = 0; k < m; k++) {
+					expected += a[i * m + k] * b[k * p + j];
+				}
+				assertEquals(expected, product.get(i, j), precision);
+			}
+		}
+	}
+
+	@Test
+	public void matrix3x3() {
+		Matrix3x3 m = Matrix3x3.valueOf(
+				0, -1, 0,
+				1, 0, 0,
+				0, 0, 1);
+		assertEquals(Vector3D.valueOf(-2, 1, 3), m.times(Vector3D.valueOf(1, 2, 3)));
+		assertEquals(Matrix3x3.identity(), m.times(m.transpose()));
+		assertEquals(1, m.determinant(), precision);
+
+		Vector3DArray points = Vector3DArray.valueOf(
+				Vector3D.valueOf(1, 0, 0), Vector3D.valueOf(0, 1, 5));
+		m.transform(points, points);
+		assertEquals(Vector3D.valueOf(0, 1, 0), points.get(0));
+		assertEquals(Vector3D.valueOf(-1, 0, 5), points.get(1));
+	}
+
+	@Test
+	public void matrix4x4() {
+		Matrix4x4 translation = Matrix4x4.valueOf(
+				1, 0, 0, 10,
+				0, 1, 0, 20,
+				0, 0, 1, 30,
+				0, 0, 0, 1);
+		Vector3D v = Vector3D.valueOf(1, 2, 3);
+		assertEquals(Vector3D.valueOf(11, 22, 33), translation.transformPoint(v));
+		assertEquals(v, translation.transformDirection(v));
+		assertEquals(translation, translation.times(Matrix4x4.identity()));
+	}
+
+	@Test
+	public void projectionMatchesSinglePoints() {
+		Matrix4x4 projection = Matrix4x4.valueOf(
+				1, 0, 0, 0,
+				0, 1, 0, 0,
+				0, 0, 1, 0,
+				0, 0, 0.3, 0.7);
+		Random random = new Random(5);
+		Vector3DArray points = Vector3DArray.ofSize(1000);
+		for (int i = 0; i < points.size(); i++) {
+			points.set(i, random.nextGaussian(), random.nextGaussian(),
+					1 + random.nextDouble());
+		}
+		Vector3DArray projected = Vector3DArray.ofSize(points.size());
+		projection.transformPoints(points, projected);
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(projection.transformPoint(points.get(i)), projected.get(i));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooLarge() {
+		Matrix.valueOf(65536, 65536);
+	}
+}
@@ -0,0 +1,63 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NBodyCalculations {
+
+	@Test
+	public void twoBodies() {
+		NBodySolver solver = NBodySolver.withConstant(2);
+		Vector3DArray r = Vector3DArray.valueOf(
+				Vector3D.valueOf(0, 0, 0), Vector3D.valueOf(0, 2, 0));
+		Vector3DArray a = Vector3DArray.ofSize(2);
+		solver.accelerations(r, new double[] {3, 5}, a);
+		// a = G * m / r^2 towards the other body
+		assertEquals(Vector3D.valueOf(0, 2.5, 0), a.get(0));
+		assertEquals(Vector3D.valueOf(0, -1.5, 0), a.get(1));
+	}
+
+	/**
+	 * Compares the Barnes-Hut approximation to the direct sum
+	 * for a random cluster of bodies.
+	 */
+	@Test
+	public void barnesHutMatchesDirect() {
+		Random random = new Random(7);
+		int n = 3000;
+		double[] x = new double[n], y = new double[n], z = new double[n];
+		double[] m = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextGaussian();
+			y[i] = random.nextGaussian();
+			z[i] = random.nextGaussian();
+			m[i] = random.nextDouble();
+		}
+		// Put some bodies at the same point
+		for (int i = 0; i < 20; i++) {
+			x[i] = 0.5; y[i] = 0.5; z[i] = 0.5;
+		}
+		NBodySolver solver = NBodySolver.withConstant(1).withSoftening(0.01)
+				.withOpeningAngle(0.3);
+		double[] ax = new double[n], ay = new double[n], az = new double[n];
+		double[] bx = new double[n], by = new double[n], bz = new double[n];
+		solver.direct(x, y, z, m, ax, ay, az);
+		solver.barnesHut(x, y, z, m, bx, by, bz);
+		double error = 0, norm = 0;
+		for (int i = 0; i < n; i++) {
+			double dx = ax[i] - bx[i], dy = ay[i] - by[i], dz = az[i] - bz[i];
+			error += dx*dx + dy*dy + dz*dz;
+			norm += ax[i]*ax[i] + ay[i]*ay[i] + az[i]*az[i];
+		}
+		assertTrue("Relative error too large", Math.sqrt(error / norm) < 1e-2);
+
+		solver.withOpeningAngle(0).barnesHut(x, y, z, m, bx, by, bz);
+		for (int i = 0; i < n; i++) {
+			assertEquals(ax[i], bx[i], 1e-9 * Math.abs(ax[i]) + 1e-12);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OrthonormalizerCalculations {
+
+	private static double precision = 1e-10;
+
+	private static List<ArrayVector> randomVectors(int count, int dimension, long seed) {
+		Random random = new Random(seed);
+		List<ArrayVector> vectors = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			double[] v = new double[dimension];
+			for (int j = 0; j < dimension; j++) {
+				v[j] = random.nextGaussian();
+			}
+			vectors.add(ArrayVector.valueOf(v));
+		}
+		return vectors;
+	}
+
+	private void assertOrthonormal(Orthonormalizer basis) {
+		for (int i = 0; i < basis.rank(); i++) {
+			for (int j = 0; j < basis.rank(); j++) {
+				double dot = basis.basisVector(i).dotProduct(basis.basisVector(j));
+				assertEquals(i == j ? 1 : 0, dot, precision);
+			}
+		}
+	}
+
+	private void assertSpans(Orthonormalizer basis, List<? extends Vector> vectors) {
+		for (Vector v : vectors) {
+			assertEquals(0, basis.reject(v).magnitude(), precision * v.magnitude());
+		}
+	}
+
+	@Test
+	public void gramSchmidt() {
+		List<ArrayVector> vectors = Arrays.asList(
+				ArrayVector.valueOf(3, 0, 4),
+				ArrayVector.valueOf(1, 1, 0));
+		Orthonormalizer basis = Orthonormalizer.gramSchmidt(vectors);
+		assertEquals(2, basis.rank());
+		assertEquals(3, basis.dimension());
+		assertArrayEquals(new double[] {0.6, 0, 0.8},
+				basis.basisVector(0).array(), precision);
+		assertOrthonormal(basis);
+		assertSpans(basis, vectors);
+	}
+
+	@Test
+	public void householder() {
+		List<ArrayVector> vectors = randomVectors(40, 60, 1);
+		Orthonormalizer basis = Orthonormalizer.householder(vectors);
+		assertEquals(40, basis.rank());
+		assertOrthonormal(basis);
+		assertSpans(basis, vectors);
+	}
+
+	@Test
+	public void blocked() {
+		// More vectors than a block, compared with unblocked Gram-Schmidt
+		int count = 100, dimension = 120;
+		List<ArrayVector> vectors = randomVectors(count, dimension, 2);
+		Orthonormalizer basis = Orthonormalizer.gramSchmidt(vectors, 1e-12);
+		assertEquals(count, basis.rank());
+		assertOrthonormal(basis);
+
+		List<ArrayVector> naive = new ArrayList<>();
+		for (ArrayVector v : vectors) {
+			for (ArrayVector q : naive) {
+				v = v.minus(q.times(q.dotProduct(v)));
+			}
+			naive.add(v.times(1 / v.magnitude()));
+		}
+		for (int i = 0; i < count; i++) {
+			assertArrayEquals(naive.get(i).array(), basis.basisVector(i).array(), 0);
+		}
+	}
+
+	@Test
+	public void rankDeficiency() {
+		List<ArrayVector> vectors = new ArrayList<>(randomVectors(5, 8, 3));
+		// Linear combinations of the others
+		vectors.add(2, vectors.get(0).plus(vectors.get(1).times(3)));
+		vectors.add(vectors.get(4).minus(vectors.get(3)).times(1e3));
+		vectors.add(ArrayVector.valueOf(new double[8]));
+
+		Orthonormalizer gs = Orthonormalizer.gramSchmidt(vectors);
+		Orthonormalizer qr = Orthonormalizer.householder(vectors);
+		assertEquals(5, gs.rank());
+		assertEquals(5, qr.rank());
+		assertOrthonormal(gs);
+		assertOrthonormal(qr);
+		assertSpans(gs, vectors);
+		assertSpans(qr, vectors);
+
+		List<ArrayVector> zero = Arrays.asList(ArrayVector.valueOf(0, 0));
+		assertEquals(0, Orthonormalizer.gramSchmidt(zero).rank());
+		assertEquals(0, Orthonormalizer.householder(zero).rank());
+	}
+
+	@Test
+	public void moreVectorsThanDimension() {
+		List<ArrayVector> vectors = randomVectors(10, 4, 4);
+		assertEquals(4, Orthonormalizer.gramSchmidt(vectors).rank());
+		assertEquals(4, Orthonormalizer.householder(vectors).rank());
+	}
+
+	@Test
+	public void projection() {
+		Orthonormalizer plane = Orthonormalizer.householder(Arrays.asList(
+				ArrayVector.valueOf(1, 1, 0, 0),
+				ArrayVector.valueOf(0, 2, 0, 0)));
+		ArrayVector v = ArrayVector.valueOf(1, 2, 3, 4);
+		assertArrayEquals(new double[] {1, 2, 0, 0}, plane.project(v).array(), precision);
+		assertArrayEquals(new double[] {0, 0, 3, 4}, plane.reject(v).array(), precision);
+
+		double[] buffer = {1, 2, 3, 4, -1, 0, 5, 6};
+		double[] rejected = buffer.clone();
+		plane.project(buffer, 0, 2);
+		plane.reject(rejected, 0, 2);
+		assertArrayEquals(new double[] {1, 2, 0, 0, -1, 0, 0, 0}, buffer, precision);
+		assertArrayEquals(new double[] {0, 0, 3, 4, 0, 0, 5, 6}, rejected, precision);
+
+		Matrix m = plane.toMatrix();
+		assertEquals(2, m.rows());
+		assertEquals(4, m.columns());
+	}
+
+	@Test(expected = IllegalVectorDimensionException.class)
+	public void dimensionMismatch() {
+		Orthonormalizer.gramSchmidt(Arrays.asList(
+				ArrayVector.valueOf(1, 0), ArrayVector.valueOf(1, 0, 0)));
+	}
+}
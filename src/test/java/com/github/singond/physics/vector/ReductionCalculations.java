@@ -0,0 +1,97 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ReductionCalculations {
+
+	private static double[] randomValues(int length, long seed) {
+		Random random = new Random(seed);
+		double[] values = new double[length];
+		for (int i = 0; i < length; i++) {
+			// Wide range of magnitudes, so that the order of addition matters
+			values[i] = random.nextGaussian() * Math.pow(10, random.nextInt(12));
+		}
+		return values;
+	}
+
+	private static <T> T inPool(int parallelism, Callable<T> task) throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.submit(task).get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void smallSumIsSequential() {
+		double[] values = randomValues(1000, 1);
+		double sequential = 0;
+		for (double v : values) {
+			sequential += v;
+		}
+		assertEquals(sequential, VectorReductions.sum(values), 0);
+	}
+
+	@Test
+	public void sumIsAccurate() {
+		double[] values = randomValues(200_000, 2);
+		BigDecimal exact = BigDecimal.ZERO;
+		double scale = 0;
+		for (double v : values) {
+			exact = exact.add(new BigDecimal(v));
+			scale += Math.abs(v);
+		}
+		assertEquals(exact.doubleValue(), VectorReductions.sum(values), scale * 1e-15);
+	}
+
+	@Test
+	public void independentOfThreads() throws Exception {
+		double[] a = randomValues(300_001, 3);
+		double[] b = randomValues(300_001, 4);
+		double sum = VectorReductions.sum(a);
+		double dot = VectorReductions.dotProduct(a, b);
+		for (int threads : new int[] {1, 2, 3, 8}) {
+			assertEquals(Double.doubleToLongBits(sum), Double.doubleToLongBits(
+					inPool(threads, () -> VectorReductions.sum(a))));
+			assertEquals(Double.doubleToLongBits(dot), Double.doubleToLongBits(
+					inPool(threads, () -> VectorReductions.dotProduct(a, b))));
+		}
+		assertEquals(Math.sqrt(VectorReductions.dotProduct(a, a)),
+				VectorReductions.magnitude(ArrayVector.valueOf(a)), 0);
+		assertEquals(dot, VectorReductions.dotProduct(
+				ArrayVector.valueOf(a), ArrayVector.valueOf(b)), 0);
+	}
+
+	@Test
+	public void bulkSums() throws Exception {
+		int size = 100_000;
+		double[] x = randomValues(size, 5);
+		double[] y = randomValues(size, 6);
+		double[] z = randomValues(size, 7);
+		Vector3DArray array = Vector3DArray.ofSize(size);
+		Vector3DList list = new Vector3DList(size);
+		for (int i = 0; i < size; i++) {
+			array.set(i, x[i], y[i], z[i]);
+			list.add(x[i], y[i], z[i]);
+		}
+		Vector3D expected = Vector3D.valueOf(VectorReductions.sum(x),
+				VectorReductions.sum(y), VectorReductions.sum(z));
+		assertEquals(expected, VectorReductions.sum(array));
+		assertEquals(expected, VectorReductions.sum(list));
+		assertEquals(expected, inPool(3, () -> VectorReductions.sum(list)));
+		assertEquals(25.0, VectorReductions.sum(new double[] {5, 10, 15, 20}, 1, 3), 0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void invalidRange() {
+		VectorReductions.sum(new double[4], 3, 5);
+	}
+}
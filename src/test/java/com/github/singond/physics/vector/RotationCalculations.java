@@ -0,0 +1,86 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RotationCalculations {
+
+	private static double precision = 1e-12;
+
+	private void assertVectorEquals(Vector3D expected, Vector3D actual) {
+		for (int i = 0; i < 3; i++) {
+			assertEquals(expected.get(i), actual.get(i), precision);
+		}
+	}
+
+	@Test
+	public void rotateAboutAxis() {
+		Rotation3D r = Rotation3D.about(Vector3D.valueOf(0, 0, 2), Math.PI/2);
+		assertVectorEquals(Vector3D.valueOf(0, 1, 0), r.apply(Vector3D.valueOf(1, 0, 0)));
+		assertVectorEquals(Vector3D.valueOf(-1, 0, 3), r.apply(Vector3D.valueOf(0, 1, 3)));
+		assertEquals(Math.PI/2, r.angle(), precision);
+		assertVectorEquals(Vector3D.valueOf(0, 0, 1), r.axis());
+	}
+
+	@Test
+	public void composition() {
+		Rotation3D aboutZ = Rotation3D.about(Vector3D.valueOf(0, 0, 1), Math.PI/2);
+		Rotation3D aboutX = Rotation3D.about(Vector3D.valueOf(1, 0, 0), Math.PI/2);
+		Vector3D v = Vector3D.valueOf(1, 2, 3);
+		assertVectorEquals(aboutX.apply(aboutZ.apply(v)), aboutZ.then(aboutX).apply(v));
+		assertVectorEquals(v, aboutZ.then(aboutZ.inverse()).apply(v));
+	}
+
+	@Test
+	public void between() {
+		Vector3D from = Vector3D.valueOf(1, 2, 3);
+		Vector3D to = Vector3D.valueOf(-2, 0, 1);
+		Vector3D rotated = Rotation3D.between(from, to).apply(from);
+		assertVectorEquals(to.normalized(), rotated.normalized());
+		assertEquals(from.magnitude(), rotated.magnitude(), precision);
+
+		Vector3D opposite = Rotation3D.between(from, from.negative()).apply(from);
+		assertVectorEquals(from.negative(), opposite);
+	}
+
+	@Test
+	public void slerp() {
+		Rotation3D start = Rotation3D.identity();
+		Rotation3D end = Rotation3D.about(Vector3D.valueOf(0, 1, 0), 2.0);
+		Rotation3D half = start.slerp(end, 0.5);
+		assertEquals(1.0, half.angle(), precision);
+		assertVectorEquals(Vector3D.valueOf(0, 1, 0), half.axis());
+	}
+
+	@Test
+	public void matrixAndBulk() {
+		Rotation3D r = Rotation3D.about(Vector3D.valueOf(1, -1, 2), 0.7);
+		Vector3DArray points = Vector3DArray.valueOf(
+				Vector3D.valueOf(1, 2, 3), Vector3D.valueOf(-4, 0, 0.5));
+		Vector3DArray rotated = Vector3DArray.ofSize(2);
+		r.apply(points, rotated);
+		for (int i = 0; i < points.size(); i++) {
+			assertVectorEquals(r.apply(points.get(i)), rotated.get(i));
+			assertVectorEquals(r.apply(points.get(i)), r.toMatrix().times(points.get(i)));
+		}
+	}
+
+	@Test
+	public void bulkIdenticalToSingle() {
+		Rotation3D r = Rotation3D.about(Vector3D.valueOf(0.3, -1, 2), 2.1);
+		Random random = new Random(3);
+		Vector3DArray points = Vector3DArray.ofSize(1000);
+		for (int i = 0; i < points.size(); i++) {
+			points.set(i, random.nextGaussian(), random.nextGaussian(),
+					random.nextGaussian());
+		}
+		Vector3DArray rotated = points.copy();
+		r.apply(rotated, rotated);
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(r.apply(points.get(i)), rotated.get(i));
+		}
+	}
+}
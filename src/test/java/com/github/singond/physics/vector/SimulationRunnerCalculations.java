@@ -0,0 +1,114 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SimulationRunnerCalculations {
+
+	/**
+	 * Runs a parameter sweep of one-dimensional harmonic oscillators
+	 * with different angular frequencies and checks each result
+	 * against the exact solution.
+	 */
+	@Test
+	public void oscillatorSweep() throws InterruptedException {
+		final int systems = 1000;
+		final double[] omega2 = new double[systems];
+		for (int s = 0; s < systems; s++) {
+			omega2[s] = 1 + s / 100.0;
+		}
+		SimulationRunner runner = new SimulationRunner(systems, 1, 1,
+				(first, count, time, position, velocity, acceleration) -> {
+			for (int i = 0; i < count; i++) {
+				acceleration[i] = -omega2[first + i] * position[i];
+			}
+		});
+		runner.setInitializer((system, state) ->
+				state.setPosition(0, ArrayVector.valueOf(1)));
+		runner.setStep(0.001);
+		runner.setBatchSize(64);
+		runner.setCheckpointInterval(400);
+
+		ConcurrentMap<Integer, SystemState> results = new ConcurrentHashMap<>();
+		AtomicInteger checkpoints = new AtomicInteger();
+		runner.run(1000, new SimulationListener() {
+			@Override
+			public void checkpoint(int system, long step, SystemState state) {
+				checkpoints.incrementAndGet();
+			}
+
+			@Override
+			public void finished(int system, SystemState state) {
+				results.put(system, state);
+			}
+		});
+
+		assertEquals(systems, results.size());
+		assertEquals(2 * systems, checkpoints.get());
+		for (int s = 0; s < systems; s++) {
+			SystemState state = results.get(s);
+			assertEquals(1, state.time(), 1e-9);
+			double expected = Math.cos(Math.sqrt(omega2[s]));
+			assertEquals(expected, state.getPosition(0, 0), 1e-10);
+		}
+	}
+
+	@Test
+	public void initialTime() throws InterruptedException {
+		SimulationRunner runner = new SimulationRunner(10, 1, 1,
+				(first, count, time, position, velocity, acceleration) -> {});
+		runner.setInitializer((system, state) -> state.setTime(5));
+		runner.setStep(0.5);
+		runner.setBatchSize(4);
+		ConcurrentMap<Integer, SystemState> results = new ConcurrentHashMap<>();
+		runner.run(4, (system, state) -> results.put(system, state));
+		assertEquals(10, results.size());
+		for (SystemState state : results.values()) {
+			assertEquals(7, state.time(), 0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroCheckpointInterval() {
+		new SimulationRunner(1, 1, 1,
+				(first, count, time, position, velocity, acceleration) -> {})
+				.setCheckpointInterval(0);
+	}
+
+	@Test
+	public void interruptedBatch() {
+		SimulationRunner runner = new SimulationRunner(1, 1, 1,
+				(first, count, time, position, velocity, acceleration) -> {});
+		runner.setCheckpointInterval(10);
+		AtomicInteger finished = new AtomicInteger();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			runner.run(100, executor, new SimulationListener() {
+				@Override
+				public void checkpoint(int system, long step, SystemState state) {
+					Thread.currentThread().interrupt();
+				}
+
+				@Override
+				public void finished(int system, SystemState state) {
+					finished.incrementAndGet();
+				}
+			});
+			fail("Interrupted simulation completed normally");
+		} catch (InterruptedException e) {
+			assertTrue(e.getMessage().contains("after 10 steps"));
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(0, finished.get());
+	}
+}
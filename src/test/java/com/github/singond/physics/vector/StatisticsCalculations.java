@@ -0,0 +1,73 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StatisticsCalculations {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void smallSample() {
+		VectorStatistics stats = new VectorStatistics(2, 10, 2);
+		stats.accept(ArrayVector.valueOf(1, 2));
+		stats.accept(ArrayVector.valueOf(3, 6));
+		stats.accept(ArrayVector.valueOf(5, 1));
+		assertEquals(3, stats.count());
+		assertEquals(ArrayVector.valueOf(3, 3), stats.mean());
+		assertEquals(4, stats.variance(0), DELTA);
+		assertEquals(7, stats.variance(1), DELTA);
+		assertEquals(-1, stats.covariance(0, 1), DELTA);
+		assertEquals(-1, stats.covariance(1, 0), DELTA);
+		assertEquals(ArrayVector.valueOf(1, 1), stats.min());
+		assertEquals(ArrayVector.valueOf(5, 6), stats.max());
+		assertArrayEquals(new long[] {1, 2, 0}, stats.magnitudeHistogram());
+	}
+
+	@Test
+	public void largeOffset() {
+		VectorStatistics stats = new VectorStatistics(3);
+		double offset = 1e9;
+		for (int i = 0; i < 1000; i++) {
+			stats.accept(Vector3D.valueOf(offset + (i % 2), offset, offset - (i % 2)));
+		}
+		assertEquals(0.25 * 1000 / 999, stats.variance(0), DELTA);
+		assertEquals(0, stats.variance(1), DELTA);
+		assertEquals(-0.25 * 1000 / 999, stats.covariance(0, 2), DELTA);
+	}
+
+	@Test
+	public void combineEqualsSequential() {
+		Random random = new Random(5);
+		List<Vector> vectors = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			vectors.add(Vector3D.valueOf(random.nextGaussian(),
+					2 * random.nextGaussian() + 1, random.nextDouble()));
+		}
+		VectorStatistics sequential = new VectorStatistics(3, 5, 10);
+		vectors.forEach(sequential);
+		VectorStatistics parallel = vectors.parallelStream().collect(
+				() -> new VectorStatistics(3, 5, 10),
+				VectorStatistics::accept,
+				VectorStatistics::combine);
+		assertEquals(sequential.count(), parallel.count());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(sequential.mean(i), parallel.mean(i), DELTA);
+			for (int j = 0; j < 3; j++) {
+				assertEquals(sequential.covariance(i, j),
+						parallel.covariance(i, j), DELTA);
+			}
+		}
+		assertEquals(sequential.min(), parallel.min());
+		assertEquals(sequential.max(), parallel.max());
+		assertArrayEquals(sequential.magnitudeHistogram(),
+				parallel.magnitudeHistogram());
+		assertEquals(4, parallel.variance(1), 0.2);
+	}
+}
@@ -0,0 +1,106 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ToleranceCalculations {
+
+	@Test
+	public void equalsWithin() {
+		Vector a = Vector3D.valueOf(0.1 + 0.2, 1, 1e10);
+		Vector b = ArrayVector.valueOf(0.3, 1, 1e10 + 1);
+		assertNotEquals(a, b);
+		assertFalse(a.equalsWithin(b, 1e-12, 0));
+		assertTrue(a.equalsWithin(b, 1e-12, 1e-9));
+		assertTrue(b.equalsWithin(a, 1e-12, 1e-9));
+		assertTrue(a.equalsWithin(b, 2, 0));
+		assertFalse(a.equalsWithin(ArrayVector.valueOf(0.3, 1), 1, 1));
+		assertFalse(Vector3D.valueOf(Double.NaN, 0, 0)
+				.equalsWithin(Vector3D.valueOf(Double.NaN, 0, 0), 1, 1));
+		assertFalse(Vector3D.valueOf(Double.POSITIVE_INFINITY, 0, 0)
+				.equalsWithin(Vector3D.valueOf(1, 0, 0), 0, 0.5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeTolerance() {
+		Vector3D.valueOf(1, 2, 3).equalsWithin(Vector3D.valueOf(1, 2, 3), -1, 0);
+	}
+
+	@Test
+	public void quantizedLookup() {
+		double cell = 1e-6;
+		Map<QuantizedVectorKey, String> cache = new HashMap<>();
+		Vector stored = Vector3D.valueOf(1, 2, 3);
+		cache.put(QuantizedVectorKey.of(stored, cell), "result");
+		Vector query = stored.times(1 + 1e-15);
+		String found = null;
+		for (QuantizedVectorKey key : QuantizedVectorKey.of(query, cell).adjacentKeys()) {
+			if (cache.containsKey(key)) {
+				found = cache.get(key);
+			}
+		}
+		assertEquals("result", found);
+		assertEquals(27, QuantizedVectorKey.of(query, cell).adjacentKeys().size());
+		assertEquals(QuantizedVectorKey.of(Vector3D.valueOf(0.5, -0.5, 0), 1),
+				QuantizedVectorKey.of(Vector3D.valueOf(0.9, -0.1, 0.99), 1));
+		assertEquals(-1, QuantizedVectorKey.of(Vector3D.valueOf(0.5, -0.5, 0), 1).cell(1));
+	}
+
+	@Test
+	public void arrays() {
+		Vector3DArray a = Vector3DArray.ofSize(100);
+		Vector3DArray b = Vector3DArray.ofSize(100);
+		for (int i = 0; i < 100; i++) {
+			a.set(i, i * 0.1, i * 0.2, i * 0.3);
+			b.set(i, i / 10.0, i / 5.0, i * 3 / 10.0);
+		}
+		assertTrue(a.equalsWithin(b, 0, 1e-15));
+		b.set(42, 0, 0, 0);
+		assertEquals(42, a.mismatchWithin(b, 0, 1e-15));
+		assertFalse(a.equalsWithin(Vector3DArray.ofSize(3), 1, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void arraySizeMismatchWithNegativeTolerance() {
+		Vector3DArray.ofSize(2).equalsWithin(Vector3DArray.ofSize(3), -1, 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void tooManyAdjacentKeys() {
+		QuantizedVectorKey.of(ArrayVector.valueOf(new double[20]), 1).adjacentKeys();
+	}
+
+	@Test
+	public void quantizedRangeBoundary() {
+		double largest = Math.nextDown(0x1p63);
+		for (double c : new double[] {largest, -largest}) {
+			QuantizedVectorKey key = QuantizedVectorKey.of(Vector3D.valueOf(c, 0, 0), 1);
+			assertEquals((long) c, key.cell(0));
+			for (QuantizedVectorKey neighbour : key.adjacentKeys()) {
+				assertTrue(Math.abs(neighbour.cell(0) - key.cell(0)) <= 1);
+			}
+		}
+		for (double c : new double[] {0x1p63, -0x1p63, 1e19}) {
+			try {
+				QuantizedVectorKey.of(Vector3D.valueOf(c, 0, 0), 1);
+				fail("Quantized out-of-range component " + c);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			QuantizedVectorKey.of(Vector3D.valueOf(1e10, 0, 0), 1e-10);
+			fail("Quantized out-of-range vector");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class Vector3DListCalculations {
+
+	@Test
+	public void listOperations() {
+		Vector3DList list = new Vector3DList(1);
+		List<Vector3D> reference = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Vector3D v = Vector3D.valueOf(i, 2 * i, -i);
+			list.add(v);
+			reference.add(v);
+		}
+		list.add(5, Vector3D.valueOf(1, 1, 1));
+		reference.add(5, Vector3D.valueOf(1, 1, 1));
+		list.remove(50);
+		reference.remove(50);
+		list.subList(10, 20).clear();
+		reference.subList(10, 20).clear();
+		assertEquals(Vector3D.valueOf(-6, -12, 6),
+				list.set(7, Vector3D.valueOf(0, 0, 0)).times(-1));
+		reference.set(7, Vector3D.valueOf(0, 0, 0));
+		assertEquals(reference, list);
+		assertEquals(list, reference);
+		assertEquals(reference.hashCode(), list.hashCode());
+		assertEquals(reference.indexOf(Vector3D.valueOf(30, 60, -30)),
+				list.indexOf(Vector3D.valueOf(30, 60, -30)));
+	}
+
+	@Test
+	public void bulkOperations() {
+		Vector3DList list = new Vector3DList(Arrays.asList(
+				Vector3D.valueOf(1, 2, 3), Vector3D.valueOf(4, 5, 6)));
+		list.translate(Vector3D.valueOf(1, 1, 1));
+		list.scale(2);
+		assertEquals(Vector3D.valueOf(14, 18, 22), list.sum());
+		assertEquals(10, list.getX(1), 0);
+		Vector3DArray array = list.toVector3DArray();
+		assertEquals(list, Vector3DList.copyOf(array));
+		double[] sum = new double[1];
+		list.forEachComponents((x, y, z) -> sum[0] += x + y + z);
+		assertEquals(54, sum[0], 0);
+	}
+
+	@Test
+	public void parallelStream() {
+		Vector3DList list = new Vector3DList();
+		for (int i = 0; i < 10000; i++) {
+			list.add(i, 1, 0);
+		}
+		assertTrue(list.spliterator().hasCharacteristics(
+				java.util.Spliterator.SUBSIZED));
+		assertEquals(Vector3D.valueOf(49995000, 10000, 0),
+				list.parallelStream().collect(VectorCollectors.summing(3)));
+		assertEquals(list, list.parallelStream().collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,114 @@
+package com.github.singond.physics.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class VectorArenaCalculations {
+
+	@Test
+	public void operationsStayInArena() {
+		Vector3D result;
+		try (VectorArena arena = VectorArena.open()) {
+			MutableVector3D a = arena.vector3D(1, 2, 3);
+			MutableVector3D sum = a.plus(Vector3D.valueOf(6, 7, -1));
+			MutableVector3D cross = a.crossProduct(Vector3D.valueOf(6, 7, -1));
+			assertEquals(Vector3D.valueOf(7, 9, 2), sum);
+			result = cross.toVector3D();
+		}
+		assertEquals(Vector3D.valueOf(-23, 19, -5), result);
+	}
+
+	@Test
+	public void vectorsAreReused() {
+		MutableVector3D first;
+		MutableArrayVector firstArray;
+		try (VectorArena arena = VectorArena.open(false)) {
+			first = arena.vector3D(1, 1, 1);
+			firstArray = arena.vector(1, 2, 3, 4);
+		}
+		try (VectorArena arena = VectorArena.open(false)) {
+			assertSame(first, arena.vector3D());
+			assertSame(firstArray, arena.vector(4));
+			assertEquals(ArrayVector.valueOf(0, 0, 0, 0), firstArray);
+		}
+	}
+
+	@Test
+	public void nestedArenas() {
+		try (VectorArena outer = VectorArena.open()) {
+			MutableArrayVector a = outer.vector(1, 2);
+			try (VectorArena inner = VectorArena.open()) {
+				MutableArrayVector b = inner.vector(3, 4);
+				a.add(b);
+			}
+			assertEquals(ArrayVector.valueOf(4, 6), a.toArrayVector());
+		}
+	}
+
+	@Test
+	public void debugDetectsUseAfterClose() {
+		MutableVector3D escaped;
+		try (VectorArena arena = VectorArena.open(true)) {
+			escaped = arena.vector3D(1, 2, 3);
+		}
+		try {
+			escaped.magnitude();
+			fail("Use after close not detected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void debugSurvivesReuseOfLevel() {
+		MutableVector3D escaped;
+		try (VectorArena arena = VectorArena.open(true)) {
+			escaped = arena.vector3D(1, 2, 3);
+		}
+		try (VectorArena arena = VectorArena.open(false)) {
+			arena.vector3D();
+			try {
+				escaped.magnitude();
+				fail("Use after close not detected");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void staleHandleDoesNotCloseNewerArena() {
+		VectorArena stale = VectorArena.open();
+		stale.close();
+		try (VectorArena current = VectorArena.open()) {
+			stale.close();
+			MutableVector3D v = current.vector3D(1, 2, 3);
+			assertEquals(Vector3D.valueOf(1, 2, 3), v);
+			try {
+				stale.vector3D();
+				fail("Stale arena handed out a vector");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void arrayCrossProductStaysInArena() {
+		MutableArrayVector first;
+		try (VectorArena arena = VectorArena.open(false)) {
+			MutableArrayVector a = arena.vector(1, 2, 3);
+			first = a.crossProduct(Vector3D.valueOf(6, 7, -1));
+			assertEquals(ArrayVector.valueOf(-23, 19, -5), first);
+			assertEquals(Vector3D.valueOf(1, 2, 3).hashCode(),
+					arena.vector3D(1, 2, 3).hashCode());
+		}
+		try (VectorArena arena = VectorArena.open(false)) {
+			MutableArrayVector a = arena.vector(1, 2, 3);
+			assertSame(first, a.crossProduct(Vector3D.valueOf(6, 7, -1)));
+		}
+	}
+}